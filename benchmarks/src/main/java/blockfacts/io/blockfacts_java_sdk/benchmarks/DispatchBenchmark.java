@@ -0,0 +1,106 @@
+package blockfacts.io.blockfacts_java_sdk.benchmarks;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Metrics.BlockfactsInMemoryMetrics;
+import blockfacts.io.blockfacts_java_sdk.v1.Metrics.BlockfactsMetrics;
+import blockfacts.io.blockfacts_java_sdk.v1.WebSocket.BlockfactsWebSocketClient;
+
+/**
+ * Throughput of received WebSocket messages, from onMessage of the client through the dispatcher to typed listeners.
+ * The stream benchmark cycles through a recorded mix of trades, normalized prices and bars, or through a journal
+ * recorded with BlockfactsJournalWriter when one is passed with -p journal=path. The other benchmarks repeat one message type.
+ * With metrics=memory the dispatcher records message rates and decode times into BlockfactsInMemoryMetrics.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+	@Param({ "false", "true" })
+	public boolean reuseModels;
+	
+	@Param({ "" })
+	public String journal;
+	
+	@Param({ "none", "memory" })
+	public String metrics;
+	
+	private BlockfactsWebSocketClient client;
+	private String[] stream;
+	private int next;
+	private String trade;
+	private String normalization;
+	private String ohlc;
+	private String snapshot;
+	private Object last;
+	
+	@Setup
+	public void Setup() throws Exception {
+		client = new BlockfactsWebSocketClient(new URI("ws://localhost/"));
+		client.dispatcher
+				.SetReuseModels(reuseModels)
+				.SetMetrics(metrics.equals("memory") ? new BlockfactsInMemoryMetrics() : BlockfactsMetrics.NOOP)
+				.AddTradeListener(model -> last = model)
+				.AddNormalizationListener(model -> last = model)
+				.AddOHLCListener(model -> last = model)
+				.AddSnapshotListener(models -> last = models);
+		
+		// Messages no listener takes, such as subscription confirmations of a journal, would be printed
+		List<String> messages = journal.isEmpty() ? Fixtures.Lines("stream.jsonl") : Fixtures.Journal(journal);
+		messages.removeIf(message -> !client.dispatcher.Dispatch(message));
+		if(messages.isEmpty()) throw new IllegalStateException("The stream has no trades, normalized prices, bars or snapshots");
+		stream = messages.toArray(new String[0]);
+		trade = Fixtures.Text("exchange-trade.json");
+		normalization = Fixtures.Text("blockfacts-price.json");
+		ohlc = Fixtures.Text("exchange-ohlc.json");
+		snapshot = Fixtures.Text("snapshot.json");
+	}
+	
+	@Benchmark
+	public Object Stream() {
+		client.onMessage(stream[next]);
+		if(++next == stream.length) next = 0;
+		return last;
+	}
+	
+	@Benchmark
+	public Object Trade() {
+		client.onMessage(trade);
+		return last;
+	}
+	
+	@Benchmark
+	public Object Normalization() {
+		client.onMessage(normalization);
+		return last;
+	}
+	
+	@Benchmark
+	public Object OHLC() {
+		client.onMessage(ohlc);
+		return last;
+	}
+	
+	@Benchmark
+	public Object Snapshot() {
+		client.onMessage(snapshot);
+		return last;
+	}
+}
@@ -0,0 +1,180 @@
+package blockfacts.io.blockfacts_java_sdk.benchmarks;
+
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+
+/**
+ * HttpClient which answers every request at once with the same recorded body, so that REST benchmarks measure
+ * the SDK from building the request to the deserialized model without any network access.
+ * The recorded body is handed to the subscriber of the request's body handler in one buffer, the way the JDK client does,
+ * so any body handler works, e.g. the InputStream handler of the SDK and the String handler of the baseline benchmarks.
+ */
+final class FixtureHttpClient extends HttpClient {
+	private static final HttpHeaders HEADERS = HttpHeaders.of(Collections.emptyMap(), (name, value) -> true);
+	
+	private final byte[] body;
+	
+	FixtureHttpClient(byte[] body) {
+		this.body = body;
+	}
+	
+	@Override
+	public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException, InterruptedException {
+		return new FixtureResponse<T>(request, Body(handler));
+	}
+	
+	@Override
+	public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+		return CompletableFuture.completedFuture(new FixtureResponse<T>(request, Body(handler)));
+	}
+	
+	@Override
+	public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler, HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+		return sendAsync(request, handler);
+	}
+	
+	private <T> T Body(HttpResponse.BodyHandler<T> handler) {
+		HttpResponse.BodySubscriber<T> subscriber = handler.apply(new HttpResponse.ResponseInfo() {
+			@Override
+			public int statusCode() {
+				return 200;
+			}
+			
+			@Override
+			public HttpHeaders headers() {
+				return HEADERS;
+			}
+			
+			@Override
+			public Version version() {
+				return Version.HTTP_1_1;
+			}
+		});
+		subscriber.onSubscribe(new Flow.Subscription() {
+			@Override
+			public void request(long n) {
+			}
+			
+			@Override
+			public void cancel() {
+			}
+		});
+		subscriber.onNext(Collections.singletonList(ByteBuffer.wrap(body)));
+		subscriber.onComplete();
+		
+		return subscriber.getBody().toCompletableFuture().join();
+	}
+	
+	@Override
+	public Optional<CookieHandler> cookieHandler() {
+		return Optional.empty();
+	}
+	
+	@Override
+	public Optional<Duration> connectTimeout() {
+		return Optional.empty();
+	}
+	
+	@Override
+	public Redirect followRedirects() {
+		return Redirect.NEVER;
+	}
+	
+	@Override
+	public Optional<ProxySelector> proxy() {
+		return Optional.empty();
+	}
+	
+	@Override
+	public SSLContext sslContext() {
+		return null;
+	}
+	
+	@Override
+	public SSLParameters sslParameters() {
+		return null;
+	}
+	
+	@Override
+	public Optional<Authenticator> authenticator() {
+		return Optional.empty();
+	}
+	
+	@Override
+	public Version version() {
+		return Version.HTTP_1_1;
+	}
+	
+	@Override
+	public Optional<Executor> executor() {
+		return Optional.empty();
+	}
+	
+	private static final class FixtureResponse<T> implements HttpResponse<T> {
+		private final HttpRequest request;
+		private final T body;
+		
+		FixtureResponse(HttpRequest request, T body) {
+			this.request = request;
+			this.body = body;
+		}
+		
+		@Override
+		public int statusCode() {
+			return 200;
+		}
+		
+		@Override
+		public HttpRequest request() {
+			return request;
+		}
+		
+		@Override
+		public Optional<HttpResponse<T>> previousResponse() {
+			return Optional.empty();
+		}
+		
+		@Override
+		public HttpHeaders headers() {
+			return HEADERS;
+		}
+		
+		@Override
+		public T body() {
+			return body;
+		}
+		
+		@Override
+		public Optional<SSLSession> sslSession() {
+			return Optional.empty();
+		}
+		
+		@Override
+		public URI uri() {
+			return request.uri();
+		}
+		
+		@Override
+		public HttpClient.Version version() {
+			return HttpClient.Version.HTTP_1_1;
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package blockfacts.io.blockfacts_java_sdk.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import blockfacts.io.blockfacts_java_sdk.v1.WebSocket.BlockfactsJournalReader;
+
+/**
+ * Loads the recorded payloads under /fixtures, and scales them up into large responses of the same shape.
+ */
+final class Fixtures {
+	private Fixtures() {
+	}
+	
+	/**
+	 * @param name File name under /fixtures
+	 * @return Payload as a string
+	 */
+	static String Text(String name) {
+		return new String(Bytes(name), StandardCharsets.UTF_8).trim();
+	}
+	
+	/**
+	 * @param name File name under /fixtures
+	 * @return Payload as UTF-8 bytes
+	 */
+	static byte[] Bytes(String name) {
+		try (InputStream input = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+			if(input == null) throw new IllegalArgumentException("Unknown fixture: " + name);
+			return input.readAllBytes();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Loads the messages of a stream fixture, one message per line.
+	 * @param name File name under /fixtures
+	 * @return Messages in recorded order
+	 */
+	static List<String> Lines(String name) {
+		List<String> lines = new ArrayList<String>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(Fixtures.class.getResourceAsStream("/fixtures/" + name), StandardCharsets.UTF_8))) {
+			String line;
+			while((line = reader.readLine()) != null) {
+				if(!line.isEmpty()) lines.add(line);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		return lines;
+	}
+	
+	/**
+	 * Loads the messages of a journal recorded with BlockfactsJournalWriter, e.g. of a production feed.
+	 * @param journal Journal file or directory
+	 * @return Messages in recorded order
+	 */
+	static List<String> Journal(String journal) {
+		List<String> messages = new ArrayList<String>();
+		try (BlockfactsJournalReader reader = new BlockfactsJournalReader(Paths.get(journal))) {
+			while(reader.Next()) {
+				messages.add(reader.GetMessage());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		return messages;
+	}
+	
+	/**
+	 * Grows the first array of a payload, either the payload itself, its results or the included trades of a normalized price,
+	 * to the provided number of elements by repeating the recorded elements.
+	 * @param json Recorded payload
+	 * @param count Number of elements, or 0 to keep the payload as it is
+	 * @return Scaled payload
+	 */
+	static String Scale(String json, int count) {
+		if(count == 0) return json;
+		
+		JsonElement root = new JsonParser().parse(json);
+		JsonArray array = root.isJsonArray() ? root.getAsJsonArray() : FirstArray(root.getAsJsonObject());
+		int recorded = array.size();
+		for(int i = recorded; i < count; i++) {
+			array.add(array.get(i % recorded).deepCopy());
+		}
+		
+		return root.toString();
+	}
+	
+	private static JsonArray FirstArray(JsonObject object) {
+		for(String name : new String[] { "results", "included", "trades" }) {
+			if(object.has(name) && object.get(name).isJsonArray()) return object.getAsJsonArray(name);
+		}
+		
+		throw new IllegalArgumentException("Payload has no array to scale");
+	}
+}
@@ -0,0 +1,168 @@
+package blockfacts.io.blockfacts_java_sdk.benchmarks;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsHistoricalExchangeTradeColumnsModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsHistoricalExchangeTradesModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsHistoricalNormalizationColumnsModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsHistoricalNormalizationResultsModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsNormalizationModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsTradeModel;
+import blockfacts.io.blockfacts_java_sdk.v1.REST.BlockfactsRestClient;
+
+/**
+ * Time of a blocking REST call from building the request to the deserialized model, with the response body
+ * served from memory. Each endpoint is measured with its recorded response (records = 0) and with a large response
+ * whose trade list, page results or included trades are grown to the given number of records.
+ * The Baseline methods deserialize the same fixtures the way the SDK did before responses were streamed into the models:
+ * the body is read into a String, parsed into a JSON tree and bound by a new Gson instance.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RestDeserializationBenchmark {
+	private static final String API_URL = "https://api.blockfacts.io";
+	private static final Type TRADE_LIST = new TypeToken<List<BlockfactsTradeModel>>(){}.getType();
+	
+	@Param({ "0", "5000" })
+	public int records;
+	
+	private FixtureHttpClient specificTradeHttp;
+	private FixtureHttpClient historicalTradeHttp;
+	private FixtureHttpClient specificHistoricalHttp;
+	private FixtureHttpClient historicalHttp;
+	private FixtureHttpClient historicalOHLCVHttp;
+	private BlockfactsRestClient specificTradeData;
+	private BlockfactsRestClient historicalTradeData;
+	private BlockfactsRestClient specificHistoricalData;
+	private BlockfactsRestClient historicalData;
+	private BlockfactsRestClient historicalOHLCVData;
+	
+	@Setup
+	public void Setup() {
+		specificTradeHttp = Http("specific-trade-data.json");
+		historicalTradeHttp = Http("historical-trade-data.json");
+		specificHistoricalHttp = Http("specific-historical-data.json");
+		historicalHttp = Http("historical-data.json");
+		historicalOHLCVHttp = Http("historical-ohlcv-data.json");
+		
+		specificTradeData = Client(specificTradeHttp);
+		historicalTradeData = Client(historicalTradeHttp);
+		specificHistoricalData = Client(specificHistoricalHttp);
+		historicalData = Client(historicalHttp);
+		historicalOHLCVData = Client(historicalOHLCVHttp);
+	}
+	
+	@Benchmark
+	public List<BlockfactsTradeModel> SpecificTradeData() {
+		return specificTradeData.Exchanges.GetSpecificTradeData("BTC", "USD", "KRAKEN", "09.10.2020", "00:00:00");
+	}
+	
+	@Benchmark
+	public BlockfactsHistoricalExchangeTradesModel HistoricalTradeData() {
+		return historicalTradeData.Exchanges.GetHistoricalTradeData("BTC", "USD", "KRAKEN,COINBASE", "09.10.2020", "00:00:00", 60, 1);
+	}
+	
+	@Benchmark
+	public BlockfactsHistoricalExchangeTradeColumnsModel HistoricalTradeColumns() {
+		return historicalTradeData.Exchanges.GetHistoricalTradeColumns("BTC", "USD", "KRAKEN,COINBASE", "09.10.2020", "00:00:00", 60, 1);
+	}
+	
+	@Benchmark
+	public BlockfactsNormalizationModel SpecificHistoricalData() {
+		return specificHistoricalData.Blockfacts.GetSpecificHistoricalData("BTC", "USD", "09.10.2020", "00:00:00");
+	}
+	
+	@Benchmark
+	public BlockfactsHistoricalNormalizationResultsModel HistoricalData() {
+		return historicalData.Blockfacts.GetHistoricalData("BTC", "USD", "09.10.2020", "00:00:00", 60, 1);
+	}
+	
+	@Benchmark
+	public BlockfactsHistoricalNormalizationColumnsModel HistoricalDataColumns() {
+		return historicalData.Blockfacts.GetHistoricalDataColumns("BTC", "USD", "09.10.2020", "00:00:00", 60, 1);
+	}
+	
+	@Benchmark
+	public JsonObject HistoricalOHLCVData() {
+		return historicalOHLCVData.Blockfacts.GetHistoricalOHLCVData("BTC", "USD", "1m", "09.10.2020", "00:00:00", "09.10.2020", "01:40:00", 1);
+	}
+	
+	@Benchmark
+	public List<BlockfactsTradeModel> BaselineSpecificTradeData() throws IOException, InterruptedException {
+		return Baseline(specificTradeHttp, "/api/v1/exchanges/trades/specific?asset=BTC&denominator=USD&exchange=KRAKEN&date=09.10.2020&time=00:00:00", TRADE_LIST);
+	}
+	
+	@Benchmark
+	public BlockfactsHistoricalExchangeTradesModel BaselineHistoricalTradeData() throws IOException, InterruptedException {
+		return Baseline(historicalTradeHttp, "/api/v1/exchanges/trades/historical?asset=BTC&denominator=USD&exchange=KRAKEN,COINBASE&date=09.10.2020&time=00:00:00&interval=60&page=1", BlockfactsHistoricalExchangeTradesModel.class);
+	}
+	
+	@Benchmark
+	public BlockfactsNormalizationModel BaselineSpecificHistoricalData() throws IOException, InterruptedException {
+		return Baseline(specificHistoricalHttp, "/api/v1/blockfacts/price/specific?asset=BTC&denominator=USD&date=09.10.2020&time=00:00:00", BlockfactsNormalizationModel.class);
+	}
+	
+	@Benchmark
+	public BlockfactsHistoricalNormalizationResultsModel BaselineHistoricalData() throws IOException, InterruptedException {
+		return Baseline(historicalHttp, "/api/v1/blockfacts/price/historical?asset=BTC&denominator=USD&date=09.10.2020&time=00:00:00&interval=60&page=1", BlockfactsHistoricalNormalizationResultsModel.class);
+	}
+	
+	@Benchmark
+	public JsonObject BaselineHistoricalOHLCVData() throws IOException, InterruptedException {
+		return Baseline(historicalOHLCVHttp, "/api/v1/blockfacts/ohlcv?asset=BTC&denominator=USD&interval=1m&dateStart=09.10.2020&timeStart=00:00:00&dateEnd=09.10.2020&timeEnd=01:40:00&page=1", JsonObject.class);
+	}
+	
+	/**
+	 * Builds the request and deserializes the response body the way the endpoints did before responses were streamed into the models.
+	 */
+	private static <T> T Baseline(FixtureHttpClient http, String path, Type type) throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder()
+				.uri(URI.create(API_URL + path))
+				.header("Content-Type", "application/json")
+				.header("X-API-KEY", "benchmark")
+				.header("X-API-SECRET", "benchmark")
+				.build();
+		
+		HttpResponse<String> response = http.send(request, BodyHandlers.ofString());
+		return new Gson().fromJson(new JsonParser().parse(response.body()), type);
+	}
+	
+	private FixtureHttpClient Http(String fixture) {
+		return new FixtureHttpClient(Fixtures.Scale(Fixtures.Text(fixture), records).getBytes(StandardCharsets.UTF_8));
+	}
+	
+	private static BlockfactsRestClient Client(FixtureHttpClient http) {
+		return BlockfactsRestClient.NewBuilder("benchmark", "benchmark")
+				.SetHttpClient(http)
+				.Build();
+	}
+}
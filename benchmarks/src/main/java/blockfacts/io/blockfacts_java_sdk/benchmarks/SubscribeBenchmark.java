@@ -0,0 +1,116 @@
+package blockfacts.io.blockfacts_java_sdk.benchmarks;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.framing.Framedata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsChannelObject;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsSubscribeMessage;
+import blockfacts.io.blockfacts_java_sdk.v1.WebSocket.BlockfactsWebSocketClient;
+
+/**
+ * Time of building subscribe and unsubscribe messages for a number of exchange channels with a number of pairs each.
+ * The client methods are measured up to the frame they hand to the connection, and once more including the masked
+ * wire encoding. Serializing a BlockfactsSubscribeMessage with Gson, as done for SubscribeRaw, is measured for comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubscribeBenchmark {
+	@Param({ "1", "10" })
+	public int channels;
+	
+	@Param({ "10", "100" })
+	public int pairs;
+	
+	private final Gson gson = new Gson();
+	private final Draft_6455 draft = new Draft_6455();
+	private CapturingClient client;
+	private List<BlockfactsChannelObject> channelObjects;
+	private BlockfactsSubscribeMessage message;
+	
+	@Setup
+	public void Setup() throws Exception {
+		client = new CapturingClient();
+		client.key = "0123456789abcdef0123456789abcdef";
+		client.secret = "fedcba9876543210fedcba9876543210";
+		
+		String[] exchanges = { "KRAKEN", "COINBASE", "BITSTAMP", "BITFINEX", "GEMINI", "BINANCE", "HUOBI", "OKEX", "POLONIEX", "BITTREX" };
+		channelObjects = new ArrayList<BlockfactsChannelObject>();
+		for(int i = 0; i < channels; i++) {
+			ArrayList<String> channelPairs = new ArrayList<String>();
+			for(int j = 0; j < pairs; j++) {
+				channelPairs.add("A" + j + "-USD");
+			}
+			channelObjects.add(new BlockfactsChannelObject(exchanges[i % exchanges.length], channelPairs));
+		}
+		
+		message = new BlockfactsSubscribeMessage();
+		message.type = "subscribe";
+		message.snapshot = true;
+		message.id = "benchmark";
+		message.X_API_KEY = client.key;
+		message.X_API_SECRET = client.secret;
+		message.channels = channelObjects;
+	}
+	
+	@Benchmark
+	public Framedata Subscribe() {
+		client.Subscribe(channelObjects, true, "benchmark");
+		return client.frame;
+	}
+	
+	@Benchmark
+	public ByteBuffer SubscribeWire() {
+		client.Subscribe(channelObjects, true, "benchmark");
+		return draft.createBinaryFrame(client.frame);
+	}
+	
+	@Benchmark
+	public Framedata Unsubscribe() {
+		client.Unsubscribe(channelObjects);
+		return client.frame;
+	}
+	
+	@Benchmark
+	public String SubscribeGson() {
+		return gson.toJson(message);
+	}
+	
+	/**
+	 * Client which keeps the last frame instead of sending it.
+	 */
+	private static final class CapturingClient extends BlockfactsWebSocketClient {
+		Framedata frame;
+		
+		CapturingClient() throws Exception {
+			super(new URI("ws://localhost/"));
+		}
+		
+		@Override
+		public void sendFrame(Framedata framedata) {
+			this.frame = framedata;
+		}
+	}
+}
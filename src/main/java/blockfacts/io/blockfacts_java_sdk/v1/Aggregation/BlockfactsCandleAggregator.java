@@ -0,0 +1,291 @@
+package blockfacts.io.blockfacts_java_sdk.v1.Aggregation;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsOHLCModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsTradeModel;
+
+/**
+ * Builds OHLCV bars of several intervals at once from exchange trades, per exchange and pair.
+ * Bars are keyed by the exchange time of the trades, so trades may arrive out of order: open and close are the prices
+ * of the earliest and latest trade of the bar. A bar is emitted once the newest trade of its pair is later than
+ * the end of the bar plus the watermark, or when Advance is called with a later time. Trades for a bar which was
+ * already emitted are counted as late and dropped. Bars without trades are not emitted.
+ * The aggregator can be registered as a trade listener. It is synchronized, but built to be fed from one thread.
+ */
+public class BlockfactsCandleAggregator implements Consumer<BlockfactsTradeModel> {
+	private final BlockfactsInterval[] intervals;
+	private final int[] offsets;
+	private final int[] slotCounts;
+	private final int slots;
+	private final long watermark;
+	private final Consumer<BlockfactsOHLCModel> consumer;
+	private final HashMap<String, HashMap<String, Series>> series = new HashMap<String, HashMap<String, Series>>();
+	private final List<Series> seriesList = new ArrayList<Series>();
+	private long received;
+	private long late;
+	private long emitted;
+	
+	/**
+	 * Creates a candle aggregator.
+	 * @param intervals Intervals to build bars for
+	 * @param watermark How long after the end of a bar late trades are still added to it
+	 * @param consumer Receives every bar once it is closed, as a new model
+	 */
+	public BlockfactsCandleAggregator(List<BlockfactsInterval> intervals, Duration watermark, Consumer<BlockfactsOHLCModel> consumer) {
+		if(intervals.isEmpty()) throw new IllegalArgumentException("At least one interval is required");
+		
+		this.intervals = intervals.toArray(new BlockfactsInterval[0]);
+		this.watermark = watermark.toMillis();
+		this.consumer = consumer;
+		this.offsets = new int[this.intervals.length];
+		this.slotCounts = new int[this.intervals.length];
+		
+		int total = 0;
+		for(int i = 0; i < this.intervals.length; i++) {
+			// Enough bars for the current one plus every earlier one which can still receive late trades
+			offsets[i] = total;
+			slotCounts[i] = (int) Math.min(64, this.watermark / this.intervals[i].GetMillis() + 2);
+			total += slotCounts[i];
+		}
+		this.slots = total;
+	}
+	
+	/**
+	 * Adds a trade to the bars of its exchange and pair.
+	 * @param trade Exchange trade
+	 */
+	@Override
+	public synchronized void accept(BlockfactsTradeModel trade) {
+		long time = trade.epochExchangeTime;
+		if(time <= 0 || trade.exchange == null || trade.pair == null) return;
+		
+		received++;
+		Series bars = Series(trade.exchange, trade.pair);
+		boolean dropped = false;
+		
+		for(int i = 0; i < intervals.length; i++) {
+			int slot = Find(bars, i, time);
+			if(slot < 0) {
+				dropped = true;
+				continue;
+			}
+			
+			double price = trade.price;
+			if(bars.count[slot] == 0) {
+				bars.open[slot] = bars.high[slot] = bars.low[slot] = bars.close[slot] = price;
+				bars.firstTime[slot] = bars.lastTime[slot] = time;
+			} else {
+				if(time < bars.firstTime[slot]) {
+					bars.firstTime[slot] = time;
+					bars.open[slot] = price;
+				}
+				if(time >= bars.lastTime[slot]) {
+					bars.lastTime[slot] = time;
+					bars.close[slot] = price;
+				}
+				if(price > bars.high[slot]) bars.high[slot] = price;
+				if(price < bars.low[slot]) bars.low[slot] = price;
+			}
+			bars.volume[slot] += trade.denominatorSize;
+			bars.baseVolume[slot] += trade.tradeSize;
+			bars.count[slot]++;
+		}
+		
+		if(dropped) late++;
+		if(time > bars.maxTime) {
+			bars.maxTime = time;
+			if(time >= bars.nextCloseAt) Close(bars, time);
+		}
+	}
+	
+	/**
+	 * Closes the bars of all pairs which ended before the given time minus the watermark, also for pairs without new trades.
+	 * Usually called on a timer with the current time.
+	 * @param epochMillis Current time in milliseconds since the epoch
+	 * @return Number of emitted bars
+	 */
+	public synchronized int Advance(long epochMillis) {
+		long before = emitted;
+		for(Series bars : seriesList) {
+			if(epochMillis >= bars.nextCloseAt) Close(bars, epochMillis);
+		}
+		
+		return (int) (emitted - before);
+	}
+	
+	/**
+	 * Emits all open bars, e.g. before shutting down. Trades for these bars which arrive later are counted as late.
+	 * @return Number of emitted bars
+	 */
+	public synchronized int Flush() {
+		return Advance(Long.MAX_VALUE - watermark);
+	}
+	
+	/**
+	 * @return Number of trades received
+	 */
+	public synchronized long GetReceived() {
+		return received;
+	}
+	
+	/**
+	 * @return Number of trades which arrived after one of their bars had been emitted
+	 */
+	public synchronized long GetLate() {
+		return late;
+	}
+	
+	/**
+	 * @return Number of bars emitted
+	 */
+	public synchronized long GetEmitted() {
+		return emitted;
+	}
+	
+	/**
+	 * Returns the slot of the bar the time belongs to, starting a new bar if needed, or -1 if the bar was already emitted.
+	 */
+	private int Find(Series bars, int interval, long time) {
+		int offset = offsets[interval];
+		int count = slotCounts[interval];
+		
+		for(int slot = offset; slot < offset + count; slot++) {
+			if(bars.count[slot] > 0 && time >= bars.start[slot] && time < bars.end[slot]) return slot;
+		}
+		
+		BlockfactsInterval length = intervals[interval];
+		long start = length.Start(time);
+		if(start < bars.closedThrough[interval]) return -1;
+		
+		int slot = offset + (int) Math.floorMod(length.Index(start), (long) count);
+		if(bars.count[slot] > 0) {
+			// The slot still holds an earlier bar, which can only happen after a jump in time
+			if(bars.start[slot] > start) return -1;
+			Emit(bars, interval, slot);
+		}
+		
+		bars.start[slot] = start;
+		bars.end[slot] = length.End(start);
+		bars.nextCloseAt = Math.min(bars.nextCloseAt, bars.end[slot] + watermark);
+		return slot;
+	}
+	
+	/**
+	 * Emits the bars which ended before the given time minus the watermark, oldest first.
+	 */
+	private void Close(Series bars, long now) {
+		long nextCloseAt = Long.MAX_VALUE;
+		
+		for(int interval = 0; interval < intervals.length; interval++) {
+			int offset = offsets[interval];
+			int count = slotCounts[interval];
+			
+			for(;;) {
+				int oldest = -1;
+				for(int slot = offset; slot < offset + count; slot++) {
+					if(bars.count[slot] > 0 && bars.end[slot] + watermark <= now && (oldest < 0 || bars.start[slot] < bars.start[oldest])) oldest = slot;
+				}
+				if(oldest < 0) break;
+				Emit(bars, interval, oldest);
+			}
+			
+			for(int slot = offset; slot < offset + count; slot++) {
+				if(bars.count[slot] > 0) nextCloseAt = Math.min(nextCloseAt, bars.end[slot] + watermark);
+			}
+		}
+		
+		bars.nextCloseAt = nextCloseAt;
+	}
+	
+	private void Emit(Series bars, int interval, int slot) {
+		BlockfactsOHLCModel bar = new BlockfactsOHLCModel();
+		bar.exchange = bars.exchange;
+		bar.pair = bars.pair;
+		bar.interval = intervals[interval].GetCode();
+		bar.open = bars.open[slot];
+		bar.high = bars.high[slot];
+		bar.low = bars.low[slot];
+		bar.close = bars.close[slot];
+		bar.volume = bars.volume[slot];
+		bar.baseVolume = bars.baseVolume[slot];
+		bar.tradesCount = bars.count[slot];
+		bar.timestamp = bars.start[slot];
+		bar.exchangeOpenTime = bars.firstTime[slot];
+		bar.exchangeCloseTime = bars.lastTime[slot];
+		bar.date = LocalDateTime.ofEpochSecond(TimeUnit.MILLISECONDS.toSeconds(bars.start[slot]), 0, ZoneOffset.UTC);
+		
+		bars.closedThrough[interval] = Math.max(bars.closedThrough[interval], bars.end[slot]);
+		bars.count[slot] = 0;
+		bars.volume[slot] = 0;
+		bars.baseVolume[slot] = 0;
+		emitted++;
+		
+		consumer.accept(bar);
+	}
+	
+	private Series Series(String exchange, String pair) {
+		HashMap<String, Series> pairs = series.get(exchange);
+		if(pairs == null) {
+			pairs = new HashMap<String, Series>();
+			series.put(exchange, pairs);
+		}
+		
+		Series bars = pairs.get(pair);
+		if(bars == null) {
+			bars = new Series(exchange, pair, slots, intervals.length);
+			pairs.put(pair, bars);
+			seriesList.add(bars);
+		}
+		
+		return bars;
+	}
+	
+	/**
+	 * Open bars of one exchange and pair, stored in parallel arrays with a fixed range of slots per interval.
+	 */
+	private static final class Series {
+		final String exchange;
+		final String pair;
+		final long[] start;
+		final long[] end;
+		final long[] firstTime;
+		final long[] lastTime;
+		final long[] count;
+		final double[] open;
+		final double[] high;
+		final double[] low;
+		final double[] close;
+		final double[] volume;
+		final double[] baseVolume;
+		final long[] closedThrough;
+		long maxTime = Long.MIN_VALUE;
+		long nextCloseAt = Long.MAX_VALUE;
+		
+		Series(String exchange, String pair, int slots, int intervals) {
+			this.exchange = exchange;
+			this.pair = pair;
+			this.start = new long[slots];
+			this.end = new long[slots];
+			this.firstTime = new long[slots];
+			this.lastTime = new long[slots];
+			this.count = new long[slots];
+			this.open = new double[slots];
+			this.high = new double[slots];
+			this.low = new double[slots];
+			this.close = new double[slots];
+			this.volume = new double[slots];
+			this.baseVolume = new double[slots];
+			this.closedThrough = new long[intervals];
+			Arrays.fill(closedThrough, Long.MIN_VALUE);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package blockfacts.io.blockfacts_java_sdk.v1.Aggregation;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Candle intervals, named the way the BlockFacts OHLCV endpoints name them.
+ * Bars start at whole multiples of the interval in UTC, weeks start on Monday and months on the first day of the month.
+ * Reference: https://docs.blockfacts.io/?java#data-snapshot-ohlcv-blockfacts
+ */
+public enum BlockfactsInterval {
+	THIRTY_SECONDS("30s", TimeUnit.SECONDS.toMillis(30)),
+	ONE_MINUTE("1m", TimeUnit.MINUTES.toMillis(1)),
+	THREE_MINUTES("3m", TimeUnit.MINUTES.toMillis(3)),
+	FIVE_MINUTES("5m", TimeUnit.MINUTES.toMillis(5)),
+	FIFTEEN_MINUTES("15m", TimeUnit.MINUTES.toMillis(15)),
+	THIRTY_MINUTES("30m", TimeUnit.MINUTES.toMillis(30)),
+	ONE_HOUR("1h", TimeUnit.HOURS.toMillis(1)),
+	TWO_HOURS("2h", TimeUnit.HOURS.toMillis(2)),
+	FOUR_HOURS("4h", TimeUnit.HOURS.toMillis(4)),
+	SIX_HOURS("6h", TimeUnit.HOURS.toMillis(6)),
+	TWELVE_HOURS("12h", TimeUnit.HOURS.toMillis(12)),
+	ONE_DAY("1d", TimeUnit.DAYS.toMillis(1)),
+	ONE_WEEK("1w", TimeUnit.DAYS.toMillis(7)),
+	ONE_MONTH("1mo", TimeUnit.DAYS.toMillis(31));
+	
+	// 1970-01-01 was a Thursday, so the first week starting on Monday begins 4 days later
+	private static final long WEEK_OFFSET = TimeUnit.DAYS.toMillis(4);
+	
+	private final String code;
+	private final long millis;
+	
+	BlockfactsInterval(String code, long millis) {
+		this.code = code;
+		this.millis = millis;
+	}
+	
+	/**
+	 * @return Interval name used by the BlockFacts API (e.g. 1m or 4h)
+	 */
+	public String GetCode() {
+		return code;
+	}
+	
+	/**
+	 * @return Length of the interval in milliseconds, the longest month for ONE_MONTH
+	 */
+	public long GetMillis() {
+		return millis;
+	}
+	
+	/**
+	 * Returns the start of the bar which contains the given time.
+	 * @param epochMillis Time in milliseconds since the epoch
+	 * @return Start of the bar in milliseconds since the epoch
+	 */
+	public long Start(long epochMillis) {
+		switch(this) {
+			case ONE_WEEK:
+				return Math.floorDiv(epochMillis - WEEK_OFFSET, millis) * millis + WEEK_OFFSET;
+			case ONE_MONTH:
+				LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(epochMillis, TimeUnit.DAYS.toMillis(1)));
+				return date.withDayOfMonth(1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+			default:
+				return Math.floorDiv(epochMillis, millis) * millis;
+		}
+	}
+	
+	/**
+	 * Returns the end of the bar which starts at the given time.
+	 * @param start Start of the bar in milliseconds since the epoch
+	 * @return End of the bar (exclusive) in milliseconds since the epoch
+	 */
+	public long End(long start) {
+		if(this != ONE_MONTH) return start + millis;
+		
+		LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(start, TimeUnit.DAYS.toMillis(1)));
+		return date.plusMonths(1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+	}
+	
+	/**
+	 * Returns a number which grows by one from each bar to the next.
+	 * @param start Start of the bar in milliseconds since the epoch
+	 * @return Bar number
+	 */
+	long Index(long start) {
+		switch(this) {
+			case ONE_WEEK:
+				return Math.floorDiv(start - WEEK_OFFSET, millis);
+			case ONE_MONTH:
+				LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(start, TimeUnit.DAYS.toMillis(1)));
+				return (date.getYear() - 1970L) * 12 + date.getMonthValue() - 1;
+			default:
+				return Math.floorDiv(start, millis);
+		}
+	}
+	
+	/**
+	 * Returns the interval with the given BlockFacts name.
+	 * @param code Interval name (e.g. 30s, 1m, 1d or 1mo)
+	 * @return BlockfactsInterval
+	 */
+	public static BlockfactsInterval FromCode(String code) {
+		for(BlockfactsInterval interval : values()) {
+			if(interval.code.equals(code)) return interval;
+		}
+		
+		throw new IllegalArgumentException("Unknown interval: " + code);
+	}
+}
@@ -0,0 +1,356 @@
+package blockfacts.io.blockfacts_java_sdk.v1.Aggregation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsNormalizationIncludedExchangesModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsNormalizationModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsTradeModel;
+import blockfacts.io.blockfacts_java_sdk.v1.REST.BlockfactsEndpoints;
+
+/**
+ * Computes normalized prices locally from exchange trades, updated on every trade.
+ * For every pair, the trades of the whitelisted exchanges within the window are kept. Exchanges whose volume-weighted price
+ * deviates from the median of all exchanges by more than the allowed deviation are excluded as outliers, and the normalized
+ * price is the volume-weighted price of the trades of the remaining exchanges. If every exchange is an outlier,
+ * the normalized price is the median itself.
+ * This follows the inclusion and outlier rules BlockFacts publishes, but not the exact server algorithm,
+ * so local prices are close to the server's normalized prices rather than identical.
+ * The consumer receives the same model instance for a pair on every update, so it must copy what it wants to keep.
+ */
+public class BlockfactsNormalizationEngine implements Consumer<BlockfactsTradeModel> {
+	public static final String ALGORITHM = "LOCAL-VWAP-MEDIAN";
+	
+	private static final String BLOCKFACTS_EXCHANGE = "BLOCKFACTS";
+	
+	private final Consumer<BlockfactsNormalizationModel> consumer;
+	private final HashMap<String, List<String>> whitelists = new HashMap<String, List<String>>();
+	private final HashMap<String, PairState> pairs = new HashMap<String, PairState>();
+	private long window = Duration.ofSeconds(10).toMillis();
+	private double maxDeviation = 0.02;
+	private boolean includeTrades;
+	
+	/**
+	 * Creates a normalization engine.
+	 * @param consumer Receives the updated normalized price of a pair after every trade of that pair
+	 */
+	public BlockfactsNormalizationEngine(Consumer<BlockfactsNormalizationModel> consumer) {
+		this.consumer = consumer;
+	}
+	
+	/**
+	 * Sets how long trades count towards the normalized price. Defaults to 10 seconds.
+	 * @param window Trade window
+	 * @return BlockfactsNormalizationEngine
+	 */
+	public synchronized BlockfactsNormalizationEngine SetWindow(Duration window) {
+		this.window = window.toMillis();
+		return this;
+	}
+	
+	/**
+	 * Sets how far the price of an exchange may be from the median of all exchanges before it is excluded. Defaults to 2%.
+	 * @param maxDeviation Allowed relative deviation (e.g. 0.02)
+	 * @return BlockfactsNormalizationEngine
+	 */
+	public synchronized BlockfactsNormalizationEngine SetMaxDeviation(double maxDeviation) {
+		this.maxDeviation = maxDeviation;
+		return this;
+	}
+	
+	/**
+	 * Sets whether the model lists the latest included and excluded trade of every exchange. Defaults to false,
+	 * which saves copying the trades on every update.
+	 * @param includeTrades Whether to fill included and excluded
+	 * @return BlockfactsNormalizationEngine
+	 */
+	public synchronized BlockfactsNormalizationEngine SetIncludeTrades(boolean includeTrades) {
+		this.includeTrades = includeTrades;
+		return this;
+	}
+	
+	/**
+	 * Sets the exchanges which take part in the normalization of a pair. Pairs without a whitelist use all exchanges.
+	 * @param pair Pair (e.g. BTC-USD)
+	 * @param exchanges Exchange names
+	 * @return BlockfactsNormalizationEngine
+	 */
+	public synchronized BlockfactsNormalizationEngine SetWhitelist(String pair, List<String> exchanges) {
+		whitelists.put(pair, new ArrayList<String>(exchanges));
+		pairs.remove(pair);
+		return this;
+	}
+	
+	/**
+	 * Loads the whitelists of the provided pairs from the BlockFacts API, blocking until they arrived.
+	 * Reference: https://docs.blockfacts.io/?java#exchanges-in-normalization
+	 * @param endpoints BlockFacts endpoint group
+	 * @param pairs Asset-denominator pairs (e.g. BTC-USD, ETH-USD)
+	 * @return BlockfactsNormalizationEngine
+	 * @throws CompletionException If the request failed, with the failure as its cause
+	 */
+	public BlockfactsNormalizationEngine LoadWhitelist(BlockfactsEndpoints endpoints, String pairs) {
+		JsonObject response = endpoints.GetExchangesInNormalizationAsync(pairs).join();
+		Gson gson = new Gson();
+		
+		for(Map.Entry<String, JsonElement> entry : response.entrySet()) {
+			if(!entry.getValue().isJsonObject()) continue;
+			
+			BlockfactsNormalizationIncludedExchangesModel whitelist = gson.fromJson(entry.getValue(), BlockfactsNormalizationIncludedExchangesModel.class);
+			if(whitelist.exchanges != null) SetWhitelist(whitelist.blockfactsPair != null ? whitelist.blockfactsPair : entry.getKey(), whitelist.exchanges);
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Adds a trade and publishes the updated normalized price of its pair.
+	 * @param trade Exchange trade
+	 */
+	@Override
+	public synchronized void accept(BlockfactsTradeModel trade) {
+		if(trade.pair == null || trade.exchange == null || trade.tradeSize <= 0 || trade.price <= 0) return;
+		
+		PairState state = State(trade.pair);
+		int exchange = state.ExchangeIndex(trade.exchange);
+		if(exchange < 0) return;
+		
+		long time = trade.epochExchangeTime;
+		state.Add(exchange, trade, time);
+		state.Evict(Math.max(time, state.maxTime) - window);
+		if(time > state.maxTime) state.maxTime = time;
+		
+		if(state.Normalize(maxDeviation, includeTrades)) {
+			state.model.timestamp = time;
+			state.model.normalizationTimestamp = System.currentTimeMillis();
+			consumer.accept(state.model);
+		}
+	}
+	
+	/**
+	 * @param pair Pair (e.g. BTC-USD)
+	 * @return Latest local normalized price of the pair, or NaN if there is none
+	 */
+	public synchronized double GetPrice(String pair) {
+		PairState state = pairs.get(pair);
+		return state == null || state.model.timestamp == 0 ? Double.NaN : state.model.price;
+	}
+	
+	/**
+	 * Compares a normalized price received from the server with the local price of the same pair.
+	 * @param serverPrice Normalized price message of the server
+	 * @return Relative difference of the local price to the server price, or NaN if there is no local price
+	 */
+	public double Deviation(BlockfactsNormalizationModel serverPrice) {
+		double local = GetPrice(serverPrice.pair);
+		return Double.isNaN(local) || serverPrice.price == 0 ? Double.NaN : (local - serverPrice.price) / serverPrice.price;
+	}
+	
+	private PairState State(String pair) {
+		PairState state = pairs.get(pair);
+		if(state == null) {
+			state = new PairState(pair, whitelists.get(pair));
+			pairs.put(pair, state);
+		}
+		
+		return state;
+	}
+	
+	/**
+	 * Trades of one pair within the window, in a ring buffer of primitive columns,
+	 * with running sums of price times size and size per exchange.
+	 */
+	private static final class PairState {
+		final BlockfactsNormalizationModel model = new BlockfactsNormalizationModel();
+		final boolean whitelisted;
+		String[] exchanges;
+		double[] priceVolume;
+		double[] volume;
+		int[] count;
+		BlockfactsTradeModel[] latest;
+		double[] prices;
+		double[] sortedPrices;
+		int exchangeCount;
+		double[] tradePrice = new double[256];
+		double[] tradeSize = new double[256];
+		long[] tradeTime = new long[256];
+		int[] tradeExchange = new int[256];
+		int head;
+		int size;
+		long maxTime = Long.MIN_VALUE;
+		
+		PairState(String pair, List<String> whitelist) {
+			model.exchange = BLOCKFACTS_EXCHANGE;
+			model.pair = pair;
+			model.algorithm = ALGORITHM;
+			whitelisted = whitelist != null;
+			
+			int capacity = whitelisted ? Math.max(1, whitelist.size()) : 8;
+			exchanges = new String[capacity];
+			priceVolume = new double[capacity];
+			volume = new double[capacity];
+			count = new int[capacity];
+			latest = new BlockfactsTradeModel[capacity];
+			prices = new double[capacity];
+			sortedPrices = new double[capacity];
+			if(whitelisted) {
+				for(String exchange : whitelist) {
+					exchanges[exchangeCount++] = exchange;
+				}
+			}
+		}
+		
+		int ExchangeIndex(String exchange) {
+			for(int i = 0; i < exchangeCount; i++) {
+				if(exchanges[i] == exchange || exchanges[i].equalsIgnoreCase(exchange)) return i;
+			}
+			if(whitelisted) return -1;
+			
+			if(exchangeCount == exchanges.length) {
+				int capacity = exchanges.length * 2;
+				exchanges = Arrays.copyOf(exchanges, capacity);
+				priceVolume = Arrays.copyOf(priceVolume, capacity);
+				volume = Arrays.copyOf(volume, capacity);
+				count = Arrays.copyOf(count, capacity);
+				latest = Arrays.copyOf(latest, capacity);
+				prices = new double[capacity];
+				sortedPrices = new double[capacity];
+			}
+			exchanges[exchangeCount] = exchange;
+			return exchangeCount++;
+		}
+		
+		void Add(int exchange, BlockfactsTradeModel trade, long time) {
+			if(size == tradePrice.length) Grow();
+			
+			int index = (head + size++) & (tradePrice.length - 1);
+			tradePrice[index] = trade.price;
+			tradeSize[index] = trade.tradeSize;
+			tradeTime[index] = time;
+			tradeExchange[index] = exchange;
+			
+			priceVolume[exchange] += trade.price * trade.tradeSize;
+			volume[exchange] += trade.tradeSize;
+			count[exchange]++;
+			
+			if(latest[exchange] == null) latest[exchange] = new BlockfactsTradeModel();
+			BlockfactsTradeModel copy = latest[exchange];
+			copy.exchange = trade.exchange;
+			copy.pair = trade.pair;
+			copy.price = trade.price;
+			copy.tradeSize = trade.tradeSize;
+			copy.denominatorSize = trade.denominatorSize;
+			copy.makerTaker = trade.makerTaker;
+			copy.tradeId = trade.tradeId;
+			copy.exchangeTime = trade.exchangeTime;
+			copy.blockfactsTime = trade.blockfactsTime;
+			copy.epochExchangeTime = trade.epochExchangeTime;
+		}
+		
+		/**
+		 * Removes the trades older than the given time. Trades arrive roughly in time order,
+		 * so a late trade stays until the trades before it in the buffer expire.
+		 */
+		void Evict(long before) {
+			int mask = tradePrice.length - 1;
+			while(size > 0 && tradeTime[head] < before) {
+				int exchange = tradeExchange[head];
+				if(--count[exchange] == 0) {
+					priceVolume[exchange] = 0;
+					volume[exchange] = 0;
+				} else {
+					priceVolume[exchange] -= tradePrice[head] * tradeSize[head];
+					volume[exchange] -= tradeSize[head];
+				}
+				
+				head = (head + 1) & mask;
+				size--;
+			}
+		}
+		
+		/**
+		 * Recomputes the normalized price from the exchange sums. Returns false if no exchange has trades in the window.
+		 */
+		boolean Normalize(double maxDeviation, boolean includeTrades) {
+			int active = 0;
+			for(int i = 0; i < exchangeCount; i++) {
+				if(count[i] == 0) continue;
+				prices[i] = priceVolume[i] / volume[i];
+				sortedPrices[active++] = prices[i];
+			}
+			if(active == 0) return false;
+			
+			Arrays.sort(sortedPrices, 0, active);
+			double median = (active & 1) == 1 ? sortedPrices[active / 2] : (sortedPrices[active / 2 - 1] + sortedPrices[active / 2]) / 2;
+			
+			double includedPriceVolume = 0;
+			double includedVolume = 0;
+			List<BlockfactsTradeModel> included = includeTrades ? new ArrayList<BlockfactsTradeModel>() : null;
+			List<BlockfactsTradeModel> excluded = includeTrades ? new ArrayList<BlockfactsTradeModel>() : null;
+			
+			for(int i = 0; i < exchangeCount; i++) {
+				if(count[i] == 0) continue;
+				
+				boolean outlier = Math.abs(prices[i] - median) > median * maxDeviation;
+				if(!outlier) {
+					includedPriceVolume += priceVolume[i];
+					includedVolume += volume[i];
+				}
+				if(includeTrades) (outlier ? excluded : included).add(Copy(latest[i]));
+			}
+			
+			// With an even number of exchanges far apart, every exchange can be an outlier of their median
+			model.price = includedVolume > 0 ? includedPriceVolume / includedVolume : median;
+			model.included = included;
+			model.excluded = excluded;
+			return true;
+		}
+		
+		private void Grow() {
+			int capacity = tradePrice.length * 2;
+			double[] prices = new double[capacity];
+			double[] sizes = new double[capacity];
+			long[] times = new long[capacity];
+			int[] exchanges = new int[capacity];
+			
+			for(int i = 0; i < size; i++) {
+				int index = (head + i) & (tradePrice.length - 1);
+				prices[i] = tradePrice[index];
+				sizes[i] = tradeSize[index];
+				times[i] = tradeTime[index];
+				exchanges[i] = tradeExchange[index];
+			}
+			
+			tradePrice = prices;
+			tradeSize = sizes;
+			tradeTime = times;
+			tradeExchange = exchanges;
+			head = 0;
+		}
+		
+		private static BlockfactsTradeModel Copy(BlockfactsTradeModel trade) {
+			BlockfactsTradeModel copy = new BlockfactsTradeModel();
+			copy.exchange = trade.exchange;
+			copy.pair = trade.pair;
+			copy.price = trade.price;
+			copy.tradeSize = trade.tradeSize;
+			copy.denominatorSize = trade.denominatorSize;
+			copy.makerTaker = trade.makerTaker;
+			copy.tradeId = trade.tradeId;
+			copy.exchangeTime = trade.exchangeTime;
+			copy.blockfactsTime = trade.blockfactsTime;
+			copy.epochExchangeTime = trade.epochExchangeTime;
+			return copy;
+		}
+	}
+}
@@ -0,0 +1,244 @@
+package blockfacts.io.blockfacts_java_sdk.v1.Metrics;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import blockfacts.io.blockfacts_java_sdk.v1.WebSocket.BlockfactsLatencyHistogram;
+
+/**
+ * Metrics kept in memory, for reading them from the application or exporting them to a monitoring system without an adapter.
+ * Counters are LongAdders, which spread concurrent updates over striped cells instead of contending on one value,
+ * so recording from many threads costs a few nanoseconds and never blocks.
+ * Request latencies are kept in a rolling histogram per endpoint, in microseconds.
+ */
+public class BlockfactsInMemoryMetrics implements BlockfactsMetrics {
+	private final ConcurrentHashMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<String, EndpointMetrics>();
+	private final ConcurrentHashMap<String, MessageMetrics> messageTypes = new ConcurrentHashMap<String, MessageMetrics>();
+	private final LongAdder reconnects = new LongAdder();
+	private final Duration window;
+	private final int slices;
+	
+	/**
+	 * Creates metrics whose latency histograms cover the last minute.
+	 */
+	public BlockfactsInMemoryMetrics() {
+		this(Duration.ofMinutes(1), 6);
+	}
+	
+	/**
+	 * Creates metrics whose latency histograms cover a rolling window.
+	 * @param window Length of the window of the latency histograms
+	 * @param slices Number of slices the window is split into
+	 */
+	public BlockfactsInMemoryMetrics(Duration window, int slices) {
+		this.window = window;
+		this.slices = slices;
+	}
+	
+	@Override
+	public void RecordRequest(String endpoint, int status, long latencyNanos, long bytes, long deserializeNanos) {
+		EndpointMetrics metrics = endpoints.get(endpoint);
+		if(metrics == null) metrics = endpoints.computeIfAbsent(endpoint, name -> new EndpointMetrics(window, slices));
+		
+		metrics.requests.increment();
+		metrics.bytes.add(bytes);
+		metrics.deserializeNanos.add(deserializeNanos);
+		metrics.latency.Record(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+		metrics.Status(status).increment();
+	}
+	
+	@Override
+	public void RecordMessage(String type) {
+		MessageType(type).messages.increment();
+	}
+	
+	@Override
+	public void RecordDecode(String type, long decodeNanos) {
+		MessageMetrics metrics = MessageType(type);
+		metrics.decoded.increment();
+		metrics.decodeNanos.add(decodeNanos);
+	}
+	
+	@Override
+	public void RecordReconnect() {
+		reconnects.increment();
+	}
+	
+	/**
+	 * @param endpoint Endpoint class and method (e.g. ExchangeEndpoints.GetHistoricalTradeData)
+	 * @return Metrics of the endpoint, or null if it was not called yet
+	 */
+	public EndpointMetrics GetEndpoint(String endpoint) {
+		return endpoints.get(endpoint);
+	}
+	
+	/**
+	 * @return Metrics of all endpoints called so far, by endpoint class and method
+	 */
+	public Map<String, EndpointMetrics> GetEndpoints() {
+		return Collections.unmodifiableMap(endpoints);
+	}
+	
+	/**
+	 * @param type Message type (e.g. BlockfactsMessageDispatcher.EXCHANGE_TRADE)
+	 * @return Metrics of the message type, or null if no such message was received yet
+	 */
+	public MessageMetrics GetMessageType(String type) {
+		return messageTypes.get(type);
+	}
+	
+	/**
+	 * @return Metrics of all message types received so far, by type
+	 */
+	public Map<String, MessageMetrics> GetMessageTypes() {
+		return Collections.unmodifiableMap(messageTypes);
+	}
+	
+	/**
+	 * @return Number of WebSocket reconnects
+	 */
+	public long GetReconnects() {
+		return reconnects.sum();
+	}
+	
+	private MessageMetrics MessageType(String type) {
+		MessageMetrics metrics = messageTypes.get(type);
+		return metrics != null ? metrics : messageTypes.computeIfAbsent(type, name -> new MessageMetrics());
+	}
+	
+	/**
+	 * Request metrics of one endpoint.
+	 */
+	public static final class EndpointMetrics {
+		private static final int MAX_STATUS = 599;
+		
+		private final LongAdder requests = new LongAdder();
+		private final LongAdder bytes = new LongAdder();
+		private final LongAdder deserializeNanos = new LongAdder();
+		private final AtomicReferenceArray<LongAdder> statuses = new AtomicReferenceArray<LongAdder>(MAX_STATUS + 1);
+		private final BlockfactsLatencyHistogram latency;
+		
+		EndpointMetrics(Duration window, int slices) {
+			this.latency = new BlockfactsLatencyHistogram(window, slices);
+		}
+		
+		/**
+		 * @return Number of requests, including failed ones
+		 */
+		public long GetRequests() {
+			return requests.sum();
+		}
+		
+		/**
+		 * @return Number of body bytes received
+		 */
+		public long GetBytes() {
+			return bytes.sum();
+		}
+		
+		/**
+		 * @return Total time spent reading and deserializing response bodies, in nanoseconds
+		 */
+		public long GetDeserializeNanos() {
+			return deserializeNanos.sum();
+		}
+		
+		/**
+		 * @param status HTTP status code, or 0 for requests which failed without a response
+		 * @return Number of responses with the status code
+		 */
+		public long GetStatusCount(int status) {
+			LongAdder count = status >= 0 && status <= MAX_STATUS ? statuses.get(status) : null;
+			return count == null ? 0 : count.sum();
+		}
+		
+		/**
+		 * @return Number of responses by status code, 0 standing for requests which failed without a response
+		 */
+		public Map<Integer, Long> GetStatusCounts() {
+			Map<Integer, Long> counts = new TreeMap<Integer, Long>();
+			for(int status = 0; status <= MAX_STATUS; status++) {
+				LongAdder count = statuses.get(status);
+				if(count != null) counts.put(status, count.sum());
+			}
+			
+			return counts;
+		}
+		
+		/**
+		 * @return Rolling histogram of the time until the response headers arrived, in microseconds
+		 */
+		public BlockfactsLatencyHistogram GetLatency() {
+			return latency;
+		}
+		
+		private LongAdder Status(int status) {
+			int index = status >= 0 && status <= MAX_STATUS ? status : 0;
+			LongAdder count = statuses.get(index);
+			if(count != null) return count;
+			
+			statuses.compareAndSet(index, null, new LongAdder());
+			return statuses.get(index);
+		}
+	}
+	
+	/**
+	 * Metrics of one WebSocket message type.
+	 */
+	public static final class MessageMetrics {
+		private final LongAdder messages = new LongAdder();
+		private final LongAdder decoded = new LongAdder();
+		private final LongAdder decodeNanos = new LongAdder();
+		private long sampledMessages;
+		private long sampledNanos = System.nanoTime();
+		
+		/**
+		 * @return Number of received messages
+		 */
+		public long GetMessages() {
+			return messages.sum();
+		}
+		
+		/**
+		 * Returns the message rate since the previous call, so that a reporter calling it periodically gets the rate of every period.
+		 * @return Messages per second since the previous call, or since the first message of the type on the first call
+		 */
+		public synchronized double GetRate() {
+			long now = System.nanoTime();
+			long total = messages.sum();
+			double rate = (total - sampledMessages) * 1e9 / Math.max(1, now - sampledNanos);
+			sampledMessages = total;
+			sampledNanos = now;
+			
+			return rate;
+		}
+		
+		/**
+		 * @return Number of decoded messages
+		 */
+		public long GetDecoded() {
+			return decoded.sum();
+		}
+		
+		/**
+		 * @return Total decode time in nanoseconds
+		 */
+		public long GetDecodeNanos() {
+			return decodeNanos.sum();
+		}
+		
+		/**
+		 * @return Mean decode time in nanoseconds, or 0 if nothing was decoded
+		 */
+		public double GetMeanDecodeNanos() {
+			long count = decoded.sum();
+			return count == 0 ? 0 : (double) decodeNanos.sum() / count;
+		}
+	}
+}
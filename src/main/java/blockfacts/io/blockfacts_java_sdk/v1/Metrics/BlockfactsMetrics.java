@@ -0,0 +1,53 @@
+package blockfacts.io.blockfacts_java_sdk.v1.Metrics;
+
+/**
+ * Receives measurements of the REST and WebSocket clients. Methods are called on the hot path of every request and message,
+ * from many threads at once, so implementations must be thread-safe and should not block or allocate.
+ * All methods do nothing by default, so an implementation only needs to override what it records.
+ * Without metrics the clients use NOOP and skip taking the timestamps as well.
+ */
+public interface BlockfactsMetrics {
+	/**
+	 * Metrics which record nothing. Default of all clients.
+	 */
+	BlockfactsMetrics NOOP = new BlockfactsMetrics() {
+	};
+	
+	/**
+	 * Message type of messages which are not data messages, such as subscription confirmations, pings and pongs.
+	 */
+	String OTHER = "other";
+	
+	/**
+	 * Records a REST request which received a response, or failed without one.
+	 * @param endpoint Endpoint class and method (e.g. ExchangeEndpoints.GetHistoricalTradeData)
+	 * @param status HTTP status code, or 0 if the request failed without a response
+	 * @param latencyNanos Time from sending the request until the response headers arrived
+	 * @param bytes Number of body bytes received
+	 * @param deserializeNanos Time spent reading and deserializing the body, which is parsed while it is streamed from the connection
+	 */
+	default void RecordRequest(String endpoint, int status, long latencyNanos, long bytes, long deserializeNanos) {
+	}
+	
+	/**
+	 * Records a received WebSocket message.
+	 * @param type Message type, one of the type constants of BlockfactsMessageDispatcher or OTHER
+	 */
+	default void RecordMessage(String type) {
+	}
+	
+	/**
+	 * Records the time spent decoding a WebSocket message into its model, before it is passed to the listeners.
+	 * Messages without a listener for their type are not decoded and not recorded.
+	 * @param type Message type, one of the type constants of BlockfactsMessageDispatcher
+	 * @param decodeNanos Decode time
+	 */
+	default void RecordDecode(String type, long decodeNanos) {
+	}
+	
+	/**
+	 * Records a reconnect of a WebSocket connection after it dropped.
+	 */
+	default void RecordReconnect() {
+	}
+}
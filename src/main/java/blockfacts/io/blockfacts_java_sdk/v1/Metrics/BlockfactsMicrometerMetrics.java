@@ -0,0 +1,127 @@
+package blockfacts.io.blockfacts_java_sdk.v1.Metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Publishes the metrics to a Micrometer registry. Micrometer is an optional dependency of the SDK,
+ * so it has to be on the classpath of the application for using this class.
+ * Meters are looked up once per endpoint, status code and message type and cached, so recording does not go through the registry.
+ * <ul>
+ * <li>blockfacts.rest.requests: Timer of the time until the response headers arrived, tagged with endpoint and status, with a percentile histogram</li>
+ * <li>blockfacts.rest.response.bytes: DistributionSummary of the body bytes received, tagged with endpoint</li>
+ * <li>blockfacts.rest.deserialize: Timer of reading and deserializing the body, tagged with endpoint</li>
+ * <li>blockfacts.ws.messages: Counter of received messages, tagged with type</li>
+ * <li>blockfacts.ws.decode: Timer of decoding messages, tagged with type</li>
+ * <li>blockfacts.ws.reconnects: Counter of reconnects</li>
+ * </ul>
+ */
+public class BlockfactsMicrometerMetrics implements BlockfactsMetrics {
+	private static final int MAX_STATUS = 599;
+	
+	private final MeterRegistry registry;
+	private final ConcurrentHashMap<String, EndpointMeters> endpoints = new ConcurrentHashMap<String, EndpointMeters>();
+	private final ConcurrentHashMap<String, Counter> messages = new ConcurrentHashMap<String, Counter>();
+	private final ConcurrentHashMap<String, Timer> decodes = new ConcurrentHashMap<String, Timer>();
+	private final Counter reconnects;
+	
+	/**
+	 * Creates metrics which register their meters in the provided registry.
+	 * @param registry Micrometer registry (e.g. Metrics.globalRegistry)
+	 */
+	public BlockfactsMicrometerMetrics(MeterRegistry registry) {
+		this.registry = registry;
+		this.reconnects = Counter.builder("blockfacts.ws.reconnects")
+				.description("WebSocket reconnects after the connection dropped")
+				.register(registry);
+	}
+	
+	@Override
+	public void RecordRequest(String endpoint, int status, long latencyNanos, long bytes, long deserializeNanos) {
+		EndpointMeters meters = endpoints.get(endpoint);
+		if(meters == null) meters = endpoints.computeIfAbsent(endpoint, name -> new EndpointMeters(registry, name));
+		
+		meters.Latency(status).record(latencyNanos, TimeUnit.NANOSECONDS);
+		meters.bytes.record(bytes);
+		meters.deserialize.record(deserializeNanos, TimeUnit.NANOSECONDS);
+	}
+	
+	@Override
+	public void RecordMessage(String type) {
+		Counter counter = messages.get(type);
+		if(counter == null) {
+			counter = messages.computeIfAbsent(type, name -> Counter.builder("blockfacts.ws.messages")
+					.description("Received WebSocket messages")
+					.tag("type", name)
+					.register(registry));
+		}
+		
+		counter.increment();
+	}
+	
+	@Override
+	public void RecordDecode(String type, long decodeNanos) {
+		Timer timer = decodes.get(type);
+		if(timer == null) {
+			timer = decodes.computeIfAbsent(type, name -> Timer.builder("blockfacts.ws.decode")
+					.description("Time spent decoding WebSocket messages")
+					.tag("type", name)
+					.register(registry));
+		}
+		
+		timer.record(decodeNanos, TimeUnit.NANOSECONDS);
+	}
+	
+	@Override
+	public void RecordReconnect() {
+		reconnects.increment();
+	}
+	
+	/**
+	 * Meters of one endpoint, with the latency timers created per status code on first use.
+	 */
+	private static final class EndpointMeters {
+		final MeterRegistry registry;
+		final String endpoint;
+		final AtomicReferenceArray<Timer> latencies = new AtomicReferenceArray<Timer>(MAX_STATUS + 1);
+		final DistributionSummary bytes;
+		final Timer deserialize;
+		
+		EndpointMeters(MeterRegistry registry, String endpoint) {
+			this.registry = registry;
+			this.endpoint = endpoint;
+			this.bytes = DistributionSummary.builder("blockfacts.rest.response.bytes")
+					.description("Body bytes received")
+					.baseUnit("bytes")
+					.tag("endpoint", endpoint)
+					.register(registry);
+			this.deserialize = Timer.builder("blockfacts.rest.deserialize")
+					.description("Time spent reading and deserializing response bodies")
+					.tag("endpoint", endpoint)
+					.register(registry);
+		}
+		
+		Timer Latency(int status) {
+			int index = status >= 0 && status <= MAX_STATUS ? status : 0;
+			Timer timer = latencies.get(index);
+			if(timer != null) return timer;
+			
+			// The registry returns the same timer for the same tags, so a lost race registers nothing twice
+			timer = Timer.builder("blockfacts.rest.requests")
+					.description("Time until the response headers arrived")
+					.tag("endpoint", endpoint)
+					.tag("status", String.valueOf(index))
+					.publishPercentileHistogram()
+					.register(registry);
+			latencies.set(index, timer);
+			
+			return timer;
+		}
+	}
+}
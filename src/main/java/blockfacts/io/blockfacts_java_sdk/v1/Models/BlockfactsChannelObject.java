@@ -3,7 +3,10 @@ package blockfacts.io.blockfacts_java_sdk.v1.Models;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.google.gson.annotations.SerializedName;
+
 public class BlockfactsChannelObject {
+	@SerializedName("name")
 	public String exchangeName;
     public List<String> pairs;
     
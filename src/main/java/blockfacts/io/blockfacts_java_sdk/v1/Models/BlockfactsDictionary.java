@@ -0,0 +1,56 @@
+package blockfacts.io.blockfacts_java_sdk.v1.Models;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Assigns small integer codes to repeated strings such as exchange names, pairs or maker/taker flags,
+ * so columnar models store every distinct string only once.
+ */
+public class BlockfactsDictionary {
+	private final HashMap<String, Integer> codes = new HashMap<String, Integer>();
+	private String[] values = new String[16];
+	private int size;
+	
+	/**
+	 * Returns the code of a string, adding it if it was not seen before.
+	 * @param value String to look up
+	 * @return Code of the string, or -1 for null
+	 */
+	public int Code(String value) {
+		if(value == null) return -1;
+		
+		Integer code = codes.get(value);
+		if(code != null) return code;
+		
+		if(size == values.length) values = Arrays.copyOf(values, size * 2);
+		values[size] = value;
+		codes.put(value, size);
+		return size++;
+	}
+	
+	/**
+	 * Returns the code of a string without adding it.
+	 * @param value String to look up
+	 * @return Code of the string, or -1 if it is not in the dictionary
+	 */
+	public int Find(String value) {
+		Integer code = value == null ? null : codes.get(value);
+		return code == null ? -1 : code;
+	}
+	
+	/**
+	 * @param code Code of a string
+	 * @return String with the code, or null for -1
+	 */
+	public String Get(int code) {
+		return code < 0 ? null : values[code];
+	}
+	
+	/**
+	 * @return Number of distinct strings
+	 */
+	public int Size() {
+		return size;
+	}
+}
@@ -0,0 +1,7 @@
+package blockfacts.io.blockfacts_java_sdk.v1.Models;
+
+public class BlockfactsHistoricalNormalizationColumnsModel {
+	public int page;
+    public int totalPages;
+    public BlockfactsNormalizationColumns results;
+}
@@ -0,0 +1,329 @@
+package blockfacts.io.blockfacts_java_sdk.v1.Models;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Normalized prices stored column by column in primitive arrays instead of one object per price.
+ * The included and excluded trades of all prices are stored in two trade columns which share the dictionary,
+ * and includedEnd and excludedEnd hold where the trades of each price end.
+ * Deserializing a JSON array of normalized prices into this type fills the columns directly, without creating models.
+ */
+@JsonAdapter(BlockfactsNormalizationColumns.Adapter.class)
+public class BlockfactsNormalizationColumns {
+	public final BlockfactsDictionary dictionary;
+	public final BlockfactsTradeColumns included;
+	public final BlockfactsTradeColumns excluded;
+	public int size;
+	public double[] price;
+	public long[] timestamp;
+	public long[] normalizationTimestamp;
+	public int[] exchange;
+	public int[] pair;
+	public int[] algorithm;
+	public int[] includedEnd;
+	public int[] excludedEnd;
+	
+	public BlockfactsNormalizationColumns() {
+		this(16);
+	}
+	
+	/**
+	 * Creates empty columns.
+	 * @param capacity Initial number of normalized prices
+	 */
+	public BlockfactsNormalizationColumns(int capacity) {
+		capacity = Math.max(1, capacity);
+		this.dictionary = new BlockfactsDictionary();
+		this.included = new BlockfactsTradeColumns(dictionary, capacity * 4);
+		this.excluded = new BlockfactsTradeColumns(dictionary, capacity);
+		this.price = new double[capacity];
+		this.timestamp = new long[capacity];
+		this.normalizationTimestamp = new long[capacity];
+		this.exchange = new int[capacity];
+		this.pair = new int[capacity];
+		this.algorithm = new int[capacity];
+		this.includedEnd = new int[capacity];
+		this.excludedEnd = new int[capacity];
+	}
+	
+	/**
+	 * Adds a normalized price with its included and excluded trades.
+	 * @param model Normalized price to add
+	 */
+	public void Add(BlockfactsNormalizationModel model) {
+		int i = Next();
+		price[i] = model.price;
+		timestamp[i] = model.timestamp;
+		normalizationTimestamp[i] = model.normalizationTimestamp;
+		exchange[i] = dictionary.Code(model.exchange);
+		pair[i] = dictionary.Code(model.pair);
+		algorithm[i] = dictionary.Code(model.algorithm);
+		
+		if(model.included != null) {
+			for(BlockfactsTradeModel trade : model.included) included.Add(trade);
+		}
+		if(model.excluded != null) {
+			for(BlockfactsTradeModel trade : model.excluded) excluded.Add(trade);
+		}
+		includedEnd[i] = included.size;
+		excludedEnd[i] = excluded.size;
+	}
+	
+	/**
+	 * Adds all normalized prices of other columns with their trades, e.g. to merge the pages of a historical query.
+	 * @param other Columns to add
+	 */
+	public void Append(BlockfactsNormalizationColumns other) {
+		int includedOffset = included.size;
+		int excludedOffset = excluded.size;
+		included.Append(other.included);
+		excluded.Append(other.excluded);
+		
+		for(int i = 0; i < other.size; i++) {
+			int row = Next();
+			price[row] = other.price[i];
+			timestamp[row] = other.timestamp[i];
+			normalizationTimestamp[row] = other.normalizationTimestamp[i];
+			exchange[row] = dictionary.Code(other.dictionary.Get(other.exchange[i]));
+			pair[row] = dictionary.Code(other.dictionary.Get(other.pair[i]));
+			algorithm[row] = dictionary.Code(other.dictionary.Get(other.algorithm[i]));
+			includedEnd[row] = includedOffset + other.includedEnd[i];
+			excludedEnd[row] = excludedOffset + other.excludedEnd[i];
+		}
+	}
+	
+	/**
+	 * Creates a normalized price model from a row, including its trades.
+	 * @param i Row index
+	 * @return BlockfactsNormalizationModel
+	 */
+	public BlockfactsNormalizationModel Get(int i) {
+		BlockfactsNormalizationModel model = new BlockfactsNormalizationModel();
+		model.exchange = dictionary.Get(exchange[i]);
+		model.pair = dictionary.Get(pair[i]);
+		model.price = price[i];
+		model.timestamp = timestamp[i];
+		model.normalizationTimestamp = normalizationTimestamp[i];
+		model.algorithm = dictionary.Get(algorithm[i]);
+		model.included = Trades(included, GetIncludedStart(i), includedEnd[i]);
+		model.excluded = Trades(excluded, GetExcludedStart(i), excludedEnd[i]);
+		return model;
+	}
+	
+	/**
+	 * @param i Row index
+	 * @return Row of the first included trade of the normalized price in included
+	 */
+	public int GetIncludedStart(int i) {
+		return i == 0 ? 0 : includedEnd[i - 1];
+	}
+	
+	/**
+	 * @param i Row index
+	 * @return Row of the first excluded trade of the normalized price in excluded
+	 */
+	public int GetExcludedStart(int i) {
+		return i == 0 ? 0 : excludedEnd[i - 1];
+	}
+	
+	/**
+	 * @param i Row index
+	 * @return Volume-weighted average price of the included trades of the normalized price, or NaN if there are none
+	 */
+	public double IncludedVwap(int i) {
+		return included.Vwap(GetIncludedStart(i), includedEnd[i]);
+	}
+	
+	/**
+	 * @param from First row (inclusive)
+	 * @param to Last row (exclusive)
+	 * @return Mean of the normalized prices of the rows, or NaN if there are none
+	 */
+	public double MeanPrice(int from, int to) {
+		if(from >= to) return Double.NaN;
+		
+		double sum = 0;
+		for(int i = from; i < to; i++) {
+			sum += price[i];
+		}
+		
+		return sum / (to - from);
+	}
+	
+	/**
+	 * @param from First row (inclusive)
+	 * @param to Last row (exclusive)
+	 * @return Lowest normalized price of the rows, or NaN if there are none
+	 */
+	public double MinPrice(int from, int to) {
+		if(from >= to) return Double.NaN;
+		
+		double min = price[from];
+		for(int i = from + 1; i < to; i++) {
+			min = Math.min(min, price[i]);
+		}
+		
+		return min;
+	}
+	
+	/**
+	 * @param from First row (inclusive)
+	 * @param to Last row (exclusive)
+	 * @return Highest normalized price of the rows, or NaN if there are none
+	 */
+	public double MaxPrice(int from, int to) {
+		if(from >= to) return Double.NaN;
+		
+		double max = price[from];
+		for(int i = from + 1; i < to; i++) {
+			max = Math.max(max, price[i]);
+		}
+		
+		return max;
+	}
+	
+	/**
+	 * Shrinks the columns to the number of normalized prices and trades.
+	 */
+	public void Trim() {
+		Resize(size);
+		included.Trim();
+		excluded.Trim();
+	}
+	
+	private static List<BlockfactsTradeModel> Trades(BlockfactsTradeColumns trades, int from, int to) {
+		List<BlockfactsTradeModel> list = new ArrayList<BlockfactsTradeModel>(to - from);
+		for(int i = from; i < to; i++) {
+			list.add(trades.Get(i));
+		}
+		
+		return list;
+	}
+	
+	private int Next() {
+		if(size == price.length) Resize(size * 2);
+		return size++;
+	}
+	
+	private void Resize(int capacity) {
+		capacity = Math.max(1, capacity);
+		price = Arrays.copyOf(price, capacity);
+		timestamp = Arrays.copyOf(timestamp, capacity);
+		normalizationTimestamp = Arrays.copyOf(normalizationTimestamp, capacity);
+		exchange = Arrays.copyOf(exchange, capacity);
+		pair = Arrays.copyOf(pair, capacity);
+		algorithm = Arrays.copyOf(algorithm, capacity);
+		includedEnd = Arrays.copyOf(includedEnd, capacity);
+		excludedEnd = Arrays.copyOf(excludedEnd, capacity);
+	}
+	
+	/**
+	 * Reads one normalized price object into a new row.
+	 */
+	private void Read(JsonReader in) throws IOException {
+		int i = Next();
+		exchange[i] = pair[i] = algorithm[i] = -1;
+		
+		in.beginObject();
+		while(in.hasNext()) {
+			String name = in.nextName();
+			if(in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				continue;
+			}
+			
+			switch(name) {
+				case "exchange": exchange[i] = dictionary.Code(in.nextString()); break;
+				case "pair": pair[i] = dictionary.Code(in.nextString()); break;
+				case "price": price[i] = in.nextDouble(); break;
+				case "timestamp": timestamp[i] = in.nextLong(); break;
+				case "normalizationTimestamp": normalizationTimestamp[i] = in.nextLong(); break;
+				case "algorithm": algorithm[i] = dictionary.Code(in.nextString()); break;
+				case "included": ReadTrades(in, included); break;
+				case "excluded": ReadTrades(in, excluded); break;
+				default: in.skipValue();
+			}
+		}
+		in.endObject();
+		
+		includedEnd[i] = included.size;
+		excludedEnd[i] = excluded.size;
+	}
+	
+	private static void ReadTrades(JsonReader in, BlockfactsTradeColumns trades) throws IOException {
+		in.beginArray();
+		while(in.hasNext()) {
+			trades.Read(in);
+		}
+		in.endArray();
+	}
+	
+	/**
+	 * Writes one row as a normalized price object.
+	 */
+	private void Write(JsonWriter out, int i) throws IOException {
+		out.beginObject();
+		out.name("exchange").value(dictionary.Get(exchange[i]));
+		out.name("pair").value(dictionary.Get(pair[i]));
+		out.name("price").value(price[i]);
+		out.name("included").beginArray();
+		for(int trade = GetIncludedStart(i); trade < includedEnd[i]; trade++) {
+			included.Write(out, trade);
+		}
+		out.endArray();
+		out.name("excluded").beginArray();
+		for(int trade = GetExcludedStart(i); trade < excludedEnd[i]; trade++) {
+			excluded.Write(out, trade);
+		}
+		out.endArray();
+		out.name("timestamp").value(timestamp[i]);
+		out.name("normalizationTimestamp").value(normalizationTimestamp[i]);
+		out.name("algorithm").value(dictionary.Get(algorithm[i]));
+		out.endObject();
+	}
+	
+	/**
+	 * Reads and writes the columns as a JSON array of normalized prices.
+	 */
+	static final class Adapter extends TypeAdapter<BlockfactsNormalizationColumns> {
+		@Override
+		public void write(JsonWriter out, BlockfactsNormalizationColumns columns) throws IOException {
+			if(columns == null) {
+				out.nullValue();
+				return;
+			}
+			
+			out.beginArray();
+			for(int i = 0; i < columns.size; i++) {
+				columns.Write(out, i);
+			}
+			out.endArray();
+		}
+		
+		@Override
+		public BlockfactsNormalizationColumns read(JsonReader in) throws IOException {
+			if(in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			
+			BlockfactsNormalizationColumns columns = new BlockfactsNormalizationColumns(128);
+			in.beginArray();
+			while(in.hasNext()) {
+				columns.Read(in);
+			}
+			in.endArray();
+			
+			return columns;
+		}
+	}
+}
@@ -2,11 +2,15 @@ package blockfacts.io.blockfacts_java_sdk.v1.Models;
 
 import java.util.List;
 
+import com.google.gson.annotations.SerializedName;
+
 public class BlockfactsSubscribeMessage {
 	public String type;
 	public Boolean snapshot;
 	public String id;
+    @SerializedName("X-API-KEY")
     public String X_API_KEY;
+    @SerializedName("X-API-SECRET")
     public String X_API_SECRET;
     public List<BlockfactsChannelObject> channels;
 }
\ No newline at end of file
@@ -0,0 +1,406 @@
+package blockfacts.io.blockfacts_java_sdk.v1.Models;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Trades stored column by column in primitive arrays instead of one object per trade.
+ * Exchange, pair and maker/taker are stored as codes of the dictionary, and numeric trade IDs as numbers.
+ * The exchange time string is not kept, as epochExchangeTime holds the same time.
+ * Deserializing a JSON array of trades into this type fills the columns directly, without creating trade models.
+ */
+@JsonAdapter(BlockfactsTradeColumns.Adapter.class)
+public class BlockfactsTradeColumns {
+	private static final long TEXT_ID = Long.MIN_VALUE;
+	
+	public final BlockfactsDictionary dictionary;
+	public int size;
+	public double[] price;
+	public double[] tradeSize;
+	public double[] denominatorSize;
+	public long[] blockfactsTime;
+	public long[] epochExchangeTime;
+	public int[] exchange;
+	public int[] pair;
+	public int[] makerTaker;
+	public long[] tradeId;
+	private HashMap<Integer, String> textIds;
+	
+	public BlockfactsTradeColumns() {
+		this(new BlockfactsDictionary(), 16);
+	}
+	
+	/**
+	 * Creates empty columns.
+	 * @param dictionary Dictionary for the strings, which can be shared with other columns
+	 * @param capacity Initial number of trades
+	 */
+	public BlockfactsTradeColumns(BlockfactsDictionary dictionary, int capacity) {
+		this.dictionary = dictionary;
+		capacity = Math.max(1, capacity);
+		this.price = new double[capacity];
+		this.tradeSize = new double[capacity];
+		this.denominatorSize = new double[capacity];
+		this.blockfactsTime = new long[capacity];
+		this.epochExchangeTime = new long[capacity];
+		this.exchange = new int[capacity];
+		this.pair = new int[capacity];
+		this.makerTaker = new int[capacity];
+		this.tradeId = new long[capacity];
+	}
+	
+	/**
+	 * Adds a trade.
+	 * @param trade Trade to add
+	 */
+	public void Add(BlockfactsTradeModel trade) {
+		int i = Next();
+		price[i] = trade.price;
+		tradeSize[i] = trade.tradeSize;
+		denominatorSize[i] = trade.denominatorSize;
+		blockfactsTime[i] = trade.blockfactsTime;
+		epochExchangeTime[i] = trade.epochExchangeTime;
+		exchange[i] = dictionary.Code(trade.exchange);
+		pair[i] = dictionary.Code(trade.pair);
+		makerTaker[i] = dictionary.Code(trade.makerTaker);
+		SetTradeId(i, trade.tradeId);
+	}
+	
+	/**
+	 * Adds a trade from its fields, without a trade model.
+	 * @param exchange Exchange name
+	 * @param pair Pair
+	 * @param price Price
+	 * @param tradeSize Trade size
+	 * @param denominatorSize Denominator size
+	 * @param makerTaker Maker/taker flag
+	 * @param tradeId Trade ID
+	 * @param blockfactsTime BlockFacts time
+	 * @param epochExchangeTime Exchange time in milliseconds since the epoch
+	 */
+	public void Add(String exchange, String pair, double price, double tradeSize, double denominatorSize, String makerTaker, String tradeId, long blockfactsTime, long epochExchangeTime) {
+		int i = Next();
+		this.price[i] = price;
+		this.tradeSize[i] = tradeSize;
+		this.denominatorSize[i] = denominatorSize;
+		this.blockfactsTime[i] = blockfactsTime;
+		this.epochExchangeTime[i] = epochExchangeTime;
+		this.exchange[i] = dictionary.Code(exchange);
+		this.pair[i] = dictionary.Code(pair);
+		this.makerTaker[i] = dictionary.Code(makerTaker);
+		SetTradeId(i, tradeId);
+	}
+	
+	/**
+	 * Adds all trades of other columns, e.g. to merge the pages of a historical query.
+	 * @param other Columns to add
+	 */
+	public void Append(BlockfactsTradeColumns other) {
+		Ensure(size + other.size);
+		int[] codes = new int[other.dictionary.Size()];
+		for(int code = 0; code < codes.length; code++) {
+			codes[code] = dictionary.Code(other.dictionary.Get(code));
+		}
+		
+		System.arraycopy(other.price, 0, price, size, other.size);
+		System.arraycopy(other.tradeSize, 0, tradeSize, size, other.size);
+		System.arraycopy(other.denominatorSize, 0, denominatorSize, size, other.size);
+		System.arraycopy(other.blockfactsTime, 0, blockfactsTime, size, other.size);
+		System.arraycopy(other.epochExchangeTime, 0, epochExchangeTime, size, other.size);
+		System.arraycopy(other.tradeId, 0, tradeId, size, other.size);
+		for(int i = 0; i < other.size; i++) {
+			exchange[size + i] = Remap(codes, other.exchange[i]);
+			pair[size + i] = Remap(codes, other.pair[i]);
+			makerTaker[size + i] = Remap(codes, other.makerTaker[i]);
+			if(other.tradeId[i] == TEXT_ID) SetTradeId(size + i, other.GetTradeId(i));
+		}
+		size += other.size;
+	}
+	
+	/**
+	 * Creates a trade model from a row.
+	 * @param i Row index
+	 * @return BlockfactsTradeModel, without the exchange time string
+	 */
+	public BlockfactsTradeModel Get(int i) {
+		BlockfactsTradeModel trade = new BlockfactsTradeModel();
+		trade.exchange = GetExchange(i);
+		trade.pair = GetPair(i);
+		trade.price = price[i];
+		trade.tradeSize = tradeSize[i];
+		trade.denominatorSize = denominatorSize[i];
+		trade.makerTaker = GetMakerTaker(i);
+		trade.tradeId = GetTradeId(i);
+		trade.blockfactsTime = blockfactsTime[i];
+		trade.epochExchangeTime = epochExchangeTime[i];
+		return trade;
+	}
+	
+	/**
+	 * @param i Row index
+	 * @return Exchange name of the row
+	 */
+	public String GetExchange(int i) {
+		return dictionary.Get(exchange[i]);
+	}
+	
+	/**
+	 * @param i Row index
+	 * @return Pair of the row
+	 */
+	public String GetPair(int i) {
+		return dictionary.Get(pair[i]);
+	}
+	
+	/**
+	 * @param i Row index
+	 * @return Maker/taker flag of the row
+	 */
+	public String GetMakerTaker(int i) {
+		return dictionary.Get(makerTaker[i]);
+	}
+	
+	/**
+	 * @param i Row index
+	 * @return Trade ID of the row
+	 */
+	public String GetTradeId(int i) {
+		if(tradeId[i] != TEXT_ID) return Long.toString(tradeId[i]);
+		return textIds == null ? null : textIds.get(i);
+	}
+	
+	/**
+	 * @return Volume-weighted average price of all trades, or NaN if there are none
+	 */
+	public double Vwap() {
+		return Vwap(0, size);
+	}
+	
+	/**
+	 * @param from First row (inclusive)
+	 * @param to Last row (exclusive)
+	 * @return Volume-weighted average price of the rows, or NaN if their volume is 0
+	 */
+	public double Vwap(int from, int to) {
+		double priceVolume = 0;
+		double volume = 0;
+		for(int i = from; i < to; i++) {
+			priceVolume += price[i] * tradeSize[i];
+			volume += tradeSize[i];
+		}
+		
+		return volume == 0 ? Double.NaN : priceVolume / volume;
+	}
+	
+	/**
+	 * @param from First row (inclusive)
+	 * @param to Last row (exclusive)
+	 * @return Sum of the trade sizes (base volume) of the rows
+	 */
+	public double SumTradeSize(int from, int to) {
+		return Sum(tradeSize, from, to);
+	}
+	
+	/**
+	 * @param from First row (inclusive)
+	 * @param to Last row (exclusive)
+	 * @return Sum of the denominator sizes (quote volume) of the rows
+	 */
+	public double SumDenominatorSize(int from, int to) {
+		return Sum(denominatorSize, from, to);
+	}
+	
+	/**
+	 * @param from First row (inclusive)
+	 * @param to Last row (exclusive)
+	 * @return Lowest price of the rows, or NaN if there are none
+	 */
+	public double MinPrice(int from, int to) {
+		if(from >= to) return Double.NaN;
+		
+		double min = price[from];
+		for(int i = from + 1; i < to; i++) {
+			min = Math.min(min, price[i]);
+		}
+		
+		return min;
+	}
+	
+	/**
+	 * @param from First row (inclusive)
+	 * @param to Last row (exclusive)
+	 * @return Highest price of the rows, or NaN if there are none
+	 */
+	public double MaxPrice(int from, int to) {
+		if(from >= to) return Double.NaN;
+		
+		double max = price[from];
+		for(int i = from + 1; i < to; i++) {
+			max = Math.max(max, price[i]);
+		}
+		
+		return max;
+	}
+	
+	/**
+	 * Shrinks the columns to the number of trades, e.g. after the last page was added.
+	 */
+	public void Trim() {
+		Resize(size);
+	}
+	
+	private static double Sum(double[] column, int from, int to) {
+		double sum = 0;
+		for(int i = from; i < to; i++) {
+			sum += column[i];
+		}
+		
+		return sum;
+	}
+	
+	private static int Remap(int[] codes, int code) {
+		return code < 0 ? -1 : codes[code];
+	}
+	
+	/**
+	 * Stores numeric IDs without leading zeros as numbers, so they convert back to the same string, and other IDs as strings.
+	 */
+	private void SetTradeId(int i, String id) {
+		long number = ParseId(id);
+		tradeId[i] = number;
+		if(number != TEXT_ID) return;
+		
+		if(textIds == null) textIds = new HashMap<Integer, String>();
+		if(id != null) textIds.put(i, id);
+	}
+	
+	private static long ParseId(String id) {
+		if(id == null || id.isEmpty() || id.length() > 18 || (id.charAt(0) == '0' && id.length() > 1)) return TEXT_ID;
+		
+		long number = 0;
+		for(int i = 0; i < id.length(); i++) {
+			char c = id.charAt(i);
+			if(c < '0' || c > '9') return TEXT_ID;
+			number = number * 10 + (c - '0');
+		}
+		
+		return number;
+	}
+	
+	/**
+	 * Returns the index of a new row, growing the columns if needed.
+	 */
+	int Next() {
+		Ensure(size + 1);
+		return size++;
+	}
+	
+	private void Ensure(int capacity) {
+		if(capacity > price.length) Resize(Math.max(capacity, price.length * 2));
+	}
+	
+	private void Resize(int capacity) {
+		capacity = Math.max(1, capacity);
+		price = Arrays.copyOf(price, capacity);
+		tradeSize = Arrays.copyOf(tradeSize, capacity);
+		denominatorSize = Arrays.copyOf(denominatorSize, capacity);
+		blockfactsTime = Arrays.copyOf(blockfactsTime, capacity);
+		epochExchangeTime = Arrays.copyOf(epochExchangeTime, capacity);
+		exchange = Arrays.copyOf(exchange, capacity);
+		pair = Arrays.copyOf(pair, capacity);
+		makerTaker = Arrays.copyOf(makerTaker, capacity);
+		tradeId = Arrays.copyOf(tradeId, capacity);
+	}
+	
+	/**
+	 * Reads one trade object into a new row.
+	 */
+	void Read(JsonReader in) throws IOException {
+		int i = Next();
+		exchange[i] = pair[i] = makerTaker[i] = -1;
+		tradeId[i] = TEXT_ID;
+		
+		in.beginObject();
+		while(in.hasNext()) {
+			String name = in.nextName();
+			if(in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				continue;
+			}
+			
+			switch(name) {
+				case "exchange": exchange[i] = dictionary.Code(in.nextString()); break;
+				case "pair": pair[i] = dictionary.Code(in.nextString()); break;
+				case "price": price[i] = in.nextDouble(); break;
+				case "tradeSize": tradeSize[i] = in.nextDouble(); break;
+				case "denominatorSize": denominatorSize[i] = in.nextDouble(); break;
+				case "makerTaker": makerTaker[i] = dictionary.Code(in.nextString()); break;
+				case "tradeId": SetTradeId(i, in.nextString()); break;
+				case "blockfactsTime": blockfactsTime[i] = in.nextLong(); break;
+				case "epochExchangeTime": epochExchangeTime[i] = in.nextLong(); break;
+				default: in.skipValue();
+			}
+		}
+		in.endObject();
+	}
+	
+	/**
+	 * Writes one row as a trade object.
+	 */
+	void Write(JsonWriter out, int i) throws IOException {
+		out.beginObject();
+		out.name("exchange").value(GetExchange(i));
+		out.name("pair").value(GetPair(i));
+		out.name("price").value(price[i]);
+		out.name("tradeSize").value(tradeSize[i]);
+		out.name("denominatorSize").value(denominatorSize[i]);
+		out.name("makerTaker").value(GetMakerTaker(i));
+		out.name("tradeId").value(GetTradeId(i));
+		out.name("blockfactsTime").value(blockfactsTime[i]);
+		out.name("epochExchangeTime").value(epochExchangeTime[i]);
+		out.endObject();
+	}
+	
+	/**
+	 * Reads and writes the columns as a JSON array of trades.
+	 */
+	static final class Adapter extends TypeAdapter<BlockfactsTradeColumns> {
+		@Override
+		public void write(JsonWriter out, BlockfactsTradeColumns columns) throws IOException {
+			if(columns == null) {
+				out.nullValue();
+				return;
+			}
+			
+			out.beginArray();
+			for(int i = 0; i < columns.size; i++) {
+				columns.Write(out, i);
+			}
+			out.endArray();
+		}
+		
+		@Override
+		public BlockfactsTradeColumns read(JsonReader in) throws IOException {
+			if(in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			
+			BlockfactsTradeColumns columns = new BlockfactsTradeColumns(new BlockfactsDictionary(), 128);
+			in.beginArray();
+			while(in.hasNext()) {
+				columns.Read(in);
+			}
+			in.endArray();
+			
+			return columns;
+		}
+	}
+}
@@ -1,28 +1,30 @@
 package blockfacts.io.blockfacts_java_sdk.v1.REST;
 
-import java.io.IOException;
-import java.net.URI;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
-import org.json.simple.JSONObject;
-
-import com.google.gson.Gson;
-import com.google.gson.*;
+import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
 
 import blockfacts.io.blockfacts_java_sdk.v1.Models.*;
 
 public class AssetEndpoints extends Endpoints {
-	public HttpClient restClient;
-	public HttpRequest restRequest;
+	private static final TypeAdapter<List<BlockfactsAssetModel>> ASSET_LIST_ADAPTER = Adapter(new TypeToken<List<BlockfactsAssetModel>>(){});
+	private static final TypeAdapter<BlockfactsAssetModel> ASSET_ADAPTER = Adapter(BlockfactsAssetModel.class);
 	
 	public AssetEndpoints(String key, String secret) {
 		super(key, secret);
-		this.restClient = HttpClient.newHttpClient();
+	}
+	
+	public AssetEndpoints(String key, String secret, Executor executor) {
+		super(key, secret, executor);
+	}
+	
+	public AssetEndpoints(String key, String secret, HttpClient restClient, Executor executor, Duration requestTimeout) {
+		super(key, secret, restClient, executor, requestTimeout);
 	}
 	
 	/**
@@ -31,27 +33,7 @@ public class AssetEndpoints extends Endpoints {
 	 * @return List of BlockfactsAssetModel
 	 */
 	public List<BlockfactsAssetModel> ListAllAssets() {
-		List<BlockfactsAssetModel> responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/assets"))
-      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-      	      .build();
-		
-		  HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
- 	        JsonArray jsonObj = new JsonParser().parse(response.body()).getAsJsonArray();
-	        responseData = new Gson().fromJson(jsonObj, new TypeToken<List<BlockfactsAssetModel>>(){}.getType());
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(ListAllAssetsAsync());
 	}
 	
 	/**
@@ -61,26 +43,25 @@ public class AssetEndpoints extends Endpoints {
 	 * @return BlockfactsAssetModel
 	 */
 	public BlockfactsAssetModel GetSpecificAsset(String tickerId) {
-		BlockfactsAssetModel responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/assets/" + tickerId))
-      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-      	      .build();
-		
-		HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
-	        JsonObject jsonObj = new JsonParser().parse(response.body()).getAsJsonObject();
-	        responseData = new Gson().fromJson(jsonObj, BlockfactsAssetModel.class);
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(GetSpecificAssetAsync(tickerId));
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #ListAllAssets()}.
+	 * Reference: https://docs.blockfacts.io/?java#list-all-assets
+	 * @return CompletableFuture of List of BlockfactsAssetModel
+	 */
+	public CompletableFuture<List<BlockfactsAssetModel>> ListAllAssetsAsync() {
+		return SendCachedAsync("ListAllAssets", "/api/v1/assets", ASSET_LIST_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetSpecificAsset(String)}.
+	 * Reference: https://docs.blockfacts.io/?java#specific-asset
+	 * @param tickerId BlockFacts asset ticker (e.g. BTC)
+	 * @return CompletableFuture of BlockfactsAssetModel
+	 */
+	public CompletableFuture<BlockfactsAssetModel> GetSpecificAssetAsync(String tickerId) {
+		return SendCachedAsync("GetSpecificAsset", "/api/v1/assets/" + tickerId, ASSET_ADAPTER);
 	}
 }
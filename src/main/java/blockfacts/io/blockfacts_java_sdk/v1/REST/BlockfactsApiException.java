@@ -0,0 +1,29 @@
+package blockfacts.io.blockfacts_java_sdk.v1.REST;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Thrown when the BlockFacts API answers with a non-successful status code.
+ */
+public class BlockfactsApiException extends IOException {
+	private static final long serialVersionUID = 1L;
+	
+	public final int statusCode;
+	public final String responseBody;
+	public final Duration retryAfter;
+	
+	public BlockfactsApiException(int statusCode, String responseBody, Duration retryAfter) {
+		super("BlockFacts API responded with status " + statusCode + (responseBody != null && !responseBody.isEmpty() ? ": " + responseBody : ""));
+		this.statusCode = statusCode;
+		this.responseBody = responseBody;
+		this.retryAfter = retryAfter;
+	}
+	
+	/**
+	 * @return True if the request was rejected because of rate limiting (HTTP 429)
+	 */
+	public boolean IsRateLimited() {
+		return statusCode == 429;
+	}
+}
@@ -0,0 +1,295 @@
+package blockfacts.io.blockfacts_java_sdk.v1.REST;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsHistoricalExchangeTradesModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsHistoricalNormalizationResultsModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsNormalizationModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsTradeModel;
+
+/**
+ * Backfills an arbitrary time range from a historical endpoint which only covers up to 240 minutes per call.
+ * The range is split into windows which are fetched page by page with bounded parallelism, then handed to the
+ * consumer strictly in time order with duplicates removed. Progress can be checkpointed to a file so that an
+ * interrupted backfill resumes from the first window that was not yet consumed.
+ */
+public class BlockfactsBackfill<T> {
+	public static final int MAX_WINDOW_MINUTES = 240;
+	
+	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("d.M.yyyy").withZone(ZoneOffset.UTC);
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneOffset.UTC);
+	
+	private final String name;
+	private final WindowFetcher<T> fetcher;
+	private final ToLongFunction<T> timestamp;
+	private final Function<T, Object> identity;
+	private int windowMinutes = MAX_WINDOW_MINUTES;
+	private int parallelism = 4;
+	private Path checkpointFile;
+	
+	private BlockfactsBackfill(String name, WindowFetcher<T> fetcher, ToLongFunction<T> timestamp, Function<T, Object> identity) {
+		this.name = name;
+		this.fetcher = fetcher;
+		this.timestamp = timestamp;
+		this.identity = identity;
+	}
+	
+	/**
+	 * Creates a backfill of exchange trades, ordered by exchange time and deduplicated by exchange and trade ID,
+	 * since trade IDs are only unique within one exchange.
+	 * Reference: https://docs.blockfacts.io/?java#historical-trade-data
+	 * @param endpoints Exchange endpoint group used for fetching
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param exchanges Exchange names (e.g. KRAKEN, COINBASE)
+	 * @return BlockfactsBackfill of BlockfactsTradeModels
+	 */
+	public static BlockfactsBackfill<BlockfactsTradeModel> ForTrades(ExchangeEndpoints endpoints, String asset, String denominator, String exchanges) {
+		WindowFetcher<BlockfactsTradeModel> fetcher = new PagedWindowFetcher<BlockfactsHistoricalExchangeTradesModel, BlockfactsTradeModel>(
+				(date, time, interval, page) -> endpoints.GetHistoricalTradeDataAsync(asset, denominator, exchanges, date, time, interval, page),
+				response -> response.totalPages, response -> response.results);
+		
+		return new BlockfactsBackfill<BlockfactsTradeModel>("trades:" + asset + "-" + denominator + ":" + exchanges.trim().replace(" ", ""),
+				fetcher, trade -> trade.epochExchangeTime, trade -> trade.tradeId != null ? trade.exchange + ':' + trade.tradeId : null);
+	}
+	
+	/**
+	 * Creates a backfill of BlockFacts normalized prices, ordered and deduplicated by timestamp.
+	 * Reference: https://docs.blockfacts.io/?java#historical-data
+	 * @param endpoints BlockFacts endpoint group used for fetching
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @return BlockfactsBackfill of BlockfactsNormalizationModels
+	 */
+	public static BlockfactsBackfill<BlockfactsNormalizationModel> ForNormalization(BlockfactsEndpoints endpoints, String asset, String denominator) {
+		WindowFetcher<BlockfactsNormalizationModel> fetcher = new PagedWindowFetcher<BlockfactsHistoricalNormalizationResultsModel, BlockfactsNormalizationModel>(
+				(date, time, interval, page) -> endpoints.GetHistoricalDataAsync(asset, denominator, date, time, interval, page),
+				response -> response.totalPages, response -> response.results);
+		
+		return new BlockfactsBackfill<BlockfactsNormalizationModel>("normalization:" + asset + "-" + denominator,
+				fetcher, model -> model.timestamp, model -> model.timestamp);
+	}
+	
+	/**
+	 * Sets the length of a single window. Defaults to the maximum of 240 minutes.
+	 * @param windowMinutes Window length in minutes (Min 1, Max 240)
+	 * @return BlockfactsBackfill
+	 */
+	public BlockfactsBackfill<T> SetWindowMinutes(int windowMinutes) {
+		if(windowMinutes < 1 || windowMinutes > MAX_WINDOW_MINUTES) throw new IllegalArgumentException("windowMinutes must be between 1 and " + MAX_WINDOW_MINUTES);
+		this.windowMinutes = windowMinutes;
+		return this;
+	}
+	
+	/**
+	 * Sets how many windows are fetched at the same time. Defaults to 4.
+	 * @param parallelism Number of windows in flight
+	 * @return BlockfactsBackfill
+	 */
+	public BlockfactsBackfill<T> SetParallelism(int parallelism) {
+		if(parallelism < 1) throw new IllegalArgumentException("parallelism must be positive");
+		this.parallelism = parallelism;
+		return this;
+	}
+	
+	/**
+	 * Sets the file in which progress is stored after every consumed window.
+	 * A later run over the same range and query resumes after the last consumed window.
+	 * @param checkpointFile Checkpoint file
+	 * @return BlockfactsBackfill
+	 */
+	public BlockfactsBackfill<T> SetCheckpointFile(Path checkpointFile) {
+		this.checkpointFile = checkpointFile;
+		return this;
+	}
+	
+	/**
+	 * Backfills the range and hands every window to the consumer in time order, on the calling thread.
+	 * Results outside of the range are dropped, and duplicates are removed within a window and across neighbouring windows.
+	 * @param start Start of the range (inclusive)
+	 * @param end End of the range (exclusive)
+	 * @param consumer Receives the sorted results of one window at a time
+	 * @throws IOException If a window could not be fetched or the checkpoint could not be written
+	 * @throws InterruptedException If the calling thread is interrupted while waiting for a window
+	 */
+	public void Run(Instant start, Instant end, Consumer<List<T>> consumer) throws IOException, InterruptedException {
+		if(!start.isBefore(end)) return;
+		
+		Duration window = Duration.ofMinutes(windowMinutes);
+		long windowCount = (Duration.between(start, end).toMillis() + window.toMillis() - 1) / window.toMillis();
+		long firstWindow = ReadCheckpoint(start, end);
+		
+		long startMillis = start.toEpochMilli();
+		long endMillis = end.toEpochMilli();
+		
+		ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "blockfacts-backfill");
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		try {
+			ArrayDeque<Future<List<T>>> inFlight = new ArrayDeque<Future<List<T>>>();
+			long nextToSubmit = firstWindow;
+			Set<Object> previousIds = new HashSet<Object>();
+			
+			for(long index = firstWindow; index < windowCount; index++) {
+				while(nextToSubmit < windowCount && inFlight.size() < parallelism * 2) {
+					Instant windowStart = start.plus(window.multipliedBy(nextToSubmit));
+					Instant windowEnd = windowStart.plus(window).isAfter(end) ? end : windowStart.plus(window);
+					inFlight.add(workers.submit(() -> fetcher.Fetch(windowStart, windowEnd)));
+					nextToSubmit++;
+				}
+				
+				List<T> results;
+				try {
+					results = inFlight.poll().get();
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if(cause instanceof IOException) throw (IOException) cause;
+					throw new IOException("Backfill window " + index + " of " + name + " failed", cause);
+				}
+				
+				Set<Object> currentIds = new HashSet<Object>();
+				List<T> merged = new ArrayList<T>(results.size());
+				for(T result : results) {
+					long time = timestamp.applyAsLong(result);
+					if(time < startMillis || time >= endMillis) continue;
+					
+					Object id = identity.apply(result);
+					if(id != null && (previousIds.contains(id) || !currentIds.add(id))) continue;
+					merged.add(result);
+				}
+				merged.sort(Comparator.comparingLong(timestamp));
+				previousIds = currentIds;
+				
+				consumer.accept(merged);
+				WriteCheckpoint(start, end, index + 1);
+			}
+		} finally {
+			workers.shutdownNow();
+		}
+	}
+	
+	private long ReadCheckpoint(Instant start, Instant end) throws IOException {
+		if(checkpointFile == null || !Files.exists(checkpointFile)) return 0;
+		
+		Properties checkpoint = new Properties();
+		try (InputStream input = Files.newInputStream(checkpointFile)) {
+			checkpoint.load(input);
+		}
+		
+		boolean sameRun = name.equals(checkpoint.getProperty("name"))
+				&& String.valueOf(start.toEpochMilli()).equals(checkpoint.getProperty("start"))
+				&& String.valueOf(end.toEpochMilli()).equals(checkpoint.getProperty("end"))
+				&& String.valueOf(windowMinutes).equals(checkpoint.getProperty("windowMinutes"));
+		
+		return sameRun ? Long.parseLong(checkpoint.getProperty("completedWindows", "0")) : 0;
+	}
+	
+	private void WriteCheckpoint(Instant start, Instant end, long completedWindows) throws IOException {
+		if(checkpointFile == null) return;
+		
+		Properties checkpoint = new Properties();
+		checkpoint.setProperty("name", name);
+		checkpoint.setProperty("start", String.valueOf(start.toEpochMilli()));
+		checkpoint.setProperty("end", String.valueOf(end.toEpochMilli()));
+		checkpoint.setProperty("windowMinutes", String.valueOf(windowMinutes));
+		checkpoint.setProperty("completedWindows", String.valueOf(completedWindows));
+		
+		Path parent = checkpointFile.toAbsolutePath().getParent();
+		Path temporary = Files.createTempFile(parent, checkpointFile.getFileName().toString(), ".tmp");
+		try (OutputStream output = Files.newOutputStream(temporary)) {
+			checkpoint.store(output, "BlockFacts backfill checkpoint");
+		}
+		Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	private interface PageRequest<P> {
+		CompletableFuture<P> Fetch(String date, String time, int interval, int page);
+	}
+	
+	private interface WindowFetcher<T> {
+		List<T> Fetch(Instant start, Instant end) throws IOException;
+	}
+	
+	/**
+	 * Fetches every page of one window. The first page tells how many pages there are, the rest are requested together.
+	 */
+	private static final class PagedWindowFetcher<P, T> implements WindowFetcher<T> {
+		private final PageRequest<P> request;
+		private final ToIntFunction<P> totalPages;
+		private final Function<P, List<T>> results;
+		
+		PagedWindowFetcher(PageRequest<P> request, ToIntFunction<P> totalPages, Function<P, List<T>> results) {
+			this.request = request;
+			this.totalPages = totalPages;
+			this.results = results;
+		}
+		
+		@Override
+		public List<T> Fetch(Instant start, Instant end) throws IOException {
+			String date = DATE_FORMAT.format(start);
+			String time = TIME_FORMAT.format(start);
+			int interval = (int) ((Duration.between(start, end).getSeconds() + 59) / 60);
+			
+			List<T> window = new ArrayList<T>();
+			P first = Join(request.Fetch(date, time, interval, 1));
+			if(first == null) return window;
+			Add(window, first);
+			
+			List<CompletableFuture<P>> remaining = new ArrayList<CompletableFuture<P>>();
+			for(int page = 2; page <= totalPages.applyAsInt(first); page++) {
+				remaining.add(request.Fetch(date, time, interval, page));
+			}
+			for(CompletableFuture<P> page : remaining) {
+				Add(window, Join(page));
+			}
+			
+			return window;
+		}
+		
+		private void Add(List<T> window, P page) {
+			if(page == null) return;
+			List<T> items = results.apply(page);
+			if(items != null) window.addAll(items);
+		}
+		
+		private static <P> P Join(CompletableFuture<P> page) throws IOException {
+			try {
+				return page.get();
+			} catch (ExecutionException e) {
+				if(e.getCause() instanceof IOException) throw (IOException) e.getCause();
+				throw new IOException(e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package blockfacts.io.blockfacts_java_sdk.v1.REST;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Adaptive limit on the number of requests in flight, following additive increase / multiplicative decrease.
+ * The limit grows by about one request per round trip while latency stays close to the lowest latency seen,
+ * and shrinks when latency rises above it or the server answers with 429 Too Many Requests.
+ * Requests over the limit wait in FIFO order without blocking a thread.
+ */
+public class BlockfactsConcurrencyLimiter {
+	private final int minLimit;
+	private final int maxLimit;
+	private final double latencyTolerance;
+	private final double backoffRatio;
+	private final ArrayDeque<CompletableFuture<Void>> waiters = new ArrayDeque<CompletableFuture<Void>>();
+	private double limit;
+	private int inFlight;
+	private long minLatencyNanos = Long.MAX_VALUE;
+	private long rejections;
+	
+	/**
+	 * Creates a limiter with defaults suitable for the BlockFacts API: between 1 and 64 requests in flight, starting at 8,
+	 * backing off when latency doubles.
+	 */
+	public BlockfactsConcurrencyLimiter() {
+		this(8, 1, 64, 2.0, 0.5);
+	}
+	
+	/**
+	 * Creates an adaptive concurrency limiter.
+	 * @param initialLimit Limit to start with
+	 * @param minLimit Lowest limit the controller may back off to (Min 1)
+	 * @param maxLimit Highest limit the controller may grow to
+	 * @param latencyTolerance Ratio of observed to lowest latency above which the limit is decreased (e.g. 2.0)
+	 * @param backoffRatio Factor the limit is multiplied with on a rejection (e.g. 0.5)
+	 */
+	public BlockfactsConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double latencyTolerance, double backoffRatio) {
+		if(minLimit < 1 || maxLimit < minLimit) throw new IllegalArgumentException("Limits must satisfy 1 <= minLimit <= maxLimit");
+		if(backoffRatio <= 0 || backoffRatio >= 1) throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+		
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.latencyTolerance = latencyTolerance;
+		this.backoffRatio = backoffRatio;
+		this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+	}
+	
+	/**
+	 * Returns a future which completes once the request may be sent. Every completed acquire must be paired with a call
+	 * to OnSuccess, OnRejected or OnFailure.
+	 * @return CompletableFuture
+	 */
+	public CompletableFuture<Void> Acquire() {
+		synchronized(this) {
+			if(inFlight < (int) limit) {
+				inFlight++;
+				return CompletableFuture.completedFuture(null);
+			}
+			
+			CompletableFuture<Void> waiter = new CompletableFuture<Void>();
+			waiters.add(waiter);
+			return waiter;
+		}
+	}
+	
+	/**
+	 * Releases a slot after a successful response and adapts the limit to the observed latency.
+	 * @param latencyNanos Time between sending the request and receiving the response
+	 */
+	public void OnSuccess(long latencyNanos) {
+		synchronized(this) {
+			// The baseline slowly drifts upwards so that it recovers when the network path gets permanently slower
+			if(minLatencyNanos != Long.MAX_VALUE) minLatencyNanos += minLatencyNanos >> 8;
+			if(latencyNanos < minLatencyNanos) minLatencyNanos = latencyNanos;
+			
+			if(latencyNanos > minLatencyNanos * latencyTolerance) {
+				limit = Math.max(minLimit, limit * (1 - (1 - backoffRatio) / 4));
+			} else if(inFlight >= (int) limit) {
+				limit = Math.min(maxLimit, limit + 1 / limit);
+			}
+		}
+		Release();
+	}
+	
+	/**
+	 * Releases a slot after the server rejected the request because of rate limiting, halving the limit (by default).
+	 */
+	public void OnRejected() {
+		synchronized(this) {
+			rejections++;
+			limit = Math.max(minLimit, limit * backoffRatio);
+		}
+		Release();
+	}
+	
+	/**
+	 * Releases a slot after a request failed for a reason unrelated to load, leaving the limit untouched.
+	 */
+	public void OnFailure() {
+		Release();
+	}
+	
+	/**
+	 * @return Current concurrency limit
+	 */
+	public synchronized int GetLimit() {
+		return (int) limit;
+	}
+	
+	/**
+	 * @return Number of requests currently in flight
+	 */
+	public synchronized int GetInFlight() {
+		return inFlight;
+	}
+	
+	/**
+	 * @return Number of requests rejected by the server so far
+	 */
+	public synchronized long GetRejections() {
+		return rejections;
+	}
+	
+	private void Release() {
+		ArrayDeque<CompletableFuture<Void>> ready = null;
+		
+		synchronized(this) {
+			inFlight--;
+			while(inFlight < (int) limit && !waiters.isEmpty()) {
+				if(ready == null) ready = new ArrayDeque<CompletableFuture<Void>>();
+				inFlight++;
+				ready.add(waiters.poll());
+			}
+		}
+		
+		// Completed outside of the lock, the waiters continue on this thread
+		if(ready != null) {
+			for(CompletableFuture<Void> waiter : ready) {
+				waiter.complete(null);
+			}
+		}
+	}
+}
@@ -1,28 +1,34 @@
 package blockfacts.io.blockfacts_java_sdk.v1.REST;
 
-import java.io.IOException;
-import java.net.URI;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
 
 import blockfacts.io.blockfacts_java_sdk.v1.Models.*;
 
 public class BlockfactsEndpoints extends Endpoints {
-	public HttpClient restClient;
-	public HttpRequest restRequest;
+	private static final TypeAdapter<List<BlockfactsRunningNormalizationPairsTradesModel>> NORMALIZATION_PAIRS_LIST_ADAPTER = Adapter(new TypeToken<List<BlockfactsRunningNormalizationPairsTradesModel>>(){});
+	private static final TypeAdapter<BlockfactsHistoricalNormalizationResultsModel> HISTORICAL_NORMALIZATION_RESULTS_ADAPTER = Adapter(BlockfactsHistoricalNormalizationResultsModel.class);
+	private static final TypeAdapter<BlockfactsHistoricalNormalizationColumnsModel> HISTORICAL_NORMALIZATION_COLUMNS_ADAPTER = Adapter(BlockfactsHistoricalNormalizationColumnsModel.class);
+	private static final TypeAdapter<BlockfactsNormalizationModel> NORMALIZATION_ADAPTER = Adapter(BlockfactsNormalizationModel.class);
 	
 	public BlockfactsEndpoints(String key, String secret) {
 		super(key, secret);
-		this.restClient = HttpClient.newHttpClient();
+	}
+	
+	public BlockfactsEndpoints(String key, String secret, Executor executor) {
+		super(key, secret, executor);
+	}
+	
+	public BlockfactsEndpoints(String key, String secret, HttpClient restClient, Executor executor, Duration requestTimeout) {
+		super(key, secret, restClient, executor, requestTimeout);
 	}
 	
 	/**
@@ -32,28 +38,7 @@ public class BlockfactsEndpoints extends Endpoints {
 	 * @return JsonObject
 	 */
 	public JsonObject GetExchangesInNormalization(String pairs) {
-		pairs = pairs.trim().replace(" ", "");
-		
-		JsonObject responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-	      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/blockfacts/normalization/whitelist/" + pairs))
-	      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-	      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-	      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-	      	      .build();
-		
-		HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
-	        responseData = new JsonParser().parse(response.body()).getAsJsonObject();
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(GetExchangesInNormalizationAsync(pairs));
 	}
 	
 	/**
@@ -64,29 +49,7 @@ public class BlockfactsEndpoints extends Endpoints {
 	 * @return JsonObject
 	 */
 	public JsonObject GetCurrentData(String assets, String denominators) {
-		assets = assets.trim().replace(" ", "");
-		denominators = denominators.trim().replace(" ", "");
-		
-		JsonObject responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-	      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/blockfacts/price?asset=" + assets + "&denominator=" + denominators))
-	      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-	      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-	      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-	      	      .build();
-		
-		HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
-	        responseData = new JsonParser().parse(response.body()).getAsJsonObject();
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(GetCurrentDataAsync(assets, denominators));
 	}
 	
 	/**
@@ -97,31 +60,9 @@ public class BlockfactsEndpoints extends Endpoints {
 	 * @return JsonObject
 	 */
 	public JsonObject GetSnapshotData(String assets, String denominators) {
-		assets = assets.trim().replace(" ", "");
-		denominators = denominators.trim().replace(" ", "");
-		
-		JsonObject responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-	      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/blockfacts/price/snapshot?asset=" + assets + "&denominator=" + denominators))
-	      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-	      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-	      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-	      	      .build();
-		
-		HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
-	        responseData = new JsonParser().parse(response.body()).getAsJsonObject();
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(GetSnapshotDataAsync(assets, denominators));
 	}
-
+	
 	/**
 	 * Gets the snapshot of Blockfacts OHLCV data for provided asset-denominator pairs and intervals.
 	 * Reference: https://docs.blockfacts.io/?java#data-snapshot-ohlcv-blockfacts
@@ -131,30 +72,7 @@ public class BlockfactsEndpoints extends Endpoints {
 	 * @return JsonObject
 	 */
 	public JsonObject GetOHLCVSnapshotData(String assets, String denominators, String intervals) {
-		assets = assets.trim().replace(" ", "");
-		denominators = denominators.trim().replace(" ", "");
-		intervals = intervals.trim().replace(" ", "");
-		
-		JsonObject responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-	      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/blockfacts/price/ohlcv-snapshot?asset=" + assets + "&denominator=" + denominators + "&interval=" + intervals))
-	      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-	      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-	      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-	      	      .build();
-		
-		HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
-	        responseData = new JsonParser().parse(response.body()).getAsJsonObject();
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(GetOHLCVSnapshotDataAsync(assets, denominators, intervals));
 	}
 	
 	
@@ -170,27 +88,22 @@ public class BlockfactsEndpoints extends Endpoints {
 	 * @return BlockfactsHistoricalNormalizationResultsModel
 	 */
 	public BlockfactsHistoricalNormalizationResultsModel GetHistoricalData(String asset, String denominator, String date, String time, int interval, int page) {
-		BlockfactsHistoricalNormalizationResultsModel responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/blockfacts/price/historical?asset=" + asset + "&denominator=" + denominator + "&date=" + date + "&time=" + time + "&interval=" + interval + "&page=" + page))
-      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-      	      .build();
-		
-		HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
-	        JsonObject jsonObj = new JsonParser().parse(response.body()).getAsJsonObject();
-	        responseData = new Gson().fromJson(jsonObj, BlockfactsHistoricalNormalizationResultsModel.class);
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(GetHistoricalDataAsync(asset, denominator, date, time, interval, page));
+	}
+	
+	/**
+	 * Same as GetHistoricalData, but stores the normalized prices and their trades in primitive columns instead of models, which takes far less memory.
+	 * Reference: https://docs.blockfacts.io/?java#historical-data
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param date Specific date (e.g. 2.8.2019)
+	 * @param time Specific time (e.g. 14:01:00)
+	 * @param interval Historical interval to cover (e.g. 20 = 14:01:00 - 14:21:00) (Min 0, Max 240)
+	 * @param page Optional, our API is always showing 100 results per page in order to improve the performance. You can provide the page parameter in order to query a specific page
+	 * @return BlockfactsHistoricalNormalizationColumnsModel
+	 */
+	public BlockfactsHistoricalNormalizationColumnsModel GetHistoricalDataColumns(String asset, String denominator, String date, String time, int interval, int page) {
+		return Await(GetHistoricalDataColumnsAsync(asset, denominator, date, time, interval, page));
 	}
 	
 	/**
@@ -207,26 +120,7 @@ public class BlockfactsEndpoints extends Endpoints {
 	 * @return JsonObject
 	 */
 	public JsonObject GetHistoricalOHLCVData(String asset, String denominator, String interval, String dateStart, String timeStart, String dateEnd, String timeEnd, int page) {
-		JsonObject responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/blockfacts/ohlcv?asset=" + asset + "&denominator=" + denominator + "&interval=" + interval + "&dateStart=" + dateStart + "&timeStart=" + timeStart + "&dateEnd=" + dateEnd + "&timeEnd=" + timeEnd + "&page=" + page))
-      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-      	      .build();
-		
-		HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
-			responseData = new JsonParser().parse(response.body()).getAsJsonObject();
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(GetHistoricalOHLCVDataAsync(asset, denominator, interval, dateStart, timeStart, dateEnd, timeEnd, page));
 	}
 	
 	/**
@@ -239,27 +133,7 @@ public class BlockfactsEndpoints extends Endpoints {
 	 * @return BlockfactsNormalizationModel
 	 */
 	public BlockfactsNormalizationModel GetSpecificHistoricalData(String asset, String denominator, String date, String time) {
-		BlockfactsNormalizationModel responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/blockfacts/price/specific?asset=" + asset + "&denominator=" + denominator + "&date=" + date + "&time=" + time))
-      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-      	      .build();
-		
-		HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
-	        JsonObject jsonObj = new JsonParser().parse(response.body()).getAsJsonObject();
-	        responseData = new Gson().fromJson(jsonObj, BlockfactsNormalizationModel.class);
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(GetSpecificHistoricalDataAsync(asset, denominator, date, time));
 	}
 	
 	/**
@@ -268,27 +142,7 @@ public class BlockfactsEndpoints extends Endpoints {
 	 * @return List of BlockfactsRunningNormalizationPairsTradesModels
 	 */
 	public List<BlockfactsRunningNormalizationPairsTradesModel> GetNormalizationPairs() {
-		List<BlockfactsRunningNormalizationPairsTradesModel> responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/blockfacts/normalization/trades"))
-      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-      	      .build();
-		
-		  HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
- 	        JsonArray jsonObj = new JsonParser().parse(response.body()).getAsJsonArray();
-	        responseData = new Gson().fromJson(jsonObj, new TypeToken<List<BlockfactsRunningNormalizationPairsTradesModel>>(){}.getType());
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(GetNormalizationPairsAsync());
 	}
 	
 	/**
@@ -301,26 +155,196 @@ public class BlockfactsEndpoints extends Endpoints {
 	 * @return JsonArray
 	 */
 	public JsonArray GetPeriodMovers(String denominator, String date, String interval, int sort) {
-		JsonArray responseData = null;
+		return Await(GetPeriodMoversAsync(denominator, date, interval, sort));
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetExchangesInNormalization(String)}.
+	 * Reference: https://docs.blockfacts.io/?java#exchanges-in-normalization
+	 * @param pairs Asset-denominator pairs (e.g. BTC-USD, BTC-EUR)
+	 * @return CompletableFuture of JsonObject
+	 */
+	public CompletableFuture<JsonObject> GetExchangesInNormalizationAsync(String pairs) {
+		pairs = pairs.trim().replace(" ", "");
 		
-		restRequest = HttpRequest.newBuilder()
-	      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/blockfacts/period-movers?denominator=" + denominator + "&date=" + date + "&interval=" + interval + "&sort=" + sort))
-	      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-	      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-	      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-	      	      .build();
+		return SendAsync("GetExchangesInNormalization", "/api/v1/blockfacts/normalization/whitelist/" + pairs, JSON_OBJECT_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetCurrentData(String, String)}.
+	 * Reference: https://docs.blockfacts.io/?java#current-data
+	 * @param assets Asset tickers (e.g. BTC, ETH)
+	 * @param denominators Denominator tickers (e.g. USD, EUR)
+	 * @return CompletableFuture of JsonObject
+	 */
+	public CompletableFuture<JsonObject> GetCurrentDataAsync(String assets, String denominators) {
+		assets = assets.trim().replace(" ", "");
+		denominators = denominators.trim().replace(" ", "");
 		
-		HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
-	        responseData = new JsonParser().parse(response.body()).getAsJsonArray();
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return SendAsync("GetCurrentData", "/api/v1/blockfacts/price?asset=" + assets + "&denominator=" + denominators, JSON_OBJECT_ADAPTER);
 	}
 	
+	/**
+	 * Asynchronous variant of {@link #GetSnapshotData(String, String)}.
+	 * Reference: https://docs.blockfacts.io/?java#data-snapshot
+	 * @param assets Asset tickers (e.g. BTC, ETH)
+	 * @param denominators Denominator tickers (e.g. USD, EUR)
+	 * @return CompletableFuture of JsonObject
+	 */
+	public CompletableFuture<JsonObject> GetSnapshotDataAsync(String assets, String denominators) {
+		assets = assets.trim().replace(" ", "");
+		denominators = denominators.trim().replace(" ", "");
+		
+		return SendAsync("GetSnapshotData", "/api/v1/blockfacts/price/snapshot?asset=" + assets + "&denominator=" + denominators, JSON_OBJECT_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetOHLCVSnapshotData(String, String, String)}.
+	 * Reference: https://docs.blockfacts.io/?java#data-snapshot-ohlcv-blockfacts
+	 * @param assets Asset tickers (e.g. BTC, ETH)
+	 * @param denominators Denominator tickers (e.g. USD, EUR)
+	 * @param intervals Intervals (e.g. 1m, 3m, 1h)
+	 * @return CompletableFuture of JsonObject
+	 */
+	public CompletableFuture<JsonObject> GetOHLCVSnapshotDataAsync(String assets, String denominators, String intervals) {
+		assets = assets.trim().replace(" ", "");
+		denominators = denominators.trim().replace(" ", "");
+		intervals = intervals.trim().replace(" ", "");
+		
+		return SendAsync("GetOHLCVSnapshotData", "/api/v1/blockfacts/price/ohlcv-snapshot?asset=" + assets + "&denominator=" + denominators + "&interval=" + intervals, JSON_OBJECT_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetHistoricalData(String, String, String, String, int, int)}.
+	 * Reference: https://docs.blockfacts.io/?java#historical-data
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param date Specific date (e.g. 2.8.2019)
+	 * @param time Specific time (e.g. 14:01:00)
+	 * @param interval Historical interval to cover (e.g. 20 = 14:01:00 - 14:21:00) (Min 0, Max 240)
+	 * @param page Optional, our API is always showing 100 results per page in order to improve the performance. You can provide the page parameter in order to query a specific page
+	 * @return CompletableFuture of BlockfactsHistoricalNormalizationResultsModel
+	 */
+	public CompletableFuture<BlockfactsHistoricalNormalizationResultsModel> GetHistoricalDataAsync(String asset, String denominator, String date, String time, int interval, int page) {
+		return SendAsync("GetHistoricalData", "/api/v1/blockfacts/price/historical?asset=" + asset + "&denominator=" + denominator + "&date=" + date + "&time=" + time + "&interval=" + interval + "&page=" + page, HISTORICAL_NORMALIZATION_RESULTS_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetHistoricalDataColumns(String, String, String, String, int, int)}.
+	 * Reference: https://docs.blockfacts.io/?java#historical-data
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param date Specific date (e.g. 2.8.2019)
+	 * @param time Specific time (e.g. 14:01:00)
+	 * @param interval Historical interval to cover (e.g. 20 = 14:01:00 - 14:21:00) (Min 0, Max 240)
+	 * @param page Optional, our API is always showing 100 results per page in order to improve the performance. You can provide the page parameter in order to query a specific page
+	 * @return CompletableFuture of BlockfactsHistoricalNormalizationColumnsModel
+	 */
+	public CompletableFuture<BlockfactsHistoricalNormalizationColumnsModel> GetHistoricalDataColumnsAsync(String asset, String denominator, String date, String time, int interval, int page) {
+		return SendAsync("GetHistoricalDataColumns", "/api/v1/blockfacts/price/historical?asset=" + asset + "&denominator=" + denominator + "&date=" + date + "&time=" + time + "&interval=" + interval + "&page=" + page, HISTORICAL_NORMALIZATION_COLUMNS_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetHistoricalOHLCVData(String, String, String, String, String, String, String, int)}.
+	 * Reference: https://docs.blockfacts.io/?java#ohlcv-historical-data
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param interval 	OHLCV Interval (30s, 1m, 3m, 5m, 15m, 30m, 1h, 2h, 4h, 6h, 12h, 1d, 1w, 1mo)
+	 * @param dateStart Specific date to start from (e.g. 5.8.2020)
+	 * @param timeStart Specific time to start from (in UTC) (e.g. 14:00:00)
+	 * @param dateEnd Specific end date (e.g. 5.8.2020)
+	 * @param timeEnd Specific end time (in UTC) (e.g. 14:00:00)
+	 * @param page Optional, our API is always showing 100 results per page in order to improve the performance. You can provide the page parameter in order to query a specific page
+	 * @return CompletableFuture of JsonObject
+	 */
+	public CompletableFuture<JsonObject> GetHistoricalOHLCVDataAsync(String asset, String denominator, String interval, String dateStart, String timeStart, String dateEnd, String timeEnd, int page) {
+		return SendAsync("GetHistoricalOHLCVData", "/api/v1/blockfacts/ohlcv?asset=" + asset + "&denominator=" + denominator + "&interval=" + interval + "&dateStart=" + dateStart + "&timeStart=" + timeStart + "&dateEnd=" + dateEnd + "&timeEnd=" + timeEnd + "&page=" + page, JSON_OBJECT_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetSpecificHistoricalData(String, String, String, String)}.
+	 * Reference: https://docs.blockfacts.io/?java#specific-historical-data
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param date Specific date (e.g. 2.9.2019)
+	 * @param time Specific time (e.g. 14:00:00)
+	 * @return CompletableFuture of BlockfactsNormalizationModel
+	 */
+	public CompletableFuture<BlockfactsNormalizationModel> GetSpecificHistoricalDataAsync(String asset, String denominator, String date, String time) {
+		return SendAsync("GetSpecificHistoricalData", "/api/v1/blockfacts/price/specific?asset=" + asset + "&denominator=" + denominator + "&date=" + date + "&time=" + time, NORMALIZATION_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetNormalizationPairs()}.
+	 * Reference: https://docs.blockfacts.io/?java#normalization-pairs
+	 * @return CompletableFuture of List of BlockfactsRunningNormalizationPairsTradesModels
+	 */
+	public CompletableFuture<List<BlockfactsRunningNormalizationPairsTradesModel>> GetNormalizationPairsAsync() {
+		return SendCachedAsync("GetNormalizationPairs", "/api/v1/blockfacts/normalization/trades", NORMALIZATION_PAIRS_LIST_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetPeriodMovers(String, String, String, int)}.
+	 * Reference: https://docs.blockfacts.io/?java#period-movers
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param date Specific date (e.g. 11.8.2020)
+	 * @param interval Interval (oneDay, sevenDay, thirtyDay, ninetyDay, oneYear, twoYear, threeYear, fiveYear)
+	 * @param sort 1 - Losers first, -1 - Winners first
+	 * @return CompletableFuture of JsonArray
+	 */
+	public CompletableFuture<JsonArray> GetPeriodMoversAsync(String denominator, String date, String interval, int sort) {
+		return SendAsync("GetPeriodMovers", "/api/v1/blockfacts/period-movers?denominator=" + denominator + "&date=" + date + "&interval=" + interval + "&sort=" + sort, JSON_ARRAY_ADAPTER);
+	}
+	
+	/**
+	 * Gets all pages of historical normalization data by asset-denominator, date, time and interval.
+	 * Pages are fetched lazily as the results are consumed, with up to prefetch pages requested ahead.
+	 * Reference: https://docs.blockfacts.io/?java#historical-data
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param date Specific date (e.g. 2.8.2019)
+	 * @param time Specific time (e.g. 14:01:00)
+	 * @param interval Historical interval to cover (e.g. 20 = 14:01:00 - 14:21:00) (Min 0, Max 240)
+	 * @param prefetch Number of pages to fetch ahead of the one being consumed
+	 * @return BlockfactsPager of BlockfactsNormalizationModels
+	 */
+	public BlockfactsPager<BlockfactsNormalizationModel> GetAllHistoricalData(String asset, String denominator, String date, String time, int interval, int prefetch) {
+		return new BlockfactsPager<BlockfactsNormalizationModel>(page -> GetHistoricalDataAsync(asset, denominator, date, time, interval, page),
+				response -> response.totalPages, response -> response.results, prefetch);
+	}
+	
+	/**
+	 * Gets all pages of historical normalization data by asset-denominator, date, time and interval, merged into one set of primitive columns.
+	 * After the first page, the remaining pages are requested at once and appended in page order.
+	 * Reference: https://docs.blockfacts.io/?java#historical-data
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param date Specific date (e.g. 2.8.2019)
+	 * @param time Specific time (e.g. 14:01:00)
+	 * @param interval Historical interval to cover (e.g. 20 = 14:01:00 - 14:21:00) (Min 0, Max 240)
+	 * @return CompletableFuture of BlockfactsNormalizationColumns
+	 */
+	public CompletableFuture<BlockfactsNormalizationColumns> GetAllHistoricalDataColumnsAsync(String asset, String denominator, String date, String time, int interval) {
+		return MergePages(page -> GetHistoricalDataColumnsAsync(asset, denominator, date, time, interval, page),
+				response -> response.totalPages, response -> response.results, BlockfactsNormalizationColumns::Append);
+	}
+	
+	/**
+	 * Gets all pages of historical OHLCV data by asset-denominator, date, time and interval.
+	 * Pages are fetched lazily as the results are consumed, with up to prefetch pages requested ahead.
+	 * Reference: https://docs.blockfacts.io/?java#ohlcv-historical-data
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param interval 	OHLCV Interval (30s, 1m, 3m, 5m, 15m, 30m, 1h, 2h, 4h, 6h, 12h, 1d, 1w, 1mo)
+	 * @param dateStart Specific date to start from (e.g. 5.8.2020)
+	 * @param timeStart Specific time to start from (in UTC) (e.g. 14:00:00)
+	 * @param dateEnd Specific end date (e.g. 5.8.2020)
+	 * @param timeEnd Specific end time (in UTC) (e.g. 14:00:00)
+	 * @param prefetch Number of pages to fetch ahead of the one being consumed
+	 * @return BlockfactsPager of JsonObjects
+	 */
+	public BlockfactsPager<JsonObject> GetAllHistoricalOHLCVData(String asset, String denominator, String interval, String dateStart, String timeStart, String dateEnd, String timeEnd, int prefetch) {
+		return new BlockfactsPager<JsonObject>(page -> GetHistoricalOHLCVDataAsync(asset, denominator, interval, dateStart, timeStart, dateEnd, timeEnd, page),
+				BlockfactsPager::JsonTotalPages, BlockfactsPager::JsonResults, prefetch);
+	}
 }
@@ -0,0 +1,290 @@
+package blockfacts.io.blockfacts_java_sdk.v1.REST;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Lazily walks all pages of a paginated historical endpoint.
+ * Pages are requested on demand, and up to {@code prefetch} following pages are fetched concurrently
+ * while the current one is being consumed, so memory stays bounded regardless of the number of pages.
+ * Every call to iterator(), Stream() or Publisher() starts a new walk from the first page.
+ */
+public class BlockfactsPager<T> implements Iterable<T> {
+	private final IntFunction<CompletableFuture<Page<T>>> fetcher;
+	private final int prefetch;
+	
+	/**
+	 * Creates a pager on top of an asynchronous page request.
+	 * @param fetcher Requests a specific page (starting from 1)
+	 * @param totalPages Extracts the total number of pages from a page
+	 * @param results Extracts the results from a page
+	 * @param prefetch Number of pages to fetch ahead of the one being consumed (0 disables prefetching)
+	 */
+	public <P> BlockfactsPager(IntFunction<CompletableFuture<P>> fetcher, ToIntFunction<P> totalPages, Function<P, List<T>> results, int prefetch) {
+		if(prefetch < 0) throw new IllegalArgumentException("prefetch must not be negative");
+		
+		this.fetcher = page -> fetcher.apply(page).thenApply(response -> {
+			if(response == null) return new Page<T>(0, Collections.<T>emptyList());
+			List<T> items = results.apply(response);
+			return new Page<T>(totalPages.applyAsInt(response), items != null ? items : Collections.<T>emptyList());
+		});
+		this.prefetch = prefetch;
+	}
+	
+	/**
+	 * Returns an iterator which blocks while the page it needs is still being fetched.
+	 * Failed page requests are thrown as CompletionException.
+	 * @return Iterator
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new PageIterator();
+	}
+	
+	/**
+	 * Returns a sequential, lazily populated stream over the results of all pages.
+	 * @return Stream
+	 */
+	public Stream<T> Stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+	
+	/**
+	 * Returns a reactive publisher over the results of all pages. Each subscriber gets its own walk,
+	 * pages are requested as the subscriber signals demand and items are delivered without blocking any thread.
+	 * @return Flow.Publisher
+	 */
+	public Flow.Publisher<T> Publisher() {
+		return subscriber -> {
+			PageSubscription subscription = new PageSubscription(subscriber);
+			subscriber.onSubscribe(subscription);
+		};
+	}
+	
+	static int JsonTotalPages(JsonObject response) {
+		JsonElement totalPages = response.get("totalPages");
+		return totalPages != null && !totalPages.isJsonNull() ? totalPages.getAsInt() : 1;
+	}
+	
+	static List<JsonObject> JsonResults(JsonObject response) {
+		JsonElement results = response.get("results");
+		if(results == null || !results.isJsonArray()) return Collections.emptyList();
+		
+		JsonArray array = results.getAsJsonArray();
+		List<JsonObject> items = new ArrayList<JsonObject>(array.size());
+		for(JsonElement element : array) {
+			items.add(element.getAsJsonObject());
+		}
+		
+		return items;
+	}
+	
+	private static final class Page<T> {
+		final int totalPages;
+		final List<T> results;
+		
+		Page(int totalPages, List<T> results) {
+			this.totalPages = totalPages;
+			this.results = results;
+		}
+	}
+	
+	/**
+	 * Keeps the window of requested pages for a single walk. Not thread-safe, callers serialize access.
+	 */
+	private final class PageCursor {
+		private final ArrayDeque<CompletableFuture<Page<T>>> window = new ArrayDeque<CompletableFuture<Page<T>>>();
+		private int nextPage = 1;
+		private int totalPages = -1;
+		
+		/**
+		 * Returns the next page in order, or null when all pages have been handed out.
+		 */
+		CompletableFuture<Page<T>> Next() {
+			if(window.isEmpty()) {
+				if(totalPages >= 0 && nextPage > totalPages) return null;
+				window.add(fetcher.apply(nextPage++));
+			}
+			
+			return window.poll();
+		}
+		
+		/**
+		 * Records a page handed out by Next and tops up the prefetch window now that the total page count is known.
+		 */
+		void Received(Page<T> page) {
+			totalPages = page.totalPages;
+			
+			while(window.size() < prefetch && nextPage <= totalPages) {
+				window.add(fetcher.apply(nextPage++));
+			}
+		}
+		
+		void Cancel() {
+			for(CompletableFuture<Page<T>> pending : window) {
+				pending.cancel(false);
+			}
+			window.clear();
+			totalPages = 0;
+		}
+	}
+	
+	private final class PageIterator implements Iterator<T> {
+		private final PageCursor cursor = new PageCursor();
+		private Iterator<T> current = Collections.emptyIterator();
+		
+		@Override
+		public boolean hasNext() {
+			while(!current.hasNext()) {
+				CompletableFuture<Page<T>> pending = cursor.Next();
+				if(pending == null) return false;
+				
+				Page<T> page = pending.join();
+				cursor.Received(page);
+				current = page.results.iterator();
+			}
+			
+			return true;
+		}
+		
+		@Override
+		public T next() {
+			if(!hasNext()) throw new NoSuchElementException();
+			return current.next();
+		}
+	}
+	
+	private final class PageSubscription implements Flow.Subscription {
+		private final Flow.Subscriber<? super T> subscriber;
+		private final PageCursor cursor = new PageCursor();
+		private final AtomicLong requested = new AtomicLong();
+		private final AtomicInteger wip = new AtomicInteger();
+		private Iterator<T> current = Collections.emptyIterator();
+		private CompletableFuture<Page<T>> pending;
+		private boolean waiting;
+		private volatile boolean done;
+		private volatile Throwable invalidRequest;
+		
+		PageSubscription(Flow.Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+		
+		@Override
+		public void request(long n) {
+			if(n <= 0) {
+				// Signalled from the drain loop, so it cannot overlap an onNext in progress on another thread
+				if(invalidRequest == null) invalidRequest = new IllegalArgumentException("Requested amount must be positive, got " + n);
+				Drain();
+				return;
+			}
+			
+			long previous, next;
+			do {
+				previous = requested.get();
+				next = previous + n < 0 ? Long.MAX_VALUE : previous + n;
+			} while(!requested.compareAndSet(previous, next));
+			
+			Drain();
+		}
+		
+		@Override
+		public void cancel() {
+			done = true;
+			Drain();
+		}
+		
+		/**
+		 * Emits as many items as the subscriber asked for. Only one thread drains at a time,
+		 * other callers just flag that another pass is needed. onNext, onError and onComplete are only signalled from here.
+		 */
+		private void Drain() {
+			if(wip.getAndIncrement() != 0) return;
+			
+			int missed = 1;
+			for(;;) {
+				Emit();
+				
+				missed = wip.addAndGet(-missed);
+				if(missed == 0) return;
+			}
+		}
+		
+		private void Emit() {
+			for(;;) {
+				if(done) {
+					cursor.Cancel();
+					return;
+				}
+				
+				Throwable invalid = invalidRequest;
+				if(invalid != null) {
+					done = true;
+					cursor.Cancel();
+					subscriber.onError(invalid);
+					return;
+				}
+				
+				if(current.hasNext()) {
+					if(requested.get() == 0) return;
+					
+					subscriber.onNext(current.next());
+					if(requested.get() != Long.MAX_VALUE) requested.decrementAndGet();
+					continue;
+				}
+				
+				if(pending == null) {
+					pending = cursor.Next();
+					waiting = false;
+					
+					if(pending == null) {
+						done = true;
+						subscriber.onComplete();
+						return;
+					}
+				}
+				
+				if(!pending.isDone()) {
+					if(!waiting) {
+						waiting = true;
+						pending.whenComplete((page, error) -> Drain());
+					}
+					return;
+				}
+				
+				Page<T> page;
+				try {
+					page = pending.join();
+				} catch (CompletionException e) {
+					done = true;
+					cursor.Cancel();
+					subscriber.onError(e.getCause() != null ? e.getCause() : e);
+					return;
+				}
+				
+				pending = null;
+				cursor.Received(page);
+				current = page.results.iterator();
+			}
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package blockfacts.io.blockfacts_java_sdk.v1.REST;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket limiting how many requests per second are sent to the BlockFacts API.
+ * Implemented as a lock-free virtual scheduler: every permit reserves the next free slot in time,
+ * and the bucket allows a burst of up to {@code burst} requests after being idle.
+ * One instance can be shared by several endpoint groups to pace them against a common plan limit.
+ */
+public class BlockfactsRateLimiter {
+	private final long intervalNanos;
+	private final long toleranceNanos;
+	private final AtomicLong theoreticalArrival;
+	
+	/**
+	 * Creates a rate limiter.
+	 * @param permitsPerSecond Sustained number of requests per second
+	 * @param burst Number of requests that may be sent at once after being idle (Min 1)
+	 */
+	public BlockfactsRateLimiter(double permitsPerSecond, int burst) {
+		if(permitsPerSecond <= 0) throw new IllegalArgumentException("permitsPerSecond must be positive");
+		if(burst < 1) throw new IllegalArgumentException("burst must be at least 1");
+		
+		this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+		this.toleranceNanos = this.intervalNanos * (burst - 1);
+		this.theoreticalArrival = new AtomicLong(System.nanoTime());
+	}
+	
+	/**
+	 * Reserves a permit and returns how long the caller has to wait before using it.
+	 * @return Wait time in nanoseconds, 0 if the request can be sent right away
+	 */
+	public long Reserve() {
+		for(;;) {
+			long now = System.nanoTime();
+			long arrival = theoreticalArrival.get();
+			long start = arrival - now > 0 ? arrival : now;
+			
+			if(theoreticalArrival.compareAndSet(arrival, start + intervalNanos)) {
+				long wait = start - toleranceNanos - now;
+				return wait > 0 ? wait : 0;
+			}
+		}
+	}
+	
+	/**
+	 * Blocks the calling thread until a permit is available.
+	 * @throws InterruptedException If the thread is interrupted while waiting
+	 */
+	public void Acquire() throws InterruptedException {
+		long wait = Reserve();
+		if(wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+	}
+	
+	/**
+	 * Returns a future which completes once a permit is available, without blocking any thread while waiting.
+	 * @return CompletableFuture
+	 */
+	public CompletableFuture<Void> AcquireAsync() {
+		long wait = Reserve();
+		if(wait == 0) return CompletableFuture.completedFuture(null);
+		
+		return CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS));
+	}
+	
+	/**
+	 * Stops handing out permits for the provided duration, e.g. after the server answered with a Retry-After header.
+	 * @param duration Pause length
+	 */
+	public void Pause(Duration duration) {
+		long until = System.nanoTime() + duration.toNanos() + toleranceNanos;
+		
+		for(;;) {
+			long arrival = theoreticalArrival.get();
+			if(arrival - until >= 0 || theoreticalArrival.compareAndSet(arrival, until)) return;
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package blockfacts.io.blockfacts_java_sdk.v1.REST;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.gson.JsonElement;
+
+/**
+ * Size bounded response cache for reference data endpoints which rarely change, such as asset and exchange listings.
+ * Entries expire after a per endpoint TTL and the least recently used entry is evicted once the cache is full.
+ * Expired entries which came with an ETag or Last-Modified header are revalidated with a conditional request
+ * instead of being downloaded again.
+ * The cache keeps the JSON tree of each response and never hands it out, callers get their own deserialized copy.
+ */
+public class BlockfactsResponseCache {
+	private final int maxEntries;
+	private final Duration defaultTtl;
+	private final ConcurrentHashMap<String, Duration> ttls = new ConcurrentHashMap<String, Duration>();
+	private final LinkedHashMap<String, Entry> entries;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder revalidations = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	
+	/**
+	 * Creates a response cache.
+	 * @param maxEntries Maximum number of cached responses
+	 * @param defaultTtl Time to live for endpoints without their own TTL
+	 */
+	public BlockfactsResponseCache(int maxEntries, Duration defaultTtl) {
+		if(maxEntries < 1) throw new IllegalArgumentException("maxEntries must be positive");
+		
+		this.maxEntries = maxEntries;
+		this.defaultTtl = defaultTtl;
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				if(size() <= BlockfactsResponseCache.this.maxEntries) return false;
+				evictions.increment();
+				return true;
+			}
+		};
+	}
+	
+	/**
+	 * Sets the time to live for one endpoint, overriding the default TTL. A zero TTL disables caching for the endpoint.
+	 * @param endpoint Name of the endpoint method (e.g. ListAllAssets, GetSpecificExchangeData)
+	 * @param ttl Time to live
+	 * @return BlockfactsResponseCache
+	 */
+	public BlockfactsResponseCache SetTtl(String endpoint, Duration ttl) {
+		ttls.put(endpoint, ttl);
+		return this;
+	}
+	
+	/**
+	 * @param endpoint Name of the endpoint method
+	 * @return Time to live used for the endpoint
+	 */
+	public Duration GetTtl(String endpoint) {
+		Duration ttl = ttls.get(endpoint);
+		return ttl != null ? ttl : defaultTtl;
+	}
+	
+	/**
+	 * Removes all cached responses.
+	 */
+	public synchronized void InvalidateAll() {
+		entries.clear();
+	}
+	
+	/**
+	 * @return Number of requests answered from the cache without contacting the server
+	 */
+	public long GetHits() {
+		return hits.sum();
+	}
+	
+	/**
+	 * @return Number of requests which were not in the cache or had expired
+	 */
+	public long GetMisses() {
+		return misses.sum();
+	}
+	
+	/**
+	 * @return Number of expired responses the server confirmed as unchanged (304 Not Modified)
+	 */
+	public long GetRevalidations() {
+		return revalidations.sum();
+	}
+	
+	/**
+	 * @return Number of responses evicted because the cache was full
+	 */
+	public long GetEvictions() {
+		return evictions.sum();
+	}
+	
+	/**
+	 * @return Number of cached responses
+	 */
+	public synchronized int GetSize() {
+		return entries.size();
+	}
+	
+	/**
+	 * Looks up a response and records the hit or miss. Expired entries are still returned so that they can be revalidated.
+	 */
+	Entry Get(String key) {
+		Entry entry;
+		synchronized(this) {
+			entry = entries.get(key);
+		}
+		
+		if(entry != null && entry.IsFresh()) hits.increment();
+		else misses.increment();
+		
+		return entry;
+	}
+	
+	/**
+	 * Caches a response unless the TTL disables caching, and returns its entry either way.
+	 */
+	Entry Put(String key, JsonElement tree, Duration ttl, String etag, String lastModified) {
+		boolean cacheable = ttl != null && !ttl.isZero() && !ttl.isNegative();
+		Entry entry = new Entry(tree, cacheable ? System.nanoTime() + ttl.toNanos() : System.nanoTime(), etag, lastModified);
+		if(!cacheable) return entry;
+		
+		synchronized(this) {
+			entries.put(key, entry);
+		}
+		
+		return entry;
+	}
+	
+	/**
+	 * Extends the lifetime of an entry the server confirmed as unchanged.
+	 */
+	void Revalidated(Entry entry, Duration ttl) {
+		revalidations.increment();
+		entry.expiresAt = System.nanoTime() + ttl.toNanos();
+	}
+	
+	static final class Entry {
+		final JsonElement tree;
+		final String etag;
+		final String lastModified;
+		volatile long expiresAt;
+		
+		Entry(JsonElement tree, long expiresAt, String etag, String lastModified) {
+			this.tree = tree;
+			this.expiresAt = expiresAt;
+			this.etag = etag;
+			this.lastModified = lastModified;
+		}
+		
+		boolean IsFresh() {
+			return expiresAt - System.nanoTime() > 0;
+		}
+		
+		boolean CanRevalidate() {
+			return etag != null || lastModified != null;
+		}
+	}
+}
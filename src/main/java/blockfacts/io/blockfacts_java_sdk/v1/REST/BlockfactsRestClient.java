@@ -1,26 +1,207 @@
 package blockfacts.io.blockfacts_java_sdk.v1.REST;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Metrics.BlockfactsMetrics;
+
 public class BlockfactsRestClient {
 	
 	public AssetEndpoints Assets;
 	public BlockfactsEndpoints Blockfacts;
 	public ExchangeEndpoints Exchanges;
+	public HttpClient restClient;
 	
 	public BlockfactsRestClient(String key, String secret) {
-		this.Assets = new AssetEndpoints(key, secret);
-		this.Blockfacts = new BlockfactsEndpoints(key, secret);
-		this.Exchanges = new ExchangeEndpoints(key, secret);
+		this(new Builder(key, secret));
+	}
+	
+	/**
+	 * Creates a client whose asynchronous requests and response handling run on the provided executor.
+	 * @param key BlockFacts API key
+	 * @param secret BlockFacts API secret
+	 * @param executor Executor used by the underlying HttpClient and for deserializing async responses
+	 */
+	public BlockfactsRestClient(String key, String secret, Executor executor) {
+		this(new Builder(key, secret).SetExecutor(executor));
+	}
+	
+	private BlockfactsRestClient(Builder builder) {
+		this.restClient = builder.restClient != null ? builder.restClient : builder.BuildHttpClient();
+		this.Assets = new AssetEndpoints(builder.key, builder.secret, this.restClient, builder.executor, builder.requestTimeout);
+		this.Blockfacts = new BlockfactsEndpoints(builder.key, builder.secret, this.restClient, builder.executor, builder.requestTimeout);
+		this.Exchanges = new ExchangeEndpoints(builder.key, builder.secret, this.restClient, builder.executor, builder.requestTimeout);
+		
+		for(Endpoints endpoints : new Endpoints[] { this.Assets, this.Blockfacts, this.Exchanges }) {
+			endpoints.rateLimiter = builder.rateLimiter;
+			endpoints.concurrencyLimiter = builder.concurrencyLimiter;
+			endpoints.responseCache = builder.responseCache;
+			endpoints.coalesceRequests = builder.coalesceRequests;
+			endpoints.metrics = builder.metrics;
+		}
+	}
+	
+	/**
+	 * Creates a builder for configuring the HttpClient shared by all endpoint groups.
+	 * @param key BlockFacts API key
+	 * @param secret BlockFacts API secret
+	 * @return Builder
+	 */
+	public static Builder NewBuilder(String key, String secret) {
+		return new Builder(key, secret);
 	}
 	
 	public void SetKey(String key) {
-		this.Assets.key = key;
-		this.Blockfacts.key = key;
-		this.Exchanges.key = key;
+		this.Assets.SetKey(key);
+		this.Blockfacts.SetKey(key);
+		this.Exchanges.SetKey(key);
 	}
 	
 	public void SetSecret(String secret) {
-		this.Assets.secret = secret;
-		this.Blockfacts.secret = secret;
-		this.Exchanges.secret = secret;
+		this.Assets.SetSecret(secret);
+		this.Blockfacts.SetSecret(secret);
+		this.Exchanges.SetSecret(secret);
+	}
+	
+	public static class Builder {
+		private String key;
+		private String secret;
+		private HttpClient restClient;
+		private boolean preferHttp2 = true;
+		private Duration connectTimeout;
+		private Executor executor;
+		private Duration requestTimeout;
+		private BlockfactsRateLimiter rateLimiter;
+		private BlockfactsConcurrencyLimiter concurrencyLimiter;
+		private BlockfactsResponseCache responseCache;
+		private boolean coalesceRequests;
+		private BlockfactsMetrics metrics = BlockfactsMetrics.NOOP;
+		
+		public Builder(String key, String secret) {
+			this.key = key;
+			this.secret = secret;
+		}
+		
+		/**
+		 * Uses an existing HttpClient instead of creating one. HTTP version, connect timeout and executor of the provided client are left untouched.
+		 * @param restClient HttpClient shared by all endpoint groups
+		 * @return Builder
+		 */
+		public Builder SetHttpClient(HttpClient restClient) {
+			this.restClient = restClient;
+			return this;
+		}
+		
+		/**
+		 * Sets whether HTTP/2 should be negotiated, so that concurrent requests are multiplexed over a single connection. Enabled by default.
+		 * @param preferHttp2 True for HTTP/2 with HTTP/1.1 fallback, false for HTTP/1.1 only
+		 * @return Builder
+		 */
+		public Builder SetPreferHttp2(boolean preferHttp2) {
+			this.preferHttp2 = preferHttp2;
+			return this;
+		}
+		
+		/**
+		 * Sets the maximum time to wait for a connection to the BlockFacts API to be established.
+		 * @param connectTimeout Connect timeout
+		 * @return Builder
+		 */
+		public Builder SetConnectTimeout(Duration connectTimeout) {
+			this.connectTimeout = connectTimeout;
+			return this;
+		}
+		
+		/**
+		 * Sets the executor used by the HttpClient and for deserializing async responses.
+		 * Response bodies are deserialized while they are still streaming in, so the executor should have more than one thread.
+		 * @param executor Executor
+		 * @return Builder
+		 */
+		public Builder SetExecutor(Executor executor) {
+			this.executor = executor;
+			return this;
+		}
+		
+		/**
+		 * Sets the timeout applied to every request, after which the request fails with an HttpTimeoutException.
+		 * @param requestTimeout Per request timeout
+		 * @return Builder
+		 */
+		public Builder SetRequestTimeout(Duration requestTimeout) {
+			this.requestTimeout = requestTimeout;
+			return this;
+		}
+		
+		/**
+		 * Paces the requests of all endpoint groups with one shared rate limiter.
+		 * A group can be given its own limiter afterwards by assigning its rateLimiter field (e.g. restClient.Exchanges.rateLimiter).
+		 * @param rateLimiter Rate limiter, or null to send requests as fast as they are made
+		 * @return Builder
+		 */
+		public Builder SetRateLimiter(BlockfactsRateLimiter rateLimiter) {
+			this.rateLimiter = rateLimiter;
+			return this;
+		}
+		
+		/**
+		 * Limits the number of requests in flight across all endpoint groups with one adaptive concurrency limiter.
+		 * A group can be given its own limiter afterwards by assigning its concurrencyLimiter field.
+		 * @param concurrencyLimiter Concurrency limiter, or null for no limit
+		 * @return Builder
+		 */
+		public Builder SetConcurrencyLimiter(BlockfactsConcurrencyLimiter concurrencyLimiter) {
+			this.concurrencyLimiter = concurrencyLimiter;
+			return this;
+		}
+		
+		/**
+		 * Caches the reference data endpoints (assets, exchanges, pair info and normalization pairs) of all endpoint groups in one shared cache.
+		 * @param responseCache Response cache, or null to always ask the server
+		 * @return Builder
+		 */
+		public Builder SetResponseCache(BlockfactsResponseCache responseCache) {
+			this.responseCache = responseCache;
+			return this;
+		}
+		
+		/**
+		 * Lets concurrent calls for the same request URI share one HTTP request instead of each sending their own (Default false).
+		 * @param coalesceRequests Whether identical in flight requests are coalesced
+		 * @return Builder
+		 */
+		public Builder SetCoalesceRequests(boolean coalesceRequests) {
+			this.coalesceRequests = coalesceRequests;
+			return this;
+		}
+		
+		/**
+		 * Records the latency, status code, body size and deserialization time of the requests of all endpoint groups.
+		 * @param metrics Metrics (e.g. BlockfactsInMemoryMetrics or BlockfactsMicrometerMetrics), or null to record nothing
+		 * @return Builder
+		 */
+		public Builder SetMetrics(BlockfactsMetrics metrics) {
+			this.metrics = metrics != null ? metrics : BlockfactsMetrics.NOOP;
+			return this;
+		}
+		
+		/**
+		 * Creates the client. All endpoint groups share one HttpClient, so they multiplex over the same connections.
+		 * @return BlockfactsRestClient
+		 */
+		public BlockfactsRestClient Build() {
+			return new BlockfactsRestClient(this);
+		}
+		
+		private HttpClient BuildHttpClient() {
+			HttpClient.Builder builder = HttpClient.newBuilder()
+					.version(this.preferHttp2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1);
+			
+			if(this.connectTimeout != null) builder.connectTimeout(this.connectTimeout);
+			if(this.executor != null) builder.executor(this.executor);
+			
+			return builder.build();
+		}
 	}
 }
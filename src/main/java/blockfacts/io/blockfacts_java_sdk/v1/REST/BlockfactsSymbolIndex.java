@@ -0,0 +1,241 @@
+package blockfacts.io.blockfacts_java_sdk.v1.REST;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsExchangeDataModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsPairModel;
+
+/**
+ * Local index of the pairs of every exchange, which resolves exchange symbols to BlockFacts pairs and back without a request.
+ * Both directions are two hash lookups on an immutable snapshot and do not allocate.
+ * A refresh builds a new snapshot from the exchange data endpoints and swaps it in at once, so lookups never see a half built index.
+ * If a refresh fails, the previous snapshot stays in use.
+ * Exchange names are matched ignoring case. The returned pairs are shared by every lookup and must be treated as read-only.
+ */
+public class BlockfactsSymbolIndex implements AutoCloseable {
+	private final ExchangeEndpoints endpoints;
+	private volatile List<String> exchanges;
+	private volatile Snapshot snapshot = new Snapshot();
+	private ScheduledExecutorService scheduler;
+	
+	/**
+	 * Creates an empty index of all exchanges. Call Refresh or Start to load it.
+	 * @param endpoints Exchange endpoint group used for loading the pairs
+	 */
+	public BlockfactsSymbolIndex(ExchangeEndpoints endpoints) {
+		this.endpoints = endpoints;
+	}
+	
+	/**
+	 * Limits the index to the provided exchanges, which are loaded one by one instead of from the list of all exchanges.
+	 * @param exchanges Exchange names (e.g. KRAKEN, COINBASE)
+	 * @return BlockfactsSymbolIndex
+	 */
+	public BlockfactsSymbolIndex SetExchanges(String... exchanges) {
+		this.exchanges = exchanges.length == 0 ? null : new ArrayList<String>(Arrays.asList(exchanges));
+		return this;
+	}
+	
+	/**
+	 * Loads the pairs and swaps in the new index, blocking until it is done.
+	 * Reference: https://docs.blockfacts.io/?java#specific-exchange-data
+	 * @return Whether the index was refreshed, false if the request failed
+	 */
+	public boolean Refresh() {
+		try {
+			RefreshAsync().join();
+			return true;
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+	
+	/**
+	 * Loads the pairs without blocking and swaps in the new index once all of them arrived.
+	 * With a response cache on the endpoint group, cached exchange data is used while it is fresh.
+	 * Reference: https://docs.blockfacts.io/?java#specific-exchange-data
+	 * @return CompletableFuture which completes once the new index is in use
+	 */
+	public CompletableFuture<BlockfactsSymbolIndex> RefreshAsync() {
+		List<String> exchanges = this.exchanges;
+		CompletableFuture<List<BlockfactsExchangeDataModel>> loaded = exchanges == null
+				? endpoints.ListAllExchangesAsync().thenCompose(this::LoadMissingPairs)
+				: Load(exchanges);
+		
+		return loaded.thenApply(data -> {
+			snapshot = new Snapshot(data);
+			return this;
+		});
+	}
+	
+	/**
+	 * Refreshes the index now and then periodically in the background.
+	 * @param interval Time between refreshes
+	 * @return BlockfactsSymbolIndex
+	 */
+	public synchronized BlockfactsSymbolIndex Start(Duration interval) {
+		if(scheduler != null) return this;
+		
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "blockfacts-symbol-index");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleWithFixedDelay(this::Refresh, 0, interval.toNanos(), TimeUnit.NANOSECONDS);
+		
+		return this;
+	}
+	
+	/**
+	 * Resolves a symbol of an exchange, either its query or its ticker ID, to the pair it belongs to.
+	 * @param exchange Exchange name (e.g. KRAKEN)
+	 * @param symbol Exchange symbol (e.g. XBTUSD)
+	 * @return Shared read-only BlockfactsPairModel, or null if the symbol is not known
+	 */
+	public BlockfactsPairModel Resolve(String exchange, String symbol) {
+		if(exchange == null) return null;
+		
+		HashMap<String, BlockfactsPairModel> pairs = snapshot.bySymbol.get(Key(exchange));
+		return pairs == null ? null : pairs.get(symbol);
+	}
+	
+	/**
+	 * Resolves a symbol of an exchange to its BlockFacts pair.
+	 * @param exchange Exchange name (e.g. KRAKEN)
+	 * @param symbol Exchange symbol (e.g. XBTUSD)
+	 * @return BlockFacts pair (e.g. BTC-USD), or null if the symbol is not known
+	 */
+	public String GetBlockfactsPair(String exchange, String symbol) {
+		BlockfactsPairModel pair = Resolve(exchange, symbol);
+		return pair == null ? null : pair.blockfactsPair;
+	}
+	
+	/**
+	 * Finds how an exchange lists a BlockFacts pair. If the exchange lists it more than once, an active listing is preferred.
+	 * @param exchange Exchange name (e.g. KRAKEN)
+	 * @param blockfactsPair BlockFacts pair (e.g. BTC-USD)
+	 * @return Shared read-only BlockfactsPairModel, or null if the exchange does not list the pair
+	 */
+	public BlockfactsPairModel GetExchangePair(String exchange, String blockfactsPair) {
+		if(exchange == null) return null;
+		
+		HashMap<String, BlockfactsPairModel> pairs = snapshot.byPair.get(Key(exchange));
+		return pairs == null ? null : pairs.get(blockfactsPair);
+	}
+	
+	/**
+	 * @return Number of pairs in the index
+	 */
+	public int GetSize() {
+		return snapshot.size;
+	}
+	
+	/**
+	 * @return Time of the last successful refresh in milliseconds since the epoch, or 0 if the index was never loaded
+	 */
+	public long GetRefreshedAt() {
+		return snapshot.refreshedAt;
+	}
+	
+	/**
+	 * Stops the background refresh. The index keeps answering lookups.
+	 */
+	@Override
+	public synchronized void close() {
+		if(scheduler == null) return;
+		
+		scheduler.shutdownNow();
+		scheduler = null;
+	}
+	
+	private CompletableFuture<List<BlockfactsExchangeDataModel>> Load(List<String> exchanges) {
+		List<CompletableFuture<BlockfactsExchangeDataModel>> requests = new ArrayList<CompletableFuture<BlockfactsExchangeDataModel>>();
+		for(String exchange : exchanges) {
+			requests.add(endpoints.GetSpecificExchangeDataAsync(exchange));
+		}
+		
+		return CompletableFuture.allOf(requests.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+			List<BlockfactsExchangeDataModel> data = new ArrayList<BlockfactsExchangeDataModel>();
+			for(CompletableFuture<BlockfactsExchangeDataModel> request : requests) {
+				data.add(request.join());
+			}
+			
+			return data;
+		});
+	}
+	
+	/**
+	 * Loads the pairs of the exchanges for which the list of all exchanges did not include them.
+	 */
+	private CompletableFuture<List<BlockfactsExchangeDataModel>> LoadMissingPairs(List<BlockfactsExchangeDataModel> all) {
+		List<String> missing = new ArrayList<String>();
+		List<BlockfactsExchangeDataModel> complete = new ArrayList<BlockfactsExchangeDataModel>();
+		for(BlockfactsExchangeDataModel exchange : all) {
+			if(exchange.pairs != null) complete.add(exchange);
+			else if(exchange.exchange != null) missing.add(exchange.exchange);
+		}
+		if(missing.isEmpty()) return CompletableFuture.completedFuture(complete);
+		
+		return Load(missing).thenApply(loaded -> {
+			complete.addAll(loaded);
+			return complete;
+		});
+	}
+	
+	/**
+	 * Exchanges are keyed by their upper case names. Upper case names, as the server sends them, are used as they are without allocating.
+	 */
+	private static String Key(String exchange) {
+		return exchange.toUpperCase(Locale.ROOT);
+	}
+	
+	/**
+	 * Immutable maps of upper case exchange to symbol to pair, and of exchange to BlockFacts pair to pair.
+	 */
+	private static final class Snapshot {
+		final HashMap<String, HashMap<String, BlockfactsPairModel>> bySymbol = new HashMap<String, HashMap<String, BlockfactsPairModel>>();
+		final HashMap<String, HashMap<String, BlockfactsPairModel>> byPair = new HashMap<String, HashMap<String, BlockfactsPairModel>>();
+		final int size;
+		final long refreshedAt;
+		
+		Snapshot() {
+			this.size = 0;
+			this.refreshedAt = 0;
+		}
+		
+		Snapshot(List<BlockfactsExchangeDataModel> data) {
+			int size = 0;
+			for(BlockfactsExchangeDataModel exchange : data) {
+				if(exchange == null || exchange.exchange == null || exchange.pairs == null) continue;
+				
+				HashMap<String, BlockfactsPairModel> symbols = new HashMap<String, BlockfactsPairModel>(exchange.pairs.size() * 4);
+				HashMap<String, BlockfactsPairModel> pairs = new HashMap<String, BlockfactsPairModel>(exchange.pairs.size() * 2);
+				for(BlockfactsPairModel pair : exchange.pairs) {
+					if(pair.query != null) symbols.put(pair.query, pair);
+					if(pair.tickerId != null) symbols.putIfAbsent(pair.tickerId, pair);
+					if(pair.blockfactsPair != null) {
+						BlockfactsPairModel existing = pairs.get(pair.blockfactsPair);
+						if(existing == null || (!existing.active && pair.active)) pairs.put(pair.blockfactsPair, pair);
+					}
+					size++;
+				}
+				
+				bySymbol.put(Key(exchange.exchange), symbols);
+				byPair.put(Key(exchange.exchange), pairs);
+			}
+			
+			this.size = size;
+			this.refreshedAt = System.currentTimeMillis();
+		}
+	}
+}
@@ -1,20 +1,513 @@
 package blockfacts.io.blockfacts_java_sdk.v1.REST;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
 import org.json.simple.JSONObject;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.MalformedJsonException;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Metrics.BlockfactsMetrics;
+
 public class Endpoints {
-	public String key;
-	public String secret;
-	public JSONObject headers;
+	public volatile String key;
+	public volatile String secret;
+	public volatile JSONObject headers;
 	public String blockfactsApiUrl;
+	public HttpClient restClient;
+	public Executor executor;
+	public Duration requestTimeout;
+	public volatile BlockfactsRateLimiter rateLimiter;
+	public volatile BlockfactsConcurrencyLimiter concurrencyLimiter;
+	public volatile BlockfactsResponseCache responseCache;
+	public volatile boolean coalesceRequests;
+	public volatile BlockfactsMetrics metrics = BlockfactsMetrics.NOOP;
+	
+	protected static final Gson gson = new Gson();
+	protected static final TypeAdapter<JsonObject> JSON_OBJECT_ADAPTER = Adapter(JsonObject.class);
+	protected static final TypeAdapter<JsonArray> JSON_ARRAY_ADAPTER = Adapter(JsonArray.class);
+	private static final TypeAdapter<JsonElement> JSON_TREE_ADAPTER = Adapter(JsonElement.class);
+	private static final int MAX_ERROR_BODY_LENGTH = 4096;
+	private static final BodyHandler<InputStream> COUNTED_BODY = info -> BodySubscribers.mapping(BodySubscribers.ofInputStream(), CountingInputStream::new);
+	private final ConcurrentHashMap<String, CompletableFuture<JsonElement>> inFlight = new ConcurrentHashMap<String, CompletableFuture<JsonElement>>();
+	private final ConcurrentHashMap<String, CompletableFuture<BlockfactsResponseCache.Entry>> inFlightCached = new ConcurrentHashMap<String, CompletableFuture<BlockfactsResponseCache.Entry>>();
+	private final String metricsPrefix = getClass().getSimpleName() + ".";
 	
 	public Endpoints(String key, String secret) {
+		this(key, secret, null);
+	}
+	
+	public Endpoints(String key, String secret, Executor executor) {
+		this(key, secret, executor != null ? HttpClient.newBuilder().executor(executor).build() : HttpClient.newHttpClient(), executor, null);
+	}
+	
+	/**
+	 * Creates an endpoint group on top of an existing HttpClient, so that several groups can share its connection pool.
+	 * @param key BlockFacts API key
+	 * @param secret BlockFacts API secret
+	 * @param restClient HttpClient used for sending the requests
+	 * @param executor Executor used for deserializing async responses, or null to use the executor of the HttpClient
+	 * @param requestTimeout Timeout applied to every request, or null for no timeout
+	 */
+	public Endpoints(String key, String secret, HttpClient restClient, Executor executor, Duration requestTimeout) {
 		this.blockfactsApiUrl = "https://api.blockfacts.io";
 		this.key = key;
 		this.secret = secret;
-		this.headers = new JSONObject();
-		this.headers.put("Content-Type", "application/json");
-		this.headers.put("X-API-KEY", this.key);
-		this.headers.put("X-API-SECRET", this.secret);
+		this.headers = CreateHeaders(key, secret);
+		this.restClient = restClient;
+		this.executor = executor != null ? executor : restClient.executor().orElse(null);
+		this.requestTimeout = requestTimeout;
+	}
+	
+	/**
+	 * Changes the API key used by this endpoint group. Safe to call while requests are in flight.
+	 * @param key BlockFacts API key
+	 */
+	public void SetKey(String key) {
+		this.key = key;
+		this.headers = CreateHeaders(key, this.secret);
+	}
+	
+	/**
+	 * Changes the API secret used by this endpoint group. Safe to call while requests are in flight.
+	 * @param secret BlockFacts API secret
+	 */
+	public void SetSecret(String secret) {
+		this.secret = secret;
+		this.headers = CreateHeaders(this.key, secret);
+	}
+	
+	/**
+	 * Builds an authenticated GET request for the provided API path.
+	 * Every call builds its own request, so endpoint methods can be called from many threads at once.
+	 * @param path Path and query string relative to the BlockFacts API url (e.g. /api/v1/assets)
+	 * @return HttpRequest
+	 */
+	protected HttpRequest BuildRequest(String path) {
+		JSONObject headers = this.headers;
+		
+		HttpRequest.Builder builder = HttpRequest.newBuilder()
+	      	      .uri(URI.create(this.blockfactsApiUrl + path))
+	      	      .header("Content-Type", headers.get("Content-Type").toString())
+	      	      .header("X-API-KEY", headers.get("X-API-KEY").toString())
+	      	      .header("X-API-SECRET", headers.get("X-API-SECRET").toString());
+		
+		if(this.requestTimeout != null) builder.timeout(this.requestTimeout);
+		
+		return builder.build();
+	}
+	
+	/**
+	 * Sends the request without blocking the calling thread and deserializes the response body into the provided type.
+	 * The body is streamed straight into the adapter, without first buffering it as a string or a JSON tree.
+	 * When requests are coalesced, the shared request reads the body into a JSON tree instead, and every caller
+	 * deserializes its own result from it with its own adapter, so endpoints requesting the same URI as different types can share it.
+	 * If the endpoint group has a rate limiter or a concurrency limiter, the request waits for its permits without blocking a thread.
+	 * The returned future completes exceptionally if the request or the deserialization fails.
+	 * @param endpoint Name of the endpoint method, used for recording metrics
+	 * @param request Request to send
+	 * @param adapter Cached adapter for the type of the response
+	 * @return CompletableFuture of the deserialized response
+	 */
+	protected <T> CompletableFuture<T> SendAsync(String endpoint, HttpRequest request, TypeAdapter<T> adapter) {
+		if(!this.coalesceRequests) return Send(endpoint, request, response -> ReadResponse(response, adapter));
+		
+		return Coalesce(inFlight, request.uri().toString(), () -> Send(endpoint, request, response -> ReadResponse(response, JSON_TREE_ADAPTER)))
+				.thenApply(adapter::fromJsonTree);
+	}
+	
+	/**
+	 * Builds the request for the provided API path and sends it the same way as SendAsync with a built request.
+	 * Input which does not form a valid request URI (e.g. a ticker containing a space) fails the returned future
+	 * instead of throwing, so callers composing futures always get a future back.
+	 * @param endpoint Name of the endpoint method, used for recording metrics
+	 * @param path Path and query string relative to the BlockFacts API url
+	 * @param adapter Cached adapter for the type of the response
+	 * @return CompletableFuture of the deserialized response
+	 */
+	protected <T> CompletableFuture<T> SendAsync(String endpoint, String path, TypeAdapter<T> adapter) {
+		HttpRequest request;
+		try {
+			request = BuildRequest(path);
+		} catch (RuntimeException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+		
+		return SendAsync(endpoint, request, adapter);
+	}
+	
+	/**
+	 * Same as SendAsync with an endpoint name, with the path of the request recorded as the endpoint.
+	 * @param request Request to send
+	 * @param adapter Cached adapter for the type of the response
+	 * @return CompletableFuture of the deserialized response
+	 */
+	protected <T> CompletableFuture<T> SendAsync(HttpRequest request, TypeAdapter<T> adapter) {
+		return SendAsync(request.uri().getPath(), request, adapter);
+	}
+	
+	/**
+	 * Waits for the permits of the limiters and sends the request, passing the streamed response to the handler.
+	 */
+	private <T> CompletableFuture<T> Send(String endpoint, HttpRequest request, Function<HttpResponse<InputStream>, T> handler) {
+		BlockfactsRateLimiter rateLimiter = this.rateLimiter;
+		BlockfactsConcurrencyLimiter concurrencyLimiter = this.concurrencyLimiter;
+		
+		CompletableFuture<Void> permit = rateLimiter != null ? rateLimiter.AcquireAsync() : CompletableFuture.<Void>completedFuture(null);
+		if(concurrencyLimiter != null) permit = permit.thenCompose(ignored -> concurrencyLimiter.Acquire());
+		
+		return permit.thenCompose(ignored -> Exchange(endpoint, request, handler, rateLimiter, concurrencyLimiter));
+	}
+	
+	/**
+	 * Same as SendAsync, but answers from the response cache of the endpoint group while the cached response is fresh.
+	 * Expired responses which carry an ETag or Last-Modified header are revalidated with a conditional request,
+	 * and a 304 Not Modified answer keeps using the cached response. Without a response cache this is plain SendAsync.
+	 * The cache keeps the JSON tree of the response, and every caller gets its own object deserialized from it,
+	 * so callers may modify what they get without affecting the cache or each other.
+	 * The request is only built when the cache cannot answer, so a cache hit does not touch the network stack at all.
+	 * Input which does not form a valid request URI fails the returned future instead of throwing.
+	 * @param endpoint Name of the endpoint method, used for looking up its TTL
+	 * @param path Path and query string relative to the BlockFacts API url
+	 * @param adapter Cached adapter for the type of the response
+	 * @return CompletableFuture of the (possibly cached) response
+	 */
+	protected <T> CompletableFuture<T> SendCachedAsync(String endpoint, String path, TypeAdapter<T> adapter) {
+		BlockfactsResponseCache cache = this.responseCache;
+		if(cache == null) return SendAsync(endpoint, path, adapter);
+		
+		String cacheKey = this.blockfactsApiUrl + path;
+		BlockfactsResponseCache.Entry cached = cache.Get(cacheKey);
+		if(cached != null && cached.IsFresh()) {
+			try {
+				return CompletableFuture.completedFuture(adapter.fromJsonTree(cached.tree));
+			} catch (RuntimeException e) {
+				return CompletableFuture.failedFuture(e);
+			}
+		}
+		
+		BlockfactsResponseCache.Entry stale = cached != null && cached.CanRevalidate() ? cached : null;
+		Duration ttl = cache.GetTtl(endpoint);
+		HttpRequest request;
+		try {
+			request = ConditionalRequest(path, stale);
+		} catch (RuntimeException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+		
+		// Coalesced callers share the entry, and each of them deserializes its own copy
+		CompletableFuture<BlockfactsResponseCache.Entry> entry = Coalesce(inFlightCached, cacheKey, () -> Send(endpoint, request, response -> {
+			if(stale != null && response.statusCode() == 304) {
+				CloseQuietly(response.body());
+				cache.Revalidated(stale, ttl);
+				return stale;
+			}
+			
+			JsonElement tree = ReadResponse(response, JSON_TREE_ADAPTER);
+			return cache.Put(cacheKey, tree, ttl, response.headers().firstValue("ETag").orElse(null), response.headers().firstValue("Last-Modified").orElse(null));
+		}));
+		
+		return entry.thenApply(fetched -> adapter.fromJsonTree(fetched.tree));
+	}
+	
+	/**
+	 * Builds the request for a cached endpoint, asking the server to only send the body if it changed since the stale response.
+	 */
+	private HttpRequest ConditionalRequest(String path, BlockfactsResponseCache.Entry stale) {
+		HttpRequest request = BuildRequest(path);
+		if(stale == null) return request;
+		
+		HttpRequest.Builder builder = HttpRequest.newBuilder(request, (name, value) -> true);
+		if(stale.etag != null) builder.header("If-None-Match", stale.etag);
+		if(stale.lastModified != null) builder.header("If-Modified-Since", stale.lastModified);
+		
+		return builder.build();
+	}
+	
+	/**
+	 * Lets concurrent identical requests share one in flight request when coalesceRequests is enabled.
+	 * The first caller sends the request, callers arriving before it completes get the same response,
+	 * and callers arriving afterwards send a new one. Every caller gets its own future, so cancelling one does not affect the others.
+	 * If sending throws, the shared entry is removed and the failure is passed to the callers which joined it, so it cannot block later calls.
+	 * Shared responses are untyped JSON trees or cache entries, never the deserialized result, so callers of different types cannot get each other's results.
+	 * @param inFlight Requests in flight of the same kind
+	 * @param key Fully built request URI
+	 * @param send Sends the request
+	 * @return CompletableFuture of the shared response
+	 */
+	private <V> CompletableFuture<V> Coalesce(ConcurrentHashMap<String, CompletableFuture<V>> inFlight, String key, Supplier<CompletableFuture<V>> send) {
+		if(!this.coalesceRequests) return send.get();
+		
+		CompletableFuture<V> shared = new CompletableFuture<V>();
+		CompletableFuture<V> existing = inFlight.putIfAbsent(key, shared);
+		if(existing != null) return existing.copy();
+		
+		CompletableFuture<V> sent;
+		try {
+			sent = send.get();
+		} catch (RuntimeException e) {
+			// Callers which already joined get the failure, later ones send their own request
+			inFlight.remove(key, shared);
+			shared.completeExceptionally(e);
+			return shared.copy();
+		}
+		
+		sent.whenComplete((value, error) -> {
+			inFlight.remove(key, shared);
+			if(error != null) shared.completeExceptionally(error);
+			else shared.complete(value);
+		});
+		
+		return shared.copy();
+	}
+	
+	/**
+	 * Sends a request which already got its permits, and reports the outcome back to the limiters and the metrics.
+	 */
+	private <T> CompletableFuture<T> Exchange(String endpoint, HttpRequest request, Function<HttpResponse<InputStream>, T> handler, BlockfactsRateLimiter rateLimiter, BlockfactsConcurrencyLimiter concurrencyLimiter) {
+		BlockfactsMetrics metrics = this.metrics;
+		boolean measured = metrics != null && metrics != BlockfactsMetrics.NOOP;
+		long started = System.nanoTime();
+		long[] latency = new long[1];
+		
+		CompletableFuture<HttpResponse<InputStream>> sent = restClient.sendAsync(request, measured ? COUNTED_BODY : BodyHandlers.ofInputStream())
+				.thenApply(response -> {
+					latency[0] = System.nanoTime() - started;
+					return response;
+				});
+		
+		Function<HttpResponse<InputStream>, T> measuredHandler = handler;
+		if(measured) {
+			String name = metricsPrefix + endpoint;
+			sent.whenComplete((response, error) -> {
+				if(error != null) metrics.RecordRequest(name, 0, System.nanoTime() - started, 0, 0);
+			});
+			measuredHandler = response -> Measure(name, metrics, response, handler, latency[0]);
+		}
+		
+		CompletableFuture<T> result = this.executor != null
+				? sent.thenApplyAsync(measuredHandler, this.executor)
+				: sent.thenApply(measuredHandler);
+		
+		if(rateLimiter == null && concurrencyLimiter == null) return result;
+		
+		return result.whenComplete((value, error) -> {
+			Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+			boolean rejected = cause instanceof BlockfactsApiException && ((BlockfactsApiException) cause).IsRateLimited();
+			
+			if(rejected && rateLimiter != null && ((BlockfactsApiException) cause).retryAfter != null) {
+				rateLimiter.Pause(((BlockfactsApiException) cause).retryAfter);
+			}
+			
+			if(concurrencyLimiter != null) {
+				if(rejected) concurrencyLimiter.OnRejected();
+				else if(error != null) concurrencyLimiter.OnFailure();
+				else concurrencyLimiter.OnSuccess(latency[0]);
+			}
+		});
+	}
+	
+	/**
+	 * Returns the cached adapter used for deserializing responses into the provided type.
+	 * @param type Class of the response (e.g. JsonObject.class)
+	 * @return TypeAdapter
+	 */
+	protected static <T> TypeAdapter<T> Adapter(Class<T> type) {
+		return gson.getAdapter(type);
+	}
+	
+	/**
+	 * Returns the cached adapter used for deserializing responses into the provided generic type.
+	 * @param type Type token of the response (e.g. a list of models)
+	 * @return TypeAdapter
+	 */
+	protected static <T> TypeAdapter<T> Adapter(TypeToken<T> type) {
+		return gson.getAdapter(type);
+	}
+	
+	/**
+	 * Requests the first page, then all remaining pages at once, and appends their results to the results of the first page in page order.
+	 * The limiters of the endpoint group still apply to every page request.
+	 * @param fetcher Requests a specific page (starting from 1)
+	 * @param totalPages Extracts the total number of pages from a page
+	 * @param results Extracts the results from a page
+	 * @param append Appends the results of a page to the merged results
+	 * @return CompletableFuture of the merged results
+	 */
+	protected static <P, R> CompletableFuture<R> MergePages(IntFunction<CompletableFuture<P>> fetcher, ToIntFunction<P> totalPages, Function<P, R> results, BiConsumer<R, R> append) {
+		return fetcher.apply(1).thenCompose(first -> {
+			List<CompletableFuture<P>> pages = new ArrayList<CompletableFuture<P>>();
+			for(int page = 2; page <= totalPages.applyAsInt(first); page++) {
+				pages.add(fetcher.apply(page));
+			}
+			
+			return CompletableFuture.allOf(pages.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+				R merged = results.apply(first);
+				for(CompletableFuture<P> page : pages) {
+					R pageResults = results.apply(page.join());
+					if(merged == null) merged = pageResults;
+					else if(pageResults != null) append.accept(merged, pageResults);
+				}
+				
+				return merged;
+			});
+		});
+	}
+	
+	/**
+	 * Waits for the response of a blocking endpoint call.
+	 * Request failures are printed and reported as null, while deserialization errors are rethrown.
+	 * @param future Pending response
+	 * @return Response, or null if the request failed
+	 */
+	protected <T> T Await(CompletableFuture<T> future) {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if(cause instanceof Error) throw (Error) cause;
+			cause.printStackTrace();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			e.printStackTrace();
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Reads the streamed response body with the provided adapter and closes the stream.
+	 * Non-successful status codes are reported as BlockfactsApiException, malformed JSON the same way Gson.fromJson reports it,
+	 * and other I/O failures are passed on as checked causes.
+	 */
+	private static <T> T ReadResponse(HttpResponse<InputStream> response, TypeAdapter<T> adapter) {
+		try (JsonReader reader = new JsonReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+			if(response.statusCode() < 200 || response.statusCode() >= 300) {
+				throw new BlockfactsApiException(response.statusCode(), ReadErrorBody(response.body()), RetryAfter(response));
+			}
+			
+			reader.setLenient(true);
+			return adapter.read(reader);
+		} catch (MalformedJsonException | IllegalStateException e) {
+			throw new JsonSyntaxException(e);
+		} catch (IOException e) {
+			throw new CompletionException(e);
+		}
+	}
+	
+	/**
+	 * Runs the handler and records the request, with the time the handler took for reading and deserializing the body.
+	 */
+	private static <T> T Measure(String endpoint, BlockfactsMetrics metrics, HttpResponse<InputStream> response, Function<HttpResponse<InputStream>, T> handler, long latency) {
+		long started = System.nanoTime();
+		try {
+			return handler.apply(response);
+		} finally {
+			long bytes = response.body() instanceof CountingInputStream ? ((CountingInputStream) response.body()).count : 0;
+			metrics.RecordRequest(endpoint, response.statusCode(), latency, bytes, System.nanoTime() - started);
+		}
+	}
+	
+	private static void CloseQuietly(InputStream body) {
+		try {
+			body.close();
+		} catch (IOException e) {
+			// Nothing left to read
+		}
+	}
+	
+	private static String ReadErrorBody(InputStream body) throws IOException {
+		byte[] bytes = body.readNBytes(MAX_ERROR_BODY_LENGTH);
+		return new String(bytes, StandardCharsets.UTF_8).trim();
+	}
+	
+	private static Duration RetryAfter(HttpResponse<?> response) {
+		Optional<String> retryAfter = response.headers().firstValue("Retry-After");
+		if(!retryAfter.isPresent()) return null;
+		
+		try {
+			return Duration.ofSeconds(Long.parseLong(retryAfter.get().trim()));
+		} catch (NumberFormatException e) {
+			// HTTP-date values are not used by the BlockFacts API
+			return null;
+		}
+	}
+	
+	/**
+	 * Creates the header set used for authenticating requests. A new object is created on every change
+	 * so that requests being built on other threads never observe a partially updated header set.
+	 */
+	private static JSONObject CreateHeaders(String key, String secret) {
+		JSONObject headers = new JSONObject();
+		headers.put("Content-Type", "application/json");
+		headers.put("X-API-KEY", key);
+		headers.put("X-API-SECRET", secret);
+		
+		return headers;
+	}
+	
+	/**
+	 * Counts the bytes read from a response body.
+	 */
+	private static final class CountingInputStream extends FilterInputStream {
+		long count;
+		
+		CountingInputStream(InputStream body) {
+			super(body);
+		}
+		
+		@Override
+		public int read() throws IOException {
+			int read = super.read();
+			if(read >= 0) count++;
+			return read;
+		}
+		
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			int read = super.read(buffer, offset, length);
+			if(read > 0) count += read;
+			return read;
+		}
+		
+		@Override
+		public long skip(long length) throws IOException {
+			long skipped = super.skip(length);
+			count += skipped;
+			return skipped;
+		}
 	}
 }
@@ -1,28 +1,35 @@
 package blockfacts.io.blockfacts_java_sdk.v1.REST;
 
-import java.io.IOException;
-import java.net.URI;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
 
 import blockfacts.io.blockfacts_java_sdk.v1.Models.*;
 
 public class ExchangeEndpoints extends Endpoints {
-	public HttpClient restClient;
-	public HttpRequest restRequest;
+	private static final TypeAdapter<List<BlockfactsExchangeDataModel>> EXCHANGE_LIST_ADAPTER = Adapter(new TypeToken<List<BlockfactsExchangeDataModel>>(){});
+	private static final TypeAdapter<List<BlockfactsTradeModel>> TRADE_LIST_ADAPTER = Adapter(new TypeToken<List<BlockfactsTradeModel>>(){});
+	private static final TypeAdapter<BlockfactsExchangeDataModel> EXCHANGE_DATA_ADAPTER = Adapter(BlockfactsExchangeDataModel.class);
+	private static final TypeAdapter<BlockfactsHistoricalExchangeTradesModel> HISTORICAL_EXCHANGE_TRADES_ADAPTER = Adapter(BlockfactsHistoricalExchangeTradesModel.class);
+	private static final TypeAdapter<BlockfactsHistoricalExchangeTradeColumnsModel> HISTORICAL_EXCHANGE_TRADE_COLUMNS_ADAPTER = Adapter(BlockfactsHistoricalExchangeTradeColumnsModel.class);
 	
 	public ExchangeEndpoints(String key, String secret) {
 		super(key, secret);
-		this.restClient = HttpClient.newHttpClient();
+	}
+	
+	public ExchangeEndpoints(String key, String secret, Executor executor) {
+		super(key, secret, executor);
+	}
+	
+	public ExchangeEndpoints(String key, String secret, HttpClient restClient, Executor executor, Duration requestTimeout) {
+		super(key, secret, restClient, executor, requestTimeout);
 	}
 	
 	/**
@@ -31,27 +38,7 @@ public class ExchangeEndpoints extends Endpoints {
 	 * @return List of BlockfactsExchangeDataModels
 	 */
 	public List<BlockfactsExchangeDataModel> ListAllExchanges() {
-		List<BlockfactsExchangeDataModel> responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/exchanges"))
-      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-      	      .build();
-		
-		  HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
- 	        JsonArray jsonObj = new JsonParser().parse(response.body()).getAsJsonArray();
-	        responseData = new Gson().fromJson(jsonObj, new TypeToken<List<BlockfactsExchangeDataModel>>(){}.getType());
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(ListAllExchangesAsync());
 	}
 	
 	/**
@@ -61,27 +48,7 @@ public class ExchangeEndpoints extends Endpoints {
 	 * @return BlockfactsExchangeDataModel
 	 */
 	public BlockfactsExchangeDataModel GetSpecificExchangeData(String exchange) {
-		BlockfactsExchangeDataModel responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/exchanges/" + exchange))
-      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-      	      .build();
-		
-		HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
-	        JsonObject jsonObj = new JsonParser().parse(response.body()).getAsJsonObject();
-	        responseData = new Gson().fromJson(jsonObj, BlockfactsExchangeDataModel.class);
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(GetSpecificExchangeDataAsync(exchange));
 	}
 	
 	/**
@@ -92,26 +59,7 @@ public class ExchangeEndpoints extends Endpoints {
 	 * @return JsonObject
 	 */
 	public JsonObject GetPairInfo(String exchange, String pair) {
-		JsonObject responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-	      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/exchanges/pair-info?exchange=" + exchange + "&pair=" + pair))
-	      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-	      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-	      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-	      	      .build();
-		
-		HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
-	        responseData = new JsonParser().parse(response.body()).getAsJsonObject();
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(GetPairInfoAsync(exchange, pair));
 	}
 	
 	/**
@@ -123,30 +71,7 @@ public class ExchangeEndpoints extends Endpoints {
 	 * @return JsonObject
 	 */
 	public JsonObject GetCurrentTradeData(String assets, String denominators, String exchanges) {
-		assets = assets.trim().replace(" ", "");
-		denominators = denominators.trim().replace(" ", "");
-		exchanges = exchanges.trim().replace(" ", "");
-		
-		JsonObject responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-	      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/exchanges/trades?asset=" + assets + "&denominator=" + denominators + "&exchange=" + exchanges))
-	      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-	      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-	      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-	      	      .build();
-		
-		HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
-	        responseData = new JsonParser().parse(response.body()).getAsJsonObject();
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(GetCurrentTradeDataAsync(assets, denominators, exchanges));
 	}
 	
 	/**
@@ -158,32 +83,9 @@ public class ExchangeEndpoints extends Endpoints {
 	 * @return JsonObject
 	 */
 	public JsonObject GetSnapshotTradeData(String assets, String denominators, String exchanges) {
-		assets = assets.trim().replace(" ", "");
-		denominators = denominators.trim().replace(" ", "");
-		exchanges = exchanges.trim().replace(" ", "");
-		
-		JsonObject responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-	      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/exchanges/trades/snapshot?asset=" + assets + "&denominator=" + denominators + "&exchange=" + exchanges))
-	      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-	      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-	      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-	      	      .build();
-		
-		HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
-	        responseData = new JsonParser().parse(response.body()).getAsJsonObject();
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(GetSnapshotTradeDataAsync(assets, denominators, exchanges));
 	}
-
+		
 		/**
 	 * Gets the snapshot of provided exchange(s) OHLCV data for provided asset-denominator pairs and intervals.
 	 * Reference: https://docs.blockfacts.io/?java#data-snapshot-ohlcv-exchange
@@ -194,31 +96,7 @@ public class ExchangeEndpoints extends Endpoints {
 	 * @return JsonObject
 	 */
 	public JsonObject GetOHLCVSnapshotData(String assets, String denominators, String exchanges, String intervals) {
-		assets = assets.trim().replace(" ", "");
-		denominators = denominators.trim().replace(" ", "");
-		exchanges = exchanges.trim().replace(" ", "");
-		intervals = intervals.trim().replace(" ", "");
-		
-		JsonObject responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-	      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/exchanges/trades/ohlcv-snapshot?asset=" + assets + "&denominator=" + denominators + "&exchange=" + exchanges + "&interval=" + intervals))
-	      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-	      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-	      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-	      	      .build();
-		
-		HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
-	        responseData = new JsonParser().parse(response.body()).getAsJsonObject();
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(GetOHLCVSnapshotDataAsync(assets, denominators, exchanges, intervals));
 	}
 	
 	/**
@@ -234,29 +112,23 @@ public class ExchangeEndpoints extends Endpoints {
 	 * @return BlockfactsHistoricalExchangeTradesModel
 	 */
 	public BlockfactsHistoricalExchangeTradesModel GetHistoricalTradeData(String asset, String denominator, String exchanges, String date, String time, int interval, int page) {
-		exchanges = exchanges.trim().replace(" ", "");
-		
-		BlockfactsHistoricalExchangeTradesModel responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/exchanges/trades/historical?asset=" + asset + "&denominator=" + denominator + "&exchange=" + exchanges + "&date=" + date + "&time=" + time + "&interval=" + interval + "&page=" + page))
-      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-      	      .build();
-		
-		HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
-	        JsonObject jsonObj = new JsonParser().parse(response.body()).getAsJsonObject();
-	        responseData = new Gson().fromJson(jsonObj, BlockfactsHistoricalExchangeTradesModel.class);
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(GetHistoricalTradeDataAsync(asset, denominator, exchanges, date, time, interval, page));
+	}
+	
+	/**
+	 * Same as GetHistoricalTradeData, but stores the trades in primitive columns instead of trade models, which takes far less memory.
+	 * Reference: https://docs.blockfacts.io/?java#historical-trade-data
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param exchanges Exchange names (e.g. KRAKEN, COINBASE)
+	 * @param date Specific date (e.g. 2.9.2019)
+	 * @param time Specific time (e.g. 14:00:00)
+	 * @param interval Historical interval to cover (e.g. 20 = 14:00:00 - 14:20:00) (Min 0, Max 240)
+	 * @param page Optional, our API is always showing 100 results per page in order to improve the performance. You can provide the page parameter in order to query a specific page
+	 * @return BlockfactsHistoricalExchangeTradeColumnsModel
+	 */
+	public BlockfactsHistoricalExchangeTradeColumnsModel GetHistoricalTradeColumns(String asset, String denominator, String exchanges, String date, String time, int interval, int page) {
+		return Await(GetHistoricalTradeColumnsAsync(asset, denominator, exchanges, date, time, interval, page));
 	}
 	
 	/**
@@ -274,28 +146,7 @@ public class ExchangeEndpoints extends Endpoints {
 	 * @return JsonObject
 	 */
 	public JsonObject GetHistoricalOHLCVData(String asset, String denominator, String exchanges, String interval, String dateStart, String timeStart, String dateEnd, String timeEnd, int page) {
-		exchanges = exchanges.trim().replace(" ", "");
-		
-		JsonObject responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/exchanges/trades/ohlcv?asset=" + asset + "&denominator=" + denominator + "&exchange=" + exchanges + "&interval=" + interval + "&dateStart=" + dateStart + "&timeStart=" + timeStart + "&dateEnd=" + dateEnd + "&timeEnd=" + timeEnd + "&page=" + page))
-      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-      	      .build();
-		
-		HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
-			responseData = new JsonParser().parse(response.body()).getAsJsonObject();
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(GetHistoricalOHLCVDataAsync(asset, denominator, exchanges, interval, dateStart, timeStart, dateEnd, timeEnd, page));
 	}
 	
 	/**
@@ -309,29 +160,7 @@ public class ExchangeEndpoints extends Endpoints {
 	 * @return List of BlockfactsTradeModels
 	 */
 	public List<BlockfactsTradeModel> GetSpecificTradeData(String asset, String denominator, String exchanges, String date, String time) {
-		exchanges = exchanges.trim().replace(" ", "");
-		
-		List<BlockfactsTradeModel> responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/exchanges/trades/specific?asset=" + asset + "&denominator=" + denominator + "&exchange=" + exchanges + "&date=" + date + "&time=" + time))
-      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-      	      .build();
-		
-		  HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
- 	        JsonArray jsonObj = new JsonParser().parse(response.body()).getAsJsonArray();
-	        responseData = new Gson().fromJson(jsonObj, new TypeToken<List<BlockfactsTradeModel>>(){}.getType());
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(GetSpecificTradeDataAsync(asset, denominator, exchanges, date, time));
 	}
 	
 	/**
@@ -343,26 +172,7 @@ public class ExchangeEndpoints extends Endpoints {
 	 * @return JsonObject
 	 */
 	public JsonObject GetTotalTradeVolume(String asset, String denominator, String interval) {
-		JsonObject responseData = null;
-		
-		restRequest = HttpRequest.newBuilder()
-	      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/exchanges/trades/total-volume?asset=" + asset + "&denominator=" + denominator + "&interval=" + interval ))
-	      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-	      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-	      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-	      	      .build();
-		
-		HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
-	        responseData = new JsonParser().parse(response.body()).getAsJsonObject();
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return Await(GetTotalTradeVolumeAsync(asset, denominator, interval));
 	}
 	
 	/**
@@ -376,25 +186,239 @@ public class ExchangeEndpoints extends Endpoints {
 	 * @return JsonArray
 	 */
 	public JsonArray GetPeriodMovers(String exchange, String denominator, String date, String interval, int sort) {
-		JsonArray responseData = null;
+		return Await(GetPeriodMoversAsync(exchange, denominator, date, interval, sort));
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #ListAllExchanges()}.
+	 * Reference: https://docs.blockfacts.io/?java#all-exchanges
+	 * @return CompletableFuture of List of BlockfactsExchangeDataModels
+	 */
+	public CompletableFuture<List<BlockfactsExchangeDataModel>> ListAllExchangesAsync() {
+		return SendCachedAsync("ListAllExchanges", "/api/v1/exchanges", EXCHANGE_LIST_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetSpecificExchangeData(String)}.
+	 * Reference: https://docs.blockfacts.io/?java#specific-exchange-data
+	 * @param exchange Name of the exchange (e.g. KRAKEN)
+	 * @return CompletableFuture of BlockfactsExchangeDataModel
+	 */
+	public CompletableFuture<BlockfactsExchangeDataModel> GetSpecificExchangeDataAsync(String exchange) {
+		return SendCachedAsync("GetSpecificExchangeData", "/api/v1/exchanges/" + exchange, EXCHANGE_DATA_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetPairInfo(String, String)}.
+	 * Reference: https://docs.blockfacts.io/?java#pair-info
+	 * @param exchange Name of the exchange (e.g. KRAKEN)
+	 * @param pair Pair name query on the provided exchange (e.g. BTCUSD or XBTUSD)
+	 * @return CompletableFuture of JsonObject
+	 */
+	public CompletableFuture<JsonObject> GetPairInfoAsync(String exchange, String pair) {
+		return SendCachedAsync("GetPairInfo", "/api/v1/exchanges/pair-info?exchange=" + exchange + "&pair=" + pair, JSON_OBJECT_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetCurrentTradeData(String, String, String)}.
+	 * Reference: https://docs.blockfacts.io/?java#current-trade-data
+	 * @param assets Asset tickers (e.g. BTC, ETH)
+	 * @param denominators Denominator tickers (e.g. USD, EUR)
+	 * @param exchanges Exchange names (e.g. KRAKEN, COINBASE)
+	 * @return CompletableFuture of JsonObject
+	 */
+	public CompletableFuture<JsonObject> GetCurrentTradeDataAsync(String assets, String denominators, String exchanges) {
+		assets = assets.trim().replace(" ", "");
+		denominators = denominators.trim().replace(" ", "");
+		exchanges = exchanges.trim().replace(" ", "");
 		
-		restRequest = HttpRequest.newBuilder()
-	      	      .uri(URI.create(this.blockfactsApiUrl + "/api/v1/exchanges/period-movers?exchange=" + exchange + "&denominator=" + denominator + "&date=" + date + "&interval=" + interval + "&sort=" + sort))
-	      	      .header("Content-Type", this.headers.get("Content-Type").toString())
-	      	      .header("X-API-KEY", this.headers.get("X-API-KEY").toString())
-	      	      .header("X-API-SECRET", this.headers.get("X-API-SECRET").toString())
-	      	      .build();
+		return SendAsync("GetCurrentTradeData", "/api/v1/exchanges/trades?asset=" + assets + "&denominator=" + denominators + "&exchange=" + exchanges, JSON_OBJECT_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetSnapshotTradeData(String, String, String)}.
+	 * Reference: https://docs.blockfacts.io/?java#snapshot-trade-data
+	 * @param assets Asset tickers (e.g. BTC, ETH)
+	 * @param denominators Denominator tickers (e.g. USD, EUR)
+	 * @param exchanges Exchange names (e.g. KRAKEN, COINBASE)
+	 * @return CompletableFuture of JsonObject
+	 */
+	public CompletableFuture<JsonObject> GetSnapshotTradeDataAsync(String assets, String denominators, String exchanges) {
+		assets = assets.trim().replace(" ", "");
+		denominators = denominators.trim().replace(" ", "");
+		exchanges = exchanges.trim().replace(" ", "");
 		
-		HttpResponse<String> response;
-		  try {
-			response = restClient.send(restRequest, BodyHandlers.ofString());
-	        responseData = new JsonParser().parse(response.body()).getAsJsonArray();
-		  } catch (IOException e) {
-			e.printStackTrace();
-		  } catch (InterruptedException e) {
-			e.printStackTrace();
-		  }
-		  
-		  return responseData;
+		return SendAsync("GetSnapshotTradeData", "/api/v1/exchanges/trades/snapshot?asset=" + assets + "&denominator=" + denominators + "&exchange=" + exchanges, JSON_OBJECT_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetOHLCVSnapshotData(String, String, String, String)}.
+	 * Reference: https://docs.blockfacts.io/?java#data-snapshot-ohlcv-exchange
+	 * @param assets Asset tickers (e.g. BTC, ETH)
+	 * @param denominators Denominator tickers (e.g. USD, EUR)
+	 * @param exchanges Exchange names (e.g. KRAKEN, COINBASE)
+	 * @param intervals Intervals (e.g. 1m, 3m, 1h)
+	 * @return CompletableFuture of JsonObject
+	 */
+	public CompletableFuture<JsonObject> GetOHLCVSnapshotDataAsync(String assets, String denominators, String exchanges, String intervals) {
+		assets = assets.trim().replace(" ", "");
+		denominators = denominators.trim().replace(" ", "");
+		exchanges = exchanges.trim().replace(" ", "");
+		intervals = intervals.trim().replace(" ", "");
+		
+		return SendAsync("GetOHLCVSnapshotData", "/api/v1/exchanges/trades/ohlcv-snapshot?asset=" + assets + "&denominator=" + denominators + "&exchange=" + exchanges + "&interval=" + intervals, JSON_OBJECT_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetHistoricalTradeData(String, String, String, String, String, int, int)}.
+	 * Reference: https://docs.blockfacts.io/?java#historical-trade-data
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param exchanges Exchange names (e.g. KRAKEN, COINBASE)
+	 * @param date Specific date (e.g. 2.9.2019)
+	 * @param time Specific time (e.g. 14:00:00)
+	 * @param interval Historical interval to cover (e.g. 20 = 14:00:00 - 14:20:00) (Min 0, Max 240)
+	 * @param page Optional, our API is always showing 100 results per page in order to improve the performance. You can provide the page parameter in order to query a specific page
+	 * @return CompletableFuture of BlockfactsHistoricalExchangeTradesModel
+	 */
+	public CompletableFuture<BlockfactsHistoricalExchangeTradesModel> GetHistoricalTradeDataAsync(String asset, String denominator, String exchanges, String date, String time, int interval, int page) {
+		exchanges = exchanges.trim().replace(" ", "");
+		
+		return SendAsync("GetHistoricalTradeData", "/api/v1/exchanges/trades/historical?asset=" + asset + "&denominator=" + denominator + "&exchange=" + exchanges + "&date=" + date + "&time=" + time + "&interval=" + interval + "&page=" + page, HISTORICAL_EXCHANGE_TRADES_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetHistoricalTradeColumns(String, String, String, String, String, int, int)}.
+	 * Reference: https://docs.blockfacts.io/?java#historical-trade-data
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param exchanges Exchange names (e.g. KRAKEN, COINBASE)
+	 * @param date Specific date (e.g. 2.9.2019)
+	 * @param time Specific time (e.g. 14:00:00)
+	 * @param interval Historical interval to cover (e.g. 20 = 14:00:00 - 14:20:00) (Min 0, Max 240)
+	 * @param page Optional, our API is always showing 100 results per page in order to improve the performance. You can provide the page parameter in order to query a specific page
+	 * @return CompletableFuture of BlockfactsHistoricalExchangeTradeColumnsModel
+	 */
+	public CompletableFuture<BlockfactsHistoricalExchangeTradeColumnsModel> GetHistoricalTradeColumnsAsync(String asset, String denominator, String exchanges, String date, String time, int interval, int page) {
+		exchanges = exchanges.trim().replace(" ", "");
+		
+		return SendAsync("GetHistoricalTradeColumns", "/api/v1/exchanges/trades/historical?asset=" + asset + "&denominator=" + denominator + "&exchange=" + exchanges + "&date=" + date + "&time=" + time + "&interval=" + interval + "&page=" + page, HISTORICAL_EXCHANGE_TRADE_COLUMNS_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetHistoricalOHLCVData(String, String, String, String, String, String, String, String, int)}.
+	 * Reference: https://docs.blockfacts.io/?java#ohlcv-historical-data-2
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param exchanges Exchange names (e.g. KRAKEN, COINBASE)
+	 * @param interval 	OHLCV Interval (30s, 1m, 3m, 5m, 15m, 30m, 1h, 2h, 4h, 6h, 12h, 1d, 1w, 1mo)
+	 * @param dateStart Specific date to start from (e.g. 5.8.2020)
+	 * @param timeStart Specific time to start from (in UTC) (e.g. 14:00:00)
+	 * @param dateEnd Specific end date (e.g. 5.8.2020)
+	 * @param timeEnd Specific end time (in UTC) (e.g. 14:00:00)
+	 * @param page Optional, our API is always showing 100 results per page in order to improve the performance. You can provide the page parameter in order to query a specific page
+	 * @return CompletableFuture of JsonObject
+	 */
+	public CompletableFuture<JsonObject> GetHistoricalOHLCVDataAsync(String asset, String denominator, String exchanges, String interval, String dateStart, String timeStart, String dateEnd, String timeEnd, int page) {
+		exchanges = exchanges.trim().replace(" ", "");
+		
+		return SendAsync("GetHistoricalOHLCVData", "/api/v1/exchanges/trades/ohlcv?asset=" + asset + "&denominator=" + denominator + "&exchange=" + exchanges + "&interval=" + interval + "&dateStart=" + dateStart + "&timeStart=" + timeStart + "&dateEnd=" + dateEnd + "&timeEnd=" + timeEnd + "&page=" + page, JSON_OBJECT_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetSpecificTradeData(String, String, String, String, String)}.
+	 * Reference: https://docs.blockfacts.io/?java#specific-trade-data
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param exchanges Exchange name (e.g. KRAKEN, COINBASE)
+	 * @param date Specific date (e.g. 2.9.2019)
+	 * @param time Specific time (e.g. 14:00:00)
+	 * @return CompletableFuture of List of BlockfactsTradeModels
+	 */
+	public CompletableFuture<List<BlockfactsTradeModel>> GetSpecificTradeDataAsync(String asset, String denominator, String exchanges, String date, String time) {
+		exchanges = exchanges.trim().replace(" ", "");
+		
+		return SendAsync("GetSpecificTradeData", "/api/v1/exchanges/trades/specific?asset=" + asset + "&denominator=" + denominator + "&exchange=" + exchanges + "&date=" + date + "&time=" + time, TRADE_LIST_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetTotalTradeVolume(String, String, String)}.
+	 * Reference: https://docs.blockfacts.io/?java#total-trade-volume
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param interval Interval (1d, 30d, 60d, 90d)
+	 * @return CompletableFuture of JsonObject
+	 */
+	public CompletableFuture<JsonObject> GetTotalTradeVolumeAsync(String asset, String denominator, String interval) {
+		return SendAsync("GetTotalTradeVolume", "/api/v1/exchanges/trades/total-volume?asset=" + asset + "&denominator=" + denominator + "&interval=" + interval, JSON_OBJECT_ADAPTER);
+	}
+	
+	/**
+	 * Asynchronous variant of {@link #GetPeriodMovers(String, String, String, String, int)}.
+	 * Reference: https://docs.blockfacts.io/?java#period-movers-2
+	 * @param exchange Exchange name (e.g. KRAKEN)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param date Specific date (e.g. 11.8.2020)
+	 * @param interval Interval (oneDay, sevenDay, thirtyDay, ninetyDay, oneYear, twoYear, threeYear, fiveYear)
+	 * @param sort 1 - Losers first, -1 - Winners first
+	 * @return CompletableFuture of JsonArray
+	 */
+	public CompletableFuture<JsonArray> GetPeriodMoversAsync(String exchange, String denominator, String date, String interval, int sort) {
+		return SendAsync("GetPeriodMovers", "/api/v1/exchanges/period-movers?exchange=" + exchange + "&denominator=" + denominator + "&date=" + date + "&interval=" + interval + "&sort=" + sort, JSON_ARRAY_ADAPTER);
+	}
+	
+	/**
+	 * Gets all pages of exchange historical trades by asset-denominator, exchange, date, time and interval.
+	 * Pages are fetched lazily as the results are consumed, with up to prefetch pages requested ahead.
+	 * Reference: https://docs.blockfacts.io/?java#historical-trade-data
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param exchanges Exchange names (e.g. KRAKEN, COINBASE)
+	 * @param date Specific date (e.g. 2.9.2019)
+	 * @param time Specific time (e.g. 14:00:00)
+	 * @param interval Historical interval to cover (e.g. 20 = 14:00:00 - 14:20:00) (Min 0, Max 240)
+	 * @param prefetch Number of pages to fetch ahead of the one being consumed
+	 * @return BlockfactsPager of BlockfactsTradeModels
+	 */
+	public BlockfactsPager<BlockfactsTradeModel> GetAllHistoricalTradeData(String asset, String denominator, String exchanges, String date, String time, int interval, int prefetch) {
+		return new BlockfactsPager<BlockfactsTradeModel>(page -> GetHistoricalTradeDataAsync(asset, denominator, exchanges, date, time, interval, page),
+				response -> response.totalPages, response -> response.results, prefetch);
+	}
+	
+	/**
+	 * Gets all pages of exchange historical trades by asset-denominator, exchange, date, time and interval, merged into one set of primitive columns.
+	 * After the first page, the remaining pages are requested at once and appended in page order.
+	 * Reference: https://docs.blockfacts.io/?java#historical-trade-data
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param exchanges Exchange names (e.g. KRAKEN, COINBASE)
+	 * @param date Specific date (e.g. 2.9.2019)
+	 * @param time Specific time (e.g. 14:00:00)
+	 * @param interval Historical interval to cover (e.g. 20 = 14:00:00 - 14:20:00) (Min 0, Max 240)
+	 * @return CompletableFuture of BlockfactsTradeColumns
+	 */
+	public CompletableFuture<BlockfactsTradeColumns> GetAllHistoricalTradeColumnsAsync(String asset, String denominator, String exchanges, String date, String time, int interval) {
+		return MergePages(page -> GetHistoricalTradeColumnsAsync(asset, denominator, exchanges, date, time, interval, page),
+				response -> response.totalPages, response -> response.results, BlockfactsTradeColumns::Append);
+	}
+	
+	/**
+	 * Gets all pages of historical OHLCV data by asset-denominator, exchange, date, time and interval.
+	 * Pages are fetched lazily as the results are consumed, with up to prefetch pages requested ahead.
+	 * Reference: https://docs.blockfacts.io/?java#ohlcv-historical-data-2
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param exchanges Exchange names (e.g. KRAKEN, COINBASE)
+	 * @param interval 	OHLCV Interval (30s, 1m, 3m, 5m, 15m, 30m, 1h, 2h, 4h, 6h, 12h, 1d, 1w, 1mo)
+	 * @param dateStart Specific date to start from (e.g. 5.8.2020)
+	 * @param timeStart Specific time to start from (in UTC) (e.g. 14:00:00)
+	 * @param dateEnd Specific end date (e.g. 5.8.2020)
+	 * @param timeEnd Specific end time (in UTC) (e.g. 14:00:00)
+	 * @param prefetch Number of pages to fetch ahead of the one being consumed
+	 * @return BlockfactsPager of JsonObjects
+	 */
+	public BlockfactsPager<JsonObject> GetAllHistoricalOHLCVData(String asset, String denominator, String exchanges, String interval, String dateStart, String timeStart, String dateEnd, String timeEnd, int prefetch) {
+		return new BlockfactsPager<JsonObject>(page -> GetHistoricalOHLCVDataAsync(asset, denominator, exchanges, interval, dateStart, timeStart, dateEnd, timeEnd, page),
+				BlockfactsPager::JsonTotalPages, BlockfactsPager::JsonResults, prefetch);
 	}
 }
@@ -0,0 +1,548 @@
+package blockfacts.io.blockfacts_java_sdk.v1.Storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsNormalizationColumns;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsNormalizationModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsTradeColumns;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsTradeModel;
+import blockfacts.io.blockfacts_java_sdk.v1.REST.BlockfactsBackfill;
+import blockfacts.io.blockfacts_java_sdk.v1.REST.BlockfactsEndpoints;
+import blockfacts.io.blockfacts_java_sdk.v1.REST.ExchangeEndpoints;
+
+/**
+ * Local store of historical trades and normalized prices, which only downloads the minutes it does not have yet.
+ * Data is kept in append-only binary segments per exchange, pair and UTC day (per pair and day for normalized prices)
+ * under the root directory, and read back through memory-mapped files.
+ * Only closed minutes are stored: queries are cut at the current time minus the settle time, as later data may still change.
+ */
+public class BlockfactsHistoricalStore {
+	private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+	private static final long DAY = TimeUnit.DAYS.toMillis(1);
+	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("d.M.yyyy").withZone(ZoneOffset.UTC);
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneOffset.UTC);
+	
+	private final Path root;
+	private final HashMap<Path, BlockfactsSegmentDirectory> directories = new HashMap<Path, BlockfactsSegmentDirectory>();
+	private Duration settleTime = Duration.ofMinutes(5);
+	private long fetchedMinutes;
+	private long storedMinutes;
+	
+	/**
+	 * Creates a store in the provided directory, which is created if needed.
+	 * @param root Root directory of the store
+	 */
+	public BlockfactsHistoricalStore(Path root) {
+		this.root = root;
+	}
+	
+	/**
+	 * Sets how long after a minute ended its data is considered final. Defaults to 5 minutes.
+	 * @param settleTime Settle time
+	 * @return BlockfactsHistoricalStore
+	 */
+	public synchronized BlockfactsHistoricalStore SetSettleTime(Duration settleTime) {
+		this.settleTime = settleTime;
+		return this;
+	}
+	
+	/**
+	 * Gets exchange trades of a range, downloading only the minutes which are not stored yet, ordered by exchange time.
+	 * Exchange names are matched case-insensitively and returned in upper case. A downloaded window is only marked as stored
+	 * for the exchanges which had trades in it, or for all of them if no exchange had any, since an exchange name the API
+	 * does not know looks the same as an exchange without trades. The other exchanges are asked for again next time.
+	 * Reference: https://docs.blockfacts.io/?java#historical-trade-data
+	 * @param endpoints Exchange endpoint group used for downloading
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param exchanges Exchange names (e.g. KRAKEN, COINBASE)
+	 * @param start Start of the range (inclusive)
+	 * @param end End of the range (exclusive), cut at the current time minus the settle time
+	 * @return BlockfactsTradeColumns, without exchange time strings
+	 * @throws IOException If downloading or storing failed
+	 */
+	public synchronized BlockfactsTradeColumns GetTrades(ExchangeEndpoints endpoints, String asset, String denominator, String exchanges, Instant start, Instant end) throws IOException {
+		String pair = asset + "-" + denominator;
+		String[] names = ExchangeNames(exchanges);
+		long startMillis = start.toEpochMilli();
+		long endMillis = SettledEnd(end);
+		BlockfactsTradeColumns result = new BlockfactsTradeColumns();
+		if(startMillis >= endMillis) return result;
+		
+		long from = Math.floorDiv(startMillis, MINUTE);
+		long to = Math.floorDiv(endMillis + MINUTE - 1, MINUTE);
+		
+		BlockfactsSegmentDirectory[] series = new BlockfactsSegmentDirectory[names.length];
+		List<List<long[]>> gaps = new ArrayList<List<long[]>>();
+		List<long[]> missing = new ArrayList<long[]>();
+		for(int i = 0; i < names.length; i++) {
+			series[i] = Directory(root.resolve("trades").resolve(names[i]).resolve(pair));
+			gaps.add(series[i].Gaps(from, to));
+			missing.addAll(gaps.get(i));
+		}
+		
+		List<long[]> windows = Windows(Union(missing));
+		if(!windows.isEmpty()) {
+			List<CompletableFuture<BlockfactsTradeColumns>> requests = new ArrayList<CompletableFuture<BlockfactsTradeColumns>>();
+			for(long[] window : windows) {
+				Instant windowStart = Instant.ofEpochMilli(window[0] * MINUTE);
+				requests.add(endpoints.GetAllHistoricalTradeColumnsAsync(asset, denominator, String.join(",", names), DATE_FORMAT.format(windowStart), TIME_FORMAT.format(windowStart), (int) (window[1] - window[0])));
+			}
+			
+			List<TreeMap<String, RecordBuffer>> days = new ArrayList<TreeMap<String, RecordBuffer>>();
+			List<List<long[]>> covered = new ArrayList<List<long[]>>();
+			for(int i = 0; i < names.length; i++) {
+				days.add(new TreeMap<String, RecordBuffer>());
+				covered.add(new ArrayList<long[]>());
+			}
+			
+			for(int w = 0; w < windows.size(); w++) {
+				BlockfactsTradeColumns trades = Join(requests.get(w));
+				if(trades == null) continue;
+				
+				long[] window = windows.get(w);
+				boolean[] received = new boolean[names.length];
+				boolean anyReceived = false;
+				for(int row = 0; row < trades.size; row++) {
+					long time = trades.epochExchangeTime[row];
+					int exchange = IndexOf(names, trades.GetExchange(row));
+					if(exchange < 0 || time < window[0] * MINUTE || time >= window[1] * MINUTE) continue;
+					
+					received[exchange] = true;
+					anyReceived = true;
+					if(!Contains(gaps.get(exchange), Math.floorDiv(time, MINUTE))) continue;
+					
+					RecordBuffer records = Records(days.get(exchange), time);
+					records.PutTrade(trades, row);
+				}
+				
+				for(int i = 0; i < names.length; i++) {
+					if(received[i] || !anyReceived) covered.get(i).addAll(Intersect(gaps.get(i), window));
+				}
+			}
+			
+			for(int i = 0; i < names.length; i++) {
+				series[i].Append(Buffers(days.get(i)), covered.get(i));
+			}
+			fetchedMinutes += Minutes(windows);
+		}
+		storedMinutes += (to - from) - Minutes(windows);
+		
+		for(long day = Math.floorDiv(startMillis, DAY); day * DAY < endMillis; day++) {
+			ReadTrades(series, names, pair, day, startMillis, endMillis, result);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Gets BlockFacts normalized prices of a range with their included and excluded trades,
+	 * downloading only the minutes which are not stored yet, ordered by timestamp.
+	 * Reference: https://docs.blockfacts.io/?java#historical-data
+	 * @param endpoints BlockFacts endpoint group used for downloading
+	 * @param asset Asset ticker (e.g. BTC)
+	 * @param denominator Denominator ticker (e.g. USD)
+	 * @param start Start of the range (inclusive)
+	 * @param end End of the range (exclusive), cut at the current time minus the settle time
+	 * @return BlockfactsNormalizationColumns
+	 * @throws IOException If downloading or storing failed
+	 */
+	public synchronized BlockfactsNormalizationColumns GetNormalization(BlockfactsEndpoints endpoints, String asset, String denominator, Instant start, Instant end) throws IOException {
+		long startMillis = start.toEpochMilli();
+		long endMillis = SettledEnd(end);
+		BlockfactsNormalizationColumns result = new BlockfactsNormalizationColumns();
+		if(startMillis >= endMillis) return result;
+		
+		long from = Math.floorDiv(startMillis, MINUTE);
+		long to = Math.floorDiv(endMillis + MINUTE - 1, MINUTE);
+		BlockfactsSegmentDirectory series = Directory(root.resolve("normalization").resolve(asset + "-" + denominator));
+		List<long[]> gaps = series.Gaps(from, to);
+		
+		List<long[]> windows = Windows(gaps);
+		if(!windows.isEmpty()) {
+			List<CompletableFuture<BlockfactsNormalizationColumns>> requests = new ArrayList<CompletableFuture<BlockfactsNormalizationColumns>>();
+			for(long[] window : windows) {
+				Instant windowStart = Instant.ofEpochMilli(window[0] * MINUTE);
+				requests.add(endpoints.GetAllHistoricalDataColumnsAsync(asset, denominator, DATE_FORMAT.format(windowStart), TIME_FORMAT.format(windowStart), (int) (window[1] - window[0])));
+			}
+			
+			TreeMap<String, RecordBuffer> days = new TreeMap<String, RecordBuffer>();
+			for(int w = 0; w < windows.size(); w++) {
+				BlockfactsNormalizationColumns prices = Join(requests.get(w));
+				if(prices == null) continue;
+				
+				for(int row = 0; row < prices.size; row++) {
+					long time = prices.timestamp[row];
+					if(time < windows.get(w)[0] * MINUTE || time >= windows.get(w)[1] * MINUTE) continue;
+					Records(days, time).PutNormalization(prices.Get(row));
+				}
+			}
+			
+			series.Append(Buffers(days), gaps);
+			fetchedMinutes += Minutes(windows);
+		}
+		storedMinutes += (to - from) - Minutes(windows);
+		
+		for(long day = Math.floorDiv(startMillis, DAY); day * DAY < endMillis; day++) {
+			MappedByteBuffer segment = series.Map(DayName(day));
+			if(segment == null) continue;
+			
+			List<BlockfactsNormalizationModel> prices = new ArrayList<BlockfactsNormalizationModel>();
+			while(segment.hasRemaining()) {
+				BlockfactsNormalizationModel price = ReadNormalization(segment);
+				if(price.timestamp >= startMillis && price.timestamp < endMillis) prices.add(price);
+			}
+			prices.sort(Comparator.comparingLong(price -> price.timestamp));
+			for(BlockfactsNormalizationModel price : prices) {
+				result.Add(price);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * @return Number of minutes downloaded from the API
+	 */
+	public synchronized long GetFetchedMinutes() {
+		return fetchedMinutes;
+	}
+	
+	/**
+	 * @return Number of requested minutes which were already stored
+	 */
+	public synchronized long GetStoredMinutes() {
+		return storedMinutes;
+	}
+	
+	private long SettledEnd(Instant end) {
+		long settled = Math.floorDiv(System.currentTimeMillis() - settleTime.toMillis(), MINUTE) * MINUTE;
+		return Math.min(end.toEpochMilli(), settled);
+	}
+	
+	private BlockfactsSegmentDirectory Directory(Path path) throws IOException {
+		BlockfactsSegmentDirectory directory = directories.get(path);
+		if(directory == null) {
+			directory = new BlockfactsSegmentDirectory(path);
+			directories.put(path, directory);
+		}
+		
+		return directory;
+	}
+	
+	/**
+	 * Reads the trades of one day from the segments of all exchanges and adds them to the result ordered by exchange time.
+	 * Records are sorted by a key of their time within the day and their number, so only the matching records are decoded.
+	 */
+	private void ReadTrades(BlockfactsSegmentDirectory[] series, String[] names, String pair, long day, long startMillis, long endMillis, BlockfactsTradeColumns result) throws IOException {
+		String dayName = DayName(day);
+		long dayStart = day * DAY;
+		MappedByteBuffer[] segments = new MappedByteBuffer[series.length];
+		long[] keys = new long[64];
+		int[] exchanges = new int[64];
+		int[] offsets = new int[64];
+		int count = 0;
+		
+		for(int i = 0; i < series.length; i++) {
+			segments[i] = series[i].Map(dayName);
+			if(segments[i] == null) continue;
+			
+			ByteBuffer segment = segments[i];
+			while(segment.hasRemaining()) {
+				int offset = segment.position();
+				long time = segment.getLong(offset);
+				SkipTrade(segment);
+				if(time < startMillis || time >= endMillis) continue;
+				
+				if(count == keys.length) {
+					keys = Arrays.copyOf(keys, count * 2);
+					exchanges = Arrays.copyOf(exchanges, count * 2);
+					offsets = Arrays.copyOf(offsets, count * 2);
+				}
+				keys[count] = (time - dayStart) << 32 | count;
+				exchanges[count] = i;
+				offsets[count] = offset;
+				count++;
+			}
+		}
+		
+		Arrays.sort(keys, 0, count);
+		for(int k = 0; k < count; k++) {
+			int record = (int) keys[k];
+			ByteBuffer segment = segments[exchanges[record]];
+			segment.position(offsets[record]);
+			
+			long epochExchangeTime = segment.getLong();
+			long blockfactsTime = segment.getLong();
+			double price = segment.getDouble();
+			double tradeSize = segment.getDouble();
+			double denominatorSize = segment.getDouble();
+			String makerTaker = GetString(segment);
+			String tradeId = GetString(segment);
+			result.Add(names[exchanges[record]], pair, price, tradeSize, denominatorSize, makerTaker, tradeId, blockfactsTime, epochExchangeTime);
+		}
+	}
+	
+	private static void SkipTrade(ByteBuffer segment) {
+		segment.position(segment.position() + 40);
+		SkipString(segment);
+		SkipString(segment);
+	}
+	
+	private static BlockfactsNormalizationModel ReadNormalization(ByteBuffer segment) {
+		BlockfactsNormalizationModel price = new BlockfactsNormalizationModel();
+		price.timestamp = segment.getLong();
+		price.normalizationTimestamp = segment.getLong();
+		price.price = segment.getDouble();
+		price.exchange = GetString(segment);
+		price.pair = GetString(segment);
+		price.algorithm = GetString(segment);
+		price.included = ReadTrades(segment);
+		price.excluded = ReadTrades(segment);
+		return price;
+	}
+	
+	private static List<BlockfactsTradeModel> ReadTrades(ByteBuffer segment) {
+		int count = segment.getInt();
+		List<BlockfactsTradeModel> trades = new ArrayList<BlockfactsTradeModel>(count);
+		for(int i = 0; i < count; i++) {
+			BlockfactsTradeModel trade = new BlockfactsTradeModel();
+			trade.exchange = GetString(segment);
+			trade.pair = GetString(segment);
+			trade.epochExchangeTime = segment.getLong();
+			trade.blockfactsTime = segment.getLong();
+			trade.price = segment.getDouble();
+			trade.tradeSize = segment.getDouble();
+			trade.denominatorSize = segment.getDouble();
+			trade.makerTaker = GetString(segment);
+			trade.tradeId = GetString(segment);
+			trades.add(trade);
+		}
+		
+		return trades;
+	}
+	
+	private static String GetString(ByteBuffer segment) {
+		short length = segment.getShort();
+		if(length < 0) return null;
+		
+		byte[] bytes = new byte[length];
+		segment.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	private static void SkipString(ByteBuffer segment) {
+		short length = segment.getShort();
+		if(length > 0) segment.position(segment.position() + length);
+	}
+	
+	private static RecordBuffer Records(TreeMap<String, RecordBuffer> days, long time) {
+		String day = DayName(Math.floorDiv(time, DAY));
+		RecordBuffer records = days.get(day);
+		if(records == null) {
+			records = new RecordBuffer();
+			days.put(day, records);
+		}
+		
+		return records;
+	}
+	
+	private static TreeMap<String, ByteBuffer> Buffers(TreeMap<String, RecordBuffer> days) {
+		TreeMap<String, ByteBuffer> buffers = new TreeMap<String, ByteBuffer>();
+		for(String day : days.keySet()) {
+			buffers.put(day, days.get(day).Flip());
+		}
+		
+		return buffers;
+	}
+	
+	private static String DayName(long day) {
+		return LocalDate.ofEpochDay(day).toString();
+	}
+	
+	/**
+	 * Merges overlapping ranges of minutes.
+	 */
+	private static List<long[]> Union(List<long[]> ranges) {
+		ranges.sort(Comparator.comparingLong(range -> range[0]));
+		List<long[]> union = new ArrayList<long[]>();
+		for(long[] range : ranges) {
+			long[] last = union.isEmpty() ? null : union.get(union.size() - 1);
+			if(last != null && range[0] <= last[1]) last[1] = Math.max(last[1], range[1]);
+			else union.add(new long[] { range[0], range[1] });
+		}
+		
+		return union;
+	}
+	
+	/**
+	 * Splits ranges of minutes into windows which one historical request can cover.
+	 */
+	private static List<long[]> Windows(List<long[]> ranges) {
+		List<long[]> windows = new ArrayList<long[]>();
+		for(long[] range : ranges) {
+			for(long from = range[0]; from < range[1]; from += BlockfactsBackfill.MAX_WINDOW_MINUTES) {
+				windows.add(new long[] { from, Math.min(range[1], from + BlockfactsBackfill.MAX_WINDOW_MINUTES) });
+			}
+		}
+		
+		return windows;
+	}
+	
+	private static long Minutes(List<long[]> ranges) {
+		long minutes = 0;
+		for(long[] range : ranges) minutes += range[1] - range[0];
+		return minutes;
+	}
+	
+	/**
+	 * Returns the parts of the ranges within the window.
+	 */
+	private static List<long[]> Intersect(List<long[]> ranges, long[] window) {
+		List<long[]> parts = new ArrayList<long[]>();
+		for(long[] range : ranges) {
+			long from = Math.max(range[0], window[0]);
+			long to = Math.min(range[1], window[1]);
+			if(from < to) parts.add(new long[] { from, to });
+		}
+		
+		return parts;
+	}
+	
+	private static boolean Contains(List<long[]> ranges, long minute) {
+		for(long[] range : ranges) {
+			if(minute >= range[0] && minute < range[1]) return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Splits a comma separated list of exchange names into distinct upper case names, which are also the directory names of their series.
+	 */
+	private static String[] ExchangeNames(String exchanges) {
+		LinkedHashSet<String> names = new LinkedHashSet<String>();
+		for(String name : exchanges.replace(" ", "").split(",")) {
+			if(!name.isEmpty()) names.add(name.toUpperCase(Locale.ROOT));
+		}
+		
+		return names.toArray(new String[0]);
+	}
+	
+	private static int IndexOf(String[] names, String name) {
+		for(int i = 0; i < names.length; i++) {
+			if(names[i].equalsIgnoreCase(name)) return i;
+		}
+		
+		return -1;
+	}
+	
+	private static <T> T Join(CompletableFuture<T> request) throws IOException {
+		try {
+			return request.get();
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof IOException) throw (IOException) e.getCause();
+			throw new IOException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		}
+	}
+	
+	/**
+	 * Growing buffer of encoded records. Numbers are stored big-endian, strings as a length and UTF-8 bytes, with -1 for null.
+	 */
+	private static final class RecordBuffer {
+		private ByteBuffer buffer = ByteBuffer.allocate(4096);
+		
+		void PutTrade(BlockfactsTradeColumns trades, int row) {
+			Ensure(64);
+			buffer.putLong(trades.epochExchangeTime[row]);
+			buffer.putLong(trades.blockfactsTime[row]);
+			buffer.putDouble(trades.price[row]);
+			buffer.putDouble(trades.tradeSize[row]);
+			buffer.putDouble(trades.denominatorSize[row]);
+			PutString(trades.GetMakerTaker(row));
+			PutString(trades.GetTradeId(row));
+		}
+		
+		void PutNormalization(BlockfactsNormalizationModel price) {
+			Ensure(64);
+			buffer.putLong(price.timestamp);
+			buffer.putLong(price.normalizationTimestamp);
+			buffer.putDouble(price.price);
+			PutString(price.exchange);
+			PutString(price.pair);
+			PutString(price.algorithm);
+			PutTrades(price.included);
+			PutTrades(price.excluded);
+		}
+		
+		private void PutTrades(List<BlockfactsTradeModel> trades) {
+			Ensure(4);
+			buffer.putInt(trades == null ? 0 : trades.size());
+			if(trades == null) return;
+			
+			for(BlockfactsTradeModel trade : trades) {
+				PutString(trade.exchange);
+				PutString(trade.pair);
+				Ensure(40);
+				buffer.putLong(trade.epochExchangeTime);
+				buffer.putLong(trade.blockfactsTime);
+				buffer.putDouble(trade.price);
+				buffer.putDouble(trade.tradeSize);
+				buffer.putDouble(trade.denominatorSize);
+				PutString(trade.makerTaker);
+				PutString(trade.tradeId);
+			}
+		}
+		
+		private void PutString(String value) {
+			if(value == null) {
+				Ensure(2);
+				buffer.putShort((short) -1);
+				return;
+			}
+			
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			if(bytes.length > Short.MAX_VALUE) bytes = Arrays.copyOf(bytes, Short.MAX_VALUE);
+			Ensure(2 + bytes.length);
+			buffer.putShort((short) bytes.length);
+			buffer.put(bytes);
+		}
+		
+		private void Ensure(int extra) {
+			if(buffer.remaining() >= extra) return;
+			
+			ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + extra));
+			buffer.flip();
+			larger.put(buffer);
+			buffer = larger;
+		}
+		
+		ByteBuffer Flip() {
+			buffer.flip();
+			return buffer;
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package blockfacts.io.blockfacts_java_sdk.v1.Storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Append-only segment files of one series, one file per UTC day, with an index of the committed length of every segment
+ * and of the minutes which were stored completely. Records are appended first and the index is replaced atomically afterwards,
+ * so bytes of an interrupted append are beyond the committed length and are cut off the next time the directory is opened.
+ */
+final class BlockfactsSegmentDirectory {
+	private static final String INDEX = "index.properties";
+	private static final String SEGMENT_SUFFIX = ".seg";
+	
+	private final Path directory;
+	private final TreeMap<String, Long> lengths = new TreeMap<String, Long>();
+	private final List<long[]> coverage = new ArrayList<long[]>();
+	
+	BlockfactsSegmentDirectory(Path directory) throws IOException {
+		this.directory = directory;
+		Files.createDirectories(directory);
+		
+		Path index = directory.resolve(INDEX);
+		if(Files.exists(index)) {
+			Properties properties = new Properties();
+			try (InputStream input = Files.newInputStream(index)) {
+				properties.load(input);
+			}
+			
+			for(String name : properties.stringPropertyNames()) {
+				if(name.startsWith("length.")) lengths.put(name.substring(7), Long.parseLong(properties.getProperty(name)));
+			}
+			String ranges = properties.getProperty("coverage", "");
+			for(String range : ranges.split(",")) {
+				if(range.isEmpty()) continue;
+				int dash = range.indexOf('-', 1);
+				coverage.add(new long[] { Long.parseLong(range.substring(0, dash)), Long.parseLong(range.substring(dash + 1)) });
+			}
+		}
+		
+		try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+			for(Path segment : segments) {
+				String day = segment.getFileName().toString();
+				day = day.substring(0, day.length() - SEGMENT_SUFFIX.length());
+				long committed = lengths.containsKey(day) ? lengths.get(day) : 0;
+				if(Files.size(segment) > committed) {
+					try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+						channel.truncate(committed);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns the ranges between the minutes which are not stored yet.
+	 * @param from First minute since the epoch (inclusive)
+	 * @param to Last minute since the epoch (exclusive)
+	 * @return Missing ranges as pairs of minutes, in order
+	 */
+	List<long[]> Gaps(long from, long to) {
+		List<long[]> gaps = new ArrayList<long[]>();
+		long cursor = from;
+		for(long[] range : coverage) {
+			if(range[1] <= cursor) continue;
+			if(range[0] >= to) break;
+			if(range[0] > cursor) gaps.add(new long[] { cursor, range[0] });
+			cursor = Math.max(cursor, range[1]);
+		}
+		if(cursor < to) gaps.add(new long[] { cursor, to });
+		
+		return gaps;
+	}
+	
+	/**
+	 * Appends records to the segments of their days and marks the ranges as stored.
+	 * @param days Encoded records by day (yyyy-MM-dd)
+	 * @param ranges Ranges of minutes which the records cover completely
+	 */
+	void Append(Map<String, ByteBuffer> days, List<long[]> ranges) throws IOException {
+		for(Map.Entry<String, ByteBuffer> day : days.entrySet()) {
+			ByteBuffer records = day.getValue();
+			if(!records.hasRemaining()) continue;
+			
+			try (FileChannel channel = FileChannel.open(Segment(day.getKey()), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+				long length = lengths.containsKey(day.getKey()) ? lengths.get(day.getKey()) : 0;
+				channel.position(length);
+				while(records.hasRemaining()) {
+					length += channel.write(records);
+				}
+				channel.force(false);
+				lengths.put(day.getKey(), length);
+			}
+		}
+		
+		for(long[] range : ranges) {
+			Cover(range[0], range[1]);
+		}
+		WriteIndex();
+	}
+	
+	/**
+	 * Maps the committed part of the segment of a day.
+	 * @param day Day (yyyy-MM-dd)
+	 * @return Read-only buffer of the records, or null if nothing is stored for the day
+	 */
+	MappedByteBuffer Map(String day) throws IOException {
+		Long length = lengths.get(day);
+		if(length == null || length == 0) return null;
+		
+		try (FileChannel channel = FileChannel.open(Segment(day), StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+		}
+	}
+	
+	private Path Segment(String day) {
+		return directory.resolve(day + SEGMENT_SUFFIX);
+	}
+	
+	/**
+	 * Adds a range to the sorted, non-overlapping coverage, merging it with the ranges it touches.
+	 */
+	private void Cover(long from, long to) {
+		if(from >= to) return;
+		
+		int i = 0;
+		while(i < coverage.size() && coverage.get(i)[1] < from) i++;
+		while(i < coverage.size() && coverage.get(i)[0] <= to) {
+			long[] range = coverage.remove(i);
+			from = Math.min(from, range[0]);
+			to = Math.max(to, range[1]);
+		}
+		coverage.add(i, new long[] { from, to });
+	}
+	
+	private void WriteIndex() throws IOException {
+		Properties properties = new Properties();
+		for(Map.Entry<String, Long> length : lengths.entrySet()) {
+			properties.setProperty("length." + length.getKey(), String.valueOf(length.getValue()));
+		}
+		
+		StringBuilder ranges = new StringBuilder();
+		for(long[] range : coverage) {
+			if(ranges.length() > 0) ranges.append(',');
+			ranges.append(range[0]).append('-').append(range[1]);
+		}
+		properties.setProperty("coverage", ranges.toString());
+		
+		Path temporary = Files.createTempFile(directory, INDEX, ".tmp");
+		try (OutputStream output = Files.newOutputStream(temporary)) {
+			properties.store(output, "BlockFacts segment index");
+		}
+		Files.move(temporary, directory.resolve(INDEX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+}
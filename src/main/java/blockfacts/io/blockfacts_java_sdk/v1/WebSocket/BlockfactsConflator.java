@@ -0,0 +1,254 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsChannelObject;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsNormalizationModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsTradeModel;
+
+/**
+ * Keeps only the newest trade or normalized price of each exchange and pair, and releases it to the consumer
+ * on a fixed cadence or when Flush is called. Every release costs one call per pair that changed since the last one,
+ * however many messages arrived in between.
+ * The consumer receives the same model instance for a pair on every release, so it must copy what it wants to keep.
+ * Exchange and pair names are matched ignoring case, the same way the dispatcher matches its listeners.
+ */
+public class BlockfactsConflator<T> implements AutoCloseable {
+	private static final String BLOCKFACTS_CHANNEL = "BLOCKFACTS";
+	
+	private final BlockfactsMessageDispatcher dispatcher;
+	private final Consumer<T> consumer;
+	private final Function<T, String> exchangeOf;
+	private final Function<T, String> pairOf;
+	private final BiConsumer<T, T> copier;
+	private final Supplier<T> factory;
+	private final ConcurrentHashMap<String, ConcurrentHashMap<String, Slot<T>>> slots = new ConcurrentHashMap<String, ConcurrentHashMap<String, Slot<T>>>();
+	private final CopyOnWriteArrayList<Slot<T>> slotList = new CopyOnWriteArrayList<Slot<T>>();
+	private final ConcurrentHashMap<String, Boolean> allPairs = new ConcurrentHashMap<String, Boolean>();
+	private final LongAdder received = new LongAdder();
+	private final LongAdder conflated = new LongAdder();
+	private final Consumer<T> listener = this::Update;
+	private ScheduledExecutorService scheduler;
+	private ScheduledFuture<?> flushTask;
+	
+	private BlockfactsConflator(BlockfactsMessageDispatcher dispatcher, List<BlockfactsChannelObject> channels, Consumer<T> consumer, Function<T, String> exchangeOf, Function<T, String> pairOf, BiConsumer<T, T> copier, Supplier<T> factory) {
+		this.dispatcher = dispatcher;
+		this.consumer = consumer;
+		this.exchangeOf = exchangeOf;
+		this.pairOf = pairOf;
+		this.copier = copier;
+		this.factory = factory;
+		
+		for(BlockfactsChannelObject channel : channels) {
+			if(channel.pairs == null || channel.pairs.isEmpty()) {
+				allPairs.put(Key(channel.exchangeName), Boolean.TRUE);
+				slots.computeIfAbsent(Key(channel.exchangeName), exchange -> new ConcurrentHashMap<String, Slot<T>>());
+				continue;
+			}
+			
+			for(String pair : channel.pairs) {
+				Slot(channel.exchangeName, pair);
+			}
+		}
+	}
+	
+	/**
+	 * Conflates the exchange trades of the provided channels. Channels without pairs conflate every pair of the exchange.
+	 * @param dispatcher Dispatcher of the WebSocket client
+	 * @param channels Exchanges and pairs to conflate, usually the ones subscribed to
+	 * @param consumer Receives the newest trade of each pair which traded since the previous release
+	 * @return BlockfactsConflator
+	 */
+	public static BlockfactsConflator<BlockfactsTradeModel> ForTrades(BlockfactsMessageDispatcher dispatcher, List<BlockfactsChannelObject> channels, Consumer<BlockfactsTradeModel> consumer) {
+		BlockfactsConflator<BlockfactsTradeModel> conflator = new BlockfactsConflator<BlockfactsTradeModel>(dispatcher, channels, consumer,
+				trade -> trade.exchange, trade -> trade.pair, BlockfactsMessageDispatcher::CopyTrade, BlockfactsTradeModel::new);
+		dispatcher.AddTradeListener(conflator.listener);
+		
+		return conflator;
+	}
+	
+	/**
+	 * Conflates the BlockFacts normalized prices of the pairs of the BLOCKFACTS channel.
+	 * @param dispatcher Dispatcher of the WebSocket client
+	 * @param channels Channels to conflate, only the BLOCKFACTS channel is used
+	 * @param consumer Receives the newest normalized price of each pair which changed since the previous release
+	 * @return BlockfactsConflator
+	 */
+	public static BlockfactsConflator<BlockfactsNormalizationModel> ForNormalization(BlockfactsMessageDispatcher dispatcher, List<BlockfactsChannelObject> channels, Consumer<BlockfactsNormalizationModel> consumer) {
+		List<BlockfactsChannelObject> blockfactsChannels = new ArrayList<BlockfactsChannelObject>();
+		for(BlockfactsChannelObject channel : channels) {
+			if(BLOCKFACTS_CHANNEL.equalsIgnoreCase(channel.exchangeName)) blockfactsChannels.add(new BlockfactsChannelObject(BLOCKFACTS_CHANNEL, channel.pairs != null ? new ArrayList<String>(channel.pairs) : null));
+		}
+		
+		BlockfactsConflator<BlockfactsNormalizationModel> conflator = new BlockfactsConflator<BlockfactsNormalizationModel>(dispatcher, blockfactsChannels, consumer,
+				price -> BLOCKFACTS_CHANNEL, price -> price.pair, BlockfactsMessageDispatcher::CopyNormalization, BlockfactsNormalizationModel::new);
+		dispatcher.AddNormalizationListener(conflator.listener);
+		
+		return conflator;
+	}
+	
+	/**
+	 * Releases the pending models on a fixed cadence, from a background thread.
+	 * @param cadence Time between releases, or null to only release on Flush
+	 * @return BlockfactsConflator
+	 */
+	public synchronized BlockfactsConflator<T> SetCadence(Duration cadence) {
+		if(flushTask != null) flushTask.cancel(false);
+		flushTask = null;
+		if(cadence == null) return this;
+		
+		if(scheduler == null) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "blockfacts-conflator");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		
+		long nanos = cadence.toNanos();
+		flushTask = scheduler.scheduleAtFixedRate(this::ScheduledFlush, nanos, nanos, TimeUnit.NANOSECONDS);
+		return this;
+	}
+	
+	/**
+	 * Releases the newest model of every pair which changed since the previous release.
+	 * @return Number of released models
+	 */
+	public int Flush() {
+		synchronized(slotList) {
+			int released = 0;
+			
+			for(Slot<T> slot : slotList) {
+				synchronized(slot) {
+					if(!slot.dirty) continue;
+					copier.accept(slot.pending, slot.released);
+					slot.dirty = false;
+				}
+				
+				consumer.accept(slot.released);
+				released++;
+			}
+			
+			return released;
+		}
+	}
+	
+	/**
+	 * @return Number of pairs with a model waiting to be released
+	 */
+	public int GetPending() {
+		int pending = 0;
+		for(Slot<T> slot : slotList) {
+			synchronized(slot) {
+				if(slot.dirty) pending++;
+			}
+		}
+		
+		return pending;
+	}
+	
+	/**
+	 * @return Number of messages received for conflated pairs
+	 */
+	public long GetReceived() {
+		return received.sum();
+	}
+	
+	/**
+	 * @return Number of messages replaced by a newer one before they were released
+	 */
+	public long GetConflated() {
+		return conflated.sum();
+	}
+	
+	/**
+	 * Stops receiving messages and stops the release cadence. Pending models are not released.
+	 */
+	@Override
+	public synchronized void close() {
+		dispatcher.RemoveListener(listener);
+		if(scheduler != null) scheduler.shutdownNow();
+		scheduler = null;
+		flushTask = null;
+	}
+	
+	/**
+	 * Flushes from the scheduler, where an exception thrown by the consumer would silently cancel the cadence.
+	 */
+	private void ScheduledFlush() {
+		try {
+			Flush();
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	private void Update(T model) {
+		Slot<T> slot = Find(exchangeOf.apply(model), pairOf.apply(model));
+		if(slot == null) return;
+		
+		received.increment();
+		synchronized(slot) {
+			copier.accept(model, slot.pending);
+			if(slot.dirty) conflated.increment();
+			slot.dirty = true;
+		}
+	}
+	
+	private Slot<T> Find(String exchange, String pair) {
+		if(exchange == null || pair == null) return null;
+		
+		Slot<T> slot = Lookup(exchange, pair);
+		if(slot != null) return slot;
+		
+		// Slots are keyed by the upper case names, which messages usually carry already
+		exchange = Key(exchange);
+		pair = Key(pair);
+		slot = Lookup(exchange, pair);
+		if(slot == null && allPairs.containsKey(exchange)) slot = Slot(exchange, pair);
+		
+		return slot;
+	}
+	
+	private Slot<T> Lookup(String exchange, String pair) {
+		ConcurrentHashMap<String, Slot<T>> pairs = slots.get(exchange);
+		return pairs != null ? pairs.get(pair) : null;
+	}
+	
+	private Slot<T> Slot(String exchange, String pair) {
+		return slots.computeIfAbsent(Key(exchange), key -> new ConcurrentHashMap<String, Slot<T>>()).computeIfAbsent(Key(pair), key -> {
+			Slot<T> slot = new Slot<T>(factory.get(), factory.get());
+			slotList.add(slot);
+			return slot;
+		});
+	}
+	
+	private static String Key(String name) {
+		return name.toUpperCase(Locale.ROOT);
+	}
+	
+	private static final class Slot<T> {
+		final T pending;
+		final T released;
+		boolean dirty;
+		
+		Slot(T pending, T released) {
+			this.pending = pending;
+			this.released = released;
+		}
+	}
+}
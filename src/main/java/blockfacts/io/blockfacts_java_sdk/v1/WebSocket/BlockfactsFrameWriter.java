@@ -0,0 +1,236 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.java_websocket.framing.Framedata;
+import org.java_websocket.framing.TextFrame;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsChannelObject;
+
+/**
+ * Writes the messages a client sends to the WebSocket server as text frames.
+ * Messages are encoded in one pass straight into UTF-8 bytes, and constant messages are encoded only once.
+ * The bytes are the same as those of a BlockfactsSubscribeMessage serialized with a default Gson instance,
+ * including its HTML safe escaping of characters such as = and &lt;, and leaving out null fields.
+ */
+final class BlockfactsFrameWriter {
+	private static final byte[] PING = Bytes("{\"type\":\"ping\"}");
+	private static final byte[] PONG = Bytes("{\"type\":\"pong\"}");
+	private static final byte[] SUBSCRIBE = Bytes("{\"type\":\"subscribe\"");
+	private static final byte[] UNSUBSCRIBE = Bytes("{\"type\":\"unsubscribe\"");
+	private static final byte[] SNAPSHOT = Bytes(",\"snapshot\":");
+	private static final byte[] ID = Bytes(",\"id\":");
+	private static final byte[] KEY = Bytes(",\"X-API-KEY\":");
+	private static final byte[] SECRET = Bytes(",\"X-API-SECRET\":");
+	private static final byte[] CHANNELS = Bytes(",\"channels\":[");
+	private static final byte[] NAME = Bytes("\"name\":");
+	private static final byte[] PAIRS = Bytes("\"pairs\":[");
+	private static final byte[] NULL = Bytes("null");
+	private static final byte[] TRUE = Bytes("true");
+	private static final byte[] FALSE = Bytes("false");
+	private static final byte[][] ESCAPES = Escapes();
+	private static final byte[] LINE_SEPARATOR = Bytes("\\u2028");
+	private static final byte[] PARAGRAPH_SEPARATOR = Bytes("\\u2029");
+	
+	private byte[] buffer;
+	private int length;
+	
+	private BlockfactsFrameWriter(int capacity) {
+		this.buffer = new byte[capacity];
+	}
+	
+	static Framedata Ping() {
+		return Frame(PING, PING.length);
+	}
+	
+	static Framedata Pong() {
+		return Frame(PONG, PONG.length);
+	}
+	
+	/**
+	 * Writes a subscribe message. Null fields are left out.
+	 */
+	static Framedata Subscribe(Boolean snapshot, String id, String key, String secret, List<BlockfactsChannelObject> channels) {
+		BlockfactsFrameWriter writer = new BlockfactsFrameWriter(Estimate(channels) + 128);
+		writer.Write(SUBSCRIBE);
+		if(snapshot != null) {
+			writer.Write(SNAPSHOT);
+			writer.Write(snapshot ? TRUE : FALSE);
+		}
+		writer.Field(ID, id);
+		writer.Field(KEY, key);
+		writer.Field(SECRET, secret);
+		writer.Channels(channels);
+		writer.Write((byte) '}');
+		
+		return Frame(writer.buffer, writer.length);
+	}
+	
+	/**
+	 * Writes an unsubscribe message.
+	 */
+	static Framedata Unsubscribe(List<BlockfactsChannelObject> channels) {
+		BlockfactsFrameWriter writer = new BlockfactsFrameWriter(Estimate(channels) + 32);
+		writer.Write(UNSUBSCRIBE);
+		writer.Channels(channels);
+		writer.Write((byte) '}');
+		
+		return Frame(writer.buffer, writer.length);
+	}
+	
+	/**
+	 * Wraps the bytes in a frame without copying them. The WebSocket client copies the payload into its own buffer when sending,
+	 * but it consumes the ByteBuffer, so every send needs a new frame.
+	 */
+	private static Framedata Frame(byte[] payload, int length) {
+		TextFrame frame = new TextFrame();
+		frame.setPayload(ByteBuffer.wrap(payload, 0, length));
+		frame.setFin(true);
+		frame.setTransferemasked(true);
+		
+		return frame;
+	}
+	
+	private static int Estimate(List<BlockfactsChannelObject> channels) {
+		if(channels == null) return 0;
+		
+		int estimate = 0;
+		for(BlockfactsChannelObject channel : channels) {
+			estimate += 32;
+			if(channel != null && channel.pairs != null) estimate += channel.pairs.size() * 16;
+		}
+		
+		return estimate;
+	}
+	
+	private void Channels(List<BlockfactsChannelObject> channels) {
+		if(channels == null) return;
+		
+		Write(CHANNELS);
+		for(int i = 0; i < channels.size(); i++) {
+			BlockfactsChannelObject channel = channels.get(i);
+			if(i > 0) Write((byte) ',');
+			if(channel == null) {
+				Write(NULL);
+				continue;
+			}
+			
+			Write((byte) '{');
+			if(channel.exchangeName != null) {
+				Write(NAME);
+				String(channel.exchangeName);
+			}
+			if(channel.pairs != null) {
+				if(channel.exchangeName != null) Write((byte) ',');
+				Write(PAIRS);
+				for(int j = 0; j < channel.pairs.size(); j++) {
+					if(j > 0) Write((byte) ',');
+					String(channel.pairs.get(j));
+				}
+				Write((byte) ']');
+			}
+			Write((byte) '}');
+		}
+		Write((byte) ']');
+	}
+	
+	private void Field(byte[] name, String value) {
+		if(value == null) return;
+		
+		Write(name);
+		String(value);
+	}
+	
+	/**
+	 * Writes a JSON string, escaping the characters Gson escapes by default, and encoding the characters as UTF-8.
+	 */
+	private void String(String value) {
+		if(value == null) {
+			Write(NULL);
+			return;
+		}
+		
+		// An escape takes at most six bytes per character, and UTF-8 at most three
+		Ensure(value.length() * 6 + 2);
+		buffer[length++] = '"';
+		
+		for(int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			
+			if(c < 0x80) {
+				byte[] escape = ESCAPES[c];
+				if(escape == null) {
+					buffer[length++] = (byte) c;
+				} else {
+					System.arraycopy(escape, 0, buffer, length, escape.length);
+					length += escape.length;
+				}
+			} else if(c < 0x800) {
+				buffer[length++] = (byte) (0xC0 | c >> 6);
+				buffer[length++] = (byte) (0x80 | c & 0x3F);
+			} else if(c == '\u2028' || c == '\u2029') {
+				byte[] escape = c == '\u2028' ? LINE_SEPARATOR : PARAGRAPH_SEPARATOR;
+				System.arraycopy(escape, 0, buffer, length, escape.length);
+				length += escape.length;
+			} else if(Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				buffer[length++] = (byte) (0xF0 | codePoint >> 18);
+				buffer[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+				buffer[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+				buffer[length++] = (byte) (0x80 | codePoint & 0x3F);
+			} else if(Character.isSurrogate(c)) {
+				buffer[length++] = '?';
+			} else {
+				buffer[length++] = (byte) (0xE0 | c >> 12);
+				buffer[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+				buffer[length++] = (byte) (0x80 | c & 0x3F);
+			}
+		}
+		
+		buffer[length++] = '"';
+	}
+	
+	private void Write(byte[] bytes) {
+		Ensure(bytes.length);
+		System.arraycopy(bytes, 0, buffer, length, bytes.length);
+		length += bytes.length;
+	}
+	
+	private void Write(byte value) {
+		Ensure(1);
+		buffer[length++] = value;
+	}
+	
+	private void Ensure(int extra) {
+		if(length + extra > buffer.length) buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+	}
+	
+	/**
+	 * Builds the escapes of the ASCII characters, which are the ones of Gson's JsonWriter with HTML safe escaping.
+	 */
+	private static byte[][] Escapes() {
+		byte[][] escapes = new byte[0x80][];
+		for(int c = 0; c < 0x20; c++) {
+			escapes[c] = Bytes(String.format("\\u%04x", c));
+		}
+		for(char c : "<>&='".toCharArray()) {
+			escapes[c] = Bytes(String.format("\\u%04x", (int) c));
+		}
+		escapes['"'] = Bytes("\\\"");
+		escapes['\\'] = Bytes("\\\\");
+		escapes['\t'] = Bytes("\\t");
+		escapes['\b'] = Bytes("\\b");
+		escapes['\n'] = Bytes("\\n");
+		escapes['\r'] = Bytes("\\r");
+		escapes['\f'] = Bytes("\\f");
+		
+		return escapes;
+	}
+	
+	private static byte[] Bytes(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,267 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsChannelObject;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsTradeModel;
+import blockfacts.io.blockfacts_java_sdk.v1.REST.BlockfactsBackfill;
+import blockfacts.io.blockfacts_java_sdk.v1.REST.ExchangeEndpoints;
+
+/**
+ * Trade gate of a dispatcher which fills the trades missed while a connection was down from the REST API.
+ * While the gap of a pair is being filled, its live trades are held back and released after the fetched ones,
+ * and fetched trades which were already delivered before the disconnect are dropped, so listeners see one continuous stream per pair.
+ * One gap filler is shared by all connections dispatching into the same dispatcher.
+ * While no gap is being filled, live trades only record the time of the last trade of their pair, without taking any lock.
+ */
+final class BlockfactsGapFiller implements Predicate<BlockfactsTradeModel> {
+	static final int MAX_HELD_TRADES = 100_000;
+	private static final int TIE_TRADE_IDS = 16;
+	private static final Duration MAX_LOOKBACK = Duration.ofMinutes(BlockfactsBackfill.MAX_WINDOW_MINUTES);
+	private static final String BLOCKFACTS_CHANNEL = "BLOCKFACTS";
+	
+	private final BlockfactsMessageDispatcher dispatcher;
+	private final ExchangeEndpoints endpoints;
+	private final ConcurrentHashMap<String, ConcurrentHashMap<String, PairState>> pairs = new ConcurrentHashMap<String, ConcurrentHashMap<String, PairState>>();
+	private final AtomicInteger activeFills = new AtomicInteger();
+	volatile BiConsumer<BlockfactsChannelObject, Exception> failureListener;
+	
+	private BlockfactsGapFiller(BlockfactsMessageDispatcher dispatcher, ExchangeEndpoints endpoints) {
+		this.dispatcher = dispatcher;
+		this.endpoints = endpoints;
+	}
+	
+	/**
+	 * Returns the gap filler installed on the dispatcher, installing one if there is none yet.
+	 * @param failureListener Receives the pairs whose gap could not be filled completely, or null to keep the current listener
+	 */
+	static BlockfactsGapFiller Install(BlockfactsMessageDispatcher dispatcher, ExchangeEndpoints endpoints, BiConsumer<BlockfactsChannelObject, Exception> failureListener) {
+		synchronized(dispatcher) {
+			BlockfactsGapFiller gapFiller = dispatcher.tradeGate instanceof BlockfactsGapFiller ? (BlockfactsGapFiller) dispatcher.tradeGate : null;
+			if(gapFiller == null) {
+				gapFiller = new BlockfactsGapFiller(dispatcher, endpoints);
+				dispatcher.tradeGate = gapFiller;
+			}
+			if(failureListener != null) gapFiller.failureListener = failureListener;
+			
+			return gapFiller;
+		}
+	}
+	
+	@Override
+	public boolean test(BlockfactsTradeModel trade) {
+		PairState state = State(trade.exchange, trade.pair);
+		if(activeFills.get() == 0) {
+			state.Seen(trade);
+			return true;
+		}
+		
+		synchronized(state) {
+			if(state.fills == 0) {
+				state.Seen(trade);
+				return true;
+			}
+			
+			if(state.held.size() >= MAX_HELD_TRADES) {
+				state.droppedHeld++;
+				return false;
+			}
+			
+			BlockfactsTradeModel copy = new BlockfactsTradeModel();
+			BlockfactsMessageDispatcher.CopyTrade(trade, copy);
+			state.held.add(copy);
+			return false;
+		}
+	}
+	
+	/**
+	 * Starts holding back the live trades of the provided channels. Must be called before resubscribing,
+	 * and must be followed by Fill with the same channels.
+	 */
+	void Begin(List<BlockfactsChannelObject> channels) {
+		for(BlockfactsChannelObject channel : channels) {
+			if(!IsTradeChannel(channel)) continue;
+			
+			for(String pair : channel.pairs) {
+				PairState state = State(channel.exchangeName, pair);
+				activeFills.incrementAndGet();
+				synchronized(state) {
+					state.fills++;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Fetches the trades of the provided channels between the last trade seen (or the disconnect) and the reconnect,
+	 * looking back at most one backfill window before the disconnect, delivers them, then releases the live trades held back since Begin.
+	 * Runs on the calling thread, and delivers to the listeners without holding any lock of the gap filler.
+	 * Pairs whose trades could not be fetched, or whose held back trades overflowed, are reported to the failure listener.
+	 */
+	void Fill(List<BlockfactsChannelObject> channels, Instant disconnectedAt, Instant reconnectedAt) {
+		for(BlockfactsChannelObject channel : channels) {
+			if(!IsTradeChannel(channel)) continue;
+			
+			for(String pair : channel.pairs) {
+				PairState state = State(channel.exchangeName, pair);
+				try {
+					Fill(channel.exchangeName, pair, state, disconnectedAt, reconnectedAt);
+				} finally {
+					activeFills.decrementAndGet();
+				}
+			}
+		}
+	}
+	
+	private void Fill(String exchange, String pair, PairState state, Instant disconnectedAt, Instant reconnectedAt) {
+		// Only the thread holding the pair's trades back writes its state now, so the last trade seen is stable
+		long lastSeen = state.lastSeen;
+		HashSet<String> delivered = state.TieTradeIds();
+		
+		Instant from = lastSeen > 0 ? Instant.ofEpochMilli(lastSeen) : disconnectedAt;
+		if(from.isBefore(disconnectedAt.minus(MAX_LOOKBACK))) from = disconnectedAt.minus(MAX_LOOKBACK);
+		
+		List<BlockfactsTradeModel> fetched = new ArrayList<BlockfactsTradeModel>();
+		Exception failure = null;
+		String[] tickers = pair.split("-");
+		
+		if(tickers.length == 2 && from.isBefore(reconnectedAt)) {
+			try {
+				BlockfactsBackfill.ForTrades(endpoints, tickers[0], tickers[1], exchange).SetParallelism(1).Run(from, reconnectedAt, fetched::addAll);
+			} catch (IOException | RuntimeException e) {
+				failure = e;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				failure = e;
+			}
+		}
+		
+		for(BlockfactsTradeModel trade : fetched) {
+			if(trade.epochExchangeTime < lastSeen) continue;
+			Deliver(state, trade, delivered);
+		}
+		
+		// Trades arriving while the held ones are delivered are held as well, until none are left
+		int droppedHeld;
+		for(;;) {
+			List<BlockfactsTradeModel> held;
+			synchronized(state) {
+				if(state.held.isEmpty()) {
+					state.fills--;
+					droppedHeld = state.droppedHeld;
+					state.droppedHeld = 0;
+					break;
+				}
+				
+				held = new ArrayList<BlockfactsTradeModel>(state.held);
+				state.held.clear();
+			}
+			
+			for(BlockfactsTradeModel trade : held) {
+				Deliver(state, trade, delivered);
+			}
+		}
+		
+		if(droppedHeld > 0 && failure == null) {
+			failure = new IllegalStateException(droppedHeld + " live trades were dropped because more than " + MAX_HELD_TRADES + " were held back while the gap was filled");
+		}
+		if(failure != null) ReportFailure(exchange, pair, failure);
+	}
+	
+	private void Deliver(PairState state, BlockfactsTradeModel trade, HashSet<String> delivered) {
+		if(trade.tradeId != null && !delivered.add(trade.tradeId)) return;
+		
+		state.Seen(trade);
+		try {
+			dispatcher.DispatchTrade(trade);
+		} catch (RuntimeException e) {
+			// A failing listener must not leave the pair's live trades held back
+			e.printStackTrace();
+		}
+	}
+	
+	private void ReportFailure(String exchange, String pair, Exception failure) {
+		ArrayList<String> pairs = new ArrayList<String>();
+		pairs.add(pair);
+		BlockfactsChannelObject channel = new BlockfactsChannelObject(exchange, pairs);
+		
+		BiConsumer<BlockfactsChannelObject, Exception> listener = this.failureListener;
+		if(listener != null) listener.accept(channel, failure);
+		else System.err.println("Gap backfill of " + exchange + " " + pair + " failed: " + failure);
+	}
+	
+	private static boolean IsTradeChannel(BlockfactsChannelObject channel) {
+		return channel.pairs != null && !channel.pairs.isEmpty() && !BLOCKFACTS_CHANNEL.equalsIgnoreCase(channel.exchangeName);
+	}
+	
+	private PairState State(String exchange, String pair) {
+		PairState state = Lookup(exchange, pair);
+		if(state != null) return state;
+		
+		// States are keyed by the upper case names, which messages usually carry already, while channels carry the caller's names
+		return pairs.computeIfAbsent(Key(exchange), key -> new ConcurrentHashMap<String, PairState>()).computeIfAbsent(Key(pair), key -> new PairState());
+	}
+	
+	private PairState Lookup(String exchange, String pair) {
+		ConcurrentHashMap<String, PairState> exchangePairs = pairs.get(exchange);
+		return exchangePairs != null ? exchangePairs.get(pair) : null;
+	}
+	
+	private static String Key(String name) {
+		return name.toUpperCase(Locale.ROOT);
+	}
+	
+	/**
+	 * Gap filling state of one pair. The last trade seen is written without a lock by the thread delivering the pair's live trades,
+	 * which the dispatcher does one at a time per pair. Everything else is guarded by the state's monitor.
+	 */
+	private static final class PairState {
+		final List<BlockfactsTradeModel> held = new ArrayList<BlockfactsTradeModel>();
+		final AtomicReferenceArray<String> tieTradeIds = new AtomicReferenceArray<String>(TIE_TRADE_IDS);
+		volatile long lastSeen;
+		volatile int tieTradeIdCount;
+		int fills;
+		int droppedHeld;
+		
+		/**
+		 * Records a trade about to be delivered. The IDs of the trades at the time of the last trade are kept,
+		 * so that a fill starting at that time can tell which of them were delivered already.
+		 */
+		void Seen(BlockfactsTradeModel trade) {
+			long time = trade.epochExchangeTime;
+			long last = lastSeen;
+			if(time < last) return;
+			
+			if(time > last) {
+				tieTradeIdCount = 0;
+				lastSeen = time;
+			}
+			
+			int count = tieTradeIdCount;
+			if(trade.tradeId != null && count < TIE_TRADE_IDS) {
+				tieTradeIds.set(count, trade.tradeId);
+				tieTradeIdCount = count + 1;
+			}
+		}
+		
+		HashSet<String> TieTradeIds() {
+			HashSet<String> ids = new HashSet<String>();
+			for(int i = 0; i < tieTradeIdCount; i++) {
+				ids.add(tieTradeIds.get(i));
+			}
+			
+			return ids;
+		}
+	}
+}
@@ -0,0 +1,240 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.framing.CloseFrame;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsTradeModel;
+
+/**
+ * Sends ping messages on a fixed interval and measures the time until the server answers with a pong.
+ * A connection which neither answers a ping nor sends anything else within the stale timeout is treated as
+ * half-open and closed. A ping which is not answered within the stale timeout while other messages still arrive is sent again.
+ * Optionally the lag of every trade is measured against the local clock.
+ * Replies are received through the dispatcher of the client, so onMessage must not be overridden.
+ */
+public class BlockfactsHeartbeat implements AutoCloseable {
+	private static final String PING = "ping";
+	private static final String PONG = "pong";
+	
+	private final BlockfactsWebSocketClient client;
+	private final BlockfactsLatencyHistogram roundTripTime = new BlockfactsLatencyHistogram();
+	private final BlockfactsLatencyHistogram exchangeLag = new BlockfactsLatencyHistogram();
+	private final BlockfactsLatencyHistogram blockfactsLag = new BlockfactsLatencyHistogram();
+	private final AtomicLong staleReconnects = new AtomicLong();
+	private final Consumer<String> pongListener = message -> OnPong();
+	private final Consumer<String> pingListener = message -> OnPing();
+	private final Consumer<BlockfactsTradeModel> lagListener = this::OnTrade;
+	private Duration interval = Duration.ofSeconds(15);
+	private Duration staleTimeout = Duration.ofSeconds(30);
+	private boolean answerPings = true;
+	private boolean measureFeedLag;
+	private BlockfactsMessageDispatcher dispatcher;
+	private ScheduledExecutorService scheduler;
+	private WebSocket pingConnection;
+	private long pingSentNanos;
+	private boolean awaitingPong;
+	
+	/**
+	 * Creates a heartbeat for a client. A stale connection is closed, and reconnecting and subscribing again is left to the client's owner,
+	 * e.g. in onClose, since a plain client does not know what it was subscribed to.
+	 * Use a BlockfactsManagedConnection to have stale connections reconnected and resubscribed.
+	 * @param client WebSocket client
+	 */
+	public BlockfactsHeartbeat(BlockfactsWebSocketClient client) {
+		this.client = client;
+	}
+	
+	/**
+	 * Creates a heartbeat for a managed connection. A stale connection is closed and reconnected with the connection's backoff.
+	 * @param connection Managed WebSocket connection
+	 */
+	public BlockfactsHeartbeat(BlockfactsManagedConnection connection) {
+		this.client = connection.GetClient();
+	}
+	
+	/**
+	 * Sets the time between ping messages. Defaults to 15 seconds.
+	 * @param interval Ping interval
+	 * @return BlockfactsHeartbeat
+	 */
+	public synchronized BlockfactsHeartbeat SetInterval(Duration interval) {
+		this.interval = interval;
+		return this;
+	}
+	
+	/**
+	 * Sets how long a connection may stay silent after a ping before it is reconnected. Defaults to 30 seconds.
+	 * @param staleTimeout Stale timeout
+	 * @return BlockfactsHeartbeat
+	 */
+	public synchronized BlockfactsHeartbeat SetStaleTimeout(Duration staleTimeout) {
+		this.staleTimeout = staleTimeout;
+		return this;
+	}
+	
+	/**
+	 * Sets whether ping messages of the server are answered with a pong message. Defaults to true.
+	 * @param answerPings Whether to answer pings
+	 * @return BlockfactsHeartbeat
+	 */
+	public synchronized BlockfactsHeartbeat SetAnswerPings(boolean answerPings) {
+		this.answerPings = answerPings;
+		return this;
+	}
+	
+	/**
+	 * Sets whether the lag of every received trade is measured. Defaults to false.
+	 * The lag is the local time of receipt minus the trade's exchange time and BlockFacts time, so it includes the clock
+	 * difference between this machine and the exchange or BlockFacts.
+	 * @param measureFeedLag Whether to measure trade lag
+	 * @return BlockfactsHeartbeat
+	 */
+	public synchronized BlockfactsHeartbeat SetMeasureFeedLag(boolean measureFeedLag) {
+		this.measureFeedLag = measureFeedLag;
+		return this;
+	}
+	
+	/**
+	 * Starts sending ping messages and listening for replies.
+	 * @return BlockfactsHeartbeat
+	 */
+	public synchronized BlockfactsHeartbeat Start() {
+		if(scheduler != null) return this;
+		
+		dispatcher = client.dispatcher;
+		dispatcher.AddMessageListener(PONG, pongListener);
+		if(answerPings) dispatcher.AddMessageListener(PING, pingListener);
+		if(measureFeedLag) dispatcher.AddTradeListener(lagListener);
+		
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "blockfacts-heartbeat");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long nanos = interval.toNanos();
+		scheduler.scheduleAtFixedRate(this::ScheduledTick, nanos, nanos, TimeUnit.NANOSECONDS);
+		
+		return this;
+	}
+	
+	/**
+	 * @return Ping to pong round-trip times of the last minute, in microseconds
+	 */
+	public BlockfactsLatencyHistogram GetRoundTripTime() {
+		return roundTripTime;
+	}
+	
+	/**
+	 * @return Time from the exchange time of a trade until it was received, during the last minute, in milliseconds
+	 */
+	public BlockfactsLatencyHistogram GetExchangeLag() {
+		return exchangeLag;
+	}
+	
+	/**
+	 * @return Time from the BlockFacts time of a trade until it was received, during the last minute, in milliseconds
+	 */
+	public BlockfactsLatencyHistogram GetBlockfactsLag() {
+		return blockfactsLag;
+	}
+	
+	/**
+	 * @return Number of times a stale connection was closed
+	 */
+	public long GetStaleReconnects() {
+		return staleReconnects.get();
+	}
+	
+	/**
+	 * Stops sending ping messages and listening for replies.
+	 */
+	@Override
+	public synchronized void close() {
+		if(scheduler == null) return;
+		
+		scheduler.shutdownNow();
+		scheduler = null;
+		dispatcher.RemoveListener(pongListener);
+		dispatcher.RemoveListener(pingListener);
+		dispatcher.RemoveListener(lagListener);
+	}
+	
+	/**
+	 * Ticks from the scheduler, where an exception, e.g. from sending on a connection which just closed,
+	 * would silently cancel the heartbeat.
+	 */
+	private void ScheduledTick() {
+		try {
+			Tick();
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	private void Tick() {
+		WebSocket connection = client.getConnection();
+		long now = System.nanoTime();
+		
+		synchronized(this) {
+			if(!client.isOpen()) {
+				awaitingPong = false;
+				return;
+			}
+			
+			// A ping sent on an earlier connection is never answered on this one
+			if(awaitingPong && pingConnection == connection) {
+				long timeout = staleTimeout.toNanos();
+				if(now - pingSentNanos < timeout) return;
+				
+				// Other messages still arrive, so the ping or its pong was lost rather than the connection
+				if(now - client.lastMessageNanos < timeout) {
+					pingSentNanos = now;
+					client.Ping();
+					return;
+				}
+				
+				awaitingPong = false;
+			} else {
+				pingConnection = connection;
+				pingSentNanos = now;
+				awaitingPong = true;
+				client.Ping();
+				return;
+			}
+		}
+		
+		// A managed connection reconnects and resubscribes when it is closed, a plain client is left closed for its owner
+		staleReconnects.incrementAndGet();
+		client.closeConnection(CloseFrame.ABNORMAL_CLOSE, "No reply within the stale timeout");
+	}
+	
+	private void OnPong() {
+		long now = System.nanoTime();
+		long sentNanos;
+		
+		synchronized(this) {
+			if(!awaitingPong) return;
+			awaitingPong = false;
+			sentNanos = pingSentNanos;
+		}
+		
+		roundTripTime.Record(TimeUnit.NANOSECONDS.toMicros(now - sentNanos));
+	}
+	
+	private void OnPing() {
+		client.Pong();
+	}
+	
+	private void OnTrade(BlockfactsTradeModel trade) {
+		long now = System.currentTimeMillis();
+		if(trade.epochExchangeTime > 0) exchangeLag.Record(now - trade.epochExchangeTime);
+		if(trade.blockfactsTime > 0) blockfactsLag.Record(now - trade.blockfactsTime);
+	}
+}
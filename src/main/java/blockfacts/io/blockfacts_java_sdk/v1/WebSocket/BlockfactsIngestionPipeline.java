@@ -0,0 +1,345 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands received WebSocket messages over from the read thread to consumer threads which decode and dispatch them,
+ * so that slow listeners do not hold up reading from the socket.
+ * Every consumer owns a bounded, preallocated ring buffer. Messages are assigned to consumers by pair,
+ * so messages of the same pair are always dispatched in order by the same thread.
+ * Publish must only be called from one thread at a time, which is the case for the read thread of a WebSocket client.
+ */
+public class BlockfactsIngestionPipeline implements AutoCloseable {
+	private static final long BLOCK_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+	private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final int IDLE_SPINS = 100;
+	
+	private final BlockfactsMessageDispatcher dispatcher;
+	private final BlockfactsOverflowPolicy policy;
+	private final int capacity;
+	private final Ring[] rings;
+	private final Thread[] consumers;
+	private final LongAdder published = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder conflated = new LongAdder();
+	private PairSlot[] pairSlots = new PairSlot[64];
+	private int pairSlotCount;
+	private volatile boolean running;
+	
+	/**
+	 * Creates an ingestion pipeline. Call Start before publishing messages.
+	 * @param dispatcher Dispatcher the consumers route the messages to
+	 * @param capacity Number of messages each consumer can have queued (rounded up to a power of two)
+	 * @param policy What to do when a consumer falls behind
+	 * @param consumers Number of consumer threads
+	 */
+	public BlockfactsIngestionPipeline(BlockfactsMessageDispatcher dispatcher, int capacity, BlockfactsOverflowPolicy policy, int consumers) {
+		if(capacity < 1 || capacity > 1 << 30) throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+		if(consumers < 1) throw new IllegalArgumentException("consumers must be positive");
+		
+		this.dispatcher = dispatcher;
+		this.policy = policy;
+		int size = 1;
+		while(size < capacity) size <<= 1;
+		this.capacity = size;
+		this.rings = new Ring[consumers];
+		this.consumers = new Thread[consumers];
+		
+		for(int i = 0; i < consumers; i++) {
+			Ring ring = new Ring(this.capacity);
+			rings[i] = ring;
+			this.consumers[i] = new Thread(() -> Consume(ring), "blockfacts-ingestion-" + i);
+			this.consumers[i].setDaemon(true);
+			ring.consumer = this.consumers[i];
+		}
+	}
+	
+	/**
+	 * Starts the consumer threads.
+	 * @return BlockfactsIngestionPipeline
+	 */
+	public BlockfactsIngestionPipeline Start() {
+		running = true;
+		for(Thread consumer : consumers) {
+			consumer.start();
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Queues a received message for dispatching. Depending on the overflow policy this waits for free space,
+	 * drops the oldest queued message, or replaces the queued message of the same exchange and pair.
+	 * @param message Raw JSON message
+	 */
+	public void Publish(String message) {
+		published.increment();
+		
+		if(policy == BlockfactsOverflowPolicy.CONFLATE_PER_PAIR) {
+			PairSlot slot = FindPairSlot(message);
+			if(slot != null) {
+				if(slot.latest.getAndSet(message) != null) conflated.increment();
+				else Enqueue(slot.ring, slot);
+				return;
+			}
+		}
+		
+		Enqueue(rings[Partition(message)], message);
+	}
+	
+	/**
+	 * @return Number of messages waiting to be dispatched
+	 */
+	public long GetDepth() {
+		long depth = 0;
+		for(Ring ring : rings) {
+			depth += ring.Depth();
+		}
+		
+		return depth;
+	}
+	
+	/**
+	 * @return Number of messages each consumer can have queued
+	 */
+	public int GetCapacity() {
+		return capacity;
+	}
+	
+	/**
+	 * @return Number of messages published so far
+	 */
+	public long GetPublished() {
+		return published.sum();
+	}
+	
+	/**
+	 * @return Number of messages dropped because a consumer fell behind (DROP_OLDEST)
+	 */
+	public long GetDropped() {
+		return dropped.sum();
+	}
+	
+	/**
+	 * @return Number of messages replaced by a newer message of the same exchange and pair (CONFLATE_PER_PAIR)
+	 */
+	public long GetConflated() {
+		return conflated.sum();
+	}
+	
+	/**
+	 * Stops the consumers once they dispatched the messages already queued.
+	 */
+	@Override
+	public void close() {
+		running = false;
+		for(Ring ring : rings) {
+			LockSupport.unpark(ring.consumer);
+		}
+		
+		for(Thread consumer : consumers) {
+			try {
+				if(consumer != Thread.currentThread()) consumer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+	
+	private void Enqueue(Ring ring, Object item) {
+		while(!ring.Offer(item)) {
+			if(policy == BlockfactsOverflowPolicy.DROP_OLDEST) {
+				if(ring.DropOldest()) dropped.increment();
+				continue;
+			}
+			
+			if(!running) {
+				dropped.increment();
+				return;
+			}
+			LockSupport.parkNanos(this, BLOCK_WAIT_NANOS);
+		}
+	}
+	
+	private void Consume(Ring ring) {
+		int idle = 0;
+		
+		for(;;) {
+			Object item = ring.Poll();
+			
+			if(item == null) {
+				if(!running) return;
+				
+				if(++idle < IDLE_SPINS) {
+					Thread.onSpinWait();
+					continue;
+				}
+				
+				// The producer checks the parked flag after publishing, so a message published in between is not missed
+				ring.parked = true;
+				if(ring.Depth() == 0 && running) LockSupport.parkNanos(this, IDLE_WAIT_NANOS);
+				ring.parked = false;
+				continue;
+			}
+			
+			idle = 0;
+			String message = item instanceof PairSlot ? ((PairSlot) item).latest.getAndSet(null) : (String) item;
+			if(message == null) continue;
+			
+			try {
+				dispatcher.Dispatch(message);
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	private int Partition(String message) {
+		if(rings.length == 1) return 0;
+		
+		int start = BlockfactsMessageReader.ValueStart(message, "\"pair\"");
+		if(start < 0) return 0;
+		
+		return Math.floorMod(Hash(message, start, BlockfactsMessageReader.ValueEnd(message, start), 0), rings.length);
+	}
+	
+	/**
+	 * Returns the conflation slot of the exchange and pair of a data message, or null for other messages.
+	 * Only called by the producer, so the slot table needs no synchronization.
+	 */
+	private PairSlot FindPairSlot(String message) {
+		int typeStart = BlockfactsMessageReader.TypeStart(message);
+		if(typeStart < 0) return null;
+		
+		int typeLength = BlockfactsMessageReader.ValueEnd(message, typeStart) - typeStart;
+		if(!BlockfactsMessageDispatcher.TypeIs(message, typeStart, typeLength, BlockfactsMessageDispatcher.EXCHANGE_TRADE)
+				&& !BlockfactsMessageDispatcher.TypeIs(message, typeStart, typeLength, BlockfactsMessageDispatcher.BLOCKFACTS_PRICE)
+				&& !BlockfactsMessageDispatcher.TypeIs(message, typeStart, typeLength, BlockfactsMessageDispatcher.EXCHANGE_OHLC)
+				&& !BlockfactsMessageDispatcher.TypeIs(message, typeStart, typeLength, BlockfactsMessageDispatcher.BLOCKFACTS_OHLC)) return null;
+		
+		int exchangeStart = BlockfactsMessageReader.ValueStart(message, "\"exchange\"");
+		int pairStart = BlockfactsMessageReader.ValueStart(message, "\"pair\"");
+		if(exchangeStart < 0 || pairStart < 0) return null;
+		
+		int exchangeEnd = BlockfactsMessageReader.ValueEnd(message, exchangeStart);
+		int pairEnd = BlockfactsMessageReader.ValueEnd(message, pairStart);
+		int hash = Hash(message, pairStart, pairEnd, Hash(message, exchangeStart, exchangeEnd, 0));
+		
+		int mask = pairSlots.length - 1;
+		for(int index = hash & mask;; index = (index + 1) & mask) {
+			PairSlot slot = pairSlots[index];
+			if(slot == null) break;
+			if(slot.Matches(message, exchangeStart, exchangeEnd, pairStart, pairEnd)) return slot;
+		}
+		
+		String pair = message.substring(pairStart, pairEnd);
+		PairSlot slot = new PairSlot(message.substring(exchangeStart, exchangeEnd), pair, hash, rings[rings.length == 1 ? 0 : Math.floorMod(Hash(pair, 0, pair.length(), 0), rings.length)]);
+		AddPairSlot(slot);
+		
+		return slot;
+	}
+	
+	private void AddPairSlot(PairSlot slot) {
+		if(++pairSlotCount * 2 > pairSlots.length) {
+			PairSlot[] previous = pairSlots;
+			pairSlots = new PairSlot[previous.length * 2];
+			for(PairSlot existing : previous) {
+				if(existing != null) Insert(existing);
+			}
+		}
+		
+		Insert(slot);
+	}
+	
+	private void Insert(PairSlot slot) {
+		int mask = pairSlots.length - 1;
+		int index = slot.hash & mask;
+		while(pairSlots[index] != null) index = (index + 1) & mask;
+		pairSlots[index] = slot;
+	}
+	
+	private static int Hash(String text, int start, int end, int hash) {
+		for(int i = start; i < end; i++) {
+			hash = 31 * hash + text.charAt(i);
+		}
+		
+		return hash ^ (hash >>> 16);
+	}
+	
+	/**
+	 * Bounded ring buffer with a single producer. The consumer claims items by advancing the head,
+	 * which the producer also does when it drops the oldest item, so both sides use compare-and-set on it.
+	 */
+	private static final class Ring {
+		final Object[] slots;
+		final int mask;
+		final AtomicLong head = new AtomicLong();
+		final AtomicLong tail = new AtomicLong();
+		volatile Thread consumer;
+		volatile boolean parked;
+		
+		Ring(int capacity) {
+			this.slots = new Object[capacity];
+			this.mask = capacity - 1;
+		}
+		
+		boolean Offer(Object item) {
+			long tail = this.tail.get();
+			if(tail - head.get() > mask) return false;
+			
+			slots[(int) tail & mask] = item;
+			this.tail.set(tail + 1);
+			
+			if(parked) LockSupport.unpark(consumer);
+			return true;
+		}
+		
+		boolean DropOldest() {
+			long head = this.head.get();
+			return head != tail.get() && this.head.compareAndSet(head, head + 1);
+		}
+		
+		Object Poll() {
+			for(;;) {
+				long head = this.head.get();
+				if(head == tail.get()) return null;
+				
+				Object item = slots[(int) head & mask];
+				if(this.head.compareAndSet(head, head + 1)) return item;
+			}
+		}
+		
+		long Depth() {
+			return tail.get() - head.get();
+		}
+	}
+	
+	/**
+	 * Latest pending message of one exchange and pair. The slot is queued only while it holds a message.
+	 */
+	private static final class PairSlot {
+		final String exchange;
+		final String pair;
+		final int hash;
+		final Ring ring;
+		final AtomicReference<String> latest = new AtomicReference<String>();
+		
+		PairSlot(String exchange, String pair, int hash, Ring ring) {
+			this.exchange = exchange;
+			this.pair = pair;
+			this.hash = hash;
+			this.ring = ring;
+		}
+		
+		boolean Matches(String message, int exchangeStart, int exchangeEnd, int pairStart, int pairEnd) {
+			return exchange.length() == exchangeEnd - exchangeStart && pair.length() == pairEnd - pairStart
+					&& message.regionMatches(exchangeStart, exchange, 0, exchange.length())
+					&& message.regionMatches(pairStart, pair, 0, pair.length());
+		}
+	}
+}
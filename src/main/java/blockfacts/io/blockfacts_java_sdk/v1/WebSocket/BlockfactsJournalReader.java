@@ -0,0 +1,123 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the messages of a journal written by BlockfactsJournalWriter, either a single file or all files of a directory in time order.
+ * A file which ends in the middle of a record, e.g. because the recording process was killed, is read up to its last complete record.
+ */
+public class BlockfactsJournalReader implements AutoCloseable {
+	private final List<Path> files;
+	private int nextFile;
+	private DataInputStream input;
+	private byte[] buffer = new byte[4096];
+	private long timestamp;
+	private String message;
+	
+	/**
+	 * Opens a journal.
+	 * @param journal Journal file, or a directory whose journal files are read in order of their names
+	 * @throws IOException If the directory could not be listed
+	 */
+	public BlockfactsJournalReader(Path journal) throws IOException {
+		this.files = Files(journal);
+	}
+	
+	/**
+	 * Moves to the next message.
+	 * @return false once all messages were read
+	 * @throws IOException If a file could not be read or is not a journal
+	 */
+	public boolean Next() throws IOException {
+		for(;;) {
+			if(input == null) {
+				if(nextFile == files.size()) return false;
+				Open(files.get(nextFile++));
+			}
+			
+			try {
+				long timestamp = input.readLong();
+				int length = input.readInt();
+				if(length > buffer.length) buffer = new byte[Math.max(length, buffer.length * 2)];
+				input.readFully(buffer, 0, length);
+				
+				this.timestamp = timestamp;
+				this.message = new String(buffer, 0, length, StandardCharsets.UTF_8);
+				return true;
+			} catch (EOFException e) {
+				CloseFile();
+			}
+		}
+	}
+	
+	/**
+	 * @return Time the current message was received, in nanoseconds since the epoch
+	 */
+	public long GetTimestamp() {
+		return timestamp;
+	}
+	
+	/**
+	 * @return Current message
+	 */
+	public String GetMessage() {
+		return message;
+	}
+	
+	@Override
+	public void close() {
+		CloseFile();
+		nextFile = files.size();
+	}
+	
+	private void Open(Path file) throws IOException {
+		input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file), 65536), 65536));
+		try {
+			if(input.readInt() != BlockfactsJournalWriter.MAGIC) throw new IOException("Not a BlockFacts journal: " + file);
+		} catch (EOFException e) {
+			CloseFile();
+		} catch (IOException e) {
+			CloseFile();
+			throw e;
+		}
+	}
+	
+	private void CloseFile() {
+		if(input == null) return;
+		
+		try {
+			input.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		input = null;
+	}
+	
+	private static List<Path> Files(Path journal) throws IOException {
+		List<Path> files = new ArrayList<Path>();
+		if(!Files.isDirectory(journal)) {
+			files.add(journal);
+			return files;
+		}
+		
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(journal, "*" + BlockfactsJournalWriter.SUFFIX)) {
+			for(Path entry : entries) {
+				files.add(entry);
+			}
+		}
+		Collections.sort(files);
+		
+		return files;
+	}
+}
@@ -0,0 +1,128 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Replays a journal written by BlockfactsJournalWriter into a consumer, e.g. the dispatcher the live feed uses.
+ * Messages are delivered with their recorded spacing, sped up by a factor, or as fast as possible.
+ * A preloaded journal is replayed from memory, so that at full speed the consumer is the only cost.
+ */
+public class BlockfactsJournalReplayer {
+	private final Path journal;
+	private final Consumer<String> sink;
+	private double speed = 1;
+	private long[] timestamps;
+	private String[] messages;
+	private int size;
+	private volatile boolean stopped;
+	
+	/**
+	 * Creates a replayer which delivers the messages to a consumer.
+	 * @param journal Journal file or directory
+	 * @param sink Consumer of the raw messages
+	 */
+	public BlockfactsJournalReplayer(Path journal, Consumer<String> sink) {
+		this.journal = journal;
+		this.sink = sink;
+	}
+	
+	/**
+	 * Creates a replayer which routes the messages to the listeners of a dispatcher, as the WebSocket client does.
+	 * @param journal Journal file or directory
+	 * @param dispatcher BlockfactsMessageDispatcher
+	 */
+	public BlockfactsJournalReplayer(Path journal, BlockfactsMessageDispatcher dispatcher) {
+		this(journal, message -> dispatcher.Dispatch(message));
+	}
+	
+	/**
+	 * Sets the replay speed. 1 keeps the recorded spacing, 10 replays ten times faster, and 0 does not wait at all. Defaults to 1.
+	 * @param speed Speed factor
+	 * @return BlockfactsJournalReplayer
+	 */
+	public BlockfactsJournalReplayer SetSpeed(double speed) {
+		this.speed = speed;
+		return this;
+	}
+	
+	/**
+	 * Reads the whole journal into memory, so that Run does not read or decompress files.
+	 * @return BlockfactsJournalReplayer
+	 * @throws IOException If the journal could not be read
+	 */
+	public BlockfactsJournalReplayer Preload() throws IOException {
+		long[] timestamps = new long[1024];
+		String[] messages = new String[1024];
+		int size = 0;
+		try (BlockfactsJournalReader reader = new BlockfactsJournalReader(journal)) {
+			while(reader.Next()) {
+				if(size == messages.length) {
+					timestamps = Arrays.copyOf(timestamps, size * 2);
+					messages = Arrays.copyOf(messages, size * 2);
+				}
+				timestamps[size] = reader.GetTimestamp();
+				messages[size++] = reader.GetMessage();
+			}
+		}
+		
+		this.timestamps = timestamps;
+		this.messages = messages;
+		this.size = size;
+		return this;
+	}
+	
+	/**
+	 * Replays the journal on the calling thread and returns once all messages were delivered or Stop was called.
+	 * @return Number of delivered messages
+	 * @throws IOException If the journal could not be read
+	 */
+	public long Run() throws IOException {
+		double speed = this.speed;
+		boolean paced = speed > 0 && !Double.isInfinite(speed);
+		long start = System.nanoTime();
+		long delivered = 0;
+		
+		if(messages != null) {
+			long first = size == 0 ? 0 : timestamps[0];
+			for(int i = 0; i < size && !stopped; i++) {
+				if(paced) Await(start, (long) ((timestamps[i] - first) / speed));
+				sink.accept(messages[i]);
+				delivered++;
+			}
+			return delivered;
+		}
+		
+		try (BlockfactsJournalReader reader = new BlockfactsJournalReader(journal)) {
+			long first = 0;
+			while(!stopped && reader.Next()) {
+				if(delivered == 0) first = reader.GetTimestamp();
+				if(paced) Await(start, (long) ((reader.GetTimestamp() - first) / speed));
+				sink.accept(reader.GetMessage());
+				delivered++;
+			}
+		}
+		
+		return delivered;
+	}
+	
+	/**
+	 * Stops a running replay after the current message. A stopped replayer does not deliver anything anymore.
+	 */
+	public void Stop() {
+		stopped = true;
+	}
+	
+	/**
+	 * Waits until the offset from the start of the replay is reached.
+	 */
+	private void Await(long start, long offset) {
+		long remaining;
+		while(!stopped && (remaining = start + offset - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(remaining);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+/**
+ * Local WebSocket server which replays a journal to every client that connects, for testing clients without the BlockFacts feed.
+ * Each connection gets its own replay from the start of the journal. Pings are answered with a pong, other messages
+ * such as subscriptions are accepted and ignored.
+ */
+public class BlockfactsJournalServer extends WebSocketServer {
+	private static final String PING = "{\"type\":\"ping\"}";
+	private static final String PONG = "{\"type\":\"pong\"}";
+	
+	private final Path journal;
+	private final double speed;
+	
+	/**
+	 * Creates the server. Call start to accept connections.
+	 * @param address Address to listen on (e.g. new InetSocketAddress("localhost", 8887))
+	 * @param journal Journal file or directory
+	 * @param speed Replay speed as in BlockfactsJournalReplayer.SetSpeed
+	 */
+	public BlockfactsJournalServer(InetSocketAddress address, Path journal, double speed) {
+		super(address);
+		this.journal = journal;
+		this.speed = speed;
+		setReuseAddr(true);
+	}
+	
+	@Override
+	public void onOpen(WebSocket conn, ClientHandshake handshake) {
+		BlockfactsJournalReplayer replayer = new BlockfactsJournalReplayer(journal, message -> conn.send(message)).SetSpeed(speed);
+		conn.setAttachment(replayer);
+		
+		Thread thread = new Thread(() -> {
+			try {
+				replayer.Run();
+			} catch (IOException | RuntimeException e) {
+				if(conn.isOpen()) e.printStackTrace();
+			}
+		}, "blockfacts-journal-server");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	@Override
+	public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+		BlockfactsJournalReplayer replayer = conn.getAttachment();
+		if(replayer != null) replayer.Stop();
+	}
+	
+	@Override
+	public void onMessage(WebSocket conn, String message) {
+		if(PING.equals(message)) conn.send(PONG);
+	}
+	
+	@Override
+	public void onError(WebSocket conn, Exception ex) {
+		System.err.println("An error occurred:" + ex);
+	}
+	
+	@Override
+	public void onStart() {
+	}
+}
@@ -0,0 +1,270 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records raw WebSocket messages into gzip compressed journal files, together with the time they were received.
+ * A new file is started once the current one holds the maximum number of bytes or is older than the rotation interval.
+ * Every file starts with a magic number, followed by records of the receive time in nanoseconds since the epoch,
+ * the length of the message and its UTF-8 bytes. A file which was not closed properly can be read up to its last complete record.
+ * Record only stamps the message and puts it on a bounded queue, so the WebSocket read thread never waits for compression or the disk.
+ * A writer thread encodes, compresses and writes the queued messages. Messages arriving while the queue is full are dropped and counted.
+ */
+public class BlockfactsJournalWriter implements AutoCloseable {
+	static final int MAGIC = 0x42464a31;
+	static final String SUFFIX = ".bfj.gz";
+	static final int DEFAULT_QUEUE_CAPACITY = 65536;
+	
+	private static final int BATCH = 1024;
+	private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+	private static final Entry CLOSE = new Entry(0, null, null);
+	
+	private final Path directory;
+	private final String prefix;
+	private final long baseEpochNanos;
+	private final long baseNanos;
+	private final ArrayBlockingQueue<Entry> queue;
+	private final Thread writer;
+	private final AtomicLong dropped = new AtomicLong();
+	private volatile long maxFileBytes = 256L * 1024 * 1024;
+	private volatile long rotateNanos = TimeUnit.HOURS.toNanos(1);
+	private volatile Path file;
+	private volatile long recorded;
+	private volatile boolean closed;
+	private DataOutputStream output;
+	private long fileBytes;
+	private long fileOpenedNanos;
+	
+	/**
+	 * Creates a journal writer with room for 65536 queued messages. The first file is created with the first message.
+	 * @param directory Directory of the journal files, created if needed
+	 * @param prefix Start of the file names (e.g. trades)
+	 */
+	public BlockfactsJournalWriter(Path directory, String prefix) {
+		this(directory, prefix, DEFAULT_QUEUE_CAPACITY);
+	}
+	
+	/**
+	 * Creates a journal writer. The first file is created with the first message.
+	 * @param directory Directory of the journal files, created if needed
+	 * @param prefix Start of the file names (e.g. trades)
+	 * @param queueCapacity Number of messages which can wait for the writer thread before new ones are dropped
+	 */
+	public BlockfactsJournalWriter(Path directory, String prefix, int queueCapacity) {
+		this.directory = directory;
+		this.prefix = prefix;
+		Instant now = Instant.now();
+		this.baseEpochNanos = TimeUnit.SECONDS.toNanos(now.getEpochSecond()) + now.getNano();
+		this.baseNanos = System.nanoTime();
+		this.queue = new ArrayBlockingQueue<Entry>(queueCapacity);
+		this.writer = new Thread(this::Write, "blockfacts-journal-writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+	
+	/**
+	 * Sets the size of the uncompressed messages after which a new file is started. Defaults to 256 MB.
+	 * @param maxFileBytes Maximum bytes per file
+	 * @return BlockfactsJournalWriter
+	 */
+	public BlockfactsJournalWriter SetMaxFileBytes(long maxFileBytes) {
+		this.maxFileBytes = maxFileBytes;
+		return this;
+	}
+	
+	/**
+	 * Sets how long a file is written before a new one is started. Defaults to 1 hour.
+	 * @param interval Rotation interval
+	 * @return BlockfactsJournalWriter
+	 */
+	public BlockfactsJournalWriter SetRotateInterval(Duration interval) {
+		this.rotateNanos = interval.toNanos();
+		return this;
+	}
+	
+	/**
+	 * Queues a message with the current time for the writer thread, without blocking. If the queue is full the message is dropped.
+	 * Write failures are printed and the message is skipped, so recording never breaks the feed. Null messages are ignored.
+	 * @param message Raw message
+	 */
+	public void Record(String message) {
+		if(closed || message == null) return;
+		if(!queue.offer(new Entry(System.nanoTime(), message, null))) dropped.incrementAndGet();
+	}
+	
+	/**
+	 * Waits until the messages queued before the call are written, and writes them to the current file.
+	 * The last compressed block is only complete once the file is closed.
+	 * @throws IOException If writing failed
+	 */
+	public void Flush() throws IOException {
+		Entry marker = new Entry(0, null, new CountDownLatch(1));
+		try {
+			if(closed) return;
+			
+			queue.put(marker);
+			while(!marker.done.await(100, TimeUnit.MILLISECONDS)) {
+				if(!writer.isAlive()) return;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		}
+		
+		if(marker.failure != null) throw marker.failure;
+	}
+	
+	/**
+	 * @return Number of recorded messages
+	 */
+	public long GetRecorded() {
+		return recorded;
+	}
+	
+	/**
+	 * @return Number of messages dropped because the queue was full
+	 */
+	public long GetDropped() {
+		return dropped.get();
+	}
+	
+	/**
+	 * @return File which is currently written, or null before the first message
+	 */
+	public Path GetFile() {
+		return file;
+	}
+	
+	/**
+	 * Writes the messages queued so far, closes the current file and stops the writer thread. Later messages are ignored.
+	 */
+	@Override
+	public void close() {
+		synchronized(this) {
+			if(closed) return;
+			closed = true;
+		}
+		
+		try {
+			queue.put(CLOSE);
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			writer.interrupt();
+		}
+	}
+	
+	/**
+	 * Writes queued messages in batches until the close marker is taken or the thread is interrupted.
+	 */
+	private void Write() {
+		List<Entry> batch = new ArrayList<Entry>(BATCH);
+		try {
+			for(;;) {
+				batch.add(queue.take());
+				queue.drainTo(batch, BATCH - 1);
+				
+				for(Entry entry : batch) {
+					if(entry == CLOSE) return;
+					
+					if(entry.done != null) Flush(entry);
+					else Write(entry);
+				}
+				batch.clear();
+			}
+		} catch (InterruptedException e) {
+			// Stopped by close
+		} finally {
+			CloseFile();
+			for(Entry entry : batch) {
+				if(entry.done != null) entry.done.countDown();
+			}
+		}
+	}
+	
+	private void Write(Entry entry) {
+		try {
+			byte[] bytes = entry.message.getBytes(StandardCharsets.UTF_8);
+			if(output == null || fileBytes >= maxFileBytes || entry.nanos - fileOpenedNanos >= rotateNanos) Rotate(entry.nanos);
+			
+			output.writeLong(baseEpochNanos + (entry.nanos - baseNanos));
+			output.writeInt(bytes.length);
+			output.write(bytes);
+			fileBytes += bytes.length + 12;
+			recorded++;
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	private void Flush(Entry marker) {
+		try {
+			if(output != null) output.flush();
+		} catch (IOException e) {
+			marker.failure = e;
+		}
+		marker.done.countDown();
+	}
+	
+	private void Rotate(long nanos) throws IOException {
+		CloseFile();
+		Files.createDirectories(directory);
+		
+		// File names sort in time order, so a name which is taken moves to the next millisecond
+		Instant time = Instant.ofEpochSecond(0, baseEpochNanos + (nanos - baseNanos));
+		Path next = directory.resolve(prefix + "-" + FILE_TIME.format(time) + SUFFIX);
+		while(Files.exists(next)) {
+			time = time.plusMillis(1);
+			next = directory.resolve(prefix + "-" + FILE_TIME.format(time) + SUFFIX);
+		}
+		
+		output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(next), 65536), 65536));
+		output.writeInt(MAGIC);
+		file = next;
+		fileBytes = 4;
+		fileOpenedNanos = nanos;
+	}
+	
+	private void CloseFile() {
+		if(output == null) return;
+		
+		try {
+			output.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		output = null;
+	}
+	
+	/**
+	 * Queued message, flush marker (with a latch) or the close marker.
+	 */
+	private static final class Entry {
+		final long nanos;
+		final String message;
+		final CountDownLatch done;
+		IOException failure;
+		
+		Entry(long nanos, String message, CountDownLatch done) {
+			this.nanos = nanos;
+			this.message = message;
+			this.done = done;
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of the values recorded during a rolling time window, such as round-trip times or feed lag.
+ * The window is split into slices, and the oldest slice is dropped when a new one starts.
+ * Values are counted in buckets which are at most 1/16 of their value wide, so percentiles are accurate to about 6%.
+ * Recording is lock-free and can be done from any number of threads.
+ */
+public class BlockfactsLatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+	
+	private final long sliceNanos;
+	private final int slices;
+	private final AtomicLongArray counts;
+	private final AtomicLong[] epochs;
+	private final AtomicLong[] totals;
+	private final AtomicLong[] sums;
+	private final AtomicLong[] maxima;
+	
+	/**
+	 * Creates a histogram of the values recorded during the last minute, in 6 slices of 10 seconds.
+	 */
+	public BlockfactsLatencyHistogram() {
+		this(Duration.ofMinutes(1), 6);
+	}
+	
+	/**
+	 * Creates a histogram of the values recorded during a rolling window.
+	 * @param window Length of the window
+	 * @param slices Number of slices the window is split into, a higher number drops old values more smoothly
+	 */
+	public BlockfactsLatencyHistogram(Duration window, int slices) {
+		if(slices < 1) throw new IllegalArgumentException("slices must be positive");
+		
+		this.sliceNanos = Math.max(1, window.toNanos() / slices);
+		this.slices = slices;
+		this.counts = new AtomicLongArray(slices * BUCKETS);
+		this.epochs = new AtomicLong[slices];
+		this.totals = new AtomicLong[slices];
+		this.sums = new AtomicLong[slices];
+		this.maxima = new AtomicLong[slices];
+		
+		for(int i = 0; i < slices; i++) {
+			epochs[i] = new AtomicLong(Long.MIN_VALUE);
+			totals[i] = new AtomicLong();
+			sums[i] = new AtomicLong();
+			maxima[i] = new AtomicLong();
+		}
+	}
+	
+	/**
+	 * Records a value. Negative values, e.g. from clocks which are not in sync, are recorded as 0.
+	 * @param value Value to record
+	 */
+	public void Record(long value) {
+		if(value < 0) value = 0;
+		
+		long epoch = System.nanoTime() / sliceNanos;
+		int slice = (int) Math.floorMod(epoch, (long) slices);
+		if(epochs[slice].get() != epoch) Rotate(slice, epoch);
+		
+		counts.incrementAndGet(slice * BUCKETS + Bucket(value));
+		totals[slice].incrementAndGet();
+		sums[slice].addAndGet(value);
+		
+		AtomicLong max = maxima[slice];
+		long current = max.get();
+		while(value > current && !max.compareAndSet(current, value)) current = max.get();
+	}
+	
+	/**
+	 * @return Number of values recorded during the window
+	 */
+	public long GetCount() {
+		long count = 0;
+		long epoch = System.nanoTime() / sliceNanos;
+		for(int slice = 0; slice < slices; slice++) {
+			if(IsCurrent(slice, epoch)) count += totals[slice].get();
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * @return Highest value recorded during the window, or 0 if there is none
+	 */
+	public long GetMax() {
+		long max = 0;
+		long epoch = System.nanoTime() / sliceNanos;
+		for(int slice = 0; slice < slices; slice++) {
+			if(IsCurrent(slice, epoch)) max = Math.max(max, maxima[slice].get());
+		}
+		
+		return max;
+	}
+	
+	/**
+	 * @return Mean of the values recorded during the window, or 0 if there is none
+	 */
+	public double GetMean() {
+		long count = 0;
+		long sum = 0;
+		long epoch = System.nanoTime() / sliceNanos;
+		for(int slice = 0; slice < slices; slice++) {
+			if(!IsCurrent(slice, epoch)) continue;
+			count += totals[slice].get();
+			sum += sums[slice].get();
+		}
+		
+		return count == 0 ? 0 : (double) sum / count;
+	}
+	
+	/**
+	 * Returns the value below which the given percentage of the values recorded during the window fall.
+	 * @param percentile Percentile (e.g. 50, 99 or 99.9)
+	 * @return Upper bound of the bucket holding the percentile, or 0 if nothing was recorded
+	 */
+	public long GetPercentile(double percentile) {
+		long epoch = System.nanoTime() / sliceNanos;
+		long[] merged = new long[BUCKETS];
+		long count = 0;
+		
+		for(int slice = 0; slice < slices; slice++) {
+			if(!IsCurrent(slice, epoch)) continue;
+			for(int bucket = 0; bucket < BUCKETS; bucket++) {
+				long bucketCount = counts.get(slice * BUCKETS + bucket);
+				merged[bucket] += bucketCount;
+				count += bucketCount;
+			}
+		}
+		if(count == 0) return 0;
+		
+		long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+		long seen = 0;
+		for(int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += merged[bucket];
+			if(seen >= rank) return Math.min(UpperBound(bucket), GetMax());
+		}
+		
+		return GetMax();
+	}
+	
+	private boolean IsCurrent(int slice, long epoch) {
+		long sliceEpoch = epochs[slice].get();
+		return sliceEpoch != Long.MIN_VALUE && epoch - sliceEpoch < slices;
+	}
+	
+	/**
+	 * Clears a slice which belongs to an earlier window before it is reused. Values recorded by other threads
+	 * while the slice is cleared may be lost, which is acceptable for statistics.
+	 */
+	private void Rotate(int slice, long epoch) {
+		synchronized(epochs[slice]) {
+			if(epochs[slice].get() == epoch) return;
+			
+			for(int bucket = 0; bucket < BUCKETS; bucket++) {
+				counts.set(slice * BUCKETS + bucket, 0);
+			}
+			totals[slice].set(0);
+			sums[slice].set(0);
+			maxima[slice].set(0);
+			epochs[slice].set(epoch);
+		}
+	}
+	
+	private static int Bucket(long value) {
+		if(value < SUB_BUCKETS) return (int) value;
+		
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+	
+	private static long UpperBound(int bucket) {
+		if(bucket < SUB_BUCKETS) return bucket;
+		
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long subBucket = bucket % SUB_BUCKETS;
+		return ((SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+}
@@ -0,0 +1,560 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import org.java_websocket.exceptions.WebsocketNotConnectedException;
+import org.java_websocket.handshake.ServerHandshake;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsChannelObject;
+import blockfacts.io.blockfacts_java_sdk.v1.REST.ExchangeEndpoints;
+
+/**
+ * WebSocket connection which survives disconnects.
+ * It keeps track of the subscribed channels, reconnects with jittered exponential backoff when the connection drops,
+ * and resubscribes to all channels with one message once it is back. Optionally the trades missed while the connection
+ * was down are fetched from the REST API and delivered in order before the live ones, without duplicates.
+ * Messages are delivered through the dispatcher, the same way as with BlockfactsWebSocketClient.
+ */
+public class BlockfactsManagedConnection implements AutoCloseable {
+	public final BlockfactsMessageDispatcher dispatcher;
+	
+	private final BlockfactsWebSocketClient client;
+	private final LinkedHashMap<String, LinkedHashSet<String>> subscriptions = new LinkedHashMap<String, LinkedHashSet<String>>();
+	private final LinkedHashMap<String, LinkedHashSet<String>> pendingAdds = new LinkedHashMap<String, LinkedHashSet<String>>();
+	private final LinkedHashMap<String, LinkedHashSet<String>> pendingRemoves = new LinkedHashMap<String, LinkedHashSet<String>>();
+	private final ScheduledExecutorService scheduler;
+	private final AtomicLong reconnects = new AtomicLong();
+	private Duration initialBackoff = Duration.ofMillis(500);
+	private Duration maxBackoff = Duration.ofSeconds(30);
+	private String subscriptionId = "";
+	private int attempt;
+	private boolean started;
+	private boolean closed;
+	private Instant disconnectedAt;
+	private Duration updateDelay = Duration.ofMillis(50);
+	private int maxFramesPerSecond = 10;
+	private int maxPairsPerFrame = 1000;
+	private long nextFrameNanos = System.nanoTime();
+	private boolean flushScheduled;
+	private BlockfactsGapFiller gapFiller;
+	private ExecutorService gapFillExecutor;
+	volatile Runnable openListener;
+	volatile Runnable closeListener;
+	
+	/**
+	 * Creates a managed connection to the BlockFacts WebSocket server with its own dispatcher.
+	 * @param key BlockFacts API key
+	 * @param secret BlockFacts API secret
+	 * @throws URISyntaxException Never for the built-in server url
+	 */
+	public BlockfactsManagedConnection(String key, String secret) throws URISyntaxException {
+		this(new URI("wss://ws.blockfacts.io/v1/"), key, secret, new BlockfactsMessageDispatcher());
+	}
+	
+	/**
+	 * Creates a managed connection which delivers its messages to an existing dispatcher, e.g. one shared by several connections.
+	 * @param serverUri WebSocket server url
+	 * @param key BlockFacts API key
+	 * @param secret BlockFacts API secret
+	 * @param dispatcher Dispatcher the messages are routed to
+	 */
+	public BlockfactsManagedConnection(URI serverUri, String key, String secret, BlockfactsMessageDispatcher dispatcher) {
+		this.dispatcher = dispatcher;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "blockfacts-reconnect");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.client = new BlockfactsWebSocketClient(serverUri) {
+			@Override
+			public void onOpen(ServerHandshake handshakedata) {
+				OnOpen();
+			}
+			
+			@Override
+			public void onClose(int code, String reason, boolean remote) {
+				OnClose(code, reason);
+			}
+			
+			@Override
+			public void onError(Exception ex) {
+				System.err.println("An error occurred:" + ex);
+			}
+		};
+		this.client.key = key;
+		this.client.secret = secret;
+		this.client.dispatcher = dispatcher;
+	}
+	
+	/**
+	 * Sets the delay before the first reconnect attempt and the limit it doubles up to on every failed attempt.
+	 * The actual delay is picked at random between half and all of the current backoff, so that many clients
+	 * do not reconnect at the same moment. Defaults to 500 ms and 30 seconds.
+	 * @param initialBackoff Backoff of the first attempt
+	 * @param maxBackoff Highest backoff
+	 * @return BlockfactsManagedConnection
+	 */
+	public synchronized BlockfactsManagedConnection SetBackoff(Duration initialBackoff, Duration maxBackoff) {
+		this.initialBackoff = initialBackoff;
+		this.maxBackoff = maxBackoff;
+		return this;
+	}
+	
+	/**
+	 * Sets how changes made with Add, Remove and SetDesired are sent. Changes made within the update delay are sent together,
+	 * new subscriptions before unsubscriptions, in as few messages as the pair limit allows and no faster than the frame rate.
+	 * Defaults to 50 ms, 10 messages per second and 1000 pairs per message.
+	 * @param updateDelay Time changes are collected before they are sent
+	 * @param maxFramesPerSecond Highest number of subscribe and unsubscribe messages sent per second
+	 * @param maxPairsPerFrame Highest number of pairs in one message
+	 * @return BlockfactsManagedConnection
+	 */
+	public synchronized BlockfactsManagedConnection SetUpdateLimits(Duration updateDelay, int maxFramesPerSecond, int maxPairsPerFrame) {
+		if(maxFramesPerSecond < 1 || maxPairsPerFrame < 1) throw new IllegalArgumentException("maxFramesPerSecond and maxPairsPerFrame must be positive");
+		
+		this.updateDelay = updateDelay;
+		this.maxFramesPerSecond = maxFramesPerSecond;
+		this.maxPairsPerFrame = maxPairsPerFrame;
+		return this;
+	}
+	
+	/**
+	 * Fills the trades missed while the connection was down from the REST API after every reconnect.
+	 * Only exchange channels with explicit pairs are filled.
+	 * @param exchanges Exchange endpoint group used for fetching the historical trades
+	 * @return BlockfactsManagedConnection
+	 */
+	public BlockfactsManagedConnection SetGapBackfill(ExchangeEndpoints exchanges) {
+		return SetGapBackfill(exchanges, null);
+	}
+	
+	/**
+	 * Same as SetGapBackfill, reporting the pairs whose gap could not be filled completely to the provided listener,
+	 * e.g. because the historical trades could not be fetched. Without a listener such failures are printed to System.err.
+	 * The listener is shared by all connections dispatching into the same dispatcher.
+	 * @param exchanges Exchange endpoint group used for fetching the historical trades
+	 * @param failureListener Receives the channel with the pair and the cause, on the gap backfill thread
+	 * @return BlockfactsManagedConnection
+	 */
+	public synchronized BlockfactsManagedConnection SetGapBackfill(ExchangeEndpoints exchanges, BiConsumer<BlockfactsChannelObject, Exception> failureListener) {
+		this.gapFiller = BlockfactsGapFiller.Install(dispatcher, exchanges, failureListener);
+		if(gapFillExecutor == null) {
+			gapFillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "blockfacts-gap-backfill");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Connects to the server in a non-blocking way. From now on the connection is kept open until close is called.
+	 */
+	public synchronized void Connect() {
+		if(started || closed) return;
+		
+		started = true;
+		client.connect();
+	}
+	
+	/**
+	 * Subscribes to channels, and remembers them so that they are subscribed again after a reconnect.
+	 * Reference: https://docs.blockfacts.io/#subscribe
+	 * @param channels List of BlockfactsChannelObjects to subscribe to
+	 * @param snapshot Whether the server should first send a snapshot of the last trades
+	 * @param id Message id, or null
+	 */
+	public synchronized void Subscribe(List<BlockfactsChannelObject> channels, Boolean snapshot, String id) {
+		for(BlockfactsChannelObject channel : channels) {
+			LinkedHashSet<String> pairs = subscriptions.computeIfAbsent(channel.exchangeName, exchange -> new LinkedHashSet<String>());
+			if(channel.pairs != null) pairs.addAll(channel.pairs);
+		}
+		if(id != null) subscriptionId = id;
+		
+		if(client.isOpen()) client.Subscribe(channels, snapshot, id);
+	}
+	
+	/**
+	 * Unsubscribes from channels or pairs, and forgets them. A channel without pairs is removed completely.
+	 * Reference: https://docs.blockfacts.io/#unsubscribe
+	 * @param channels List of BlockfactsChannelObjects to unsubscribe from
+	 */
+	public synchronized void Unsubscribe(List<BlockfactsChannelObject> channels) {
+		for(BlockfactsChannelObject channel : channels) {
+			LinkedHashSet<String> pairs = subscriptions.get(channel.exchangeName);
+			if(pairs == null) continue;
+			
+			if(channel.pairs == null || channel.pairs.isEmpty()) {
+				subscriptions.remove(channel.exchangeName);
+				continue;
+			}
+			
+			pairs.removeAll(channel.pairs);
+			if(pairs.isEmpty()) subscriptions.remove(channel.exchangeName);
+		}
+		
+		if(client.isOpen()) client.Unsubscribe(channels);
+	}
+	
+	/**
+	 * Adds channels or pairs to the subscriptions. Only pairs which are not subscribed yet are sent to the server,
+	 * together with the other changes made within the update delay.
+	 * Adding a whole channel of which pairs are subscribed replaces the pairs with the whole channel: the whole channel is subscribed
+	 * before the pairs are unsubscribed. Adding pairs of a whole channel which is subscribed changes nothing.
+	 * @param channels Channels or pairs to add, a channel without pairs subscribes to the whole channel
+	 */
+	public synchronized void Add(List<BlockfactsChannelObject> channels) {
+		for(BlockfactsChannelObject channel : channels) {
+			LinkedHashSet<String> pairs = subscriptions.get(channel.exchangeName);
+			if(channel.pairs == null || channel.pairs.isEmpty()) {
+				if(pairs != null && pairs.isEmpty()) continue;
+				
+				subscriptions.put(channel.exchangeName, new LinkedHashSet<String>());
+				Change(pendingAdds, pendingRemoves, channel.exchangeName, null);
+				if(pairs != null) {
+					for(String pair : pairs) {
+						Change(pendingRemoves, pendingAdds, channel.exchangeName, pair);
+					}
+				}
+				continue;
+			}
+			
+			// The pairs are streamed by the whole channel already
+			if(pairs != null && pairs.isEmpty()) continue;
+			
+			if(pairs == null) {
+				pairs = new LinkedHashSet<String>();
+				subscriptions.put(channel.exchangeName, pairs);
+			}
+			for(String pair : channel.pairs) {
+				if(pairs.add(pair)) Change(pendingAdds, pendingRemoves, channel.exchangeName, pair);
+			}
+		}
+		
+		ScheduleFlush();
+	}
+	
+	/**
+	 * Removes channels or pairs from the subscriptions. Only pairs which are subscribed are sent to the server,
+	 * together with the other changes made within the update delay.
+	 * Pairs cannot be removed from a whole channel subscription, the whole channel has to be removed or replaced with SetDesired.
+	 * @param channels Channels or pairs to remove, a channel without pairs is removed completely
+	 * @throws IllegalArgumentException If pairs of a whole channel subscription are removed, in which case nothing is changed
+	 */
+	public synchronized void Remove(List<BlockfactsChannelObject> channels) {
+		for(BlockfactsChannelObject channel : channels) {
+			LinkedHashSet<String> pairs = subscriptions.get(channel.exchangeName);
+			if(pairs != null && pairs.isEmpty() && channel.pairs != null && !channel.pairs.isEmpty()) {
+				throw new IllegalArgumentException("Cannot remove pairs of " + channel.exchangeName + ", the whole channel is subscribed");
+			}
+		}
+		
+		for(BlockfactsChannelObject channel : channels) {
+			LinkedHashSet<String> pairs = subscriptions.get(channel.exchangeName);
+			if(pairs == null) continue;
+			
+			if(channel.pairs == null || channel.pairs.isEmpty()) {
+				subscriptions.remove(channel.exchangeName);
+				if(pairs.isEmpty()) Change(pendingRemoves, pendingAdds, channel.exchangeName, null);
+				for(String pair : pairs) {
+					Change(pendingRemoves, pendingAdds, channel.exchangeName, pair);
+				}
+				continue;
+			}
+			
+			for(String pair : channel.pairs) {
+				if(pairs.remove(pair)) Change(pendingRemoves, pendingAdds, channel.exchangeName, pair);
+			}
+			if(pairs.isEmpty()) subscriptions.remove(channel.exchangeName);
+		}
+		
+		ScheduleFlush();
+	}
+	
+	/**
+	 * Replaces the subscriptions with the provided channels, sending only the pairs which were added or removed.
+	 * New pairs are subscribed before old ones are unsubscribed, so pairs in both lists keep streaming without a gap.
+	 * @param channels Channels which should be subscribed, a channel without pairs subscribes to the whole channel
+	 */
+	public synchronized void SetDesired(List<BlockfactsChannelObject> channels) {
+		LinkedHashMap<String, LinkedHashSet<String>> desired = new LinkedHashMap<String, LinkedHashSet<String>>();
+		for(BlockfactsChannelObject channel : channels) {
+			LinkedHashSet<String> pairs = desired.computeIfAbsent(channel.exchangeName, exchange -> new LinkedHashSet<String>());
+			if(channel.pairs != null) pairs.addAll(channel.pairs);
+		}
+		
+		List<BlockfactsChannelObject> removed = new ArrayList<BlockfactsChannelObject>();
+		for(Map.Entry<String, LinkedHashSet<String>> subscription : subscriptions.entrySet()) {
+			LinkedHashSet<String> wanted = desired.get(subscription.getKey());
+			
+			// A whole channel and a list of pairs of the same channel are different subscriptions
+			if(wanted == null || wanted.isEmpty() != subscription.getValue().isEmpty()) {
+				removed.add(new BlockfactsChannelObject(subscription.getKey(), null));
+				continue;
+			}
+			
+			ArrayList<String> pairs = new ArrayList<String>();
+			for(String pair : subscription.getValue()) {
+				if(!wanted.contains(pair)) pairs.add(pair);
+			}
+			if(!pairs.isEmpty()) removed.add(new BlockfactsChannelObject(subscription.getKey(), pairs));
+		}
+		
+		Remove(removed);
+		Add(channels);
+	}
+	
+	/**
+	 * @return Channels currently subscribed to
+	 */
+	public synchronized List<BlockfactsChannelObject> GetSubscriptions() {
+		List<BlockfactsChannelObject> channels = new ArrayList<BlockfactsChannelObject>(subscriptions.size());
+		for(Map.Entry<String, LinkedHashSet<String>> subscription : subscriptions.entrySet()) {
+			channels.add(new BlockfactsChannelObject(subscription.getKey(), subscription.getValue().isEmpty() ? null : new ArrayList<String>(subscription.getValue())));
+		}
+		
+		return channels;
+	}
+	
+	/**
+	 * @return Whether the connection is currently open
+	 */
+	public boolean IsOpen() {
+		return client.isOpen();
+	}
+	
+	/**
+	 * @return Number of times the connection was re-established
+	 */
+	public long GetReconnects() {
+		return reconnects.get();
+	}
+	
+	/**
+	 * Returns the underlying client, e.g. for sending ping messages. The client must not be closed directly.
+	 * @return BlockfactsWebSocketClient
+	 */
+	public BlockfactsWebSocketClient GetClient() {
+		return client;
+	}
+	
+	/**
+	 * Closes the connection and stops reconnecting.
+	 */
+	@Override
+	public void close() {
+		synchronized(this) {
+			closed = true;
+		}
+		
+		scheduler.shutdownNow();
+		if(gapFillExecutor != null) gapFillExecutor.shutdownNow();
+		client.close();
+	}
+	
+	/**
+	 * Takes over channels of another connection which went down. The trades the other connection missed since it went down
+	 * are filled if gap backfill is enabled.
+	 */
+	synchronized void Adopt(List<BlockfactsChannelObject> channels, Instant disconnectedAt) {
+		for(BlockfactsChannelObject channel : channels) {
+			LinkedHashSet<String> pairs = subscriptions.computeIfAbsent(channel.exchangeName, exchange -> new LinkedHashSet<String>());
+			if(channel.pairs != null) pairs.addAll(channel.pairs);
+		}
+		if(!client.isOpen()) return;
+		
+		if(gapFiller != null && disconnectedAt != null) {
+			gapFiller.Begin(channels);
+			Instant to = Instant.now();
+			gapFillExecutor.execute(() -> gapFiller.Fill(channels, disconnectedAt, to));
+		}
+		client.Subscribe(channels, false, subscriptionId);
+	}
+	
+	/**
+	 * Forgets all channels so that another connection can take them over, unsubscribing from them if the connection is open.
+	 * @return Channels the connection was subscribed to
+	 */
+	synchronized List<BlockfactsChannelObject> Release() {
+		List<BlockfactsChannelObject> channels = GetSubscriptions();
+		subscriptions.clear();
+		if(client.isOpen() && !channels.isEmpty()) client.Unsubscribe(channels);
+		
+		return channels;
+	}
+	
+	/**
+	 * @return When the connection went down, or null while it is open
+	 */
+	synchronized Instant GetDisconnectedAt() {
+		return disconnectedAt;
+	}
+	
+	private void OnOpen() {
+		Resubscribe();
+		
+		Runnable listener = openListener;
+		if(listener != null) listener.run();
+	}
+	
+	private synchronized void Resubscribe() {
+		// All subscriptions are sent again, which includes the changes not sent yet
+		pendingAdds.clear();
+		pendingRemoves.clear();
+		
+		boolean reconnected = disconnectedAt != null;
+		attempt = 0;
+		if(reconnected) {
+			reconnects.incrementAndGet();
+			dispatcher.GetMetrics().RecordReconnect();
+		}
+		if(subscriptions.isEmpty()) {
+			disconnectedAt = null;
+			return;
+		}
+		
+		List<BlockfactsChannelObject> channels = GetSubscriptions();
+		if(reconnected && gapFiller != null) {
+			// Live trades are held back from before the resubscribe until the gap has been filled
+			gapFiller.Begin(channels);
+			Instant from = disconnectedAt;
+			Instant to = Instant.now();
+			gapFillExecutor.execute(() -> gapFiller.Fill(channels, from, to));
+		}
+		disconnectedAt = null;
+		
+		client.Subscribe(channels, false, subscriptionId);
+	}
+	
+	private void OnClose(int code, String reason) {
+		if(!ScheduleReconnect(code, reason)) return;
+		
+		Runnable listener = closeListener;
+		if(listener != null) listener.run();
+	}
+	
+	private synchronized boolean ScheduleReconnect(int code, String reason) {
+		if(closed) return false;
+		
+		if(disconnectedAt == null) disconnectedAt = Instant.now();
+		System.out.println("Closed with exit code " + code + " additional info: " + reason + ", reconnecting");
+		
+		long backoff = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt, 30));
+		long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+		attempt++;
+		
+		scheduler.schedule(this::Reconnect, delay, TimeUnit.MILLISECONDS);
+		return true;
+	}
+	
+	/**
+	 * Records an added or removed pair, cancelling the opposite change if it was not sent yet.
+	 * A null pair stands for the whole channel.
+	 */
+	private static void Change(LinkedHashMap<String, LinkedHashSet<String>> changes, LinkedHashMap<String, LinkedHashSet<String>> opposite, String exchange, String pair) {
+		LinkedHashSet<String> cancelled = opposite.get(exchange);
+		if(cancelled != null && cancelled.remove(pair)) {
+			if(cancelled.isEmpty()) opposite.remove(exchange);
+			return;
+		}
+		
+		changes.computeIfAbsent(exchange, key -> new LinkedHashSet<String>()).add(pair);
+	}
+	
+	private void ScheduleFlush() {
+		if(closed || flushScheduled || (pendingAdds.isEmpty() && pendingRemoves.isEmpty())) return;
+		
+		flushScheduled = true;
+		scheduler.schedule(this::Flush, updateDelay.toNanos(), TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * Sends the pending changes, subscriptions first, one message at a time as fast as the frame rate allows.
+	 */
+	private synchronized void Flush() {
+		flushScheduled = false;
+		if(closed) return;
+		
+		// The pending changes are sent with all other subscriptions once the connection is back
+		if(!client.isOpen()) {
+			pendingAdds.clear();
+			pendingRemoves.clear();
+			return;
+		}
+		
+		long frameNanos = TimeUnit.SECONDS.toNanos(1) / maxFramesPerSecond;
+		while(!pendingAdds.isEmpty() || !pendingRemoves.isEmpty()) {
+			long now = System.nanoTime();
+			if(now - nextFrameNanos < 0) {
+				flushScheduled = true;
+				scheduler.schedule(this::Flush, nextFrameNanos - now, TimeUnit.NANOSECONDS);
+				return;
+			}
+			nextFrameNanos = now + frameNanos;
+			
+			try {
+				if(!pendingAdds.isEmpty()) client.Subscribe(TakeBatch(pendingAdds), false, subscriptionId);
+				else client.Unsubscribe(TakeBatch(pendingRemoves));
+			} catch (WebsocketNotConnectedException e) {
+				pendingAdds.clear();
+				pendingRemoves.clear();
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Removes up to the pair limit of changes and returns them as channels.
+	 */
+	private List<BlockfactsChannelObject> TakeBatch(LinkedHashMap<String, LinkedHashSet<String>> changes) {
+		List<BlockfactsChannelObject> batch = new ArrayList<BlockfactsChannelObject>();
+		int budget = maxPairsPerFrame;
+		
+		Iterator<Map.Entry<String, LinkedHashSet<String>>> exchanges = changes.entrySet().iterator();
+		while(budget > 0 && exchanges.hasNext()) {
+			Map.Entry<String, LinkedHashSet<String>> exchange = exchanges.next();
+			ArrayList<String> pairs = new ArrayList<String>();
+			
+			Iterator<String> changed = exchange.getValue().iterator();
+			while(budget > 0 && changed.hasNext()) {
+				String pair = changed.next();
+				changed.remove();
+				budget--;
+				
+				if(pair == null) batch.add(new BlockfactsChannelObject(exchange.getKey(), null));
+				else pairs.add(pair);
+			}
+			
+			if(!pairs.isEmpty()) batch.add(new BlockfactsChannelObject(exchange.getKey(), pairs));
+			if(exchange.getValue().isEmpty()) exchanges.remove();
+		}
+		
+		return batch;
+	}
+	
+	private void Reconnect() {
+		synchronized(this) {
+			if(closed) return;
+		}
+		
+		client.reconnect();
+	}
+}
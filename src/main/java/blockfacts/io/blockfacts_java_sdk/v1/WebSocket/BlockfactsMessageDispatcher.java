@@ -0,0 +1,517 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Metrics.BlockfactsMetrics;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsNormalizationModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsOHLCModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsTradeModel;
+
+/**
+ * Routes WebSocket messages to typed listeners.
+ * Only the "type" field is looked up to route a frame, and data messages are decoded straight into the models
+ * without building a JSON tree. Listeners can be limited to one exchange (channel) and pair.
+ * With SetReuseModels(true) every listener gets its own model instance which is overwritten in place on each call,
+ * so that high tick rates do not create garbage. Listeners then must not keep references to the received models.
+ * Listeners are called on the thread which calls Dispatch. Dispatch may be called from several threads at once,
+ * listeners are then called concurrently and every thread decodes into its own reused instances.
+ */
+public class BlockfactsMessageDispatcher {
+	public static final String EXCHANGE_TRADE = "exchangeTrade";
+	public static final String BLOCKFACTS_PRICE = "blockfactsPrice";
+	public static final String EXCHANGE_OHLC = "exchangeOHLC";
+	public static final String BLOCKFACTS_OHLC = "blockfactsOHLC";
+	public static final String SNAPSHOT = "snapshot";
+	
+	private final ThreadLocal<DecodeState> decodeState = ThreadLocal.withInitial(DecodeState::new);
+	private final CopyOnWriteArrayList<Registration<BlockfactsTradeModel>> tradeListeners = new CopyOnWriteArrayList<Registration<BlockfactsTradeModel>>();
+	private final CopyOnWriteArrayList<Registration<BlockfactsNormalizationModel>> normalizationListeners = new CopyOnWriteArrayList<Registration<BlockfactsNormalizationModel>>();
+	private final CopyOnWriteArrayList<Registration<BlockfactsOHLCModel>> ohlcListeners = new CopyOnWriteArrayList<Registration<BlockfactsOHLCModel>>();
+	private final CopyOnWriteArrayList<Consumer<List<BlockfactsTradeModel>>> snapshotListeners = new CopyOnWriteArrayList<Consumer<List<BlockfactsTradeModel>>>();
+	private final CopyOnWriteArrayList<RawRegistration> messageListeners = new CopyOnWriteArrayList<RawRegistration>();
+	private volatile boolean reuseModels;
+	private volatile BlockfactsMetrics metrics = BlockfactsMetrics.NOOP;
+	volatile Predicate<BlockfactsTradeModel> tradeGate;
+	
+	/**
+	 * Makes listeners receive reused model instances instead of a new model per message.
+	 * @param reuseModels Whether model instances are reused (Default false)
+	 * @return BlockfactsMessageDispatcher
+	 */
+	public BlockfactsMessageDispatcher SetReuseModels(boolean reuseModels) {
+		this.reuseModels = reuseModels;
+		return this;
+	}
+	
+	/**
+	 * Records the rate of every message type and the time spent decoding messages into their models.
+	 * A BlockfactsManagedConnection dispatching to this dispatcher records its reconnects here as well.
+	 * @param metrics Metrics (e.g. BlockfactsInMemoryMetrics or BlockfactsMicrometerMetrics), or null to record nothing
+	 * @return BlockfactsMessageDispatcher
+	 */
+	public BlockfactsMessageDispatcher SetMetrics(BlockfactsMetrics metrics) {
+		this.metrics = metrics != null ? metrics : BlockfactsMetrics.NOOP;
+		return this;
+	}
+	
+	/**
+	 * @return Metrics the dispatcher records to, BlockfactsMetrics.NOOP if none were set
+	 */
+	public BlockfactsMetrics GetMetrics() {
+		return metrics;
+	}
+	
+	/**
+	 * Registers a listener for exchangeTrade messages of all subscribed exchanges and pairs.
+	 * @param listener Called with each trade
+	 * @return BlockfactsMessageDispatcher
+	 */
+	public BlockfactsMessageDispatcher AddTradeListener(Consumer<BlockfactsTradeModel> listener) {
+		return AddTradeListener(null, null, listener);
+	}
+	
+	/**
+	 * Registers a listener for exchangeTrade messages of one exchange and/or pair.
+	 * @param exchange Exchange name (e.g. KRAKEN), or null for all exchanges
+	 * @param pair Pair (e.g. BTC-USD), or null for all pairs
+	 * @param listener Called with each matching trade
+	 * @return BlockfactsMessageDispatcher
+	 */
+	public BlockfactsMessageDispatcher AddTradeListener(String exchange, String pair, Consumer<BlockfactsTradeModel> listener) {
+		tradeListeners.add(new Registration<BlockfactsTradeModel>(exchange, pair, listener, BlockfactsTradeModel::new));
+		return this;
+	}
+	
+	/**
+	 * Registers a listener for blockfactsPrice messages of all subscribed pairs.
+	 * @param listener Called with each normalized price
+	 * @return BlockfactsMessageDispatcher
+	 */
+	public BlockfactsMessageDispatcher AddNormalizationListener(Consumer<BlockfactsNormalizationModel> listener) {
+		return AddNormalizationListener(null, listener);
+	}
+	
+	/**
+	 * Registers a listener for blockfactsPrice messages of one pair.
+	 * @param pair Pair (e.g. BTC-USD), or null for all pairs
+	 * @param listener Called with each matching normalized price
+	 * @return BlockfactsMessageDispatcher
+	 */
+	public BlockfactsMessageDispatcher AddNormalizationListener(String pair, Consumer<BlockfactsNormalizationModel> listener) {
+		normalizationListeners.add(new Registration<BlockfactsNormalizationModel>(null, pair, listener, BlockfactsNormalizationModel::new));
+		return this;
+	}
+	
+	/**
+	 * Registers a listener for exchangeOHLC and blockfactsOHLC messages of all subscribed exchanges and pairs.
+	 * @param listener Called with each OHLC bar
+	 * @return BlockfactsMessageDispatcher
+	 */
+	public BlockfactsMessageDispatcher AddOHLCListener(Consumer<BlockfactsOHLCModel> listener) {
+		return AddOHLCListener(null, null, listener);
+	}
+	
+	/**
+	 * Registers a listener for exchangeOHLC and blockfactsOHLC messages of one exchange and/or pair.
+	 * @param exchange Exchange name (e.g. KRAKEN, BLOCKFACTS), or null for all exchanges
+	 * @param pair Pair (e.g. BTC-USD), or null for all pairs
+	 * @param listener Called with each matching OHLC bar
+	 * @return BlockfactsMessageDispatcher
+	 */
+	public BlockfactsMessageDispatcher AddOHLCListener(String exchange, String pair, Consumer<BlockfactsOHLCModel> listener) {
+		ohlcListeners.add(new Registration<BlockfactsOHLCModel>(exchange, pair, listener, BlockfactsOHLCModel::new));
+		return this;
+	}
+	
+	/**
+	 * Registers a listener for snapshot messages, which carry the last trades of the subscribed channels.
+	 * Snapshot lists are always newly allocated.
+	 * @param listener Called with the trades of each snapshot
+	 * @return BlockfactsMessageDispatcher
+	 */
+	public BlockfactsMessageDispatcher AddSnapshotListener(Consumer<List<BlockfactsTradeModel>> listener) {
+		snapshotListeners.add(listener);
+		return this;
+	}
+	
+	/**
+	 * Registers a listener receiving the raw JSON of every message of one type (e.g. subscribed, ping, heartbeat, error).
+	 * @param type Message type
+	 * @param listener Called with the raw message
+	 * @return BlockfactsMessageDispatcher
+	 */
+	public BlockfactsMessageDispatcher AddMessageListener(String type, Consumer<String> listener) {
+		messageListeners.add(new RawRegistration(type, listener));
+		return this;
+	}
+	
+	/**
+	 * Removes a listener registered with any of the Add methods.
+	 * @param listener Listener to remove
+	 */
+	public void RemoveListener(Consumer<?> listener) {
+		tradeListeners.removeIf(registration -> registration.listener == listener);
+		normalizationListeners.removeIf(registration -> registration.listener == listener);
+		ohlcListeners.removeIf(registration -> registration.listener == listener);
+		snapshotListeners.removeIf(registration -> registration == listener);
+		messageListeners.removeIf(registration -> registration.listener == listener);
+	}
+	
+	/**
+	 * Routes one message to the registered listeners.
+	 * @param message Raw JSON message received from the WebSocket server
+	 * @return true if at least one listener received the message, or a trade was held back or dropped as a duplicate after a reconnect
+	 * @throws com.google.gson.JsonSyntaxException If a data message is malformed
+	 */
+	public boolean Dispatch(String message) {
+		BlockfactsMetrics metrics = this.metrics;
+		boolean measured = metrics != BlockfactsMetrics.NOOP;
+		long started = measured ? System.nanoTime() : 0;
+		
+		int typeStart = BlockfactsMessageReader.TypeStart(message);
+		if(typeStart < 0) {
+			if(measured) metrics.RecordMessage(BlockfactsMetrics.OTHER);
+			return false;
+		}
+		int typeLength = BlockfactsMessageReader.ValueEnd(message, typeStart) - typeStart;
+		if(measured) metrics.RecordMessage(TypeName(message, typeStart, typeLength));
+		
+		boolean delivered = false;
+		for(RawRegistration registration : messageListeners) {
+			if(TypeIs(message, typeStart, typeLength, registration.type)) {
+				registration.listener.accept(message);
+				delivered = true;
+			}
+		}
+		
+		if(TypeIs(message, typeStart, typeLength, EXCHANGE_TRADE)) {
+			if(tradeListeners.isEmpty()) return delivered;
+			DecodeState state = decodeState.get();
+			state.reader.Reset(message);
+			ReadTrade(state.reader, state.trade);
+			if(measured) metrics.RecordDecode(EXCHANGE_TRADE, System.nanoTime() - started);
+			
+			Predicate<BlockfactsTradeModel> gate = this.tradeGate;
+			if(gate != null && !gate.test(state.trade)) return true;
+			
+			return Deliver(tradeListeners, state.trade, state.trade.exchange, state.trade.pair, BlockfactsMessageDispatcher::CopyTrade, BlockfactsTradeModel::new) || delivered;
+		}
+		
+		if(TypeIs(message, typeStart, typeLength, BLOCKFACTS_PRICE)) {
+			if(normalizationListeners.isEmpty()) return delivered;
+			DecodeState state = decodeState.get();
+			state.reader.Reset(message);
+			ReadNormalization(state.reader, state.normalization);
+			if(measured) metrics.RecordDecode(BLOCKFACTS_PRICE, System.nanoTime() - started);
+			return Deliver(normalizationListeners, state.normalization, state.normalization.exchange, state.normalization.pair, BlockfactsMessageDispatcher::CopyNormalization, BlockfactsNormalizationModel::new) || delivered;
+		}
+		
+		if(TypeIs(message, typeStart, typeLength, EXCHANGE_OHLC) || TypeIs(message, typeStart, typeLength, BLOCKFACTS_OHLC)) {
+			if(ohlcListeners.isEmpty()) return delivered;
+			DecodeState state = decodeState.get();
+			state.reader.Reset(message);
+			ReadOHLC(state.reader, state.ohlc);
+			if(measured) metrics.RecordDecode(TypeIs(message, typeStart, typeLength, BLOCKFACTS_OHLC) ? BLOCKFACTS_OHLC : EXCHANGE_OHLC, System.nanoTime() - started);
+			return Deliver(ohlcListeners, state.ohlc, state.ohlc.exchange, state.ohlc.pair, BlockfactsMessageDispatcher::CopyOHLC, BlockfactsOHLCModel::new) || delivered;
+		}
+		
+		if(TypeIs(message, typeStart, typeLength, SNAPSHOT)) {
+			if(snapshotListeners.isEmpty()) return delivered;
+			DecodeState state = decodeState.get();
+			state.reader.Reset(message);
+			List<BlockfactsTradeModel> trades = ReadSnapshot(state.reader);
+			if(measured) metrics.RecordDecode(SNAPSHOT, System.nanoTime() - started);
+			for(Consumer<List<BlockfactsTradeModel>> listener : snapshotListeners) {
+				listener.accept(trades);
+			}
+			return true;
+		}
+		
+		return delivered;
+	}
+	
+	/**
+	 * Delivers a trade which did not come from the WebSocket stream, such as a trade fetched over REST, to the trade listeners.
+	 * @param trade Trade to deliver, not modified
+	 * @return true if at least one listener received the trade
+	 */
+	public boolean DispatchTrade(BlockfactsTradeModel trade) {
+		return Deliver(tradeListeners, trade, trade.exchange, trade.pair, BlockfactsMessageDispatcher::CopyTrade, BlockfactsTradeModel::new);
+	}
+	
+	/**
+	 * Hands the decoded scratch model to every matching listener, either as a copy in the listener's own reused instance
+	 * or as one new instance shared by all listeners of this message.
+	 */
+	private <T> boolean Deliver(List<Registration<T>> registrations, T decoded, String exchange, String pair, Copier<T> copier, Supplier<T> factory) {
+		boolean reuse = this.reuseModels;
+		T shared = null;
+		boolean delivered = false;
+		
+		for(Registration<T> registration : registrations) {
+			if(!registration.Matches(exchange, pair)) continue;
+			
+			T model;
+			if(reuse) {
+				model = registration.instances.get();
+				copier.Copy(decoded, model);
+			} else {
+				if(shared == null) {
+					shared = factory.get();
+					copier.Copy(decoded, shared);
+				}
+				model = shared;
+			}
+			
+			registration.listener.accept(model);
+			delivered = true;
+		}
+		
+		return delivered;
+	}
+	
+	/**
+	 * Returns the constant of a data message type without creating a string, or OTHER for any other type.
+	 */
+	private static String TypeName(String message, int typeStart, int typeLength) {
+		if(TypeIs(message, typeStart, typeLength, EXCHANGE_TRADE)) return EXCHANGE_TRADE;
+		if(TypeIs(message, typeStart, typeLength, BLOCKFACTS_PRICE)) return BLOCKFACTS_PRICE;
+		if(TypeIs(message, typeStart, typeLength, EXCHANGE_OHLC)) return EXCHANGE_OHLC;
+		if(TypeIs(message, typeStart, typeLength, BLOCKFACTS_OHLC)) return BLOCKFACTS_OHLC;
+		if(TypeIs(message, typeStart, typeLength, SNAPSHOT)) return SNAPSHOT;
+		return BlockfactsMetrics.OTHER;
+	}
+	
+	static boolean TypeIs(String message, int typeStart, int typeLength, String type) {
+		return typeLength == type.length() && message.regionMatches(typeStart, type, 0, typeLength);
+	}
+	
+	/**
+	 * Decodes a trade into the provided instance. Fields missing from the message are reset.
+	 */
+	static void ReadTrade(BlockfactsMessageReader reader, BlockfactsTradeModel trade) {
+		trade.exchange = trade.pair = trade.makerTaker = trade.tradeId = trade.exchangeTime = null;
+		trade.price = trade.tradeSize = trade.denominatorSize = 0;
+		trade.blockfactsTime = trade.epochExchangeTime = 0;
+		if(!reader.BeginObject()) return;
+		
+		while(reader.NextField()) {
+			if(reader.NameIs("exchange")) trade.exchange = reader.NextSymbol();
+			else if(reader.NameIs("pair")) trade.pair = reader.NextSymbol();
+			else if(reader.NameIs("price")) trade.price = reader.NextDouble();
+			else if(reader.NameIs("tradeSize")) trade.tradeSize = reader.NextDouble();
+			else if(reader.NameIs("denominatorSize")) trade.denominatorSize = reader.NextDouble();
+			else if(reader.NameIs("makerTaker")) trade.makerTaker = reader.NextSymbol();
+			else if(reader.NameIs("tradeId")) trade.tradeId = reader.NextString();
+			else if(reader.NameIs("exchangeTime")) trade.exchangeTime = reader.NextString();
+			else if(reader.NameIs("blockfactsTime")) trade.blockfactsTime = reader.NextLong();
+			else if(reader.NameIs("epochExchangeTime")) trade.epochExchangeTime = reader.NextLong();
+			else reader.SkipValue();
+		}
+	}
+	
+	/**
+	 * Decodes a normalized price into the provided instance, reusing the trade lists it already holds.
+	 */
+	static void ReadNormalization(BlockfactsMessageReader reader, BlockfactsNormalizationModel normalization) {
+		normalization.exchange = normalization.pair = normalization.algorithm = null;
+		normalization.price = 0;
+		normalization.timestamp = normalization.normalizationTimestamp = 0;
+		boolean included = false, excluded = false;
+		if(!reader.BeginObject()) return;
+		
+		while(reader.NextField()) {
+			if(reader.NameIs("exchange")) normalization.exchange = reader.NextSymbol();
+			else if(reader.NameIs("pair")) normalization.pair = reader.NextSymbol();
+			else if(reader.NameIs("price")) normalization.price = reader.NextDouble();
+			else if(reader.NameIs("included")) {
+				normalization.included = ReadTrades(reader, normalization.included);
+				included = true;
+			} else if(reader.NameIs("excluded")) {
+				normalization.excluded = ReadTrades(reader, normalization.excluded);
+				excluded = true;
+			}
+			else if(reader.NameIs("timestamp")) normalization.timestamp = reader.NextLong();
+			else if(reader.NameIs("normalizationTimestamp")) normalization.normalizationTimestamp = reader.NextLong();
+			else if(reader.NameIs("algorithm")) normalization.algorithm = reader.NextSymbol();
+			else reader.SkipValue();
+		}
+		
+		if(!included) normalization.included = null;
+		if(!excluded) normalization.excluded = null;
+	}
+	
+	/**
+	 * Decodes an OHLC bar into the provided instance. Fields missing from the message are reset.
+	 */
+	static void ReadOHLC(BlockfactsMessageReader reader, BlockfactsOHLCModel ohlc) {
+		ohlc.exchange = ohlc.pair = ohlc.interval = null;
+		ohlc.date = null;
+		ohlc.volume = ohlc.baseVolume = ohlc.low = ohlc.high = ohlc.open = ohlc.close = 0;
+		ohlc.tradesCount = ohlc.timestamp = ohlc.exchangeOpenTime = ohlc.exchangeCloseTime = 0;
+		if(!reader.BeginObject()) return;
+		
+		while(reader.NextField()) {
+			if(reader.NameIs("exchange")) ohlc.exchange = reader.NextSymbol();
+			else if(reader.NameIs("pair")) ohlc.pair = reader.NextSymbol();
+			else if(reader.NameIs("volume")) ohlc.volume = reader.NextDouble();
+			else if(reader.NameIs("baseVolume")) ohlc.baseVolume = reader.NextDouble();
+			else if(reader.NameIs("low")) ohlc.low = reader.NextDouble();
+			else if(reader.NameIs("high")) ohlc.high = reader.NextDouble();
+			else if(reader.NameIs("open")) ohlc.open = reader.NextDouble();
+			else if(reader.NameIs("close")) ohlc.close = reader.NextDouble();
+			else if(reader.NameIs("tradesCount")) ohlc.tradesCount = reader.NextLong();
+			else if(reader.NameIs("timestamp")) ohlc.timestamp = reader.NextLong();
+			else if(reader.NameIs("exchangeOpenTime")) ohlc.exchangeOpenTime = reader.NextLong();
+			else if(reader.NameIs("exchangeCloseTime")) ohlc.exchangeCloseTime = reader.NextLong();
+			else if(reader.NameIs("interval")) ohlc.interval = reader.NextSymbol();
+			else if(reader.NameIs("date")) ohlc.date = ParseDate(reader.NextString());
+			else reader.SkipValue();
+		}
+	}
+	
+	/**
+	 * Reads the trades of a snapshot message, which come in the first array valued field.
+	 */
+	static List<BlockfactsTradeModel> ReadSnapshot(BlockfactsMessageReader reader) {
+		List<BlockfactsTradeModel> trades = new ArrayList<BlockfactsTradeModel>();
+		if(!reader.BeginObject()) return trades;
+		
+		while(reader.NextField()) {
+			if(trades.isEmpty() && reader.PeekArray()) trades = ReadTrades(reader, trades);
+			else reader.SkipValue();
+		}
+		
+		return trades;
+	}
+	
+	/**
+	 * Reads an array of trades into the provided list, reusing the trade instances already in it.
+	 */
+	private static List<BlockfactsTradeModel> ReadTrades(BlockfactsMessageReader reader, List<BlockfactsTradeModel> trades) {
+		if(!reader.BeginArray()) return null;
+		if(trades == null) trades = new ArrayList<BlockfactsTradeModel>();
+		
+		int count = 0;
+		while(reader.NextElement()) {
+			if(count == trades.size()) trades.add(new BlockfactsTradeModel());
+			ReadTrade(reader, trades.get(count++));
+		}
+		while(trades.size() > count) trades.remove(trades.size() - 1);
+		
+		return trades;
+	}
+	
+	private static LocalDateTime ParseDate(String date) {
+		if(date == null) return null;
+		
+		try {
+			return LocalDateTime.parse(date.endsWith("Z") ? date.substring(0, date.length() - 1) : date);
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+	
+	static void CopyTrade(BlockfactsTradeModel from, BlockfactsTradeModel to) {
+		to.exchange = from.exchange;
+		to.pair = from.pair;
+		to.price = from.price;
+		to.tradeSize = from.tradeSize;
+		to.denominatorSize = from.denominatorSize;
+		to.makerTaker = from.makerTaker;
+		to.tradeId = from.tradeId;
+		to.exchangeTime = from.exchangeTime;
+		to.blockfactsTime = from.blockfactsTime;
+		to.epochExchangeTime = from.epochExchangeTime;
+	}
+	
+	static void CopyNormalization(BlockfactsNormalizationModel from, BlockfactsNormalizationModel to) {
+		to.exchange = from.exchange;
+		to.pair = from.pair;
+		to.price = from.price;
+		to.included = CopyTrades(from.included, to.included);
+		to.excluded = CopyTrades(from.excluded, to.excluded);
+		to.timestamp = from.timestamp;
+		to.normalizationTimestamp = from.normalizationTimestamp;
+		to.algorithm = from.algorithm;
+	}
+	
+	static void CopyOHLC(BlockfactsOHLCModel from, BlockfactsOHLCModel to) {
+		to.exchange = from.exchange;
+		to.pair = from.pair;
+		to.volume = from.volume;
+		to.baseVolume = from.baseVolume;
+		to.low = from.low;
+		to.high = from.high;
+		to.open = from.open;
+		to.close = from.close;
+		to.tradesCount = from.tradesCount;
+		to.timestamp = from.timestamp;
+		to.exchangeOpenTime = from.exchangeOpenTime;
+		to.exchangeCloseTime = from.exchangeCloseTime;
+		to.interval = from.interval;
+		to.date = from.date;
+	}
+	
+	private static List<BlockfactsTradeModel> CopyTrades(List<BlockfactsTradeModel> from, List<BlockfactsTradeModel> to) {
+		if(from == null) return null;
+		if(to == null) to = new ArrayList<BlockfactsTradeModel>(from.size());
+		
+		for(int i = 0; i < from.size(); i++) {
+			if(i == to.size()) to.add(new BlockfactsTradeModel());
+			CopyTrade(from.get(i), to.get(i));
+		}
+		while(to.size() > from.size()) to.remove(to.size() - 1);
+		
+		return to;
+	}
+	
+	private interface Copier<T> {
+		void Copy(T from, T to);
+	}
+	
+	/**
+	 * Reader and scratch models of one dispatching thread.
+	 */
+	private static final class DecodeState {
+		final BlockfactsMessageReader reader = new BlockfactsMessageReader();
+		final BlockfactsTradeModel trade = new BlockfactsTradeModel();
+		final BlockfactsNormalizationModel normalization = new BlockfactsNormalizationModel();
+		final BlockfactsOHLCModel ohlc = new BlockfactsOHLCModel();
+	}
+	
+	private static final class Registration<T> {
+		final String exchange;
+		final String pair;
+		final Consumer<T> listener;
+		final ThreadLocal<T> instances;
+		
+		Registration(String exchange, String pair, Consumer<T> listener, Supplier<T> factory) {
+			this.exchange = exchange;
+			this.pair = pair;
+			this.listener = listener;
+			this.instances = ThreadLocal.withInitial(factory);
+		}
+		
+		boolean Matches(String exchange, String pair) {
+			return (this.exchange == null || this.exchange.equalsIgnoreCase(exchange)) && (this.pair == null || this.pair.equalsIgnoreCase(pair));
+		}
+	}
+	
+	private static final class RawRegistration {
+		final String type;
+		final Consumer<String> listener;
+		
+		RawRegistration(String type, Consumer<String> listener) {
+			this.type = type;
+			this.listener = listener;
+		}
+	}
+}
@@ -0,0 +1,443 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import com.google.gson.JsonSyntaxException;
+
+/**
+ * Minimal pull parser reading BlockFacts WebSocket frames straight from the received string.
+ * Unlike a JSON tree it does not allocate per value: numbers are parsed in place, and short repeated strings
+ * such as exchange and pair names are served from a small intern table.
+ * Not thread-safe, every dispatcher owns one reader.
+ */
+final class BlockfactsMessageReader {
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+	private static final int SYMBOL_TABLE_SIZE = 512;
+	private static final int MAX_SYMBOL_LENGTH = 32;
+	
+	private final String[] symbols = new String[SYMBOL_TABLE_SIZE];
+	private String json;
+	private int pos;
+	private int nameStart;
+	private int nameLength;
+	
+	void Reset(String json) {
+		this.json = json;
+		this.pos = 0;
+	}
+	
+	/**
+	 * Finds the value of the top level "type" field without parsing the frame.
+	 * @return Start index of the type value, or -1 if the frame has no type. The value ends at ValueEnd(json, start).
+	 */
+	static int TypeStart(String json) {
+		return ValueStart(json, "\"type\"");
+	}
+	
+	/**
+	 * Finds the string value of the top level field with the provided quoted name (e.g. "\"pair\"") without parsing the frame.
+	 * Fields before it are skipped without being decoded, and fields of nested objects are never matched.
+	 * @return Start index of the value, or -1 if there is no such string field or the frame is not a well formed object
+	 */
+	static int ValueStart(String json, String quotedName) {
+		int length = json.length();
+		int index = SkipWhitespace(json, 0);
+		if(index >= length || json.charAt(index) != '{') return -1;
+		
+		for(index++;; index++) {
+			index = SkipWhitespace(json, index);
+			if(index >= length || json.charAt(index) != '"') return -1;
+			
+			int nameStart = index;
+			index = StringEnd(json, index + 1);
+			if(index < 0) return -1;
+			boolean match = index + 1 - nameStart == quotedName.length() && json.regionMatches(nameStart, quotedName, 0, quotedName.length());
+			
+			index = SkipWhitespace(json, index + 1);
+			if(index >= length || json.charAt(index) != ':') return -1;
+			index = SkipWhitespace(json, index + 1);
+			if(index >= length) return -1;
+			
+			if(match) return json.charAt(index) == '"' ? index + 1 : -1;
+			
+			index = SkipWhitespace(json, ValueEndAt(json, index));
+			if(index >= length || json.charAt(index) != ',') return -1;
+		}
+	}
+	
+	static int ValueEnd(String json, int valueStart) {
+		int end = StringEnd(json, valueStart);
+		return end < 0 ? json.length() : end;
+	}
+	
+	/**
+	 * @return Index of the quote closing the string whose content starts at the provided index, or -1 if it is not closed
+	 */
+	private static int StringEnd(String json, int index) {
+		while(index < json.length()) {
+			char c = json.charAt(index);
+			if(c == '"') return index;
+			index += c == '\\' ? 2 : 1;
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * @return Index just after the value starting at the provided index, or the length of the frame if the value is not closed
+	 */
+	private static int ValueEndAt(String json, int index) {
+		int depth = 0;
+		while(index < json.length()) {
+			char c = json.charAt(index);
+			if(c == '"') {
+				index = StringEnd(json, index + 1);
+				if(index < 0) return json.length();
+				index++;
+				if(depth == 0) return index;
+				continue;
+			}
+			
+			if(c == '{' || c == '[') {
+				depth++;
+			} else if(c == '}' || c == ']') {
+				if(depth == 0) return index;
+				if(--depth == 0) return index + 1;
+			} else if(depth == 0 && (c == ',' || IsWhitespace(c))) {
+				return index;
+			}
+			index++;
+		}
+		
+		return json.length();
+	}
+	
+	private static int SkipWhitespace(String json, int index) {
+		while(index < json.length() && IsWhitespace(json.charAt(index))) index++;
+		return index;
+	}
+	
+	boolean BeginObject() {
+		SkipWhitespace();
+		if(Peek() == 'n') {
+			Literal("null");
+			return false;
+		}
+		
+		Expect('{');
+		return true;
+	}
+	
+	/**
+	 * Moves to the next field of the current object and reads its name.
+	 * @return false once the end of the object is reached
+	 */
+	boolean NextField() {
+		SkipWhitespace();
+		char c = Peek();
+		if(c == '}') {
+			pos++;
+			return false;
+		}
+		if(c == ',') {
+			pos++;
+			SkipWhitespace();
+		}
+		
+		Expect('"');
+		nameStart = pos;
+		SkipString();
+		nameLength = pos - nameStart - 1;
+		
+		SkipWhitespace();
+		Expect(':');
+		return true;
+	}
+	
+	boolean NameIs(String name) {
+		return nameLength == name.length() && json.regionMatches(nameStart, name, 0, nameLength);
+	}
+	
+	boolean BeginArray() {
+		SkipWhitespace();
+		if(Peek() == 'n') {
+			Literal("null");
+			return false;
+		}
+		
+		Expect('[');
+		return true;
+	}
+	
+	/**
+	 * Moves to the next element of the current array.
+	 * @return false once the end of the array is reached
+	 */
+	boolean NextElement() {
+		SkipWhitespace();
+		char c = Peek();
+		if(c == ']') {
+			pos++;
+			return false;
+		}
+		if(c == ',') pos++;
+		
+		return true;
+	}
+	
+	boolean PeekArray() {
+		SkipWhitespace();
+		return Peek() == '[';
+	}
+	
+	String NextString() {
+		return ReadString(false);
+	}
+	
+	/**
+	 * Reads a string which repeats across messages (exchange, pair, interval), reusing the same instance every time.
+	 */
+	String NextSymbol() {
+		return ReadString(true);
+	}
+	
+	long NextLong() {
+		SkipWhitespace();
+		char c = Peek();
+		if(c == 'n') {
+			Literal("null");
+			return 0;
+		}
+		
+		boolean quoted = c == '"';
+		if(quoted) pos++;
+		
+		int start = pos;
+		boolean negative = Peek() == '-';
+		if(negative) pos++;
+		
+		long value = 0;
+		int digits = 0;
+		while(pos < json.length() && IsDigit(json.charAt(pos))) {
+			value = value * 10 + (json.charAt(pos++) - '0');
+			digits++;
+		}
+		
+		if(digits == 0 || digits > 18 || (pos < json.length() && IsNumberPart(json.charAt(pos)))) {
+			pos = start;
+			value = (long) ParseDoubleSlow();
+		} else if(negative) {
+			value = -value;
+		}
+		
+		if(quoted) Expect('"');
+		return value;
+	}
+	
+	double NextDouble() {
+		SkipWhitespace();
+		char c = Peek();
+		if(c == 'n') {
+			Literal("null");
+			return 0;
+		}
+		
+		boolean quoted = c == '"';
+		if(quoted) pos++;
+		
+		double value = ParseDouble();
+		
+		if(quoted) Expect('"');
+		return value;
+	}
+	
+	void SkipValue() {
+		SkipWhitespace();
+		switch(Peek()) {
+			case '{':
+				pos++;
+				while(NextField()) SkipValue();
+				break;
+			case '[':
+				pos++;
+				while(NextElement()) SkipValue();
+				break;
+			case '"':
+				pos++;
+				SkipString();
+				break;
+			default:
+				int start = pos;
+				while(pos < json.length() && "},] \t\r\n".indexOf(json.charAt(pos)) < 0) pos++;
+				if(pos == start) throw Unexpected();
+		}
+	}
+	
+	/**
+	 * Parses a number with the exact fast path for up to 15 significant digits and 22 decimals,
+	 * which covers prices and sizes, falling back to Double.parseDouble otherwise.
+	 */
+	private double ParseDouble() {
+		int start = pos;
+		boolean negative = Peek() == '-';
+		if(negative) pos++;
+		
+		long mantissa = 0;
+		int digits = 0;
+		int scale = 0;
+		while(pos < json.length() && IsDigit(json.charAt(pos))) {
+			mantissa = mantissa * 10 + (json.charAt(pos++) - '0');
+			if(mantissa != 0) digits++;
+		}
+		if(pos < json.length() && json.charAt(pos) == '.') {
+			pos++;
+			while(pos < json.length() && IsDigit(json.charAt(pos))) {
+				mantissa = mantissa * 10 + (json.charAt(pos++) - '0');
+				if(mantissa != 0) digits++;
+				scale++;
+			}
+		}
+		
+		if(digits > 15 || scale > 22 || pos == start || (pos < json.length() && IsNumberPart(json.charAt(pos)))) {
+			pos = start;
+			return ParseDoubleSlow();
+		}
+		
+		double value = mantissa / POWERS_OF_TEN[scale];
+		return negative ? -value : value;
+	}
+	
+	private double ParseDoubleSlow() {
+		int start = pos;
+		while(pos < json.length() && (IsDigit(json.charAt(pos)) || IsNumberPart(json.charAt(pos)) || json.charAt(pos) == '-' || json.charAt(pos) == '.')) pos++;
+		
+		try {
+			return Double.parseDouble(json.substring(start, pos));
+		} catch (NumberFormatException e) {
+			throw new JsonSyntaxException("Expected a number at position " + start, e);
+		}
+	}
+	
+	private String ReadString(boolean intern) {
+		SkipWhitespace();
+		if(Peek() == 'n') {
+			Literal("null");
+			return null;
+		}
+		
+		Expect('"');
+		int start = pos;
+		int hash = 0;
+		char c;
+		while((c = CharAt(pos)) != '"') {
+			if(c == '\\') return ReadEscapedString(start);
+			hash = 31 * hash + c;
+			pos++;
+		}
+		
+		int length = pos - start;
+		pos++;
+		
+		if(!intern || length > MAX_SYMBOL_LENGTH) return json.substring(start, start + length);
+		
+		int slot = (hash ^ (hash >>> 16)) & (SYMBOL_TABLE_SIZE - 1);
+		String symbol = symbols[slot];
+		if(symbol == null || symbol.length() != length || !json.regionMatches(start, symbol, 0, length)) {
+			symbol = json.substring(start, start + length);
+			symbols[slot] = symbol;
+		}
+		
+		return symbol;
+	}
+	
+	private String ReadEscapedString(int start) {
+		StringBuilder builder = new StringBuilder().append(json, start, pos);
+		char c;
+		while((c = CharAt(pos++)) != '"') {
+			if(c != '\\') {
+				builder.append(c);
+				continue;
+			}
+			
+			char escaped = CharAt(pos++);
+			switch(escaped) {
+				case 'b': builder.append('\b'); break;
+				case 'f': builder.append('\f'); break;
+				case 'n': builder.append('\n'); break;
+				case 'r': builder.append('\r'); break;
+				case 't': builder.append('\t'); break;
+				case 'u':
+					builder.append(UnicodeEscape());
+					break;
+				default: builder.append(escaped);
+			}
+		}
+		
+		return builder.toString();
+	}
+	
+	private char UnicodeEscape() {
+		CharAt(pos + 3);
+		try {
+			char c = (char) Integer.parseInt(json.substring(pos, pos + 4), 16);
+			pos += 4;
+			return c;
+		} catch (NumberFormatException e) {
+			throw new JsonSyntaxException("Invalid unicode escape at position " + pos, e);
+		}
+	}
+	
+	/**
+	 * Moves past the closing quote of the string whose content starts at the current position.
+	 */
+	private void SkipString() {
+		char c;
+		while((c = CharAt(pos++)) != '"') {
+			if(c == '\\') pos++;
+		}
+	}
+	
+	private void Literal(String literal) {
+		if(!json.startsWith(literal, pos)) throw Unexpected();
+		pos += literal.length();
+	}
+	
+	private void Expect(char expected) {
+		if(Peek() != expected) throw Unexpected();
+		pos++;
+	}
+	
+	private char Peek() {
+		return CharAt(pos);
+	}
+	
+	/**
+	 * Reads a character of the frame, reporting a truncated frame the same way as other malformed input.
+	 */
+	private char CharAt(int index) {
+		if(index >= json.length()) throw new JsonSyntaxException("Unexpected end of message");
+		return json.charAt(index);
+	}
+	
+	private JsonSyntaxException Unexpected() {
+		if(pos >= json.length()) return new JsonSyntaxException("Unexpected end of message");
+		return new JsonSyntaxException("Unexpected character '" + json.charAt(pos) + "' at position " + pos);
+	}
+	
+	private void SkipWhitespace() {
+		while(pos < json.length() && IsWhitespace(json.charAt(pos))) pos++;
+	}
+	
+	private static boolean IsWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+	}
+	
+	private static boolean IsDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+	
+	private static boolean IsNumberPart(char c) {
+		return c == '.' || c == 'e' || c == 'E' || c == '+';
+	}
+}
@@ -0,0 +1,20 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+/**
+ * What the ingestion pipeline does when messages arrive faster than the consumers process them.
+ */
+public enum BlockfactsOverflowPolicy {
+	/**
+	 * The WebSocket read thread waits for free space, which slows down reading from the socket. No message is lost.
+	 */
+	BLOCK,
+	/**
+	 * The oldest queued message is dropped to make room for the new one.
+	 */
+	DROP_OLDEST,
+	/**
+	 * Only the latest trade, price or OHLC message of each exchange and pair is kept while it waits to be processed,
+	 * other messages wait for free space as with BLOCK.
+	 */
+	CONFLATE_PER_PAIR
+}
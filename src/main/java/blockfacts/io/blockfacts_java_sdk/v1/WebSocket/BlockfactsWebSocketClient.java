@@ -11,18 +11,19 @@ import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.drafts.Draft;
 import org.java_websocket.drafts.Draft_6455;
 import org.java_websocket.handshake.ServerHandshake;
-import org.json.simple.JSONObject;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 
 import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsChannelObject;
-import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsSubscribeMessage;
 
 public class BlockfactsWebSocketClient extends WebSocketClient {
 	public String key;
 	public String secret;
 	public String blockfactsWebsocketUrl;
+	public volatile BlockfactsMessageDispatcher dispatcher = new BlockfactsMessageDispatcher();
+	public volatile BlockfactsIngestionPipeline pipeline;
+	public volatile BlockfactsJournalWriter recorder;
+	volatile long lastMessageNanos;
 	
 	public BlockfactsWebSocketClient(URI serverUri) {
 		super(serverUri);
@@ -40,9 +41,19 @@ public class BlockfactsWebSocketClient extends WebSocketClient {
 		System.out.println("New connection opened");
 	}
 	
+	/**
+	 * Routes the message to the listeners registered on the dispatcher, and prints messages no listener received.
+	 * If a pipeline is set, the message is queued for its consumer threads instead and nothing is printed.
+	 * If a recorder is set, every message is recorded first.
+	 */
 	@Override
 	public void onMessage(String message) {
-		System.out.println("Received message: " + message);
+		lastMessageNanos = System.nanoTime();
+		BlockfactsJournalWriter recorder = this.recorder;
+		if(recorder != null) recorder.Record(message);
+		BlockfactsIngestionPipeline pipeline = this.pipeline;
+		if(pipeline != null) pipeline.Publish(message);
+		else if(!dispatcher.Dispatch(message)) System.out.println("Received message: " + message);
 	}
 
 	@Override
@@ -78,18 +89,7 @@ public class BlockfactsWebSocketClient extends WebSocketClient {
 	 * @param channels List of BlockfactsChannelObjects to subscribe to
 	 */
 	public void Subscribe(List<BlockfactsChannelObject> channels, Boolean snapshot, String id) {
-		BlockfactsSubscribeMessage subscribeMessage = new BlockfactsSubscribeMessage();
-		
-		subscribeMessage.type = "subscribe";
-		subscribeMessage.snapshot = snapshot;
-		if(id != null) subscribeMessage.id = id;
-		else subscribeMessage.id = "";
-		subscribeMessage.X_API_KEY = this.key;
-        subscribeMessage.X_API_SECRET = this.secret;
-        subscribeMessage.channels = channels;
-        
-        String subscribeMsg = new Gson().toJson(subscribeMessage).replace("X_API_KEY", "X-API-KEY").replace("X_API_SECRET", "X-API-SECRET").replace("exchangeName", "name");
-        send(subscribeMsg);
+		sendFrame(BlockfactsFrameWriter.Subscribe(snapshot, id != null ? id : "", this.key, this.secret, channels));
 	}
 	
 	/**
@@ -106,13 +106,7 @@ public class BlockfactsWebSocketClient extends WebSocketClient {
 	 * @param channels List of BlockfactsChannelObjects to unsubscribe from
 	 */
 	public void Unsubscribe(List<BlockfactsChannelObject> channels) {
-		BlockfactsSubscribeMessage subscribeMessage = new BlockfactsSubscribeMessage();
-		
-		subscribeMessage.type = "unsubscribe";
-        subscribeMessage.channels = channels;
-        
-        String subscribeMsg = new Gson().toJson(subscribeMessage).replace("exchangeName", "name");
-        send(subscribeMsg);
+		sendFrame(BlockfactsFrameWriter.Unsubscribe(channels));
 	}
 	
 	/**
@@ -129,11 +123,7 @@ public class BlockfactsWebSocketClient extends WebSocketClient {
 	 * Reference: https://docs.blockfacts.io/#ping
 	 */
 	public void Ping() {
-		JSONObject ping = new JSONObject();
-		ping.put("type", "ping");
-		
-		String pingMsg = new Gson().toJson(ping);
-		send(pingMsg);
+		sendFrame(BlockfactsFrameWriter.Ping());
 	}
 	
 	/**
@@ -141,10 +131,6 @@ public class BlockfactsWebSocketClient extends WebSocketClient {
 	 * Reference: https://docs.blockfacts.io/#pong
 	 */
 	public void Pong() {
-		JSONObject pong = new JSONObject();
-		pong.put("type", "pong");
-		
-		String pongMsg = new Gson().toJson(pong);
-		send(pongMsg);
+		sendFrame(BlockfactsFrameWriter.Pong());
 	}
 }
@@ -0,0 +1,354 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsChannelObject;
+import blockfacts.io.blockfacts_java_sdk.v1.REST.ExchangeEndpoints;
+
+/**
+ * Spreads subscriptions over several managed WebSocket connections, so that frames are read and decoded
+ * by several threads instead of one. Every exchange and pair is assigned to one connection by hash,
+ * and all connections deliver their messages to the same dispatcher, so listeners are registered once
+ * but may be called from several threads at the same time. Messages of one pair keep their order.
+ * When a connection stays down longer than the failover delay, its channels are moved to the connections which are up.
+ */
+public class BlockfactsWebSocketPool implements AutoCloseable {
+	public final BlockfactsMessageDispatcher dispatcher;
+	
+	private final BlockfactsManagedConnection[] connections;
+	private final boolean[] down;
+	private final HashMap<String, Integer> assignments = new HashMap<String, Integer>();
+	private final ScheduledExecutorService scheduler;
+	private Duration failoverDelay = Duration.ofSeconds(5);
+	private boolean shardByExchange;
+	private boolean closed;
+	
+	/**
+	 * Creates a pool of connections to the BlockFacts WebSocket server.
+	 * @param key BlockFacts API key
+	 * @param secret BlockFacts API secret
+	 * @param connections Number of connections
+	 * @throws URISyntaxException Never for the built-in server url
+	 */
+	public BlockfactsWebSocketPool(String key, String secret, int connections) throws URISyntaxException {
+		this(new URI("wss://ws.blockfacts.io/v1/"), key, secret, connections, new BlockfactsMessageDispatcher());
+	}
+	
+	/**
+	 * Creates a pool of connections which deliver their messages to an existing dispatcher.
+	 * @param serverUri WebSocket server url
+	 * @param key BlockFacts API key
+	 * @param secret BlockFacts API secret
+	 * @param connections Number of connections
+	 * @param dispatcher Dispatcher the messages of all connections are routed to
+	 */
+	public BlockfactsWebSocketPool(URI serverUri, String key, String secret, int connections, BlockfactsMessageDispatcher dispatcher) {
+		if(connections < 1) throw new IllegalArgumentException("connections must be positive");
+		
+		this.dispatcher = dispatcher;
+		this.connections = new BlockfactsManagedConnection[connections];
+		this.down = new boolean[connections];
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "blockfacts-pool");
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		for(int i = 0; i < connections; i++) {
+			int index = i;
+			BlockfactsManagedConnection connection = new BlockfactsManagedConnection(serverUri, key, secret, dispatcher);
+			connection.openListener = () -> OnOpen(index);
+			connection.closeListener = () -> OnClose(index);
+			this.connections[i] = connection;
+		}
+	}
+	
+	/**
+	 * Keeps all pairs of an exchange on the same connection, instead of spreading the pairs over the connections.
+	 * Must be called before subscribing.
+	 * @param shardByExchange Whether to assign connections by exchange instead of by exchange and pair
+	 * @return BlockfactsWebSocketPool
+	 */
+	public synchronized BlockfactsWebSocketPool SetShardByExchange(boolean shardByExchange) {
+		this.shardByExchange = shardByExchange;
+		return this;
+	}
+	
+	/**
+	 * Sets how long a connection may stay down before its channels are moved to the other connections. Defaults to 5 seconds.
+	 * @param failoverDelay Time to wait for the connection to come back
+	 * @return BlockfactsWebSocketPool
+	 */
+	public synchronized BlockfactsWebSocketPool SetFailoverDelay(Duration failoverDelay) {
+		this.failoverDelay = failoverDelay;
+		return this;
+	}
+	
+	/**
+	 * Sets the reconnect backoff of every connection.
+	 * @param initialBackoff Backoff of the first attempt
+	 * @param maxBackoff Highest backoff
+	 * @return BlockfactsWebSocketPool
+	 */
+	public BlockfactsWebSocketPool SetBackoff(Duration initialBackoff, Duration maxBackoff) {
+		for(BlockfactsManagedConnection connection : connections) {
+			connection.SetBackoff(initialBackoff, maxBackoff);
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Fills the trades missed while a connection was down from the REST API, after reconnects and failovers.
+	 * @param exchanges Exchange endpoint group used for fetching the historical trades
+	 * @return BlockfactsWebSocketPool
+	 */
+	public BlockfactsWebSocketPool SetGapBackfill(ExchangeEndpoints exchanges) {
+		return SetGapBackfill(exchanges, null);
+	}
+	
+	/**
+	 * Same as SetGapBackfill, reporting the pairs whose gap could not be filled completely to the provided listener.
+	 * @param exchanges Exchange endpoint group used for fetching the historical trades
+	 * @param failureListener Receives the channel with the pair and the cause, or null to print failures to System.err
+	 * @return BlockfactsWebSocketPool
+	 */
+	public BlockfactsWebSocketPool SetGapBackfill(ExchangeEndpoints exchanges, BiConsumer<BlockfactsChannelObject, Exception> failureListener) {
+		for(BlockfactsManagedConnection connection : connections) {
+			connection.SetGapBackfill(exchanges, failureListener);
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Connects all connections in a non-blocking way.
+	 */
+	public void Connect() {
+		for(BlockfactsManagedConnection connection : connections) {
+			connection.Connect();
+		}
+	}
+	
+	/**
+	 * Subscribes to channels, sending each connection one message with the exchanges and pairs assigned to it.
+	 * Reference: https://docs.blockfacts.io/#subscribe
+	 * @param channels List of BlockfactsChannelObjects to subscribe to
+	 * @param snapshot Whether the server should first send a snapshot of the last trades
+	 * @param id Message id, or null
+	 */
+	public synchronized void Subscribe(List<BlockfactsChannelObject> channels, Boolean snapshot, String id) {
+		List<Map<String, ArrayList<String>>> shards = NewShards();
+		
+		for(BlockfactsChannelObject channel : channels) {
+			if(channel.pairs == null || channel.pairs.isEmpty()) {
+				Add(shards, Assign(channel.exchangeName, null), channel.exchangeName, null);
+				continue;
+			}
+			
+			for(String pair : channel.pairs) {
+				Add(shards, Assign(channel.exchangeName, pair), channel.exchangeName, pair);
+			}
+		}
+		
+		for(int i = 0; i < connections.length; i++) {
+			if(!shards.get(i).isEmpty()) connections[i].Subscribe(ToChannels(shards.get(i)), snapshot, id);
+		}
+	}
+	
+	/**
+	 * Unsubscribes from channels or pairs on the connections they are assigned to. A channel without pairs is removed completely.
+	 * Reference: https://docs.blockfacts.io/#unsubscribe
+	 * @param channels List of BlockfactsChannelObjects to unsubscribe from
+	 */
+	public synchronized void Unsubscribe(List<BlockfactsChannelObject> channels) {
+		List<Map<String, ArrayList<String>>> shards = NewShards();
+		
+		for(BlockfactsChannelObject channel : channels) {
+			if(channel.pairs == null || channel.pairs.isEmpty()) {
+				String prefix = Key(channel.exchangeName, "");
+				Iterator<Map.Entry<String, Integer>> assignment = assignments.entrySet().iterator();
+				while(assignment.hasNext()) {
+					Map.Entry<String, Integer> entry = assignment.next();
+					if(!entry.getKey().equals(channel.exchangeName) && !entry.getKey().startsWith(prefix)) continue;
+					
+					Add(shards, entry.getValue(), channel.exchangeName, null);
+					assignment.remove();
+				}
+				continue;
+			}
+			
+			for(String pair : channel.pairs) {
+				Integer index = assignments.remove(Key(channel.exchangeName, pair));
+				if(index != null) Add(shards, index, channel.exchangeName, pair);
+			}
+		}
+		
+		for(int i = 0; i < connections.length; i++) {
+			if(!shards.get(i).isEmpty()) connections[i].Unsubscribe(ToChannels(shards.get(i)));
+		}
+	}
+	
+	/**
+	 * @return Connections of the pool, e.g. for setting an ingestion pipeline on their clients
+	 */
+	public List<BlockfactsManagedConnection> GetConnections() {
+		return Collections.unmodifiableList(Arrays.asList(connections));
+	}
+	
+	/**
+	 * @return Number of connections which are currently open
+	 */
+	public int GetOpenConnections() {
+		int open = 0;
+		for(BlockfactsManagedConnection connection : connections) {
+			if(connection.IsOpen()) open++;
+		}
+		
+		return open;
+	}
+	
+	/**
+	 * Closes all connections.
+	 */
+	@Override
+	public void close() {
+		synchronized(this) {
+			closed = true;
+		}
+		
+		scheduler.shutdownNow();
+		for(BlockfactsManagedConnection connection : connections) {
+			connection.close();
+		}
+	}
+	
+	private synchronized void OnOpen(int index) {
+		down[index] = false;
+	}
+	
+	private synchronized void OnClose(int index) {
+		if(closed) return;
+		
+		scheduler.schedule(() -> Failover(index), failoverDelay.toMillis(), TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Moves the channels of a connection which did not come back to the connections which are up.
+	 */
+	private synchronized void Failover(int index) {
+		BlockfactsManagedConnection failed = connections[index];
+		if(closed || failed.IsOpen()) return;
+		
+		List<Integer> healthy = new ArrayList<Integer>();
+		for(int i = 0; i < connections.length; i++) {
+			if(i != index && connections[i].IsOpen()) healthy.add(i);
+		}
+		if(healthy.isEmpty()) return;
+		
+		down[index] = true;
+		Instant disconnectedAt = failed.GetDisconnectedAt();
+		List<Map<String, ArrayList<String>>> shards = NewShards();
+		
+		for(BlockfactsChannelObject channel : failed.Release()) {
+			if(channel.pairs == null) {
+				int target = healthy.get(Math.floorMod(Hash(channel.exchangeName, null), healthy.size()));
+				assignments.put(channel.exchangeName, target);
+				Add(shards, target, channel.exchangeName, null);
+				continue;
+			}
+			
+			for(String pair : channel.pairs) {
+				int target = healthy.get(Math.floorMod(Hash(channel.exchangeName, pair), healthy.size()));
+				assignments.put(Key(channel.exchangeName, pair), target);
+				Add(shards, target, channel.exchangeName, pair);
+			}
+		}
+		
+		for(int i = 0; i < connections.length; i++) {
+			if(!shards.get(i).isEmpty()) connections[i].Adopt(ToChannels(shards.get(i)), disconnectedAt);
+		}
+	}
+	
+	/**
+	 * Returns the connection an exchange and pair is assigned to, assigning one by hash if it is new.
+	 * Connections whose channels were moved away are skipped until they are back.
+	 */
+	private int Assign(String exchange, String pair) {
+		String key = pair == null ? exchange : Key(exchange, pair);
+		Integer assigned = assignments.get(key);
+		if(assigned != null) return assigned;
+		
+		int hash = Hash(exchange, pair);
+		int index = Math.floorMod(hash, connections.length);
+		for(int probe = 1; down[index] && probe < connections.length; probe++) {
+			index = Math.floorMod(hash + probe, connections.length);
+		}
+		
+		assignments.put(key, index);
+		return index;
+	}
+	
+	private int Hash(String exchange, String pair) {
+		int hash = shardByExchange || pair == null ? exchange.hashCode() : Key(exchange, pair).hashCode();
+		return hash ^ (hash >>> 16);
+	}
+	
+	private static String Key(String exchange, String pair) {
+		return exchange + ":" + pair;
+	}
+	
+	private List<Map<String, ArrayList<String>>> NewShards() {
+		List<Map<String, ArrayList<String>>> shards = new ArrayList<Map<String, ArrayList<String>>>(connections.length);
+		for(int i = 0; i < connections.length; i++) {
+			shards.add(new LinkedHashMap<String, ArrayList<String>>());
+		}
+		
+		return shards;
+	}
+	
+	/**
+	 * Adds a pair, or the whole channel if the pair is null, to a shard. A whole channel is kept as a null list of pairs,
+	 * which covers every pair of the exchange, so it replaces the pairs added before it and later pairs are skipped.
+	 */
+	static void Add(List<Map<String, ArrayList<String>>> shards, int index, String exchange, String pair) {
+		Map<String, ArrayList<String>> shard = shards.get(index);
+		if(pair == null) {
+			shard.put(exchange, null);
+			return;
+		}
+		
+		ArrayList<String> pairs = shard.get(exchange);
+		if(pairs == null) {
+			if(shard.containsKey(exchange)) return;
+			
+			pairs = new ArrayList<String>();
+			shard.put(exchange, pairs);
+		}
+		pairs.add(pair);
+	}
+	
+	private static List<BlockfactsChannelObject> ToChannels(Map<String, ArrayList<String>> shard) {
+		List<BlockfactsChannelObject> channels = new ArrayList<BlockfactsChannelObject>(shard.size());
+		for(Map.Entry<String, ArrayList<String>> channel : shard.entrySet()) {
+			channels.add(new BlockfactsChannelObject(channel.getKey(), channel.getValue()));
+		}
+		
+		return channels;
+	}
+}
@@ -0,0 +1,87 @@
+package blockfacts.io.blockfacts_java_sdk.v1.Aggregation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import org.junit.Test;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsTradeModel;
+import blockfacts.io.blockfacts_java_sdk.v1.REST.BlockfactsApiException;
+import blockfacts.io.blockfacts_java_sdk.v1.REST.BlockfactsRestClient;
+import blockfacts.io.blockfacts_java_sdk.v1.REST.FakeHttpClient;
+
+public class BlockfactsNormalizationEngineTest {
+	private static final long T = 1602201600000L;
+	
+	private final List<Double> published = new ArrayList<Double>();
+	private final BlockfactsNormalizationEngine engine = new BlockfactsNormalizationEngine(model -> published.add(model.price));
+	
+	@Test
+	public void OutliersAreExcludedFromTheVolumeWeightedPrice() {
+		engine.accept(Trade("KRAKEN", 100, 1, 0));
+		engine.accept(Trade("COINBASE", 101, 3, 1));
+		engine.accept(Trade("BITSTAMP", 150, 10, 2));
+		
+		// The median is 101, BITSTAMP is more than 2% away from it
+		assertEquals(100.75, engine.GetPrice("BTC-USD"), 1e-9);
+	}
+	
+	@Test
+	public void MedianIsPublishedWhenEveryExchangeIsAnOutlier() {
+		engine.accept(Trade("KRAKEN", 100, 1, 0));
+		engine.accept(Trade("COINBASE", 110, 1, 1));
+		
+		// Both exchanges are almost 5% away from their median of 105
+		assertEquals(105, engine.GetPrice("BTC-USD"), 1e-9);
+		assertEquals(105, published.get(published.size() - 1), 1e-9);
+	}
+	
+	@Test
+	public void ExpiredTradesNoLongerCount() {
+		engine.accept(Trade("KRAKEN", 100, 1, 0));
+		engine.accept(Trade("KRAKEN", 200, 1, 11_000));
+		
+		assertEquals(200, engine.GetPrice("BTC-USD"), 1e-9);
+	}
+	
+	@Test
+	public void WhitelistedExchangesAreMatchedIgnoringCase() {
+		engine.LoadWhitelist(Client(FakeHttpClient.Answering(200, "{\"BTC-USD\":{\"blockfactsPair\":\"BTC-USD\",\"exchanges\":[\"kraken\",\"Coinbase\"]}}")).Blockfacts, "BTC-USD");
+		
+		engine.accept(Trade("KRAKEN", 100, 1, 0));
+		engine.accept(Trade("COINBASE", 102, 1, 1));
+		engine.accept(Trade("BITSTAMP", 101, 100, 2));
+		
+		assertEquals(101, engine.GetPrice("BTC-USD"), 1e-9);
+		assertEquals(2, published.size());
+	}
+	
+	@Test
+	public void FailedWhitelistRequestIsPropagated() {
+		try {
+			engine.LoadWhitelist(Client(FakeHttpClient.Answering(500, "Internal error")).Blockfacts, "BTC-USD");
+			fail("Loaded a whitelist from a failed request");
+		} catch (CompletionException e) {
+			assertTrue("Failed with " + e.getCause(), e.getCause() instanceof BlockfactsApiException);
+		}
+	}
+	
+	private static BlockfactsRestClient Client(FakeHttpClient http) {
+		return BlockfactsRestClient.NewBuilder("key", "secret").SetHttpClient(http).Build();
+	}
+	
+	private static BlockfactsTradeModel Trade(String exchange, double price, double size, long offsetMillis) {
+		BlockfactsTradeModel trade = new BlockfactsTradeModel();
+		trade.exchange = exchange;
+		trade.pair = "BTC-USD";
+		trade.price = price;
+		trade.tradeSize = size;
+		trade.epochExchangeTime = T + offsetMillis;
+		return trade;
+	}
+}
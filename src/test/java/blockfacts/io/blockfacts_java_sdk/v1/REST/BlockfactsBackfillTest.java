@@ -0,0 +1,96 @@
+package blockfacts.io.blockfacts_java_sdk.v1.REST;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsTradeModel;
+
+public class BlockfactsBackfillTest {
+	private static final Instant START = Instant.parse("2020-10-09T00:00:00Z");
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void TradesWithTheSameIdOnDifferentExchangesAreKept() throws Exception {
+		BlockfactsRestClient client = Client(new FakeHttpClient(BlockfactsBackfillTest::Window));
+		
+		List<String> delivered = new ArrayList<String>();
+		BlockfactsBackfill.ForTrades(client.Exchanges, "BTC", "USD", "KRAKEN,COINBASE")
+				.SetWindowMinutes(1)
+				.Run(START, START.plusSeconds(120), window -> window.forEach(trade -> delivered.add(trade.exchange + ":" + trade.tradeId)));
+		
+		// KRAKEN:2 is returned by both windows, COINBASE:1 and COINBASE:2 share their IDs with KRAKEN trades
+		assertEquals("[KRAKEN:1, COINBASE:1, KRAKEN:2, COINBASE:2, KRAKEN:3]", delivered.toString());
+	}
+	
+	@Test
+	public void InterruptedBackfillResumesFromTheCheckpoint() throws Exception {
+		FakeHttpClient http = new FakeHttpClient(BlockfactsBackfillTest::Window);
+		BlockfactsRestClient client = Client(http);
+		Path checkpoint = folder.getRoot().toPath().resolve("backfill.properties");
+		
+		List<List<BlockfactsTradeModel>> windows = new ArrayList<List<BlockfactsTradeModel>>();
+		try {
+			Backfill(client, checkpoint).Run(START, START.plusSeconds(120), window -> {
+				if(!windows.isEmpty()) throw new IllegalStateException("Consumer failed");
+				windows.add(window);
+			});
+			fail("Consumer failure was swallowed");
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+		
+		http.requests.clear();
+		Backfill(client, checkpoint).Run(START, START.plusSeconds(120), windows::add);
+		
+		assertEquals(2, windows.size());
+		assertEquals(3, windows.get(0).size());
+		assertFalse(http.requests.isEmpty());
+		for(HttpRequest request : http.requests) {
+			assertTrue("Only the second window is fetched again", request.uri().getQuery().contains("time=00:01:00"));
+		}
+	}
+	
+	private static BlockfactsBackfill<BlockfactsTradeModel> Backfill(BlockfactsRestClient client, Path checkpoint) {
+		return BlockfactsBackfill.ForTrades(client.Exchanges, "BTC", "USD", "KRAKEN,COINBASE")
+				.SetWindowMinutes(1)
+				.SetParallelism(1)
+				.SetCheckpointFile(checkpoint);
+	}
+	
+	private static BlockfactsRestClient Client(FakeHttpClient http) {
+		return BlockfactsRestClient.NewBuilder("key", "secret").SetHttpClient(http).Build();
+	}
+	
+	/**
+	 * Answers the historical trades of one of the two one minute windows, with the last trade of the first window repeated in the second.
+	 */
+	private static CompletableFuture<FakeHttpClient.Response> Window(HttpRequest request) {
+		boolean first = request.uri().getQuery().contains("time=00:00:00");
+		String results = first
+				? Trade("KRAKEN", "1", 10_000) + "," + Trade("COINBASE", "1", 20_000) + "," + Trade("KRAKEN", "2", 59_900)
+				: Trade("KRAKEN", "2", 59_900) + "," + Trade("KRAKEN", "3", 90_000) + "," + Trade("COINBASE", "2", 70_000);
+		
+		return CompletableFuture.completedFuture(new FakeHttpClient.Response(200, "{\"page\":1,\"totalPages\":1,\"results\":[" + results + "]}"));
+	}
+	
+	private static String Trade(String exchange, String tradeId, long offsetMillis) {
+		long time = START.toEpochMilli() + offsetMillis;
+		return "{\"exchange\":\"" + exchange + "\",\"pair\":\"BTC-USD\",\"price\":11000,\"tradeSize\":1,\"tradeId\":\"" + tradeId
+				+ "\",\"exchangeTime\":\"" + time + "\",\"epochExchangeTime\":" + time + "}";
+	}
+}
@@ -0,0 +1,154 @@
+package blockfacts.io.blockfacts_java_sdk.v1.REST;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+import org.junit.Test;
+
+/**
+ * Walking pages through the iterator and the publisher, and the order of the signals the publisher sends.
+ */
+public class BlockfactsPagerTest {
+	private static final List<List<String>> PAGES = Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c"), Arrays.asList("d", "e"));
+	
+	@Test
+	public void IteratorAndPublisherWalkAllPagesInOrder() throws Exception {
+		BlockfactsPager<String> pager = Pager(page -> CompletableFuture.completedFuture(PAGES.get(page - 1)));
+		
+		List<String> iterated = new ArrayList<String>();
+		pager.forEach(iterated::add);
+		assertEquals(Arrays.asList("a", "b", "c", "d", "e"), iterated);
+		
+		List<String> published = new CopyOnWriteArrayList<String>();
+		CountDownLatch completed = new CountDownLatch(1);
+		pager.Publisher().subscribe(new Flow.Subscriber<String>() {
+			private Flow.Subscription subscription;
+			
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				this.subscription = subscription;
+				subscription.request(1);
+			}
+			
+			@Override
+			public void onNext(String item) {
+				published.add(item);
+				subscription.request(1);
+			}
+			
+			@Override
+			public void onError(Throwable throwable) {
+			}
+			
+			@Override
+			public void onComplete() {
+				completed.countDown();
+			}
+		});
+		
+		assertTrue(completed.await(10, TimeUnit.SECONDS));
+		assertEquals(Arrays.asList("a", "b", "c", "d", "e"), published);
+	}
+	
+	@Test
+	public void InvalidRequestIsSignalledAfterTheOnNextInProgress() throws Exception {
+		BlockfactsPager<String> pager = Pager(page -> CompletableFuture.completedFuture(PAGES.get(page - 1)));
+		CountDownLatch inOnNext = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<String> signals = new CopyOnWriteArrayList<String>();
+		AtomicReference<Flow.Subscription> subscription = new AtomicReference<Flow.Subscription>();
+		
+		pager.Publisher().subscribe(new Flow.Subscriber<String>() {
+			@Override
+			public void onSubscribe(Flow.Subscription s) {
+				subscription.set(s);
+			}
+			
+			@Override
+			public void onNext(String item) {
+				signals.add("onNext " + item);
+				inOnNext.countDown();
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				signals.add("onNext returned");
+			}
+			
+			@Override
+			public void onError(Throwable throwable) {
+				signals.add("onError " + throwable.getClass().getSimpleName());
+			}
+			
+			@Override
+			public void onComplete() {
+				signals.add("onComplete");
+			}
+		});
+		
+		CompletableFuture<Void> delivering = CompletableFuture.runAsync(() -> subscription.get().request(5));
+		assertTrue(inOnNext.await(10, TimeUnit.SECONDS));
+		
+		// The delivering thread is inside onNext, the invalid request must not signal onError concurrently
+		subscription.get().request(0);
+		assertEquals(Arrays.asList("onNext a"), signals);
+		
+		release.countDown();
+		delivering.get(10, TimeUnit.SECONDS);
+		assertEquals(Arrays.asList("onNext a", "onNext returned", "onError IllegalArgumentException"), signals);
+	}
+	
+	@Test
+	public void FailedPageIsSignalledAsTheCause() throws Exception {
+		IllegalStateException failure = new IllegalStateException("Page 2 failed");
+		BlockfactsPager<String> pager = Pager(page -> {
+			CompletableFuture<List<String>> response = new CompletableFuture<List<String>>();
+			if(page == 2) response.completeExceptionally(failure);
+			else response.complete(PAGES.get(page - 1));
+			return response;
+		});
+		
+		List<String> published = new CopyOnWriteArrayList<String>();
+		AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+		pager.Publisher().subscribe(new Flow.Subscriber<String>() {
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				subscription.request(Long.MAX_VALUE);
+			}
+			
+			@Override
+			public void onNext(String item) {
+				published.add(item);
+			}
+			
+			@Override
+			public void onError(Throwable throwable) {
+				error.set(throwable);
+			}
+			
+			@Override
+			public void onComplete() {
+				error.set(new AssertionError("Completed instead of failing"));
+			}
+		});
+		
+		assertEquals(Arrays.asList("a", "b"), published);
+		assertEquals(failure, error.get());
+	}
+	
+	private static BlockfactsPager<String> Pager(IntFunction<CompletableFuture<List<String>>> fetcher) {
+		return new BlockfactsPager<String>(fetcher, page -> PAGES.size(), page -> page, 1);
+	}
+}
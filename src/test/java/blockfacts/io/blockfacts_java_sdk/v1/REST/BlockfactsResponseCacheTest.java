@@ -0,0 +1,110 @@
+package blockfacts.io.blockfacts_java_sdk.v1.REST;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsAssetModel;
+
+/**
+ * Cache hits, revalidation of expired responses, eviction, and isolation of the responses handed to callers.
+ */
+public class BlockfactsResponseCacheTest {
+	private static final String ASSETS = "[{\"asset\":\"Bitcoin\",\"blockfactsTicker\":\"BTC\",\"type\":\"crypto\"},{\"asset\":\"Ethereum\",\"blockfactsTicker\":\"ETH\",\"type\":\"crypto\"}]";
+	
+	@Test
+	public void FreshResponsesAreServedWithoutARequestAsSeparateCopies() throws Exception {
+		FakeHttpClient http = FakeHttpClient.Answering(200, ASSETS);
+		BlockfactsResponseCache cache = new BlockfactsResponseCache(16, Duration.ofMinutes(1));
+		BlockfactsRestClient client = Client(http, cache, false);
+		
+		List<BlockfactsAssetModel> first = client.Assets.ListAllAssets();
+		first.get(0).blockfactsTicker = "XXX";
+		first.remove(1);
+		
+		List<BlockfactsAssetModel> second = client.Assets.ListAllAssets();
+		assertEquals(1, http.requests.size());
+		assertEquals(2, second.size());
+		assertEquals("BTC", second.get(0).blockfactsTicker);
+		assertEquals(1, cache.GetHits());
+		assertEquals(1, cache.GetMisses());
+	}
+	
+	@Test
+	public void ExpiredResponseIsRevalidatedWithItsETag() throws Exception {
+		ConcurrentLinkedQueue<String> conditions = new ConcurrentLinkedQueue<String>();
+		FakeHttpClient http = new FakeHttpClient(request -> {
+			String etag = request.headers().firstValue("If-None-Match").orElse(null);
+			conditions.add(String.valueOf(etag));
+			FakeHttpClient.Response response = etag != null ? new FakeHttpClient.Response(304, "") : new FakeHttpClient.Response(200, ASSETS);
+			return CompletableFuture.completedFuture(response.Header("ETag", "\"v1\""));
+		});
+		BlockfactsResponseCache cache = new BlockfactsResponseCache(16, Duration.ofMinutes(1)).SetTtl("ListAllAssets", Duration.ofMillis(1));
+		BlockfactsRestClient client = Client(http, cache, false);
+		
+		List<BlockfactsAssetModel> first = client.Assets.ListAllAssets();
+		first.get(0).blockfactsTicker = "XXX";
+		Thread.sleep(10);
+		
+		List<BlockfactsAssetModel> revalidated = client.Assets.ListAllAssets();
+		assertEquals("[null, \"v1\"]", conditions.toString());
+		assertEquals("BTC", revalidated.get(0).blockfactsTicker);
+		assertEquals(1, cache.GetRevalidations());
+	}
+	
+	@Test
+	public void CoalescedCallersGetSeparateCopies() throws Exception {
+		CompletableFuture<FakeHttpClient.Response> response = new CompletableFuture<FakeHttpClient.Response>();
+		FakeHttpClient http = new FakeHttpClient(request -> response);
+		BlockfactsRestClient client = Client(http, new BlockfactsResponseCache(16, Duration.ofMinutes(1)), true);
+		
+		CompletableFuture<List<BlockfactsAssetModel>> first = client.Assets.ListAllAssetsAsync();
+		CompletableFuture<List<BlockfactsAssetModel>> second = client.Assets.ListAllAssetsAsync();
+		response.complete(new FakeHttpClient.Response(200, ASSETS));
+		
+		assertEquals(1, http.requests.size());
+		assertNotSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+		assertNotSame(first.get().get(0), second.get().get(0));
+	}
+	
+	@Test
+	public void LeastRecentlyUsedResponseIsEvicted() throws Exception {
+		FakeHttpClient http = new FakeHttpClient(request -> CompletableFuture.completedFuture(new FakeHttpClient.Response(200, Asset(request))));
+		BlockfactsResponseCache cache = new BlockfactsResponseCache(2, Duration.ofMinutes(1));
+		BlockfactsRestClient client = Client(http, cache, false);
+		
+		client.Assets.GetSpecificAsset("BTC");
+		client.Assets.GetSpecificAsset("ETH");
+		client.Assets.GetSpecificAsset("BTC");
+		client.Assets.GetSpecificAsset("LTC");
+		assertEquals(3, http.requests.size());
+		
+		assertEquals("BTC", client.Assets.GetSpecificAsset("BTC").blockfactsTicker);
+		assertEquals(3, http.requests.size());
+		assertEquals("ETH", client.Assets.GetSpecificAsset("ETH").blockfactsTicker);
+		assertEquals(4, http.requests.size());
+		assertEquals(2, cache.GetEvictions());
+		assertEquals(2, cache.GetSize());
+	}
+	
+	private static String Asset(HttpRequest request) {
+		String path = request.uri().getPath();
+		return "{\"blockfactsTicker\":\"" + path.substring(path.lastIndexOf('/') + 1) + "\"}";
+	}
+	
+	private static BlockfactsRestClient Client(FakeHttpClient http, BlockfactsResponseCache cache, boolean coalesceRequests) {
+		return BlockfactsRestClient.NewBuilder("key", "secret")
+				.SetHttpClient(http)
+				.SetCoalesceRequests(coalesceRequests)
+				.SetResponseCache(cache)
+				.Build();
+	}
+}
@@ -0,0 +1,109 @@
+package blockfacts.io.blockfacts_java_sdk.v1.REST;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsAssetModel;
+
+/**
+ * Runs many threads against one BlockfactsRestClient and checks that every call gets the response of its own request,
+ * while the credentials are changed concurrently.
+ */
+public class BlockfactsRestClientConcurrencyTest {
+	private static final int THREADS = 16;
+	private static final int CALLS = 500;
+	private static final List<String> KEYS = Arrays.asList("key-a", "key-b", "key-c");
+	
+	private ExecutorService responders;
+	private ExecutorService callers;
+	
+	@Before
+	public void Setup() {
+		responders = Executors.newFixedThreadPool(4);
+		callers = Executors.newFixedThreadPool(THREADS + 1);
+	}
+	
+	@After
+	public void TearDown() {
+		responders.shutdownNow();
+		callers.shutdownNow();
+	}
+	
+	@Test
+	public void ConcurrentCallsGetTheResponseOfTheirOwnRequest() throws Exception {
+		FakeHttpClient http = new FakeHttpClient(request -> CompletableFuture.supplyAsync(() -> EchoAsset(request), responders));
+		BlockfactsRestClient client = BlockfactsRestClient.NewBuilder(KEYS.get(0), "secret")
+				.SetHttpClient(http)
+				.SetExecutor(responders)
+				.Build();
+		
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicBoolean running = new AtomicBoolean(true);
+		List<Future<?>> workers = new ArrayList<Future<?>>();
+		
+		for(int thread = 0; thread < THREADS; thread++) {
+			int id = thread;
+			workers.add(callers.submit(() -> {
+				start.await();
+				for(int call = 0; call < CALLS; call++) {
+					String ticker = "T" + id + "X" + call;
+					BlockfactsAssetModel asset = call % 2 == 0
+							? client.Assets.GetSpecificAsset(ticker)
+							: client.Assets.GetSpecificAssetAsync(ticker).get(10, TimeUnit.SECONDS);
+					
+					assertEquals(ticker, asset.asset);
+					assertTrue("Unknown key " + asset.blockfactsTicker, KEYS.contains(asset.blockfactsTicker));
+				}
+				return null;
+			}));
+		}
+		
+		Future<?> rotation = callers.submit(() -> {
+			start.await();
+			for(int i = 0; running.get(); i++) {
+				client.SetKey(KEYS.get(i % KEYS.size()));
+				client.SetSecret("secret-" + i);
+			}
+			return null;
+		});
+		
+		start.countDown();
+		for(Future<?> worker : workers) {
+			worker.get(60, TimeUnit.SECONDS);
+		}
+		running.set(false);
+		rotation.get(10, TimeUnit.SECONDS);
+		
+		assertEquals(THREADS * CALLS, http.requests.size());
+		for(HttpRequest request : http.requests) {
+			assertTrue(request.headers().firstValue("X-API-SECRET").get().startsWith("secret"));
+		}
+	}
+	
+	/**
+	 * Answers with the ticker of the request path and the API key the request was sent with.
+	 */
+	private static FakeHttpClient.Response EchoAsset(HttpRequest request) {
+		String path = request.uri().getPath();
+		String ticker = path.substring(path.lastIndexOf('/') + 1);
+		String key = request.headers().firstValue("X-API-KEY").orElse("");
+		
+		return new FakeHttpClient.Response(200, "{\"asset\":\"" + ticker + "\",\"blockfactsTicker\":\"" + key + "\",\"type\":\"crypto\"}");
+	}
+}
@@ -0,0 +1,36 @@
+package blockfacts.io.blockfacts_java_sdk.v1.REST;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Resolving symbols in both directions, and how exchange names are matched.
+ */
+public class BlockfactsSymbolIndexTest {
+	private static final String KRAKEN = "{\"exchange\":\"KRAKEN\",\"pairs\":["
+			+ "{\"query\":\"XXBTZUSD\",\"tickerId\":\"XBTUSD\",\"blockfactsPair\":\"BTC-USD\",\"active\":false},"
+			+ "{\"query\":\"XBT/USD\",\"blockfactsPair\":\"BTC-USD\",\"active\":true},"
+			+ "{\"query\":\"XETHZUSD\",\"tickerId\":\"ETHUSD\",\"blockfactsPair\":\"ETH-USD\",\"active\":true}]}";
+	
+	@Test
+	public void SymbolsResolveBothWaysWithExchangesMatchedIgnoringCase() {
+		BlockfactsRestClient client = BlockfactsRestClient.NewBuilder("key", "secret").SetHttpClient(FakeHttpClient.Answering(200, KRAKEN)).Build();
+		BlockfactsSymbolIndex index = new BlockfactsSymbolIndex(client.Exchanges).SetExchanges("kraken");
+		assertTrue(index.Refresh());
+		
+		assertEquals(3, index.GetSize());
+		assertEquals("BTC-USD", index.GetBlockfactsPair("KRAKEN", "XBTUSD"));
+		assertEquals("BTC-USD", index.GetBlockfactsPair("Kraken", "XXBTZUSD"));
+		assertEquals("ETH-USD", index.GetBlockfactsPair("kraken", "ETHUSD"));
+		assertEquals("XBT/USD", index.GetExchangePair("kraken", "BTC-USD").query);
+		assertEquals("XETHZUSD", index.GetExchangePair("KRAKEN", "ETH-USD").query);
+		
+		assertNull(index.Resolve("KRAKEN", "LTCUSD"));
+		assertNull(index.Resolve("COINBASE", "XBTUSD"));
+		assertNull(index.Resolve(null, "XBTUSD"));
+		assertNull(index.GetExchangePair(null, "BTC-USD"));
+	}
+}
@@ -0,0 +1,153 @@
+package blockfacts.io.blockfacts_java_sdk.v1.REST;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsAssetModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsHistoricalExchangeTradeColumnsModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsHistoricalExchangeTradesModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsHistoricalNormalizationColumnsModel;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsHistoricalNormalizationResultsModel;
+
+/**
+ * Sharing of identical in flight requests, and how failures of the shared request reach the callers.
+ */
+public class EndpointsCoalescingTest {
+	private static final String ASSET = "{\"asset\":\"Bitcoin\",\"blockfactsTicker\":\"BTC\",\"type\":\"crypto\"}";
+	private static final String TRADE = "{\"exchange\":\"KRAKEN\",\"pair\":\"BTC-USD\",\"price\":11000,\"tradeSize\":1,\"tradeId\":\"7\",\"blockfactsTime\":1602201600001}";
+	private static final String TRADES = "{\"page\":1,\"totalPages\":3,\"results\":[" + TRADE + "]}";
+	private static final String NORMALIZATIONS = "{\"page\":1,\"totalPages\":2,\"results\":[{\"exchange\":\"BLOCKFACTS\",\"pair\":\"BTC-USD\",\"price\":11000,"
+			+ "\"included\":[" + TRADE + "],\"excluded\":[],\"timestamp\":1602201600000,\"algorithm\":\"BLOCKFACTS\"}]}";
+	
+	@Test
+	public void IdenticalConcurrentCallsShareOneRequest() throws Exception {
+		ConcurrentLinkedQueue<CompletableFuture<FakeHttpClient.Response>> pending = new ConcurrentLinkedQueue<CompletableFuture<FakeHttpClient.Response>>();
+		FakeHttpClient http = new FakeHttpClient(request -> {
+			CompletableFuture<FakeHttpClient.Response> response = new CompletableFuture<FakeHttpClient.Response>();
+			pending.add(response);
+			return response;
+		});
+		BlockfactsRestClient client = Client(http, null);
+		
+		List<CompletableFuture<BlockfactsAssetModel>> calls = new ArrayList<CompletableFuture<BlockfactsAssetModel>>();
+		for(int i = 0; i < 5; i++) {
+			calls.add(client.Assets.GetSpecificAssetAsync("BTC"));
+		}
+		client.Assets.GetSpecificAssetAsync("ETH");
+		assertEquals(2, http.requests.size());
+		
+		// Cancelling one caller must not cancel the shared request
+		calls.get(0).cancel(true);
+		pending.poll().complete(new FakeHttpClient.Response(200, ASSET));
+		for(CompletableFuture<BlockfactsAssetModel> call : calls.subList(1, calls.size())) {
+			assertEquals("BTC", call.get(10, TimeUnit.SECONDS).blockfactsTicker);
+		}
+		
+		// Once the shared request completed, the next call sends a new one
+		client.Assets.GetSpecificAssetAsync("BTC");
+		assertEquals(3, http.requests.size());
+	}
+	
+	@Test
+	public void ModelAndColumnCallsForTheSameUriEachGetTheirOwnType() throws Exception {
+		ConcurrentLinkedQueue<CompletableFuture<FakeHttpClient.Response>> pending = new ConcurrentLinkedQueue<CompletableFuture<FakeHttpClient.Response>>();
+		FakeHttpClient http = new FakeHttpClient(request -> {
+			CompletableFuture<FakeHttpClient.Response> response = new CompletableFuture<FakeHttpClient.Response>();
+			pending.add(response);
+			return response;
+		});
+		BlockfactsRestClient client = Client(http, null);
+		
+		CompletableFuture<BlockfactsHistoricalExchangeTradesModel> trades = client.Exchanges.GetHistoricalTradeDataAsync("BTC", "USD", "KRAKEN", "2.9.2019", "14:00:00", 20, 1);
+		CompletableFuture<BlockfactsHistoricalExchangeTradeColumnsModel> tradeColumns = client.Exchanges.GetHistoricalTradeColumnsAsync("BTC", "USD", "KRAKEN", "2.9.2019", "14:00:00", 20, 1);
+		CompletableFuture<BlockfactsHistoricalNormalizationResultsModel> normalizations = client.Blockfacts.GetHistoricalDataAsync("BTC", "USD", "2.9.2019", "14:00:00", 20, 1);
+		CompletableFuture<BlockfactsHistoricalNormalizationColumnsModel> normalizationColumns = client.Blockfacts.GetHistoricalDataColumnsAsync("BTC", "USD", "2.9.2019", "14:00:00", 20, 1);
+		assertEquals(2, http.requests.size());
+		
+		pending.poll().complete(new FakeHttpClient.Response(200, TRADES));
+		pending.poll().complete(new FakeHttpClient.Response(200, NORMALIZATIONS));
+		
+		assertEquals("7", trades.get(10, TimeUnit.SECONDS).results.get(0).tradeId);
+		BlockfactsHistoricalExchangeTradeColumnsModel columns = tradeColumns.get(10, TimeUnit.SECONDS);
+		assertEquals(3, columns.totalPages);
+		assertEquals(1, columns.results.size);
+		assertEquals("7", columns.results.GetTradeId(0));
+		
+		assertEquals("BLOCKFACTS", normalizations.get(10, TimeUnit.SECONDS).results.get(0).exchange);
+		BlockfactsHistoricalNormalizationColumnsModel normalized = normalizationColumns.get(10, TimeUnit.SECONDS);
+		assertEquals(1, normalized.results.size);
+		assertEquals("7", normalized.results.included.GetTradeId(0));
+	}
+	
+	@Test
+	public void LeaderWhichThrowsDoesNotBlockLaterCallers() throws Exception {
+		AtomicInteger acquired = new AtomicInteger();
+		BlockfactsRateLimiter rateLimiter = new BlockfactsRateLimiter(1000, 1000) {
+			@Override
+			public CompletableFuture<Void> AcquireAsync() {
+				if(acquired.getAndIncrement() == 0) throw new RejectedExecutionException("Scheduler shut down");
+				return super.AcquireAsync();
+			}
+		};
+		FakeHttpClient http = FakeHttpClient.Answering(200, ASSET);
+		BlockfactsRestClient client = BlockfactsRestClient.NewBuilder("key", "secret")
+				.SetHttpClient(http)
+				.SetCoalesceRequests(true)
+				.SetRateLimiter(rateLimiter)
+				.Build();
+		
+		EndpointsTest.AssertFailsWith(RejectedExecutionException.class, client.Assets.GetSpecificAssetAsync("BTC"));
+		assertEquals("BTC", client.Assets.GetSpecificAssetAsync("BTC").get(10, TimeUnit.SECONDS).blockfactsTicker);
+	}
+	
+	@Test
+	public void InvalidCachedRequestDoesNotBlockLaterCallers() throws Exception {
+		FakeHttpClient http = FakeHttpClient.Answering(200, ASSET);
+		BlockfactsRestClient client = Client(http, new BlockfactsResponseCache(16, Duration.ofMinutes(1)));
+		
+		EndpointsTest.AssertFailsWith(IllegalArgumentException.class, client.Assets.GetSpecificAssetAsync("B|TC"));
+		EndpointsTest.AssertFailsWith(IllegalArgumentException.class, client.Assets.GetSpecificAssetAsync("B|TC"));
+		assertEquals("BTC", client.Assets.GetSpecificAssetAsync("BTC").get(10, TimeUnit.SECONDS).blockfactsTicker);
+	}
+	
+	@Test
+	public void FailedSharedRequestReachesEveryCallerAndIsNotReused() throws Exception {
+		AtomicInteger sent = new AtomicInteger();
+		CompletableFuture<FakeHttpClient.Response> first = new CompletableFuture<FakeHttpClient.Response>();
+		FakeHttpClient http = new FakeHttpClient(request -> sent.getAndIncrement() == 0
+				? first
+				: CompletableFuture.completedFuture(new FakeHttpClient.Response(200, ASSET)));
+		BlockfactsRestClient client = Client(http, null);
+		
+		CompletableFuture<BlockfactsAssetModel> leader = client.Assets.GetSpecificAssetAsync("BTC");
+		CompletableFuture<BlockfactsAssetModel> follower = client.Assets.GetSpecificAssetAsync("BTC");
+		assertFalse(follower.isDone());
+		
+		first.completeExceptionally(new IOException("Connection reset"));
+		EndpointsTest.AssertFailsWith(IOException.class, leader);
+		EndpointsTest.AssertFailsWith(IOException.class, follower);
+		
+		assertEquals("BTC", client.Assets.GetSpecificAssetAsync("BTC").get(10, TimeUnit.SECONDS).blockfactsTicker);
+		assertEquals(2, http.requests.size());
+	}
+	
+	private static BlockfactsRestClient Client(FakeHttpClient http, BlockfactsResponseCache cache) {
+		return BlockfactsRestClient.NewBuilder("key", "secret")
+				.SetHttpClient(http)
+				.SetCoalesceRequests(true)
+				.SetResponseCache(cache)
+				.Build();
+	}
+}
@@ -0,0 +1,63 @@
+package blockfacts.io.blockfacts_java_sdk.v1.REST;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Request building and failure reporting shared by all endpoint groups.
+ */
+public class EndpointsTest {
+	private static final String ASSET = "{\"asset\":\"Bitcoin\",\"blockfactsTicker\":\"BTC\",\"type\":\"crypto\"}";
+	
+	@Test
+	public void InvalidInputFailsTheFutureInsteadOfThrowing() throws Exception {
+		FakeHttpClient http = FakeHttpClient.Answering(200, ASSET);
+		BlockfactsRestClient client = BlockfactsRestClient.NewBuilder("key", "secret").SetHttpClient(http).Build();
+		
+		AssertFailsWith(IllegalArgumentException.class, client.Assets.GetSpecificAssetAsync("B|TC"));
+		AssertFailsWith(IllegalArgumentException.class, client.Exchanges.GetSpecificTradeDataAsync("B|TC", "USD", "KRAKEN", "09.10.2020", "00:00:00"));
+		AssertFailsWith(IllegalArgumentException.class, client.Blockfacts.GetCurrentDataAsync("B|TC", "USD"));
+		assertEquals(0, http.requests.size());
+	}
+	
+	@Test
+	public void InvalidInputFailsTheFutureOfCachedEndpoints() throws Exception {
+		FakeHttpClient http = FakeHttpClient.Answering(200, ASSET);
+		BlockfactsRestClient client = BlockfactsRestClient.NewBuilder("key", "secret")
+				.SetHttpClient(http)
+				.SetResponseCache(new BlockfactsResponseCache(16, Duration.ofMinutes(1)))
+				.Build();
+		
+		AssertFailsWith(IllegalArgumentException.class, client.Assets.GetSpecificAssetAsync("B|TC"));
+		assertEquals(0, http.requests.size());
+	}
+	
+	@Test
+	public void BlockingCallsStillThrowOnInvalidInput() {
+		BlockfactsRestClient client = BlockfactsRestClient.NewBuilder("key", "secret").SetHttpClient(FakeHttpClient.Answering(200, ASSET)).Build();
+		
+		try {
+			client.Assets.GetSpecificAsset("B|TC");
+			fail("Invalid input was accepted");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+	
+	static void AssertFailsWith(Class<? extends Throwable> type, CompletableFuture<?> future) throws Exception {
+		try {
+			future.get(10, TimeUnit.SECONDS);
+			fail("Expected " + type.getSimpleName());
+		} catch (ExecutionException e) {
+			assertTrue("Failed with " + e.getCause(), type.isInstance(e.getCause()));
+		}
+	}
+}
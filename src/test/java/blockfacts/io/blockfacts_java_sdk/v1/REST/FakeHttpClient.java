@@ -0,0 +1,193 @@
+package blockfacts.io.blockfacts_java_sdk.v1.REST;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+
+/**
+ * HttpClient which answers requests from memory, for testing the endpoint groups without network access.
+ * Every request is recorded, and the responder decides per request what is answered and when.
+ * Only InputStream body handlers are supported, which is what the SDK uses.
+ */
+public final class FakeHttpClient extends HttpClient {
+	public final ConcurrentLinkedQueue<HttpRequest> requests = new ConcurrentLinkedQueue<HttpRequest>();
+	
+	private final Function<HttpRequest, CompletableFuture<Response>> responder;
+	
+	/**
+	 * @param responder Answers a request, completing the future once the response headers arrived
+	 */
+	public FakeHttpClient(Function<HttpRequest, CompletableFuture<Response>> responder) {
+		this.responder = responder;
+	}
+	
+	/**
+	 * Creates a client which answers every request at once with the same status and body.
+	 */
+	public static FakeHttpClient Answering(int status, String body) {
+		return new FakeHttpClient(request -> CompletableFuture.completedFuture(new Response(status, body)));
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException, InterruptedException {
+		try {
+			return (HttpResponse<T>) sendAsync(request, handler).get();
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+		requests.add(request);
+		return responder.apply(request).thenApply(response -> (HttpResponse<T>) new FakeResponse(request, response));
+	}
+	
+	@Override
+	public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler, HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+		return sendAsync(request, handler);
+	}
+	
+	@Override
+	public Optional<CookieHandler> cookieHandler() {
+		return Optional.empty();
+	}
+	
+	@Override
+	public Optional<Duration> connectTimeout() {
+		return Optional.empty();
+	}
+	
+	@Override
+	public Redirect followRedirects() {
+		return Redirect.NEVER;
+	}
+	
+	@Override
+	public Optional<ProxySelector> proxy() {
+		return Optional.empty();
+	}
+	
+	@Override
+	public SSLContext sslContext() {
+		return null;
+	}
+	
+	@Override
+	public SSLParameters sslParameters() {
+		return null;
+	}
+	
+	@Override
+	public Optional<Authenticator> authenticator() {
+		return Optional.empty();
+	}
+	
+	@Override
+	public Version version() {
+		return Version.HTTP_1_1;
+	}
+	
+	@Override
+	public Optional<Executor> executor() {
+		return Optional.empty();
+	}
+	
+	/**
+	 * Status, headers and body of a fake response.
+	 */
+	public static final class Response {
+		final int status;
+		final byte[] body;
+		final Map<String, List<String>> headers = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+		
+		public Response(int status, String body) {
+			this.status = status;
+			this.body = body.getBytes(StandardCharsets.UTF_8);
+		}
+		
+		public Response Header(String name, String value) {
+			headers.put(name, Arrays.asList(value));
+			return this;
+		}
+	}
+	
+	private static final class FakeResponse implements HttpResponse<InputStream> {
+		private final HttpRequest request;
+		private final Response response;
+		private final InputStream body;
+		
+		FakeResponse(HttpRequest request, Response response) {
+			this.request = request;
+			this.response = response;
+			this.body = new ByteArrayInputStream(response.body);
+		}
+		
+		@Override
+		public int statusCode() {
+			return response.status;
+		}
+		
+		@Override
+		public HttpRequest request() {
+			return request;
+		}
+		
+		@Override
+		public Optional<HttpResponse<InputStream>> previousResponse() {
+			return Optional.empty();
+		}
+		
+		@Override
+		public HttpHeaders headers() {
+			return HttpHeaders.of(response.headers.isEmpty() ? Collections.<String, List<String>>emptyMap() : response.headers, (name, value) -> true);
+		}
+		
+		@Override
+		public InputStream body() {
+			return body;
+		}
+		
+		@Override
+		public Optional<SSLSession> sslSession() {
+			return Optional.empty();
+		}
+		
+		@Override
+		public URI uri() {
+			return request.uri();
+		}
+		
+		@Override
+		public HttpClient.Version version() {
+			return HttpClient.Version.HTTP_1_1;
+		}
+	}
+}
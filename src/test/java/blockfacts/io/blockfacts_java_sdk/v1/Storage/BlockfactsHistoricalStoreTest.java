@@ -0,0 +1,96 @@
+package blockfacts.io.blockfacts_java_sdk.v1.Storage;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsTradeColumns;
+import blockfacts.io.blockfacts_java_sdk.v1.REST.BlockfactsRestClient;
+import blockfacts.io.blockfacts_java_sdk.v1.REST.FakeHttpClient;
+
+public class BlockfactsHistoricalStoreTest {
+	private static final Instant START = Instant.parse("2020-10-09T00:00:00Z");
+	private static final Instant END = START.plusSeconds(120);
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private FakeHttpClient http;
+	private BlockfactsRestClient client;
+	
+	@Before
+	public void CreateClient() {
+		// The API answers with exchange names in its own spelling, whatever the case of the request
+		http = new FakeHttpClient(request -> CompletableFuture.completedFuture(new FakeHttpClient.Response(200,
+				"{\"page\":1,\"totalPages\":1,\"results\":[" + Trade("KRAKEN", "1", 10_000) + "," + Trade("Coinbase", "2", 70_000) + "]}")));
+		client = BlockfactsRestClient.NewBuilder("key", "secret").SetHttpClient(http).Build();
+	}
+	
+	@Test
+	public void ExchangeNamesAreMatchedCaseInsensitively() throws Exception {
+		BlockfactsHistoricalStore store = new BlockfactsHistoricalStore(folder.getRoot().toPath());
+		
+		assertEquals("[KRAKEN:1, COINBASE:2]", Trades(store.GetTrades(client.Exchanges, "BTC", "USD", "kraken, Coinbase", START, END)));
+		assertEquals(1, http.requests.size());
+		
+		// The same series are found with any spelling, so nothing is downloaded again
+		assertEquals("[KRAKEN:1, COINBASE:2]", Trades(store.GetTrades(client.Exchanges, "BTC", "USD", "KRAKEN,COINBASE,kraken", START, END)));
+		assertEquals(1, http.requests.size());
+		assertEquals(2, store.GetStoredMinutes());
+	}
+	
+	@Test
+	public void ExchangeWithoutTradesIsAskedForAgain() throws Exception {
+		BlockfactsHistoricalStore store = new BlockfactsHistoricalStore(folder.getRoot().toPath());
+		
+		assertEquals("[KRAKEN:1]", Trades(store.GetTrades(client.Exchanges, "BTC", "USD", "KRAKEN,KRAKNE", START, END)));
+		assertEquals("[KRAKEN:1]", Trades(store.GetTrades(client.Exchanges, "BTC", "USD", "KRAKEN,KRAKNE", START, END)));
+		
+		// Only the misspelled exchange is missing, the trades of KRAKEN are not stored twice
+		assertEquals(2, http.requests.size());
+		assertEquals("[KRAKEN:1]", Trades(store.GetTrades(client.Exchanges, "BTC", "USD", "KRAKEN", START, END)));
+		assertEquals(2, http.requests.size());
+	}
+	
+	@Test
+	public void BytesOfAnInterruptedAppendAreCutOffWhenReopened() throws Exception {
+		Path root = folder.getRoot().toPath();
+		new BlockfactsHistoricalStore(root).GetTrades(client.Exchanges, "BTC", "USD", "KRAKEN,COINBASE", START, END);
+		
+		// A crash after writing records but before replacing the index leaves uncommitted bytes at the end of the segment
+		Path segment = root.resolve("trades").resolve("KRAKEN").resolve("BTC-USD").resolve("2020-10-09.seg");
+		long committed = Files.size(segment);
+		Files.write(segment, new byte[] { 0, 0, 1, 117, 11, 20, 60, 0, 0 }, StandardOpenOption.APPEND);
+		
+		BlockfactsHistoricalStore reopened = new BlockfactsHistoricalStore(root);
+		assertEquals("[KRAKEN:1, COINBASE:2]", Trades(reopened.GetTrades(client.Exchanges, "BTC", "USD", "KRAKEN,COINBASE", START, END)));
+		assertEquals(committed, Files.size(segment));
+		assertEquals(1, http.requests.size());
+	}
+	
+	private static String Trades(BlockfactsTradeColumns trades) {
+		List<String> ids = new ArrayList<String>();
+		for(int i = 0; i < trades.size; i++) {
+			ids.add(trades.GetExchange(i) + ":" + trades.GetTradeId(i));
+		}
+		
+		return ids.toString();
+	}
+	
+	private static String Trade(String exchange, String tradeId, long offsetMillis) {
+		long time = START.toEpochMilli() + offsetMillis;
+		return "{\"exchange\":\"" + exchange + "\",\"pair\":\"BTC-USD\",\"price\":11000,\"tradeSize\":1,\"tradeId\":\"" + tradeId
+				+ "\",\"exchangeTime\":\"" + time + "\",\"epochExchangeTime\":" + time + "}";
+	}
+}
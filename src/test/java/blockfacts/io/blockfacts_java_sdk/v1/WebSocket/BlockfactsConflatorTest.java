@@ -0,0 +1,64 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsChannelObject;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsTradeModel;
+
+/**
+ * Which messages share a conflation slot, and what a release hands to the consumer.
+ */
+public class BlockfactsConflatorTest {
+	private final BlockfactsMessageDispatcher dispatcher = new BlockfactsMessageDispatcher();
+	private final List<String> released = new ArrayList<String>();
+	
+	@Test
+	public void NewestTradeOfEachPairIsReleased() {
+		BlockfactsConflator<BlockfactsTradeModel> conflator = Conflator(new BlockfactsChannelObject("KRAKEN", new ArrayList<String>(Arrays.asList("BTC-USD", "ETH-USD"))));
+		
+		dispatcher.Dispatch(Trade("KRAKEN", "BTC-USD", 1));
+		dispatcher.Dispatch(Trade("KRAKEN", "ETH-USD", 2));
+		dispatcher.Dispatch(Trade("KRAKEN", "BTC-USD", 3));
+		dispatcher.Dispatch(Trade("KRAKEN", "LTC-USD", 4));
+		dispatcher.Dispatch(Trade("COINBASE", "BTC-USD", 5));
+		
+		assertEquals(2, conflator.Flush());
+		assertEquals("[KRAKEN BTC-USD 3, KRAKEN ETH-USD 2]", released.toString());
+		assertEquals(3, conflator.GetReceived());
+		assertEquals(1, conflator.GetConflated());
+		assertEquals(0, conflator.Flush());
+	}
+	
+	@Test
+	public void NamesAreMatchedIgnoringCaseLikeTheDispatcher() {
+		List<String> listened = new ArrayList<String>();
+		dispatcher.AddTradeListener("kraken", "btc-usd", trade -> listened.add(trade.exchange + " " + trade.pair));
+		BlockfactsConflator<BlockfactsTradeModel> conflator = Conflator(
+				new BlockfactsChannelObject("kraken", new ArrayList<String>(Arrays.asList("btc-usd"))),
+				new BlockfactsChannelObject("Coinbase", null));
+		
+		dispatcher.Dispatch(Trade("KRAKEN", "BTC-USD", 1));
+		dispatcher.Dispatch(Trade("Kraken", "btc-usd", 2));
+		dispatcher.Dispatch(Trade("COINBASE", "ETH-USD", 3));
+		dispatcher.Dispatch(Trade("coinbase", "eth-usd", 4));
+		
+		assertEquals("[KRAKEN BTC-USD, Kraken btc-usd]", listened.toString());
+		assertEquals(2, conflator.Flush());
+		assertEquals("[Kraken btc-usd 2, coinbase eth-usd 4]", released.toString());
+		assertEquals(2, conflator.GetConflated());
+	}
+	
+	private BlockfactsConflator<BlockfactsTradeModel> Conflator(BlockfactsChannelObject... channels) {
+		return BlockfactsConflator.ForTrades(dispatcher, Arrays.asList(channels), trade -> released.add(trade.exchange + " " + trade.pair + " " + trade.tradeId));
+	}
+	
+	private static String Trade(String exchange, String pair, int tradeId) {
+		return "{\"type\":\"exchangeTrade\",\"exchange\":\"" + exchange + "\",\"pair\":\"" + pair + "\",\"price\":11000,\"tradeSize\":1,\"tradeId\":\"" + tradeId + "\"}";
+	}
+}
@@ -0,0 +1,72 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.java_websocket.framing.Framedata;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsChannelObject;
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsSubscribeMessage;
+
+/**
+ * Exact bytes of the frames the client sends, and their equality with the same message serialized by Gson.
+ */
+public class BlockfactsFrameWriterTest {
+	@Test
+	public void FramesHaveTheExactWireFormat() {
+		List<BlockfactsChannelObject> channels = Arrays.asList(
+				new BlockfactsChannelObject("KRAKEN", new ArrayList<String>(Arrays.asList("BTC-USD", "ETH-USD"))),
+				new BlockfactsChannelObject("BLOCKFACTS", null),
+				new BlockfactsChannelObject(null, new ArrayList<String>(Arrays.asList("BTC-USD"))));
+		
+		assertEquals("{\"type\":\"subscribe\",\"snapshot\":true,\"id\":\"1\",\"X-API-KEY\":\"key\",\"X-API-SECRET\":\"a\\u003db\\u003c\\\"c\\\"\","
+				+ "\"channels\":[{\"name\":\"KRAKEN\",\"pairs\":[\"BTC-USD\",\"ETH-USD\"]},{\"name\":\"BLOCKFACTS\"},{\"pairs\":[\"BTC-USD\"]}]}",
+				Payload(BlockfactsFrameWriter.Subscribe(true, "1", "key", "a=b<\"c\"", channels)));
+		assertEquals("{\"type\":\"subscribe\",\"id\":\"\",\"X-API-KEY\":\"key\"}", Payload(BlockfactsFrameWriter.Subscribe(null, "", "key", null, null)));
+		assertEquals("{\"type\":\"unsubscribe\",\"channels\":[{\"name\":\"KRAKEN\",\"pairs\":[]}]}",
+				Payload(BlockfactsFrameWriter.Unsubscribe(Arrays.asList(new BlockfactsChannelObject("KRAKEN", new ArrayList<String>())))));
+		assertEquals("{\"type\":\"ping\"}", Payload(BlockfactsFrameWriter.Ping()));
+		assertEquals("{\"type\":\"pong\"}", Payload(BlockfactsFrameWriter.Pong()));
+	}
+	
+	@Test
+	public void SubscribeMatchesGsonForEveryCharacter() {
+		StringBuilder characters = new StringBuilder();
+		for(char c = 0; c < 0x900; c++) {
+			characters.append(c);
+		}
+		characters.append("\u2028\u2029\uffff\ud83d\ude00\ud83d-\ude00");
+		
+		ArrayList<String> pairs = new ArrayList<String>(Arrays.asList(characters.toString(), null, "BTC-USD"));
+		List<BlockfactsChannelObject> channels = Arrays.asList(new BlockfactsChannelObject(characters.toString(), pairs), null, new BlockfactsChannelObject(null, null));
+		
+		BlockfactsSubscribeMessage message = new BlockfactsSubscribeMessage();
+		message.type = "subscribe";
+		message.snapshot = false;
+		message.id = "id&'>";
+		message.X_API_KEY = characters.toString();
+		message.X_API_SECRET = "secret";
+		message.channels = channels;
+		
+		byte[] expected = new Gson().toJson(message).getBytes(StandardCharsets.UTF_8);
+		Framedata frame = BlockfactsFrameWriter.Subscribe(false, message.id, message.X_API_KEY, message.X_API_SECRET, channels);
+		assertEquals(new String(expected, StandardCharsets.UTF_8), Payload(frame));
+		assertEquals(ByteBuffer.wrap(expected), frame.getPayloadData());
+	}
+	
+	private static String Payload(Framedata frame) {
+		ByteBuffer payload = frame.getPayloadData().duplicate();
+		byte[] bytes = new byte[payload.remaining()];
+		payload.get(bytes);
+		
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,139 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+import org.junit.Test;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsChannelObject;
+import blockfacts.io.blockfacts_java_sdk.v1.REST.BlockfactsApiException;
+import blockfacts.io.blockfacts_java_sdk.v1.REST.BlockfactsRestClient;
+import blockfacts.io.blockfacts_java_sdk.v1.REST.FakeHttpClient;
+
+public class BlockfactsGapFillerTest {
+	private static final long T = Instant.parse("2020-10-09T00:00:00Z").toEpochMilli();
+	private static final List<BlockfactsChannelObject> KRAKEN_BTC = Arrays.asList(new BlockfactsChannelObject("KRAKEN", new ArrayList<String>(Arrays.asList("BTC-USD"))));
+	
+	private final BlockfactsMessageDispatcher dispatcher = new BlockfactsMessageDispatcher();
+	private final List<String> delivered = new CopyOnWriteArrayList<String>();
+	
+	public BlockfactsGapFillerTest() {
+		dispatcher.AddTradeListener(trade -> delivered.add(trade.pair + ":" + trade.tradeId));
+	}
+	
+	@Test
+	public void FetchedTradesComeBeforeHeldOnesWithoutDuplicates() {
+		BlockfactsGapFiller gapFiller = Install(FakeHttpClient.Answering(200, Page(Trade("BTC-USD", "2", 2000), Trade("BTC-USD", "3", 3000), Trade("BTC-USD", "4", 5000))), null);
+		
+		dispatcher.Dispatch(Message("BTC-USD", "1", 1000));
+		dispatcher.Dispatch(Message("BTC-USD", "2", 2000));
+		gapFiller.Begin(KRAKEN_BTC);
+		dispatcher.Dispatch(Message("BTC-USD", "4", 5000));
+		dispatcher.Dispatch(Message("BTC-USD", "5", 6000));
+		assertEquals(Arrays.asList("BTC-USD:1", "BTC-USD:2"), delivered);
+		
+		gapFiller.Fill(KRAKEN_BTC, Instant.ofEpochMilli(T + 2500), Instant.ofEpochMilli(T + 4000));
+		dispatcher.Dispatch(Message("BTC-USD", "6", 7000));
+		
+		assertEquals(Arrays.asList("BTC-USD:1", "BTC-USD:2", "BTC-USD:3", "BTC-USD:4", "BTC-USD:5", "BTC-USD:6"), delivered);
+	}
+	
+	@Test
+	public void FailedFillIsReportedAndReleasesTheHeldTrades() {
+		AtomicReference<Exception> failure = new AtomicReference<Exception>();
+		AtomicReference<BlockfactsChannelObject> failedChannel = new AtomicReference<BlockfactsChannelObject>();
+		BlockfactsGapFiller gapFiller = Install(FakeHttpClient.Answering(500, "Internal error"), (channel, e) -> {
+			failedChannel.set(channel);
+			failure.set(e);
+		});
+		
+		dispatcher.Dispatch(Message("BTC-USD", "1", 1000));
+		gapFiller.Begin(KRAKEN_BTC);
+		dispatcher.Dispatch(Message("BTC-USD", "2", 5000));
+		gapFiller.Fill(KRAKEN_BTC, Instant.ofEpochMilli(T + 2000), Instant.ofEpochMilli(T + 4000));
+		
+		assertEquals(Arrays.asList("BTC-USD:1", "BTC-USD:2"), delivered);
+		assertTrue("Failed with " + failure.get(), failure.get() instanceof BlockfactsApiException);
+		assertEquals("KRAKEN", failedChannel.get().exchangeName);
+		assertEquals(Arrays.asList("BTC-USD"), failedChannel.get().pairs);
+	}
+	
+	@Test
+	public void ChannelNamesAreMatchedIgnoringCase() {
+		List<BlockfactsChannelObject> channels = Arrays.asList(new BlockfactsChannelObject("kraken", new ArrayList<String>(Arrays.asList("btc-usd"))));
+		BlockfactsGapFiller gapFiller = Install(FakeHttpClient.Answering(200, Page(Trade("BTC-USD", "2", 2000))), null);
+		
+		dispatcher.Dispatch(Message("BTC-USD", "1", 1000));
+		gapFiller.Begin(channels);
+		dispatcher.Dispatch(Message("BTC-USD", "3", 5000));
+		assertEquals(Arrays.asList("BTC-USD:1"), delivered);
+		
+		gapFiller.Fill(channels, Instant.ofEpochMilli(T + 1500), Instant.ofEpochMilli(T + 4000));
+		dispatcher.Dispatch(Message("BTC-USD", "4", 6000));
+		
+		assertEquals(Arrays.asList("BTC-USD:1", "BTC-USD:2", "BTC-USD:3", "BTC-USD:4"), delivered);
+	}
+	
+	@Test
+	public void OtherPairsAreNotBlockedWhileAGapIsFilled() throws Exception {
+		CompletableFuture<FakeHttpClient.Response> response = new CompletableFuture<FakeHttpClient.Response>();
+		BlockfactsGapFiller gapFiller = Install(new FakeHttpClient(request -> response), null);
+		
+		gapFiller.Begin(KRAKEN_BTC);
+		CompletableFuture<Void> fill = CompletableFuture.runAsync(() -> gapFiller.Fill(KRAKEN_BTC, Instant.ofEpochMilli(T), Instant.ofEpochMilli(T + 4000)));
+		
+		// The fill is waiting for its REST response, live trades of other pairs still go straight through
+		dispatcher.Dispatch(Message("ETH-USD", "1", 1000));
+		dispatcher.Dispatch(Message("BTC-USD", "9", 5000));
+		assertEquals(Arrays.asList("ETH-USD:1"), delivered);
+		
+		response.complete(new FakeHttpClient.Response(200, Page(Trade("BTC-USD", "8", 3000))));
+		fill.get(10, TimeUnit.SECONDS);
+		
+		assertEquals(Arrays.asList("ETH-USD:1", "BTC-USD:8", "BTC-USD:9"), delivered);
+	}
+	
+	@Test
+	public void HeldTradesAreBoundedAndTheOverflowIsReported() {
+		AtomicReference<Exception> failure = new AtomicReference<Exception>();
+		BlockfactsGapFiller gapFiller = Install(FakeHttpClient.Answering(200, Page()), (channel, e) -> failure.set(e));
+		
+		gapFiller.Begin(KRAKEN_BTC);
+		for(int i = 0; i < BlockfactsGapFiller.MAX_HELD_TRADES + 10; i++) {
+			dispatcher.Dispatch(Message("BTC-USD", String.valueOf(i), 5000 + i));
+		}
+		gapFiller.Fill(KRAKEN_BTC, Instant.ofEpochMilli(T), Instant.ofEpochMilli(T + 4000));
+		
+		assertEquals(BlockfactsGapFiller.MAX_HELD_TRADES, delivered.size());
+		assertTrue(failure.get() instanceof IllegalStateException);
+	}
+	
+	private BlockfactsGapFiller Install(FakeHttpClient http, BiConsumer<BlockfactsChannelObject, Exception> failureListener) {
+		BlockfactsRestClient client = BlockfactsRestClient.NewBuilder("key", "secret").SetHttpClient(http).Build();
+		return BlockfactsGapFiller.Install(dispatcher, client.Exchanges, failureListener);
+	}
+	
+	private static String Message(String pair, String tradeId, long offsetMillis) {
+		return "{\"type\":\"exchangeTrade\"," + Trade(pair, tradeId, offsetMillis).substring(1);
+	}
+	
+	private static String Trade(String pair, String tradeId, long offsetMillis) {
+		long time = T + offsetMillis;
+		return "{\"exchange\":\"KRAKEN\",\"pair\":\"" + pair + "\",\"price\":11000,\"tradeSize\":1,\"makerTaker\":\"BUY\",\"tradeId\":\"" + tradeId
+				+ "\",\"exchangeTime\":\"" + time + "\",\"blockfactsTime\":" + time + ",\"epochExchangeTime\":" + time + "}";
+	}
+	
+	private static String Page(String... trades) {
+		return "{\"page\":1,\"totalPages\":1,\"results\":[" + String.join(",", trades) + "]}";
+	}
+}
@@ -0,0 +1,114 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsChannelObject;
+
+/**
+ * Stale connection detection against a server which never answers pings.
+ */
+public class BlockfactsHeartbeatTest {
+	private FakeWebSocketServer server;
+	private BlockfactsHeartbeat heartbeat;
+	
+	@Before
+	public void StartServer() throws Exception {
+		server = FakeWebSocketServer.Start();
+	}
+	
+	@After
+	public void StopServer() throws Exception {
+		if(heartbeat != null) heartbeat.close();
+		server.close();
+	}
+	
+	@Test
+	public void UnansweredPingIsSentAgainWhileMessagesArrive() throws Exception {
+		BlockfactsWebSocketClient client = Client();
+		ScheduledExecutorService traffic = Executors.newSingleThreadScheduledExecutor();
+		traffic.scheduleAtFixedRate(() -> server.broadcast("{\"type\":\"heartbeat\"}"), 0, 20, TimeUnit.MILLISECONDS);
+		
+		try {
+			heartbeat = new BlockfactsHeartbeat(client).SetInterval(Duration.ofMillis(50)).SetStaleTimeout(Duration.ofMillis(150)).Start();
+			
+			AwaitPings(3);
+			assertTrue(client.isOpen());
+			assertEquals(0, heartbeat.GetStaleReconnects());
+		} finally {
+			traffic.shutdownNow();
+			client.close();
+		}
+	}
+	
+	@Test
+	public void StalePlainClientIsClosedAndNotReconnectedWithoutItsSubscriptions() throws Exception {
+		BlockfactsWebSocketClient client = Client();
+		heartbeat = new BlockfactsHeartbeat(client).SetInterval(Duration.ofMillis(50)).SetStaleTimeout(Duration.ofMillis(150)).Start();
+		
+		Await(() -> heartbeat.GetStaleReconnects() == 1, "Stale connection was not detected");
+		Await(() -> server.getConnections().isEmpty(), "Stale connection was not closed");
+		
+		Thread.sleep(300);
+		assertFalse(client.isOpen());
+		assertTrue(server.getConnections().isEmpty());
+		assertEquals(1, heartbeat.GetStaleReconnects());
+	}
+	
+	@Test
+	public void StaleManagedConnectionIsReconnectedAndResubscribed() throws Exception {
+		BlockfactsManagedConnection connection = new BlockfactsManagedConnection(server.GetUri(), "key", "secret", new BlockfactsMessageDispatcher());
+		connection.SetBackoff(Duration.ofMillis(10), Duration.ofMillis(50));
+		connection.Subscribe(Arrays.asList(new BlockfactsChannelObject("KRAKEN", new ArrayList<String>(Arrays.asList("BTC-USD")))), false, null);
+		connection.Connect();
+		
+		try {
+			assertEquals("subscribe [{\"name\":\"KRAKEN\",\"pairs\":[\"BTC-USD\"]}]", server.NextChannels());
+			heartbeat = new BlockfactsHeartbeat(connection).SetInterval(Duration.ofMillis(50)).SetStaleTimeout(Duration.ofMillis(150)).Start();
+			
+			assertEquals("subscribe [{\"name\":\"KRAKEN\",\"pairs\":[\"BTC-USD\"]}]", server.NextChannels());
+			assertTrue(heartbeat.GetStaleReconnects() >= 1);
+			assertTrue(connection.GetReconnects() >= 1);
+		} finally {
+			connection.close();
+		}
+	}
+	
+	private BlockfactsWebSocketClient Client() throws InterruptedException {
+		BlockfactsWebSocketClient client = new BlockfactsWebSocketClient(server.GetUri());
+		client.dispatcher.AddMessageListener("heartbeat", message -> {});
+		if(!client.connectBlocking(10, TimeUnit.SECONDS)) fail("Client did not connect");
+		
+		return client;
+	}
+	
+	private void AwaitPings(int count) throws InterruptedException {
+		for(int pings = 0; pings < count;) {
+			String message = server.received.poll(10, TimeUnit.SECONDS);
+			if(message == null) fail("Only " + pings + " pings were sent");
+			if(message.contains("\"ping\"")) pings++;
+		}
+	}
+	
+	private static void Await(BooleanSupplier condition, String failure) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while(!condition.getAsBoolean()) {
+			if(System.nanoTime() > deadline) fail(failure);
+			Thread.sleep(10);
+		}
+	}
+}
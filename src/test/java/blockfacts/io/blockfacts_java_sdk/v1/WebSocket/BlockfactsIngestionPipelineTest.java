@@ -0,0 +1,153 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * What each overflow policy does once a consumer falls behind, and the per pair ordering across consumers.
+ */
+public class BlockfactsIngestionPipelineTest {
+	private final BlockfactsMessageDispatcher dispatcher = new BlockfactsMessageDispatcher();
+	private final List<String> delivered = new CopyOnWriteArrayList<String>();
+	private final CountDownLatch consuming = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+	private BlockfactsIngestionPipeline pipeline;
+	
+	public BlockfactsIngestionPipelineTest() {
+		// The consumer stalls on the first message until released, so the following ones pile up
+		dispatcher.AddTradeListener(trade -> {
+			delivered.add(trade.pair + ":" + trade.tradeId);
+			consuming.countDown();
+			Await(release);
+		});
+	}
+	
+	@After
+	public void Close() {
+		release.countDown();
+		if(pipeline != null) pipeline.close();
+	}
+	
+	@Test
+	public void BlockWaitsForFreeSpaceWithoutLosingMessages() throws Exception {
+		pipeline = new BlockfactsIngestionPipeline(dispatcher, 4, BlockfactsOverflowPolicy.BLOCK, 1).Start();
+		Stall();
+		
+		CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> {
+			for(int i = 2; i <= 20; i++) {
+				pipeline.Publish(Trade("BTC-USD", i));
+			}
+		});
+		
+		Thread.sleep(100);
+		assertTrue("The producer waits while the ring is full", !producer.isDone());
+		assertEquals(4, pipeline.GetDepth());
+		
+		release.countDown();
+		producer.get(10, TimeUnit.SECONDS);
+		pipeline.close();
+		
+		assertEquals(20, delivered.size());
+		assertEquals("BTC-USD:20", delivered.get(19));
+		assertEquals(0, pipeline.GetDropped());
+		assertEquals(20, pipeline.GetPublished());
+	}
+	
+	@Test
+	public void DropOldestKeepsTheNewestMessages() throws Exception {
+		pipeline = new BlockfactsIngestionPipeline(dispatcher, 4, BlockfactsOverflowPolicy.DROP_OLDEST, 1).Start();
+		Stall();
+		
+		for(int i = 2; i <= 11; i++) {
+			pipeline.Publish(Trade("BTC-USD", i));
+		}
+		assertEquals(4, pipeline.GetDepth());
+		
+		release.countDown();
+		pipeline.close();
+		
+		assertEquals(Arrays.asList("BTC-USD:1", "BTC-USD:8", "BTC-USD:9", "BTC-USD:10", "BTC-USD:11"), delivered);
+		assertEquals(6, pipeline.GetDropped());
+	}
+	
+	@Test
+	public void ConflationKeepsTheLatestMessageOfEachPair() throws Exception {
+		pipeline = new BlockfactsIngestionPipeline(dispatcher, 4, BlockfactsOverflowPolicy.CONFLATE_PER_PAIR, 1).Start();
+		List<String> heartbeats = new CopyOnWriteArrayList<String>();
+		dispatcher.AddMessageListener("heartbeat", heartbeats::add);
+		Stall();
+		
+		pipeline.Publish(Trade("BTC-USD", 2));
+		pipeline.Publish(Trade("ETH-USD", 3));
+		pipeline.Publish("{\"type\":\"heartbeat\"}");
+		pipeline.Publish(Trade("BTC-USD", 4));
+		pipeline.Publish(Trade("ETH-USD", 5));
+		pipeline.Publish(Trade("BTC-USD", 6));
+		assertEquals(3, pipeline.GetDepth());
+		
+		release.countDown();
+		pipeline.close();
+		
+		assertEquals(Arrays.asList("BTC-USD:1", "BTC-USD:6", "ETH-USD:5"), delivered);
+		assertEquals(1, heartbeats.size());
+		assertEquals(3, pipeline.GetConflated());
+		assertEquals(0, pipeline.GetDropped());
+	}
+	
+	@Test
+	public void MessagesOfAPairStayInOrderAcrossConsumers() throws Exception {
+		BlockfactsMessageDispatcher dispatcher = new BlockfactsMessageDispatcher();
+		Map<String, List<Integer>> received = new ConcurrentHashMap<String, List<Integer>>();
+		dispatcher.AddTradeListener(trade -> received.computeIfAbsent(trade.pair, pair -> new ArrayList<Integer>()).add(Integer.valueOf(trade.tradeId)));
+		pipeline = new BlockfactsIngestionPipeline(dispatcher, 64, BlockfactsOverflowPolicy.BLOCK, 4).Start();
+		
+		String[] pairs = { "BTC-USD", "ETH-USD", "LTC-USD", "XRP-USD", "ADA-USD", "BTC-EUR", "ETH-EUR", "DOT-USD" };
+		for(int i = 0; i < 20000; i++) {
+			pipeline.Publish(Trade(pairs[i % pairs.length], i));
+		}
+		pipeline.close();
+		
+		assertEquals(pairs.length, received.size());
+		for(String pair : pairs) {
+			List<Integer> ids = received.get(pair);
+			assertEquals(20000 / pairs.length, ids.size());
+			for(int i = 1; i < ids.size(); i++) {
+				assertTrue(pair + " out of order", ids.get(i) > ids.get(i - 1));
+			}
+		}
+	}
+	
+	/**
+	 * Publishes the first message and waits until the consumer is stuck dispatching it.
+	 */
+	private void Stall() {
+		pipeline.Publish(Trade("BTC-USD", 1));
+		assertTrue(Await(consuming));
+	}
+	
+	private static boolean Await(CountDownLatch latch) {
+		try {
+			return latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+	
+	private static String Trade(String pair, int tradeId) {
+		return "{\"type\":\"exchangeTrade\",\"exchange\":\"KRAKEN\",\"pair\":\"" + pair + "\",\"price\":11000,\"tradeSize\":1,\"tradeId\":\"" + tradeId + "\"}";
+	}
+}
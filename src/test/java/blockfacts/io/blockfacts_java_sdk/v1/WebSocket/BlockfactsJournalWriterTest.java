@@ -0,0 +1,97 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BlockfactsJournalWriterTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void QueuedMessagesAreWrittenInOrderWhenClosed() throws Exception {
+		Path directory = folder.getRoot().toPath();
+		BlockfactsJournalWriter writer = new BlockfactsJournalWriter(directory, "trades").SetMaxFileBytes(4096);
+		List<String> messages = new ArrayList<String>();
+		for(int i = 0; i < 1000; i++) {
+			messages.add("{\"type\":\"exchangeTrade\",\"tradeId\":\"" + i + "\",\"pair\":\"BTC-€\"}");
+			writer.Record(messages.get(i));
+		}
+		writer.close();
+		writer.Record("after close");
+		
+		assertEquals(1000, writer.GetRecorded());
+		assertEquals(0, writer.GetDropped());
+		assertEquals(messages, Read(directory));
+	}
+	
+	@Test
+	public void FlushWaitsForTheQueuedMessages() throws Exception {
+		BlockfactsJournalWriter writer = new BlockfactsJournalWriter(folder.getRoot().toPath(), "trades");
+		try {
+			for(int i = 0; i < 100; i++) {
+				writer.Record("{\"type\":\"ping\"}");
+			}
+			writer.Flush();
+			
+			assertEquals(100, writer.GetRecorded());
+		} finally {
+			writer.close();
+		}
+	}
+	
+	@Test
+	public void NullMessagesAreIgnored() throws Exception {
+		Path directory = folder.getRoot().toPath();
+		BlockfactsJournalWriter writer = new BlockfactsJournalWriter(directory, "trades");
+		writer.Record("first");
+		writer.Record(null);
+		writer.Record("second");
+		writer.Flush();
+		writer.Record("third");
+		writer.close();
+		
+		assertEquals(3, writer.GetRecorded());
+		assertEquals(Arrays.asList("first", "second", "third"), Read(directory));
+	}
+	
+	@Test
+	public void MessagesBeyondTheQueueCapacityAreDroppedAndCounted() throws Exception {
+		Path directory = folder.getRoot().toPath();
+		BlockfactsJournalWriter writer = new BlockfactsJournalWriter(directory, "trades", 1);
+		int total = 200_000;
+		for(int i = 0; i < total; i++) {
+			writer.Record(String.valueOf(i));
+		}
+		writer.close();
+		
+		List<String> written = Read(directory);
+		assertTrue("Nothing was dropped", writer.GetDropped() > 0);
+		assertEquals(total, writer.GetRecorded() + writer.GetDropped());
+		assertEquals(writer.GetRecorded(), written.size());
+		
+		// Dropping skips messages but never reorders them
+		for(int i = 1; i < written.size(); i++) {
+			assertTrue(Integer.parseInt(written.get(i)) > Integer.parseInt(written.get(i - 1)));
+		}
+	}
+	
+	private static List<String> Read(Path journal) throws Exception {
+		List<String> messages = new ArrayList<String>();
+		try (BlockfactsJournalReader reader = new BlockfactsJournalReader(journal)) {
+			while(reader.Next()) {
+				messages.add(reader.GetMessage());
+			}
+		}
+		
+		return messages;
+	}
+}
@@ -0,0 +1,132 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import blockfacts.io.blockfacts_java_sdk.v1.Models.BlockfactsChannelObject;
+
+/**
+ * Subscription changes made with Add, Remove and SetDesired, and the messages they are sent in.
+ */
+public class BlockfactsManagedConnectionTest {
+	private FakeWebSocketServer server;
+	private BlockfactsManagedConnection connection;
+	
+	@Before
+	public void Connect() throws Exception {
+		server = FakeWebSocketServer.Start();
+		connection = new BlockfactsManagedConnection(server.GetUri(), "key", "secret", new BlockfactsMessageDispatcher());
+		connection.SetUpdateLimits(Duration.ofMillis(100), 1000, 2);
+		connection.Connect();
+		
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while(!connection.IsOpen()) {
+			if(System.nanoTime() > deadline) fail("Connection did not open");
+			Thread.sleep(10);
+		}
+	}
+	
+	@After
+	public void Close() throws Exception {
+		connection.close();
+		server.close();
+	}
+	
+	@Test
+	public void ChangesAreBatchedUpToThePairLimitWithAddsFirst() throws Exception {
+		connection.Add(Channels(Channel("KRAKEN", "BTC-USD", "ETH-USD")));
+		assertEquals("subscribe [{\"name\":\"KRAKEN\",\"pairs\":[\"BTC-USD\",\"ETH-USD\"]}]", server.NextChannels());
+		
+		// Changes within the update delay are sent together, a pair added and removed again is not sent at all
+		connection.Remove(Channels(Channel("KRAKEN", "ETH-USD")));
+		connection.Add(Channels(Channel("KRAKEN", "LTC-USD", "XRP-USD", "ADA-USD"), Channel("COINBASE", "BTC-USD")));
+		connection.Remove(Channels(Channel("KRAKEN", "XRP-USD")));
+		
+		assertEquals("subscribe [{\"name\":\"KRAKEN\",\"pairs\":[\"LTC-USD\",\"ADA-USD\"]}]", server.NextChannels());
+		assertEquals("subscribe [{\"name\":\"COINBASE\",\"pairs\":[\"BTC-USD\"]}]", server.NextChannels());
+		assertEquals("unsubscribe [{\"name\":\"KRAKEN\",\"pairs\":[\"ETH-USD\"]}]", server.NextChannels());
+		assertEquals("[KRAKEN [BTC-USD, LTC-USD, ADA-USD], COINBASE [BTC-USD]]", Subscriptions());
+	}
+	
+	@Test
+	public void SetDesiredSendsOnlyTheDifference() throws Exception {
+		connection.Add(Channels(Channel("KRAKEN", "BTC-USD", "ETH-USD")));
+		server.NextChannels();
+		
+		connection.SetDesired(Channels(Channel("KRAKEN", "ETH-USD", "LTC-USD")));
+		
+		assertEquals("subscribe [{\"name\":\"KRAKEN\",\"pairs\":[\"LTC-USD\"]}]", server.NextChannels());
+		assertEquals("unsubscribe [{\"name\":\"KRAKEN\",\"pairs\":[\"BTC-USD\"]}]", server.NextChannels());
+		assertEquals("[KRAKEN [ETH-USD, LTC-USD]]", Subscriptions());
+	}
+	
+	@Test
+	public void AddingTheWholeChannelReplacesItsPairs() throws Exception {
+		connection.Add(Channels(Channel("KRAKEN", "BTC-USD", "ETH-USD")));
+		server.NextChannels();
+		
+		connection.Add(Channels(new BlockfactsChannelObject("KRAKEN", null)));
+		
+		assertEquals("subscribe [{\"name\":\"KRAKEN\"}]", server.NextChannels());
+		assertEquals("unsubscribe [{\"name\":\"KRAKEN\",\"pairs\":[\"BTC-USD\",\"ETH-USD\"]}]", server.NextChannels());
+		assertEquals("[KRAKEN null]", Subscriptions());
+	}
+	
+	@Test
+	public void AddingPairsOfASubscribedWholeChannelChangesNothing() throws Exception {
+		connection.Add(Channels(new BlockfactsChannelObject("KRAKEN", null)));
+		server.NextChannels();
+		
+		connection.Add(Channels(Channel("KRAKEN", "BTC-USD"), Channel("COINBASE", "BTC-USD")));
+		
+		assertEquals("subscribe [{\"name\":\"COINBASE\",\"pairs\":[\"BTC-USD\"]}]", server.NextChannels());
+		assertEquals("[KRAKEN null, COINBASE [BTC-USD]]", Subscriptions());
+	}
+	
+	@Test
+	public void RemovingPairsOfAWholeChannelIsRejected() throws Exception {
+		connection.Add(Channels(new BlockfactsChannelObject("KRAKEN", null), Channel("COINBASE", "BTC-USD")));
+		server.NextChannels();
+		
+		try {
+			connection.Remove(Channels(Channel("COINBASE", "BTC-USD"), Channel("KRAKEN", "BTC-USD")));
+			fail("Removing pairs of a whole channel was accepted");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+		assertEquals("Nothing is changed", "[KRAKEN null, COINBASE [BTC-USD]]", Subscriptions());
+		
+		connection.Remove(Channels(new BlockfactsChannelObject("KRAKEN", null)));
+		assertEquals("unsubscribe [{\"name\":\"KRAKEN\"}]", server.NextChannels());
+		assertTrue(server.received.isEmpty());
+		assertEquals("[COINBASE [BTC-USD]]", Subscriptions());
+	}
+	
+	private String Subscriptions() {
+		List<String> subscriptions = new ArrayList<String>();
+		for(BlockfactsChannelObject channel : connection.GetSubscriptions()) {
+			subscriptions.add(channel.exchangeName + " " + channel.pairs);
+		}
+		
+		return subscriptions.toString();
+	}
+	
+	private static BlockfactsChannelObject Channel(String exchange, String... pairs) {
+		return new BlockfactsChannelObject(exchange, new ArrayList<String>(Arrays.asList(pairs)));
+	}
+	
+	private static List<BlockfactsChannelObject> Channels(BlockfactsChannelObject... channels) {
+		return Arrays.asList(channels);
+	}
+}
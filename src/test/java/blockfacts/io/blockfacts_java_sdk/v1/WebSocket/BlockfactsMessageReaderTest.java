@@ -0,0 +1,87 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.google.gson.JsonSyntaxException;
+
+/**
+ * Finding the message type without parsing, and how truncated or malformed frames are reported.
+ */
+public class BlockfactsMessageReaderTest {
+	private static final String TRADE = "{\"type\":\"exchangeTrade\",\"exchange\":\"KRAKEN\",\"pair\":\"BTC-USD\",\"price\":11000.5,\"tradeSize\":0.25,"
+			+ "\"makerTaker\":\"BUY\",\"tradeId\":\"a\\\"b\\u0041\",\"exchangeTime\":\"1602201600000\",\"blockfactsTime\":1602201600001,\"epochExchangeTime\":1602201600000}";
+	private static final String PRICE = "{\"type\":\"blockfactsPrice\",\"exchange\":\"BLOCKFACTS\",\"pair\":\"BTC-USD\",\"price\":11000,"
+			+ "\"included\":[{\"exchange\":\"KRAKEN\",\"pair\":\"BTC-USD\",\"price\":11000,\"tradeSize\":1}],\"excluded\":[],\"timestamp\":1602201600000,\"algorithm\":\"BLOCKFACTS\"}";
+	
+	@Test
+	public void OnlyTheTopLevelTypeIsMatched() {
+		assertEquals("exchangeTrade", Type("{\"data\":{\"type\":\"blockfactsPrice\"},\"type\":\"exchangeTrade\"}"));
+		assertEquals("exchangeTrade", Type("{\"list\":[{\"type\":\"x\"},\"type\"],\"note\":\"\\\"type\\\":\\\"y\\\" {[\",\"type\" : \"exchangeTrade\"}"));
+		assertEquals(null, Type("{\"data\":{\"type\":\"exchangeTrade\"}}"));
+		assertEquals(null, Type("{\"types\":\"exchangeTrade\",\"type\":1}"));
+		assertEquals(null, Type("[{\"type\":\"exchangeTrade\"}]"));
+		
+		BlockfactsMessageDispatcher dispatcher = new BlockfactsMessageDispatcher();
+		List<String> pairs = new ArrayList<String>();
+		dispatcher.AddTradeListener(trade -> pairs.add(trade.pair));
+		
+		assertEquals(false, dispatcher.Dispatch("{\"event\":\"subscribed\",\"details\":{\"type\":\"exchangeTrade\",\"pair\":\"BTC-USD\"}}"));
+		assertEquals(true, dispatcher.Dispatch(TRADE));
+		assertEquals("[BTC-USD]", pairs.toString());
+	}
+	
+	@Test
+	public void TruncatedFramesAreReportedAsJsonSyntaxException() {
+		BlockfactsMessageDispatcher dispatcher = Dispatcher();
+		for(String message : new String[] { TRADE, PRICE }) {
+			for(int length = 0; length < message.length(); length++) {
+				DispatchMalformed(dispatcher, message.substring(0, length));
+			}
+		}
+	}
+	
+	@Test
+	public void CorruptedFramesAreReportedAsJsonSyntaxException() {
+		BlockfactsMessageDispatcher dispatcher = Dispatcher();
+		String replacements = "{}[]\",:\\u0 -.e";
+		Random random = new Random(42);
+		
+		for(int i = 0; i < 20000; i++) {
+			char[] message = (i % 2 == 0 ? TRADE : PRICE).toCharArray();
+			for(int changes = 1 + random.nextInt(3); changes > 0; changes--) {
+				message[random.nextInt(message.length)] = replacements.charAt(random.nextInt(replacements.length()));
+			}
+			DispatchMalformed(dispatcher, new String(message));
+		}
+	}
+	
+	private static BlockfactsMessageDispatcher Dispatcher() {
+		BlockfactsMessageDispatcher dispatcher = new BlockfactsMessageDispatcher();
+		dispatcher.AddTradeListener(trade -> { });
+		dispatcher.AddNormalizationListener(normalization -> { });
+		return dispatcher;
+	}
+	
+	private static void DispatchMalformed(BlockfactsMessageDispatcher dispatcher, String message) {
+		try {
+			dispatcher.Dispatch(message);
+		} catch (JsonSyntaxException e) {
+			// Expected for frames which claim a data type
+		} catch (RuntimeException e) {
+			throw new AssertionError("Frame " + message + " failed with " + e, e);
+		}
+	}
+	
+	private static String Type(String message) {
+		int start = BlockfactsMessageReader.TypeStart(message);
+		assertTrue(start < message.length());
+		return start < 0 ? null : message.substring(start, BlockfactsMessageReader.ValueEnd(message, start));
+	}
+}
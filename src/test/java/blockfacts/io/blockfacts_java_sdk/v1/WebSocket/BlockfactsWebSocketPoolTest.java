@@ -0,0 +1,41 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * How whole channels and single pairs of the same exchange are combined on one connection.
+ */
+public class BlockfactsWebSocketPoolTest {
+	@Test
+	public void WholeChannelCoversThePairsOfItsExchangeInEitherOrder() {
+		List<Map<String, ArrayList<String>>> shards = new ArrayList<Map<String, ArrayList<String>>>();
+		shards.add(new LinkedHashMap<String, ArrayList<String>>());
+		
+		BlockfactsWebSocketPool.Add(shards, 0, "KRAKEN", null);
+		BlockfactsWebSocketPool.Add(shards, 0, "KRAKEN", "BTC-USD");
+		BlockfactsWebSocketPool.Add(shards, 0, "COINBASE", "BTC-USD");
+		BlockfactsWebSocketPool.Add(shards, 0, "COINBASE", "ETH-USD");
+		BlockfactsWebSocketPool.Add(shards, 0, "COINBASE", null);
+		BlockfactsWebSocketPool.Add(shards, 0, "COINBASE", "LTC-USD");
+		BlockfactsWebSocketPool.Add(shards, 0, "BITSTAMP", "BTC-USD");
+		BlockfactsWebSocketPool.Add(shards, 0, "BITSTAMP", "ETH-USD");
+		
+		Map<String, ArrayList<String>> shard = shards.get(0);
+		assertEquals(3, shard.size());
+		assertTrue(shard.containsKey("KRAKEN"));
+		assertNull(shard.get("KRAKEN"));
+		assertTrue(shard.containsKey("COINBASE"));
+		assertNull(shard.get("COINBASE"));
+		assertEquals(Arrays.asList("BTC-USD", "ETH-USD"), shard.get("BITSTAMP"));
+	}
+}
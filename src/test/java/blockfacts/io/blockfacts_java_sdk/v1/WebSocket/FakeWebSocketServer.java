@@ -0,0 +1,80 @@
+package blockfacts.io.blockfacts_java_sdk.v1.WebSocket;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Local WebSocket server which records the messages the clients send, and can send messages to them.
+ */
+final class FakeWebSocketServer extends WebSocketServer implements AutoCloseable {
+	final LinkedBlockingQueue<String> received = new LinkedBlockingQueue<String>();
+	private final CountDownLatch started = new CountDownLatch(1);
+	
+	private FakeWebSocketServer() {
+		super(new InetSocketAddress("localhost", 0));
+		setReuseAddr(true);
+	}
+	
+	static FakeWebSocketServer Start() throws InterruptedException {
+		FakeWebSocketServer server = new FakeWebSocketServer();
+		server.start();
+		if(!server.started.await(10, TimeUnit.SECONDS)) throw new IllegalStateException("Server did not start");
+		
+		return server;
+	}
+	
+	URI GetUri() {
+		return URI.create("ws://localhost:" + getPort() + "/");
+	}
+	
+	/**
+	 * Waits for the next subscribe or unsubscribe message of a client, skipping pings and pongs,
+	 * and returns its type and channels, e.g. subscribe [{"name":"KRAKEN"}].
+	 */
+	String NextChannels() throws InterruptedException {
+		for(;;) {
+			String message = received.poll(10, TimeUnit.SECONDS);
+			if(message == null) throw new AssertionError("No message received");
+			
+			JsonObject json = new JsonParser().parse(message).getAsJsonObject();
+			if(json.has("channels")) return json.get("type").getAsString() + " " + json.get("channels");
+		}
+	}
+	
+	@Override
+	public void onStart() {
+		started.countDown();
+	}
+	
+	@Override
+	public void onOpen(WebSocket conn, ClientHandshake handshake) {
+	}
+	
+	@Override
+	public void onMessage(WebSocket conn, String message) {
+		received.add(message);
+	}
+	
+	@Override
+	public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+	}
+	
+	@Override
+	public void onError(WebSocket conn, Exception ex) {
+	}
+	
+	@Override
+	public void close() throws InterruptedException {
+		stop(1000);
+	}
+}